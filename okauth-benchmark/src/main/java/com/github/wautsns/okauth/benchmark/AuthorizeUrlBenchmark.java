@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.benchmark;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.client.builtin.wechatofficialaccount.WechatOfficialAccountOAuth2AppInfo;
+import com.github.wautsns.okauth.core.client.builtin.wechatofficialaccount.WechatOfficialAccountOAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.TokenRefreshableOAuth2Client.TokenRefreshCallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for initializing authorize url string.
+ *
+ * <p>Run with {@code -prof gc} to see allocation per operation.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizeUrlBenchmark {
+
+    private WechatOfficialAccountOAuth2Client client;
+    private String state;
+
+    @Setup
+    public void setup() {
+        WechatOfficialAccountOAuth2AppInfo appInfo = new WechatOfficialAccountOAuth2AppInfo()
+                .setUniqueIdentifier("wx520c15f417810387")
+                .setAppSecret("secret")
+                .setRedirectUri("https://example.com/api/cmd/oauth2/handle-authorize-callback/wechat_official_account");
+        OAuth2HttpClient httpClient = request -> { throw new UnsupportedOperationException(); };
+        client = new WechatOfficialAccountOAuth2Client(appInfo, httpClient, TokenRefreshCallback.IGNORE);
+        state = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String initAuthorizeUrlToString() {
+        return client.initAuthorizeUrl(state).toString();
+    }
+
+    @Benchmark
+    public String initAuthorizeUrlString() {
+        return client.initAuthorizeUrlString(state);
+    }
+
+}
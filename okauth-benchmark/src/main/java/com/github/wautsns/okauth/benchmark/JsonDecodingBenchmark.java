@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.benchmark;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonProjection;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for decoding json response as user(or projecting only the id).
+ *
+ * <p>Run with {@code -prof gc} to see allocation per operation.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodingBenchmark {
+
+    private byte[] json;
+    private OAuth2JsonProjection projection;
+
+    @Setup
+    public void setup() {
+        String prefix = "https://api.github.com/users/wautsns";
+        json = ("{\"login\":\"wautsns\",\"id\":39336604,\"node_id\":\"MDQ6VXNlcjM5MzM2NjA0\","
+                + "\"avatar_url\":\"https://avatars2.githubusercontent.com/u/39336604?v=4\",\"gravatar_id\":\"\","
+                + "\"url\":\"" + prefix + "\",\"html_url\":\"https://github.com/wautsns\","
+                + "\"followers_url\":\"" + prefix + "/followers\","
+                + "\"following_url\":\"" + prefix + "/following{/other_user}\","
+                + "\"gists_url\":\"" + prefix + "/gists{/gist_id}\","
+                + "\"starred_url\":\"" + prefix + "/starred{/owner}{/repo}\","
+                + "\"subscriptions_url\":\"" + prefix + "/subscriptions\","
+                + "\"organizations_url\":\"" + prefix + "/orgs\",\"repos_url\":\"" + prefix + "/repos\","
+                + "\"events_url\":\"" + prefix + "/events{/privacy}\","
+                + "\"received_events_url\":\"" + prefix + "/received_events\",\"type\":\"User\","
+                + "\"site_admin\":false,\"name\":\"wautsns\",\"company\":null,\"blog\":\"\",\"location\":null,"
+                + "\"email\":null,\"hireable\":null,\"bio\":null,\"public_repos\":8,\"public_gists\":0,"
+                + "\"followers\":0,\"following\":0,\"created_at\":\"2018-05-16T12:17:46Z\","
+                + "\"updated_at\":\"2020-05-22T10:44:23Z\"}").getBytes(StandardCharsets.UTF_8);
+        projection = OAuth2JsonProjection.of("id");
+    }
+
+    @Benchmark
+    public void readAsDataMap(Blackhole blackhole) throws IOException {
+        DataMap dataMap = ReadUtils.readJsonAsDataMap(json);
+        blackhole.consume(dataMap.getAsString("id"));
+        blackhole.consume(dataMap.getAsString("login"));
+        blackhole.consume(dataMap.getAsString("name"));
+        blackhole.consume(dataMap.getAsString("avatar_url"));
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException {
+        GitHubOAuth2User user = ReadUtils.readJson(json, GitHubOAuth2User::decode);
+        blackhole.consume(user.getId());
+        blackhole.consume(user.getLogin());
+        blackhole.consume(user.getName());
+        blackhole.consume(user.getAvatarUrl());
+    }
+
+    @Benchmark
+    public String project() throws IOException {
+        return ReadUtils.readJson(json, projection).getAsString("id");
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.benchmark;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.NameValuePairs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Benchmark for {@link NameValuePairs} against the former linked list implementation.
+ *
+ * <p>Run with {@code -prof gc} to see allocation per operation.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameValuePairsBenchmark {
+
+    /** Number of pairs in a typical request. */
+    @Param({"4", "8"})
+    private int pairs;
+
+    private String[] names;
+    private String[] values;
+    private NameValuePairs arrayPrototype;
+    private LinkedListNameValuePairs linkedListPrototype;
+
+    @Setup
+    public void setup() {
+        names = new String[pairs];
+        values = new String[pairs];
+        arrayPrototype = new NameValuePairs();
+        linkedListPrototype = new LinkedListNameValuePairs();
+        for (int i = 0; i < pairs; i++) {
+            names[i] = "name" + i;
+            values[i] = "value" + i;
+            arrayPrototype.add(names[i], values[i]);
+            linkedListPrototype.add(names[i], values[i]);
+        }
+    }
+
+    // #################### build and write #############################################
+
+    @Benchmark
+    public String buildAndWriteArray() {
+        NameValuePairs pairs = new NameValuePairs();
+        for (int i = 0; i < names.length; i++) { pairs.add(names[i], values[i]); }
+        StringBuilder text = new StringBuilder(128);
+        pairs.forEach((name, value) -> text.append(name).append('=').append(value).append('&'));
+        return text.toString();
+    }
+
+    @Benchmark
+    public String buildAndWriteLinkedList() {
+        LinkedListNameValuePairs pairs = new LinkedListNameValuePairs();
+        for (int i = 0; i < names.length; i++) { pairs.add(names[i], values[i]); }
+        StringBuilder text = new StringBuilder(128);
+        pairs.forEach((name, value) -> text.append(name).append('=').append(value).append('&'));
+        return text.toString();
+    }
+
+    // #################### copy and add ################################################
+
+    @Benchmark
+    public NameValuePairs copyAndAddArray() {
+        return arrayPrototype.copy().add("code", "value");
+    }
+
+    @Benchmark
+    public LinkedListNameValuePairs copyAndAddLinkedList() {
+        return linkedListPrototype.copy().add("code", "value");
+    }
+
+    // #################### set and remove ##############################################
+
+    @Benchmark
+    public NameValuePairs setAndRemoveArray() {
+        NameValuePairs copy = arrayPrototype.copy();
+        copy.set(names[names.length - 1], "value");
+        copy.remove(names[0]);
+        return copy;
+    }
+
+    @Benchmark
+    public LinkedListNameValuePairs setAndRemoveLinkedList() {
+        LinkedListNameValuePairs copy = linkedListPrototype.copy();
+        copy.set(names[names.length - 1], "value");
+        copy.remove(names[0]);
+        return copy;
+    }
+
+    // #################### baseline ####################################################
+
+    /** The former implementation, which stores names and values alternately in a linked list. */
+    public static class LinkedListNameValuePairs {
+
+        private final LinkedList<String> origin = new LinkedList<>();
+
+        public void forEach(BiConsumer<String, String> action) {
+            for (Iterator<String> iterator = origin.iterator(); iterator.hasNext(); ) {
+                action.accept(iterator.next(), iterator.next());
+            }
+        }
+
+        public LinkedListNameValuePairs add(String name, String value) {
+            if (value == null) { return this; }
+            origin.add(name);
+            origin.add(value);
+            return this;
+        }
+
+        public LinkedListNameValuePairs set(String name, String value) {
+            for (ListIterator<String> iterator = origin.listIterator(); iterator.hasNext(); ) {
+                String target = iterator.next();
+                iterator.next();
+                if (target.equals(name)) { iterator.set(value); }
+            }
+            return this;
+        }
+
+        public void remove(String name) {
+            for (Iterator<String> iterator = origin.iterator(); iterator.hasNext(); ) {
+                if (iterator.next().equals(name)) {
+                    iterator.remove();
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        }
+
+        public LinkedListNameValuePairs copy() {
+            LinkedListNameValuePairs copy = new LinkedListNameValuePairs();
+            copy.origin.addAll(this.origin);
+            return copy;
+        }
+
+    }
+
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.dns;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caching oauth2 dns resolver.
+ *
+ * <ul>
+ * <li>Resolved addresses are cached for {@code ttl}(can be specified per host).</li>
+ * <li>Once {@code refreshAheadFactor} of the ttl has elapsed, the next lookup returns the cached addresses and
+ * refreshes them in background, so that hosts in use are never resolved on the caller thread after the first
+ * lookup.</li>
+ * <li>After expiry, the expired addresses are served for at most {@code maxStale} while they are refreshed in
+ * background, so that a slow or failing dns server never blocks the caller thread for hosts in use. Only hosts never
+ * resolved or expired for longer than {@code maxStale} are resolved on the caller thread.</li>
+ * </ul>
+ *
+ * <p>Null properties are filled with {@linkplain CacheProperties#initDefault() default properties}.
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+public class CachingOAuth2DnsResolver implements OAuth2DnsResolver {
+
+    /** Delegate dns resolver. */
+    private final OAuth2DnsResolver delegate;
+    /** Executor for background refresh. */
+    private final Executor refreshExecutor;
+    /** Default ttl in nanos. */
+    private final long ttlNanos;
+    /** Ttl in nanos of the specified hosts(lower case). */
+    private final Map<String, Long> ttlNanosPerHost;
+    /** Refresh ahead factor. */
+    private final double refreshAheadFactor;
+    /** Max stale in nanos. */
+    private final long maxStaleNanos;
+    /** Cached entries, key is host(lower case). */
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    // ==================== metrics =====================================================
+
+    /** Number of lookups served from the cache. */
+    private final LongAdder hits = new LongAdder();
+    /** Number of lookups resolved on the caller thread. */
+    private final LongAdder misses = new LongAdder();
+    /** Number of lookups served with expired addresses. */
+    private final LongAdder staleHits = new LongAdder();
+    /** Number of background refreshes. */
+    private final LongAdder refreshes = new LongAdder();
+    /** Number of failed background refreshes. */
+    private final LongAdder refreshFailures = new LongAdder();
+
+    /** Construct a default {@code CachingOAuth2DnsResolver}. */
+    public CachingOAuth2DnsResolver() {
+        this(CacheProperties.initDefault());
+    }
+
+    /**
+     * Construct a {@code CachingOAuth2DnsResolver} backed by the system default dns resolver.
+     *
+     * @param props cache properties, may be {@code null}
+     */
+    public CachingOAuth2DnsResolver(CacheProperties props) {
+        this(props, OAuth2DnsResolver.SYSTEM, RefreshExecutorHolder.INSTANCE);
+    }
+
+    /**
+     * Construct a {@code CachingOAuth2DnsResolver}.
+     *
+     * @param props cache properties, may be {@code null}
+     * @param delegate delegate dns resolver
+     * @param refreshExecutor executor for background refresh
+     */
+    public CachingOAuth2DnsResolver(CacheProperties props, OAuth2DnsResolver delegate, Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.refreshExecutor = refreshExecutor;
+        CacheProperties filled = (props == null)
+                ? CacheProperties.initDefault()
+                : props.copy().fillNullProperties(CacheProperties.initDefault());
+        this.ttlNanos = filled.getTtl().toNanos();
+        this.ttlNanosPerHost = new HashMap<>();
+        if (filled.getTtlPerHost() != null) {
+            filled.getTtlPerHost().forEach((host, ttl) -> ttlNanosPerHost.put(normalize(host), ttl.toNanos()));
+        }
+        this.refreshAheadFactor = filled.getRefreshAheadFactor();
+        this.maxStaleNanos = filled.getMaxStale().toNanos();
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        String key = normalize(host);
+        Entry entry = cache.get(key);
+        long now = System.nanoTime();
+        if (entry == null || now - (entry.expireAt + maxStaleNanos) >= 0) {
+            misses.increment();
+            return lookup(key).addresses.clone();
+        }
+        if (now - entry.expireAt < 0) {
+            hits.increment();
+        } else {
+            staleHits.increment();
+        }
+        if (now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+            refreshInBackground(key, entry);
+        }
+        return entry.addresses.clone();
+    }
+
+    /**
+     * Get a snapshot of the metrics.
+     *
+     * @return metrics snapshot
+     */
+    public Metrics getMetrics() {
+        return new Metrics(
+                hits.sum(), misses.sum(), staleHits.sum(),
+                refreshes.sum(), refreshFailures.sum(), cache.size());
+    }
+
+    /** Remove all cached entries. */
+    public void clear() {
+        cache.clear();
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Resolve the host by the delegate and cache the result.
+     *
+     * @param host host(lower case)
+     * @return cached entry
+     * @throws UnknownHostException if the host cannot be resolved
+     */
+    private Entry lookup(String host) throws UnknownHostException {
+        InetAddress[] addresses = delegate.resolve(host);
+        long ttl = ttlNanosPerHost.getOrDefault(host, ttlNanos);
+        long now = System.nanoTime();
+        Entry entry = new Entry(addresses, now + (long) (ttl * refreshAheadFactor), now + ttl);
+        cache.put(host, entry);
+        return entry;
+    }
+
+    /**
+     * Refresh the entry in background.
+     *
+     * @param host host(lower case)
+     * @param entry entry to refresh
+     */
+    private void refreshInBackground(String host, Entry entry) {
+        try {
+            refreshExecutor.execute(() -> {
+                refreshes.increment();
+                try {
+                    lookup(host);
+                } catch (UnknownHostException | RuntimeException e) {
+                    refreshFailures.increment();
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Normalize host.
+     *
+     * @param host host
+     * @return host in lower case
+     */
+    private static String normalize(String host) {
+        return host.toLowerCase(Locale.ROOT);
+    }
+
+    /** Cached entry. */
+    @RequiredArgsConstructor
+    private static class Entry {
+
+        /** Resolved addresses. */
+        private final InetAddress[] addresses;
+        /** Time(nanos) to refresh in background. */
+        private final long refreshAt;
+        /** Time(nanos) to expire. */
+        private final long expireAt;
+        /** Whether a background refresh is in progress. */
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    }
+
+    /** Lazily initialized default executor for background refresh. */
+    private static class RefreshExecutorHolder {
+
+        /** Cached thread pool of daemon threads, idle threads will be terminated after 60 seconds. */
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "okauth-dns-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    }
+
+    // #################### properties and metrics ######################################
+
+    /** Cache properties. */
+    @Data
+    @Accessors(chain = true)
+    public static class CacheProperties {
+
+        /** Time to live of resolved addresses. */
+        private Duration ttl;
+        /** Time to live of resolved addresses of the specified hosts, which overrides {@link #ttl}. */
+        private Map<String, Duration> ttlPerHost;
+        /** Fraction of ttl after which addresses are refreshed in background, range (0, 1]. */
+        private Double refreshAheadFactor;
+        /** Max time to serve expired addresses while they are refreshed in background, zero means never. */
+        private Duration maxStale;
+
+        /**
+         * Create and return a copy of this object.
+         *
+         * @return a copy of this properties
+         */
+        public CacheProperties copy() {
+            return new CacheProperties()
+                    .setTtl(ttl)
+                    .setTtlPerHost((ttlPerHost == null) ? null : new HashMap<>(ttlPerHost))
+                    .setRefreshAheadFactor(refreshAheadFactor)
+                    .setMaxStale(maxStale);
+        }
+
+        /**
+         * Fill null properties with the source.
+         *
+         * @param source source properties
+         * @return self reference
+         */
+        public CacheProperties fillNullProperties(CacheProperties source) {
+            if (ttl == null) { ttl = source.ttl; }
+            if (ttlPerHost == null) { ttlPerHost = source.ttlPerHost; }
+            if (refreshAheadFactor == null) { refreshAheadFactor = source.refreshAheadFactor; }
+            if (maxStale == null) { maxStale = source.maxStale; }
+            return this;
+        }
+
+        /**
+         * Initialize default cache properties.
+         *
+         * <ul>
+         * <li>ttl: {@code 60s}</li>
+         * <li>refreshAheadFactor: {@code 0.8}</li>
+         * <li>maxStale: {@code 10m}</li>
+         * </ul>
+         *
+         * @return cache properties with default properties
+         */
+        public static CacheProperties initDefault() {
+            return new CacheProperties()
+                    .setTtl(Duration.parse("PT60S"))
+                    .setRefreshAheadFactor(0.8)
+                    .setMaxStale(Duration.parse("PT10M"));
+        }
+
+    }
+
+    /** Metrics snapshot. */
+    @Value
+    public static class Metrics {
+
+        /** Number of lookups served from the cache. */
+        long hits;
+        /** Number of lookups resolved on the caller thread. */
+        long misses;
+        /** Number of lookups served with expired addresses. */
+        long staleHits;
+        /** Number of background refreshes. */
+        long refreshes;
+        /** Number of failed background refreshes. */
+        long refreshFailures;
+        /** Number of cached hosts. */
+        int cachedHosts;
+
+    }
+
+}
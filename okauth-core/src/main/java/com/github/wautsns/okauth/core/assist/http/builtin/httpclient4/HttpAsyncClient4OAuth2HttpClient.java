@@ -0,0 +1,315 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.httpclient4;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.PooledOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpMetrics;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpPoolSnapshot;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryExecutor;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryPolicy;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConnectionLeaseTimeoutException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HttpAsyncClient4 oauth2 http client.
+ *
+ * <p>Requests are executed by non-blocking IO, no thread will be blocked while waiting for the response. The response
+ * entity is buffered in memory before the future is completed.
+ * <p>{@code org.apache.httpcomponents:httpasyncclient} is required.
+ *
+ * @author wautsns
+ * @since Jul 02, 2020
+ */
+@Getter
+public class HttpAsyncClient4OAuth2HttpClient implements PooledOAuth2HttpClient, Closeable {
+
+    /** Original http async client. */
+    protected final CloseableHttpAsyncClient origin;
+    /** Http async client connection manager. */
+    protected final PoolingNHttpClientConnectionManager connectionManager;
+    /** Default request config. */
+    @Getter(AccessLevel.NONE)
+    private final RequestConfig requestConfig;
+    /** Retry policy. */
+    private final OAuth2RetryPolicy retryPolicy;
+    /** Name of the connection pool. */
+    private final String poolName;
+    /** Idle connection evictor, or {@code null} if max idle time is not specified. */
+    @Getter(AccessLevel.NONE)
+    private final ScheduledExecutorService idleConnectionEvictor;
+    /** Periodic pool snapshot task, or {@code null} if metrics or pool snapshot interval is not specified. */
+    @Getter(AccessLevel.NONE)
+    private final ScheduledFuture<?> poolSnapshotTask;
+
+    /** Construct a default {@code HttpAsyncClient4OAuth2HttpClient}. */
+    public HttpAsyncClient4OAuth2HttpClient() {
+        this(OAuth2HttpClientProperties.initDefault());
+    }
+
+    /**
+     * Construct a {@code HttpAsyncClient4OAuth2HttpClient}.
+     *
+     * @param props oauth2 http client properties
+     */
+    public HttpAsyncClient4OAuth2HttpClient(OAuth2HttpClientProperties props) {
+        HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create();
+        // ==================== request config ==============================================
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) props.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) props.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout(HttpClient4OAuth2HttpClient.toMillis(props.getConnectionRequestTimeout()))
+                .build();
+        builder.setDefaultRequestConfig(requestConfig);
+        // ==================== connect manager =============================================
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout((int) props.getConnectTimeout().toMillis())
+                .setSoTimeout((int) props.getReadTimeout().toMillis())
+                .build();
+        this.poolName = HttpClient4OAuth2HttpClient.initPoolName(this);
+        try {
+            this.connectionManager = initConnectionManager(
+                    poolName, new DefaultConnectingIOReactor(ioReactorConfig), props);
+        } catch (IOReactorException e) {
+            throw new IllegalStateException(e);
+        }
+        HttpClient4OAuth2HttpClient.applyConnectionLimits(this.connectionManager, props);
+        builder.setConnectionManager(this.connectionManager);
+        // ==================== keep alive ==================================================
+        ConnectionKeepAliveStrategy keepAliveStrategy = DefaultConnectionKeepAliveStrategy.INSTANCE;
+        Duration keepAliveTimeout = props.getKeepAliveTimeout();
+        if (keepAliveTimeout != null) {
+            long keepAliveTimeoutMillis = keepAliveTimeout.toMillis();
+            keepAliveStrategy = (resp, ctx) -> keepAliveTimeoutMillis;
+        }
+        builder.setKeepAliveStrategy(keepAliveStrategy);
+        // ==================== proxy =======================================================
+        String proxy = props.getProxy();
+        if (proxy != null) { builder.setProxy(HttpHost.create(proxy)); }
+        // ==================== default headers =============================================
+        // Some open platforms will response 403, if not disguised as a browser.
+        builder.setUserAgent("Chrome/83.0.4103.61");
+        // ==================== retry policy ================================================
+        this.retryPolicy = OAuth2RetryPolicy.init(props);
+        // ==================== build http async client =====================================
+        this.origin = buildOriginHttpAsyncClient(builder, props);
+        this.origin.start();
+        // ==================== max idle time ===============================================
+        Duration maxIdleTime = props.getMaxIdleTime();
+        this.idleConnectionEvictor = (maxIdleTime == null) ? null : startIdleConnectionEvictor(maxIdleTime);
+        // ==================== pool snapshot ===============================================
+        this.poolSnapshotTask = HttpClient4OAuth2HttpClient.schedulePoolSnapshots(props, this::snapshotPool);
+    }
+
+    /**
+     * Build original http async client.
+     *
+     * @param builder httpAsyncClient4 builder
+     * @param props oauth2 http client properties
+     * @return original http async client
+     */
+    protected CloseableHttpAsyncClient buildOriginHttpAsyncClient(
+            HttpAsyncClientBuilder builder, OAuth2HttpClientProperties props) {
+        return builder.build();
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        try {
+            return executeAsync(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuth2IOException(new InterruptedIOException(e.getMessage()));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OAuth2IOException) {
+                throw (OAuth2IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        return OAuth2RetryExecutor.executeAsync(retryPolicy, request, this::executeOnceAsync);
+    }
+
+    /**
+     * Execute oauth2 request asynchronously once without retry.
+     *
+     * @param request oauth2 request
+     * @return future of oauth2 response
+     */
+    protected CompletableFuture<OAuth2HttpResponse> executeOnceAsync(OAuth2HttpRequest request) {
+        CompletableFuture<OAuth2HttpResponse> future = new CompletableFuture<>();
+        HttpRequestBase originalHttpRequest = HttpClient4OAuth2HttpClient.initOriginalHttpRequest(request, requestConfig);
+        origin.execute(originalHttpRequest, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse result) {
+                future.complete(new HttpClient4OAuth2HttpResponse(result));
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                if (ex instanceof TimeoutException || ex instanceof ConnectionPoolTimeoutException) {
+                    // Thrown by the connection pool if no connection is available within connection request timeout.
+                    ConnectionPoolTimeoutException e = (ex instanceof ConnectionPoolTimeoutException)
+                            ? (ConnectionPoolTimeoutException) ex
+                            : new ConnectionPoolTimeoutException(ex.getMessage());
+                    future.completeExceptionally(new ConnectionLeaseTimeoutException(e));
+                } else {
+                    IOException e = (ex instanceof IOException) ? (IOException) ex : new IOException(ex);
+                    future.completeExceptionally(new OAuth2IOException(e));
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public OAuth2HttpPoolSnapshot snapshotPool() {
+        return HttpClient4OAuth2HttpClient.snapshotPool(poolName, connectionManager, connectionManager.getRoutes());
+    }
+
+    /**
+     * Close the http async client and release all resources.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (poolSnapshotTask != null) { poolSnapshotTask.cancel(false); }
+        if (idleConnectionEvictor != null) { idleConnectionEvictor.shutdownNow(); }
+        origin.close();
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Initialize connection manager.
+     *
+     * <p>If metrics is specified, wait time and reuse of each connection lease will be recorded. The wait time of a
+     * newly created connection includes the time to connect, since it is not leased until connected.
+     *
+     * @param poolName name of the connection pool
+     * @param ioReactor connecting io reactor
+     * @param props oauth2 http client properties
+     * @return connection manager
+     */
+    private static PoolingNHttpClientConnectionManager initConnectionManager(
+            String poolName, ConnectingIOReactor ioReactor, OAuth2HttpClientProperties props) {
+        DnsResolver dnsResolver = HttpClient4OAuth2HttpClient.initDnsResolver(props);
+        OAuth2HttpMetrics metrics = props.getMetrics();
+        if (metrics == null) { return new PoolingNHttpClientConnectionManager(ioReactor, null, dnsResolver); }
+        return new PoolingNHttpClientConnectionManager(ioReactor, null, dnsResolver) {
+            @Override
+            public Future<NHttpClientConnection> requestConnection(
+                    HttpRoute route, Object state, long connectTimeout, long leaseTimeout, TimeUnit timeUnit,
+                    FutureCallback<NHttpClientConnection> callback) {
+                if (callback == null) {
+                    return super.requestConnection(route, state, connectTimeout, leaseTimeout, timeUnit, null);
+                }
+                long start = System.nanoTime();
+                return super.requestConnection(
+                        route, state, connectTimeout, leaseTimeout, timeUnit,
+                        new FutureCallback<NHttpClientConnection>() {
+                            @Override
+                            public void completed(NHttpClientConnection connection) {
+                                // Route of newly created connections is not completed until they are leased.
+                                metrics.recordConnectionLease(
+                                        poolName, route.getTargetHost().toURI(), System.nanoTime() - start,
+                                        isRouteComplete(connection));
+                                callback.completed(connection);
+                            }
+
+                            @Override
+                            public void failed(Exception ex) {
+                                callback.failed(ex);
+                            }
+
+                            @Override
+                            public void cancelled() {
+                                callback.cancelled();
+                            }
+                        });
+            }
+        };
+    }
+
+    /**
+     * Start idle connection evictor.
+     *
+     * @param maxIdleTime max idle time of connection
+     * @return idle connection evictor
+     */
+    private ScheduledExecutorService startIdleConnectionEvictor(Duration maxIdleTime) {
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "okauth-idle-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long maxIdleTimeMillis = maxIdleTime.toMillis();
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(maxIdleTimeMillis, TimeUnit.MILLISECONDS);
+        }, maxIdleTimeMillis, maxIdleTimeMillis, TimeUnit.MILLISECONDS);
+        return evictor;
+    }
+
+}
@@ -16,13 +16,30 @@
 package com.github.wautsns.okauth.core.assist.http.builtin.httpclient4;
 
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClientRegistry;
+import com.github.wautsns.okauth.core.assist.http.kernel.PooledOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.OAuth2HttpExchangeEvent;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.OAuth2HttpPhase;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpMetrics;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpPoolSnapshot;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
 import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryExecutor;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryPolicy;
 import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConnectionLeaseTimeoutException;
+import lombok.AccessLevel;
 import lombok.Getter;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
@@ -35,17 +52,53 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpTrace;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import org.apache.http.ssl.SSLContexts;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * HttpClient4 oauth2 http client.
@@ -54,12 +107,25 @@ import java.util.function.Function;
  * @since May 21, 2020
  */
 @Getter
-public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
+public class HttpClient4OAuth2HttpClient implements PooledOAuth2HttpClient, Closeable {
 
     /** Original http client. */
     protected final HttpClient origin;
     /** Http client connection manager. */
     protected final PoolingHttpClientConnectionManager connectionManager;
+    /** Oauth2 http client properties. */
+    @Getter(AccessLevel.NONE)
+    private final OAuth2HttpClientProperties props;
+    /** Default request config. */
+    @Getter(AccessLevel.NONE)
+    private final RequestConfig requestConfig;
+    /** Retry policy. */
+    private final OAuth2RetryPolicy retryPolicy;
+    /** Name of the connection pool. */
+    private final String poolName;
+    /** Periodic pool snapshot task, or {@code null} if metrics or pool snapshot interval is not specified. */
+    @Getter(AccessLevel.NONE)
+    private final ScheduledFuture<?> poolSnapshotTask;
 
     /** Construct a default {@code HttpClient4OAuth2HttpClient}. */
     public HttpClient4OAuth2HttpClient() {
@@ -72,18 +138,22 @@ public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
      * @param props oauth2 http client properties
      */
     public HttpClient4OAuth2HttpClient(OAuth2HttpClientProperties props) {
+        this.props = props.copy();
         HttpClientBuilder builder = HttpClientBuilder.create();
         // ==================== request config ==============================================
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout((int) props.getConnectTimeout().toMillis())
-                .setSocketTimeout((int) props.getReadTimeout().toMillis())
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout(toMillis(props.getConnectTimeout()))
+                .setSocketTimeout(toMillis(props.getReadTimeout()))
+                .setConnectionRequestTimeout(toMillis(props.getConnectionRequestTimeout()))
                 .build();
         builder.setDefaultRequestConfig(requestConfig);
         // ==================== connect manager =============================================
-        this.connectionManager = new PoolingHttpClientConnectionManager();
-        this.connectionManager.setMaxTotal(props.getMaxConcurrentRequests());
-        this.connectionManager.setDefaultMaxPerRoute(props.getMaxConcurrentRequests());
+        this.poolName = initPoolName(this);
+        this.connectionManager = initConnectionManager(poolName, props);
+        applyConnectionLimits(this.connectionManager, props);
         builder.setConnectionManager(this.connectionManager);
+        // ==================== request executor ============================================
+        builder.setRequestExecutor(new TimedHttpRequestExecutor());
         // ==================== max idle time ===============================================
         Duration maxIdleTime = props.getMaxIdleTime();
         if (maxIdleTime != null) {
@@ -97,11 +167,10 @@ public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
             keepAliveStrategy = (resp, ctx) -> keepAliveTimeoutMillis;
         }
         builder.setKeepAliveStrategy(keepAliveStrategy);
-        // ==================== retry handler ===============================================
-        Integer retryTimes = props.getRetryTimes();
-        if (retryTimes != null) {
-            builder.setRetryHandler(new OAuth2HttpRequestRetryHandler(retryTimes));
-        }
+        // ==================== retry policy ================================================
+        // Retries are applied by OAuth2RetryExecutor instead of the retry handler of httpClient4.
+        builder.disableAutomaticRetries();
+        this.retryPolicy = OAuth2RetryPolicy.init(props);
         // ==================== proxy =======================================================
         String proxy = props.getProxy();
         if (proxy != null) { builder.setProxy(HttpHost.create(proxy)); }
@@ -110,6 +179,8 @@ public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
         builder.setUserAgent("Chrome/83.0.4103.61");
         // ==================== build http client ===========================================
         this.origin = buildOriginHttpClient(builder, props);
+        // ==================== pool snapshot ===============================================
+        this.poolSnapshotTask = schedulePoolSnapshots(props, this::snapshotPool);
     }
 
     /**
@@ -125,13 +196,91 @@ public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
 
     @Override
     public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        return OAuth2RetryExecutor.execute(retryPolicy, request, this::executeOnce);
+    }
+
+    /**
+     * Execute oauth2 request once without retry.
+     *
+     * @param request oauth2 request
+     * @return oauth2 response
+     * @throws OAuth2IOException if IO exception occurs
+     */
+    protected OAuth2HttpResponse executeOnce(OAuth2HttpRequest request) throws OAuth2IOException {
         try {
-            return executeOriginalHttpRequest(initOriginalHttpRequest(request));
+            return executeOriginalHttpRequest(initOriginalHttpRequest(request, requestConfig));
+        } catch (ConnectionPoolTimeoutException e) {
+            throw new ConnectionLeaseTimeoutException(e);
         } catch (IOException e) {
             throw new OAuth2IOException(e);
         }
     }
 
+    /**
+     * Warm up connections to the specified hosts.
+     *
+     * <p>Connections are leased from the pool, connected, and then released back to the pool. Hosts routed through a
+     * tunnelling proxy(https over proxy) are ignored. Routes are warmed up in parallel by dedicated daemon threads,
+     * which are released when warm-up is done.
+     *
+     * @param hosts hosts([SCHEME://]HOST[:PORT], scheme defaults to https)
+     * @param connectionsPerHost number of connections to establish per host
+     * @return future that will be completed when warm-up is done
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        String proxy = props.getProxy();
+        HttpHost proxyHost = (proxy == null) ? null : HttpHost.create(proxy);
+        List<HttpRoute> routes = hosts.stream()
+                .map(host -> initHttpRoute(host, proxyHost))
+                .distinct()
+                .filter(route -> !route.isTunnelled())
+                .collect(Collectors.toList());
+        if (routes.isEmpty()) { return CompletableFuture.completedFuture(null); }
+        ExecutorService executor = Executors.newFixedThreadPool(routes.size(), runnable -> {
+            Thread thread = new Thread(runnable, "okauth-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<?>[] futures = routes.stream()
+                .map(route -> CompletableFuture.runAsync(() -> {
+                    try {
+                        warmUp(route, connectionsPerHost);
+                    } catch (IOException e) {
+                        throw new CompletionException(new OAuth2IOException(e));
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).whenComplete((result, e) -> executor.shutdown());
+    }
+
+    @Override
+    public OAuth2HttpPoolSnapshot snapshotPool() {
+        return snapshotPool(poolName, connectionManager, connectionManager.getRoutes());
+    }
+
+    /**
+     * Close the http client and release all resources.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (poolSnapshotTask != null) { poolSnapshotTask.cancel(false); }
+        if (origin instanceof Closeable) { ((Closeable) origin).close(); }
+    }
+
+    /**
+     * Acquire a shared {@code HttpClient4OAuth2HttpClient} with default properties.
+     *
+     * @return shared http client
+     * @see OAuth2HttpClientRegistry
+     */
+    public static OAuth2HttpClientRegistry.SharedOAuth2HttpClient acquireShared() {
+        return OAuth2HttpClientRegistry.acquire(
+                HttpClient4OAuth2HttpClient.class, OAuth2HttpClientProperties.initDefault());
+    }
+
     // #################### internal ####################################################
 
     /** Supported {@code HttpRequestBase} initializers. */
@@ -152,23 +301,261 @@ public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
     /**
      * Initialize original http request.
      *
+     * <p>If there is a {@linkplain OAuth2Deadline#of(OAuth2HttpRequest) deadline}, timeouts of the default request
+     * config will be shrunk to the remaining time.
+     *
      * @param request oauth2 http request
+     * @param requestConfig default request config
      * @return original http request
      */
-    private HttpRequestBase initOriginalHttpRequest(OAuth2HttpRequest request) {
+    static HttpRequestBase initOriginalHttpRequest(OAuth2HttpRequest request, RequestConfig requestConfig) {
         Function<String, HttpRequestBase> initializer = HTTP_REQUEST_BASE_INITIALIZERS.get(request.getMethod());
         HttpRequestBase originalHttpRequest = initializer.apply(request.getUrl().toString());
+        OAuth2Deadline deadline = OAuth2Deadline.of(request);
+        if (deadline != null) {
+            originalHttpRequest.setConfig(RequestConfig.copy(requestConfig)
+                    .setConnectTimeout(deadline.shrink(requestConfig.getConnectTimeout()))
+                    .setSocketTimeout(deadline.shrink(requestConfig.getSocketTimeout()))
+                    .setConnectionRequestTimeout(deadline.shrink(requestConfig.getConnectionRequestTimeout()))
+                    .build());
+        }
         request.forEachHeader(originalHttpRequest::addHeader);
         if (originalHttpRequest instanceof HttpEntityEnclosingRequestBase) {
             OAuth2HttpEntity entity = request.getEntity();
             if (entity != null) {
-                ByteArrayEntity originalEntity = new ByteArrayEntity(entity.toBytes());
+                // Entities of unknown length are buffered, since some open platforms reject chunked requests.
+                long contentLength = entity.getContentLength();
+                HttpEntity originalEntity = (contentLength >= 0)
+                        ? new HttpClient4OAuth2HttpEntity(entity, contentLength)
+                        : new ByteArrayEntity(entity.toBytes());
                 ((HttpEntityEnclosingRequestBase) originalHttpRequest).setEntity(originalEntity);
             }
         }
         return originalHttpRequest;
     }
 
+    /** Lease timeout of warm-up if neither connection request timeout nor connect timeout is finite. */
+    private static final int WARM_UP_LEASE_TIMEOUT_MILLIS = 3000;
+
+    /**
+     * Warm up connections of the route.
+     *
+     * <p>The number of connections is limited to the max connections of the route. Connections are leased with a
+     * finite timeout(connection request timeout, or connect timeout if the former is infinite), and if the pool is busy
+     * (e.g. leased by live traffic), warm-up of the route stops. Leased connections are always released.
+     *
+     * @param route http route
+     * @param connections number of connections to establish
+     * @throws IOException if IO exception occurs
+     */
+    private void warmUp(HttpRoute route, int connections) throws IOException {
+        int connectTimeout = toMillis(props.getConnectTimeout());
+        int connectionRequestTimeout = toMillis(props.getConnectionRequestTimeout());
+        int leaseTimeout = (connectionRequestTimeout > 0) ? connectionRequestTimeout
+                : (connectTimeout > 0) ? connectTimeout : WARM_UP_LEASE_TIMEOUT_MILLIS;
+        long keepAliveTimeout = toMillis(props.getKeepAliveTimeout());
+        int limit = Math.min(connections, connectionManager.getMaxPerRoute(route));
+        List<HttpClientConnection> leased = new ArrayList<>(limit);
+        try {
+            // Lease all connections before releasing any, otherwise the same connection would be reused.
+            for (int i = 0; i < limit; i++) {
+                ConnectionRequest connectionRequest = connectionManager.requestConnection(route, null);
+                HttpClientConnection connection;
+                try {
+                    connection = connectionRequest.get(leaseTimeout, TimeUnit.MILLISECONDS);
+                } catch (ConnectionPoolTimeoutException e) {
+                    return;
+                }
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(connection, route, connectTimeout, context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            leased.forEach(connection -> connectionManager.releaseConnection(
+                    connection, null, keepAliveTimeout, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Initialize connection manager.
+     *
+     * <p>If metrics is specified, wait time and reuse of each connection lease will be recorded. Connections leased
+     * for warm-up are recorded as well.
+     * <p>Phases of connection establishment(lease, DNS, connect and TLS handshake) are recorded to the exchange event
+     * bound to the current thread, if any.
+     *
+     * @param poolName name of the connection pool
+     * @param props oauth2 http client properties
+     * @return connection manager
+     */
+    private static PoolingHttpClientConnectionManager initConnectionManager(
+            String poolName, OAuth2HttpClientProperties props) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new TimedPlainConnectionSocketFactory())
+                .register("https", new TimedSSLConnectionSocketFactory())
+                .build();
+        DnsResolver dnsResolver = initDnsResolver(props);
+        DnsResolver delegateDnsResolver = (dnsResolver == null) ? SystemDefaultDnsResolver.INSTANCE : dnsResolver;
+        DnsResolver timedDnsResolver = host -> {
+            OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.DNS);
+            try {
+                return delegateDnsResolver.resolve(host);
+            } finally {
+                OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.DNS);
+            }
+        };
+        OAuth2HttpMetrics metrics = props.getMetrics();
+        return new PoolingHttpClientConnectionManager(registry, timedDnsResolver) {
+            @Override
+            public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+                ConnectionRequest connectionRequest = super.requestConnection(route, state);
+                OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.LEASE);
+                long start = System.nanoTime();
+                return new ConnectionRequest() {
+                    @Override
+                    public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                            throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                        HttpClientConnection connection;
+                        try {
+                            connection = connectionRequest.get(timeout, timeUnit);
+                        } finally {
+                            OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.LEASE);
+                        }
+                        if (metrics == null) { return connection; }
+                        // Newly created connections are not connected until they are leased.
+                        metrics.recordConnectionLease(
+                                poolName, route.getTargetHost().toURI(), System.nanoTime() - start,
+                                connection.isOpen());
+                        return connection;
+                    }
+
+                    @Override
+                    public boolean cancel() {
+                        return connectionRequest.cancel();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Initialize name of the connection pool.
+     *
+     * @param client oauth2 http client
+     * @return name of the connection pool
+     */
+    static String initPoolName(OAuth2HttpClient client) {
+        return client.getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(client));
+    }
+
+    /**
+     * Take a snapshot of the connection pool.
+     *
+     * @param poolName name of the connection pool
+     * @param pool connection pool
+     * @param routes routes of the connection pool
+     * @return snapshot of the connection pool
+     */
+    static OAuth2HttpPoolSnapshot snapshotPool(
+            String poolName, ConnPoolControl<HttpRoute> pool, Set<HttpRoute> routes) {
+        Map<String, OAuth2HttpPoolSnapshot.Stats> routeStats = new LinkedHashMap<>();
+        routes.forEach(route -> routeStats.put(route.getTargetHost().toURI(), toStats(pool.getStats(route))));
+        return new OAuth2HttpPoolSnapshot(
+                poolName, System.currentTimeMillis(), toStats(pool.getTotalStats()),
+                Collections.unmodifiableMap(routeStats));
+    }
+
+    /**
+     * Schedule periodic pool snapshots.
+     *
+     * @param props oauth2 http client properties
+     * @param snapshotter snapshotter of the connection pool
+     * @return pool snapshot task, or {@code null} if metrics or pool snapshot interval is not specified
+     */
+    static ScheduledFuture<?> schedulePoolSnapshots(
+            OAuth2HttpClientProperties props, Supplier<OAuth2HttpPoolSnapshot> snapshotter) {
+        OAuth2HttpMetrics metrics = props.getMetrics();
+        Duration interval = props.getPoolSnapshotInterval();
+        if (metrics == null || interval == null) { return null; }
+        long intervalMillis = interval.toMillis();
+        return PoolSnapshotSchedulerHolder.INSTANCE.scheduleWithFixedDelay(
+                () -> metrics.recordPoolSnapshot(snapshotter.get()),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Convert pool stats.
+     *
+     * @param stats pool stats
+     * @return stats
+     */
+    private static OAuth2HttpPoolSnapshot.Stats toStats(PoolStats stats) {
+        return new OAuth2HttpPoolSnapshot.Stats(
+                stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    /**
+     * Apply connection limits to the connection pool.
+     *
+     * @param pool connection pool
+     * @param props oauth2 http client properties
+     */
+    static void applyConnectionLimits(ConnPoolControl<HttpRoute> pool, OAuth2HttpClientProperties props) {
+        pool.setMaxTotal(props.getMaxConcurrentRequests());
+        Integer maxPerRoute = props.getMaxConcurrentRequestsPerRoute();
+        pool.setDefaultMaxPerRoute((maxPerRoute == null) ? props.getMaxConcurrentRequests() : maxPerRoute);
+        Map<String, Integer> maxPerHost = props.getMaxConcurrentRequestsPerHost();
+        if (maxPerHost == null || maxPerHost.isEmpty()) { return; }
+        String proxy = props.getProxy();
+        HttpHost proxyHost = (proxy == null) ? null : HttpHost.create(proxy);
+        maxPerHost.forEach((host, max) -> pool.setMaxPerRoute(initHttpRoute(host, proxyHost), max));
+    }
+
+    /**
+     * Initialize http route in the same way as {@code DefaultRoutePlanner}.
+     *
+     * @param host host([SCHEME://]HOST[:PORT], scheme defaults to https)
+     * @param proxy proxy, or {@code null} if no proxy
+     * @return http route
+     */
+    private static HttpRoute initHttpRoute(String host, HttpHost proxy) {
+        HttpHost target = HttpHost.create(host.contains("://") ? host : ("https://" + host));
+        boolean secure = "https".equalsIgnoreCase(target.getSchemeName());
+        if (target.getPort() <= 0) {
+            target = new HttpHost(target.getHostName(), secure ? 443 : 80, target.getSchemeName());
+        }
+        return (proxy == null) ? new HttpRoute(target, null, secure) : new HttpRoute(target, null, proxy, secure);
+    }
+
+    /**
+     * Initialize dns resolver.
+     *
+     * @param props oauth2 http client properties
+     * @return dns resolver, or {@code null} if the system default dns resolver should be used
+     */
+    static DnsResolver initDnsResolver(OAuth2HttpClientProperties props) {
+        OAuth2DnsResolver dnsResolver = props.getDnsResolver();
+        return (dnsResolver == null) ? null : dnsResolver::resolve;
+    }
+
+    /**
+     * Convert duration to milliseconds.
+     *
+     * @param duration duration
+     * @return milliseconds, or {@code -1} if the duration is {@code null}
+     */
+    static int toMillis(Duration duration) {
+        return (duration == null) ? -1 : (int) duration.toMillis();
+    }
+
     /**
      * Execute original http request.
      *
@@ -180,4 +567,96 @@ public class HttpClient4OAuth2HttpClient implements OAuth2HttpClient {
         return new HttpClient4OAuth2HttpResponse(origin.execute(request));
     }
 
+    /** Plain connection socket factory, which records connect phase. */
+    private static class TimedPlainConnectionSocketFactory extends PlainConnectionSocketFactory {
+
+        @Override
+        public Socket connectSocket(
+                int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress, HttpContext context) throws IOException {
+            OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.CONNECT);
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.CONNECT);
+            }
+        }
+
+    }
+
+    /** SSL connection socket factory, which records connect and TLS handshake phases. */
+    private static class TimedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+        /** Construct a {@code TimedSSLConnectionSocketFactory} in the same way as {@link #getSocketFactory()}. */
+        TimedSSLConnectionSocketFactory() {
+            super(SSLContexts.createDefault(), getDefaultHostnameVerifier());
+        }
+
+        @Override
+        public Socket connectSocket(
+                int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress, HttpContext context) throws IOException {
+            // The connect phase ends when the TLS handshake begins, or here if the connection fails before that.
+            OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.CONNECT);
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.CONNECT);
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.CONNECT);
+            OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.TLS_HANDSHAKE);
+            try {
+                return super.createLayeredSocket(socket, target, port, context);
+            } finally {
+                OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.TLS_HANDSHAKE);
+            }
+        }
+
+    }
+
+    /** Http request executor, which records request write and first byte phases. */
+    private static class TimedHttpRequestExecutor extends HttpRequestExecutor {
+
+        @Override
+        protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws IOException, HttpException {
+            OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.REQUEST_WRITE);
+            try {
+                return super.doSendRequest(request, conn, context);
+            } finally {
+                OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.REQUEST_WRITE);
+            }
+        }
+
+        @Override
+        protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws HttpException, IOException {
+            OAuth2HttpExchangeEvent.beginCurrentPhase(OAuth2HttpPhase.FIRST_BYTE);
+            try {
+                return super.doReceiveResponse(request, conn, context);
+            } finally {
+                OAuth2HttpExchangeEvent.endCurrentPhase(OAuth2HttpPhase.FIRST_BYTE);
+            }
+        }
+
+    }
+
+    /** Lazily initialized scheduler for pool snapshots, shared by all http clients. */
+    private static class PoolSnapshotSchedulerHolder {
+
+        /** Single daemon thread scheduler. */
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "okauth-pool-snapshotter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+    }
+
 }
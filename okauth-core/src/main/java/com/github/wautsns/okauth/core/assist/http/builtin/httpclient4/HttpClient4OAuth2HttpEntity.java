@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.httpclient4;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * HttpClient4 oauth2 http entity, which writes the entity to the connection directly.
+ *
+ * <p>Only entities of which the content length is known should be adapted, otherwise the entity will be sent with
+ * chunked transfer coding, which is not supported by some open platforms.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class HttpClient4OAuth2HttpEntity extends AbstractHttpEntity {
+
+    /** Original entity. */
+    private final OAuth2HttpEntity origin;
+    /** Length of the content in bytes. */
+    private final long contentLength;
+
+    /**
+     * Construct a HttpClient4 oauth2 http entity.
+     *
+     * @param origin original entity
+     * @param contentLength length of the content in bytes
+     */
+    public HttpClient4OAuth2HttpEntity(OAuth2HttpEntity origin, long contentLength) {
+        this.origin = origin;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getContent() {
+        return new ByteArrayInputStream(origin.toBytes());
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        origin.writeTo(outputStream);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+}
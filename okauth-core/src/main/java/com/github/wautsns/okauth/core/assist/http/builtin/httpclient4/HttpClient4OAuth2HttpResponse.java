@@ -48,7 +48,8 @@ public class HttpClient4OAuth2HttpResponse implements OAuth2HttpResponse {
 
     @Override
     public String getHeader(String name) {
-        return origin.getFirstHeader(name).getValue();
+        Header header = origin.getFirstHeader(name);
+        return (header == null) ? null : header.getValue();
     }
 
     @Override
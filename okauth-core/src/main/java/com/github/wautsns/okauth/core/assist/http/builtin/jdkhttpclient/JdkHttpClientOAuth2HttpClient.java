@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.jdkhttpclient;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+
+import java.io.Closeable;
+
+/**
+ * JdkHttpClient oauth2 http client.
+ *
+ * <p>This is the placeholder for Java 8, the real implementation based on {@code java.net.http.HttpClient} is
+ * packaged as a multi-release class in {@code META-INF/versions/11}.
+ *
+ * @author wautsns
+ * @since Jul 04, 2020
+ */
+public class JdkHttpClientOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Construct a default {@code JdkHttpClientOAuth2HttpClient}. */
+    public JdkHttpClientOAuth2HttpClient() {
+        this(OAuth2HttpClientProperties.initDefault());
+    }
+
+    /**
+     * Construct a {@code JdkHttpClientOAuth2HttpClient}.
+     *
+     * @param props oauth2 http client properties
+     */
+    public JdkHttpClientOAuth2HttpClient(OAuth2HttpClientProperties props) {
+        throw new UnsupportedOperationException("JdkHttpClientOAuth2HttpClient requires Java 11 or above.");
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        throw new UnsupportedOperationException("JdkHttpClientOAuth2HttpClient requires Java 11 or above.");
+    }
+
+    @Override
+    public void close() {}
+
+}
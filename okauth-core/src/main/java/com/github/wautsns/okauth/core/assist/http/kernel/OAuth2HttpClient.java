@@ -17,8 +17,12 @@ package com.github.wautsns.okauth.core.assist.http.kernel;
 
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
 import com.github.wautsns.okauth.core.exception.OAuth2IOException;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * OAuth2 http client.
  *
@@ -36,4 +40,31 @@ public interface OAuth2HttpClient {
      */
     OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException;
 
+    /**
+     * Execute oauth2 request asynchronously and return future of response.
+     *
+     * <p>If IO exception occurs, the future will be completed exceptionally with {@code OAuth2IOException}.
+     * <p>The default implementation executes the request in the current thread by {@link #execute(OAuth2HttpRequest)},
+     * non-blocking implementations should override it.
+     *
+     * @param request oauth2 request
+     * @return future of oauth2 response
+     */
+    default CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        return FutureUtils.call(() -> execute(request));
+    }
+
+    /**
+     * Warm up connections to the specified hosts, including DNS resolution and TCP/TLS handshakes.
+     *
+     * <p>The default implementation does nothing.
+     *
+     * @param hosts hosts([SCHEME://]HOST[:PORT], scheme defaults to https)
+     * @param connectionsPerHost number of connections to establish per host
+     * @return future that will be completed when warm-up is done
+     */
+    default CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return CompletableFuture.completedFuture(null);
+    }
+
 }
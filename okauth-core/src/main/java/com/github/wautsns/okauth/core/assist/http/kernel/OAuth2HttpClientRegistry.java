@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import lombok.Getter;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * OAuth2 http client registry.
+ *
+ * <p>Http clients are shared by implementation and effective properties, so oauth2 clients with the same settings
+ * share one connection pool(and its background threads). Per-route limits of the pool still apply to each host.
+ * <p>Http clients are reference-counted, the http client will be closed(if it is {@code Closeable}) when the last
+ * {@link SharedOAuth2HttpClient} is closed.
+ *
+ * @author wautsns
+ * @since Jul 05, 2020
+ */
+@UtilityClass
+public class OAuth2HttpClientRegistry {
+
+    /** Registered http clients. */
+    private static final Map<Key, Registration> REGISTRATIONS = new HashMap<>();
+
+    /**
+     * Acquire a shared http client.
+     *
+     * <p>The implementation must have a public constructor with argument of type {@code OAuth2HttpClientProperties}.
+     *
+     * @param implementation implementation of oauth2 http client
+     * @param props oauth2 http client properties
+     * @return shared http client
+     */
+    public static SharedOAuth2HttpClient acquire(
+            Class<? extends OAuth2HttpClient> implementation, OAuth2HttpClientProperties props) {
+        Key key = new Key(implementation, props.copy());
+        synchronized (REGISTRATIONS) {
+            Registration registration = REGISTRATIONS.get(key);
+            if (registration == null) {
+                registration = new Registration(newInstance(implementation, key.getProps().copy()));
+                REGISTRATIONS.put(key, registration);
+            }
+            registration.referenceCount++;
+            return new SharedOAuth2HttpClient(key, registration.delegate);
+        }
+    }
+
+    /**
+     * Get the number of registered http clients.
+     *
+     * @return the number of registered http clients
+     */
+    public static int size() {
+        synchronized (REGISTRATIONS) {
+            return REGISTRATIONS.size();
+        }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Release the shared http client.
+     *
+     * @param key key of the http client
+     * @throws IOException if IO exception occurs
+     */
+    private static void release(Key key) throws IOException {
+        OAuth2HttpClient delegate;
+        synchronized (REGISTRATIONS) {
+            Registration registration = REGISTRATIONS.get(key);
+            if (registration == null || --registration.referenceCount > 0) { return; }
+            REGISTRATIONS.remove(key);
+            delegate = registration.delegate;
+        }
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    /**
+     * Create a new instance of the implementation.
+     *
+     * @param implementation implementation of oauth2 http client
+     * @param props oauth2 http client properties
+     * @return new instance
+     */
+    private static OAuth2HttpClient newInstance(
+            Class<? extends OAuth2HttpClient> implementation, OAuth2HttpClientProperties props) {
+        try {
+            Constructor<? extends OAuth2HttpClient> constructor = implementation
+                    .getConstructor(OAuth2HttpClientProperties.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(props);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException(String.format(
+                    "%s need a constructor with argument of type: %s",
+                    implementation, OAuth2HttpClientProperties.class));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) { throw (RuntimeException) cause; }
+            throw new IllegalStateException(cause);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Key of http client. */
+    @Value
+    private static class Key {
+
+        /** Implementation of oauth2 http client. */
+        Class<? extends OAuth2HttpClient> implementation;
+        /** Oauth2 http client properties(snapshot). */
+        OAuth2HttpClientProperties props;
+
+    }
+
+    /** Registration of http client. */
+    private static class Registration {
+
+        /** Http client. */
+        private final OAuth2HttpClient delegate;
+        /** Reference count. */
+        private int referenceCount;
+
+        /**
+         * Construct a registration.
+         *
+         * @param delegate http client
+         */
+        private Registration(OAuth2HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+    }
+
+    /**
+     * Shared oauth2 http client.
+     *
+     * <p>Each acquisition returns a new instance, closing it releases one reference of the http client.
+     */
+    public static class SharedOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+        /** Key of the http client. */
+        private final Key key;
+        /** Http client. */
+        @Getter
+        private final OAuth2HttpClient delegate;
+        /** Whether this instance is closed. */
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        /**
+         * Construct a shared oauth2 http client.
+         *
+         * @param key key of the http client
+         * @param delegate http client
+         */
+        private SharedOAuth2HttpClient(Key key, OAuth2HttpClient delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+            return delegate.execute(request);
+        }
+
+        @Override
+        public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+            return delegate.executeAsync(request);
+        }
+
+        @Override
+        public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+            return delegate.warmUp(hosts, connectionsPerHost);
+        }
+
+        /**
+         * Release the reference of the http client.
+         *
+         * @throws IOException if IO exception occurs
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) { release(key); }
+        }
+
+    }
+
+}
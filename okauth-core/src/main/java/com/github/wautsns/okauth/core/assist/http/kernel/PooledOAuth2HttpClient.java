@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpPoolSnapshot;
+
+/**
+ * Pooled oauth2 http client, whose connection pool can be inspected.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public interface PooledOAuth2HttpClient extends OAuth2HttpClient {
+
+    /**
+     * Get name of the connection pool.
+     *
+     * @return name of the connection pool
+     */
+    String getPoolName();
+
+    /**
+     * Take a snapshot of the connection pool.
+     *
+     * @return snapshot of the connection pool
+     */
+    OAuth2HttpPoolSnapshot snapshotPool();
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.circuitbreaker;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2CircuitBreakerProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.CircuitBreakerOpenException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConcurrencyLimitExceededException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConnectionLeaseTimeoutException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker oauth2 http client, which decorates another oauth2 http client with circuit breakers.
+ *
+ * <p>Each host of the open platform has its own {@linkplain OAuth2CircuitBreaker circuit breaker} named
+ * {@code OPEN_PLATFORM@SCHEME://HOST[:PORT]}. IO exceptions and responses with status 5xx are considered failures.
+ * If the circuit breaker is open, {@link CircuitBreakerOpenException} will be thrown without sending the request.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class CircuitBreakerOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    private final String openPlatform;
+    /** Delegate oauth2 http client. */
+    private final OAuth2HttpClient delegate;
+    /** Circuit breaker properties. */
+    private final OAuth2CircuitBreakerProperties props;
+    /** Circuit breakers, key is {@code SCHEME://HOST[:PORT]}. */
+    private final Map<String, OAuth2CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a {@code CircuitBreakerOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @param props circuit breaker properties
+     */
+    public CircuitBreakerOAuth2HttpClient(
+            String openPlatform, OAuth2HttpClient delegate, OAuth2CircuitBreakerProperties props) {
+        this.openPlatform = openPlatform;
+        this.delegate = delegate;
+        this.props = props.copy();
+    }
+
+    /**
+     * Get circuit breakers.
+     *
+     * @return unmodifiable view of circuit breakers, key is {@code SCHEME://HOST[:PORT]}
+     */
+    public Map<String, OAuth2CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        OAuth2CircuitBreaker circuitBreaker = getCircuitBreaker(request);
+        long permit = acquirePermission(circuitBreaker, request);
+        long start = System.nanoTime();
+        OAuth2HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (OAuth2IOException e) {
+            onException(circuitBreaker, permit, start, e);
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.releasePermission(permit);
+            throw e;
+        }
+        onResponse(circuitBreaker, permit, start, response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        OAuth2CircuitBreaker circuitBreaker = getCircuitBreaker(request);
+        long permit;
+        try {
+            permit = acquirePermission(circuitBreaker, request);
+        } catch (OAuth2IOException e) {
+            return FutureUtils.failed(e);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<OAuth2HttpResponse> future;
+        try {
+            future = delegate.executeAsync(request);
+        } catch (RuntimeException e) {
+            circuitBreaker.releasePermission(permit);
+            throw e;
+        }
+        return future.whenComplete((response, e) -> {
+            if (e == null) {
+                onResponse(circuitBreaker, permit, start, response);
+                return;
+            }
+            Throwable cause = FutureUtils.unwrap(e);
+            if (cause instanceof OAuth2IOException) {
+                onException(circuitBreaker, permit, start, (OAuth2IOException) cause);
+            } else {
+                circuitBreaker.releasePermission(permit);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Get circuit breaker of the request host.
+     *
+     * @param request oauth2 http request
+     * @return circuit breaker
+     */
+    private OAuth2CircuitBreaker getCircuitBreaker(OAuth2HttpRequest request) {
+        return circuitBreakers.computeIfAbsent(
+                request.getUrl().getOrigin(), key -> new OAuth2CircuitBreaker(openPlatform + '@' + key, props));
+    }
+
+    /**
+     * Acquire permission of the circuit breaker.
+     *
+     * @param circuitBreaker circuit breaker
+     * @param request oauth2 http request
+     * @return permit
+     * @throws DeadlineExceededException if the deadline of the request has been reached
+     * @throws CircuitBreakerOpenException if the circuit breaker is open
+     */
+    private static long acquirePermission(OAuth2CircuitBreaker circuitBreaker, OAuth2HttpRequest request)
+            throws OAuth2IOException {
+        // Calls that have run out of time say nothing about the open platform.
+        OAuth2Deadline deadline = OAuth2Deadline.of(request);
+        if (deadline != null && deadline.isExpired()) { throw new DeadlineExceededException(); }
+        long permit = circuitBreaker.tryAcquirePermission();
+        if (permit >= 0L) { return permit; }
+        throw new CircuitBreakerOpenException(circuitBreaker.getName());
+    }
+
+    /**
+     * Record the response.
+     *
+     * @param circuitBreaker circuit breaker
+     * @param permit permit
+     * @param start start time in nanos
+     * @param response oauth2 http response
+     */
+    private static void onResponse(
+            OAuth2CircuitBreaker circuitBreaker, long permit, long start, OAuth2HttpResponse response) {
+        circuitBreaker.onResult(permit, System.nanoTime() - start, response.getStatus() >= 500);
+    }
+
+    /**
+     * Record the exception.
+     *
+     * @param circuitBreaker circuit breaker
+     * @param permit permit
+     * @param start start time in nanos
+     * @param e oauth2 io exception
+     */
+    private static void onException(
+            OAuth2CircuitBreaker circuitBreaker, long permit, long start, OAuth2IOException e) {
+        if (e instanceof ConnectionLeaseTimeoutException || e instanceof ConcurrencyLimitExceededException
+                || e instanceof DeadlineExceededException) {
+            // The request is rejected locally, or the caller has run out of time(the timeout was shrunk to the
+            // remaining time of the deadline), which says nothing about the open platform.
+            circuitBreaker.releasePermission(permit);
+        } else {
+            circuitBreaker.onResult(permit, System.nanoTime() - start, true);
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.circuitbreaker;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2CircuitBreakerProperties;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * OAuth2 circuit breaker.
+ *
+ * <ul>
+ * <li>CLOSED: calls are permitted, and their outcomes are recorded in a count-based sliding window. Once the failure
+ * rate or slow call rate reaches the threshold, the circuit breaker opens.</li>
+ * <li>OPEN: calls are rejected until {@code waitDurationInOpenState} has elapsed, then it becomes half open.</li>
+ * <li>HALF_OPEN: a limited number of probe calls are permitted. If the rates of probe calls are below the thresholds,
+ * the circuit breaker closes, otherwise it opens again.</li>
+ * </ul>
+ *
+ * <p>Each state transition starts a new generation, and a permit carries the generation in which it was acquired.
+ * Outcomes and releases of permits acquired in an earlier generation(e.g. a call permitted while closed that completes
+ * while half open) are ignored.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class OAuth2CircuitBreaker {
+
+    /** Circuit breaker state. */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /** Outcome flag: failure. */
+    private static final byte FAILURE = 1;
+    /** Outcome flag: slow. */
+    private static final byte SLOW = 2;
+
+    /** Circuit breaker name. */
+    private final String name;
+    /** Current state. */
+    private volatile State state = State.CLOSED;
+
+    // ==================== properties ==================================================
+
+    /** Min number of calls in the sliding window before the rates are calculated. */
+    @Getter(AccessLevel.NONE)
+    private final int minimumNumberOfCalls;
+    /** Failure rate threshold. */
+    @Getter(AccessLevel.NONE)
+    private final double failureRateThreshold;
+    /** Slow call duration threshold in nanos. */
+    @Getter(AccessLevel.NONE)
+    private final long slowCallDurationThresholdNanos;
+    /** Slow call rate threshold. */
+    @Getter(AccessLevel.NONE)
+    private final double slowCallRateThreshold;
+    /** Wait duration in open state in nanos. */
+    @Getter(AccessLevel.NONE)
+    private final long waitDurationInOpenStateNanos;
+    /** Number of probe calls permitted in half open state. */
+    @Getter(AccessLevel.NONE)
+    private final int permittedNumberOfCallsInHalfOpenState;
+
+    // ==================== sliding window ==============================================
+
+    /** Outcomes of the most recent calls(ring buffer). */
+    @Getter(AccessLevel.NONE)
+    private final byte[] outcomes;
+    /** Next index of the ring buffer. */
+    @Getter(AccessLevel.NONE)
+    private int next;
+    /** Number of recorded calls. */
+    @Getter(AccessLevel.NONE)
+    private int calls;
+    /** Number of failed calls. */
+    @Getter(AccessLevel.NONE)
+    private int failedCalls;
+    /** Number of slow calls. */
+    @Getter(AccessLevel.NONE)
+    private int slowCalls;
+
+    // ==================== open and half open ==========================================
+
+    /** Generation of the current state, which increases on each state transition. */
+    @Getter(AccessLevel.NONE)
+    private long generation;
+    /** Time(nanos) when the circuit breaker opened. */
+    @Getter(AccessLevel.NONE)
+    private long openedAt;
+    /** Number of probe calls permitted in the current half open state. */
+    @Getter(AccessLevel.NONE)
+    private int probeCalls;
+    /** Number of completed probe calls. */
+    @Getter(AccessLevel.NONE)
+    private int completedProbeCalls;
+    /** Number of failed probe calls. */
+    @Getter(AccessLevel.NONE)
+    private int failedProbeCalls;
+    /** Number of slow probe calls. */
+    @Getter(AccessLevel.NONE)
+    private int slowProbeCalls;
+
+    /**
+     * Construct an {@code OAuth2CircuitBreaker}.
+     *
+     * <p>Null properties are filled with {@linkplain OAuth2CircuitBreakerProperties#initDefault() default properties}.
+     *
+     * @param name circuit breaker name
+     * @param props circuit breaker properties, may be {@code null}
+     */
+    public OAuth2CircuitBreaker(String name, OAuth2CircuitBreakerProperties props) {
+        this.name = name;
+        OAuth2CircuitBreakerProperties filled = (props == null)
+                ? OAuth2CircuitBreakerProperties.initDefault()
+                : props.copy().fillNullProperties(OAuth2CircuitBreakerProperties.initDefault());
+        this.outcomes = new byte[filled.getSlidingWindowSize()];
+        this.minimumNumberOfCalls = Math.min(filled.getMinimumNumberOfCalls(), outcomes.length);
+        this.failureRateThreshold = filled.getFailureRateThreshold();
+        this.slowCallDurationThresholdNanos = filled.getSlowCallDurationThreshold().toNanos();
+        this.slowCallRateThreshold = filled.getSlowCallRateThreshold();
+        this.waitDurationInOpenStateNanos = filled.getWaitDurationInOpenState().toNanos();
+        this.permittedNumberOfCallsInHalfOpenState = filled.getPermittedNumberOfCallsInHalfOpenState();
+    }
+
+    /**
+     * Try to acquire permission to make a call.
+     *
+     * <p>If permitted, exactly one of {@link #onResult(long, long, boolean)} and {@link #releasePermission(long)} must
+     * be called with the permit after the call.
+     *
+     * @return permit(non-negative generation of the state), or {@code -1} if not permitted
+     */
+    public synchronized long tryAcquirePermission() {
+        if (state == State.CLOSED) { return generation; }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < waitDurationInOpenStateNanos) { return -1L; }
+            transitionToHalfOpen();
+        }
+        if (probeCalls >= permittedNumberOfCallsInHalfOpenState) { return -1L; }
+        probeCalls++;
+        return generation;
+    }
+
+    /**
+     * Release permission without recording the outcome, e.g. the call failed for local reasons.
+     *
+     * @param permit permit returned by {@link #tryAcquirePermission()}
+     */
+    public synchronized void releasePermission(long permit) {
+        if (permit != generation) { return; }
+        if (state == State.HALF_OPEN && probeCalls > completedProbeCalls) { probeCalls--; }
+    }
+
+    /**
+     * Record outcome of a permitted call.
+     *
+     * @param permit permit returned by {@link #tryAcquirePermission()}
+     * @param durationNanos duration of the call in nanos
+     * @param failed whether the call failed
+     */
+    public synchronized void onResult(long permit, long durationNanos, boolean failed) {
+        // Outcomes of calls permitted in an earlier state say nothing about the current one.
+        if (permit != generation) { return; }
+        byte outcome = (byte) ((failed ? FAILURE : 0) | ((durationNanos >= slowCallDurationThresholdNanos) ? SLOW : 0));
+        if (state == State.CLOSED) {
+            record(outcome);
+            if (calls >= minimumNumberOfCalls && exceedsThresholds(failedCalls, slowCalls, calls)) {
+                transitionToOpen();
+            }
+        } else if (state == State.HALF_OPEN) {
+            completedProbeCalls++;
+            if ((outcome & FAILURE) != 0) { failedProbeCalls++; }
+            if ((outcome & SLOW) != 0) { slowProbeCalls++; }
+            if (completedProbeCalls < permittedNumberOfCallsInHalfOpenState) { return; }
+            if (exceedsThresholds(failedProbeCalls, slowProbeCalls, completedProbeCalls)) {
+                transitionToOpen();
+            } else {
+                transitionToClosed();
+            }
+        }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Record outcome in the sliding window.
+     *
+     * @param outcome outcome flags
+     */
+    private void record(byte outcome) {
+        if (calls == outcomes.length) {
+            byte evicted = outcomes[next];
+            if ((evicted & FAILURE) != 0) { failedCalls--; }
+            if ((evicted & SLOW) != 0) { slowCalls--; }
+        } else {
+            calls++;
+        }
+        outcomes[next] = outcome;
+        if ((outcome & FAILURE) != 0) { failedCalls++; }
+        if ((outcome & SLOW) != 0) { slowCalls++; }
+        next = (next + 1) % outcomes.length;
+    }
+
+    /**
+     * Whether the failure rate or slow call rate reaches the threshold.
+     *
+     * @param failed number of failed calls
+     * @param slow number of slow calls
+     * @param total number of calls
+     * @return {@code true} if either rate reaches the threshold, otherwise {@code false}
+     */
+    private boolean exceedsThresholds(int failed, int slow, int total) {
+        return failed >= failureRateThreshold * total || slow >= slowCallRateThreshold * total;
+    }
+
+    /** Transition to open state. */
+    private void transitionToOpen() {
+        generation++;
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    /** Transition to half open state. */
+    private void transitionToHalfOpen() {
+        generation++;
+        state = State.HALF_OPEN;
+        probeCalls = 0;
+        completedProbeCalls = 0;
+        failedProbeCalls = 0;
+        slowProbeCalls = 0;
+    }
+
+    /** Transition to closed state and reset the sliding window. */
+    private void transitionToClosed() {
+        generation++;
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2ConcurrencyLimitProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConcurrencyLimitExceededException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConnectionLeaseTimeoutException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrency limit oauth2 http client, which decorates another oauth2 http client with adaptive concurrency limiters.
+ *
+ * <p>Each host of the open platform has its own {@linkplain OAuth2ConcurrencyLimiter concurrency limiter} named
+ * {@code OPEN_PLATFORM@SCHEME://HOST[:PORT]}. IO exceptions and responses with status 429 or 5xx are regarded as
+ * dropped. If the limit has been reached, {@link ConcurrencyLimitExceededException} will be thrown without sending
+ * the request.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class ConcurrencyLimitOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    private final String openPlatform;
+    /** Delegate oauth2 http client. */
+    private final OAuth2HttpClient delegate;
+    /** Concurrency limit properties. */
+    private final OAuth2ConcurrencyLimitProperties props;
+    /** Concurrency limiters, key is {@code SCHEME://HOST[:PORT]}. */
+    private final Map<String, OAuth2ConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a {@code ConcurrencyLimitOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @param props concurrency limit properties
+     */
+    public ConcurrencyLimitOAuth2HttpClient(
+            String openPlatform, OAuth2HttpClient delegate, OAuth2ConcurrencyLimitProperties props) {
+        this.openPlatform = openPlatform;
+        this.delegate = delegate;
+        this.props = props.copy();
+    }
+
+    /**
+     * Get concurrency limiters.
+     *
+     * @return unmodifiable view of concurrency limiters, key is {@code SCHEME://HOST[:PORT]}
+     */
+    public Map<String, OAuth2ConcurrencyLimiter> getConcurrencyLimiters() {
+        return Collections.unmodifiableMap(concurrencyLimiters);
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        OAuth2ConcurrencyLimiter limiter = concurrencyLimiterOf(request);
+        int inFlight = acquire(limiter, request);
+        long start = System.nanoTime();
+        OAuth2HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (OAuth2IOException e) {
+            onException(limiter, start, inFlight, e);
+            throw e;
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+        onResponse(limiter, start, inFlight, response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        OAuth2ConcurrencyLimiter limiter = concurrencyLimiterOf(request);
+        int inFlight;
+        try {
+            inFlight = acquire(limiter, request);
+        } catch (OAuth2IOException e) {
+            return FutureUtils.failed(e);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<OAuth2HttpResponse> future;
+        try {
+            future = delegate.executeAsync(request);
+        } catch (RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+        return future.whenComplete((response, e) -> {
+            if (e == null) {
+                onResponse(limiter, start, inFlight, response);
+                return;
+            }
+            Throwable cause = FutureUtils.unwrap(e);
+            if (cause instanceof OAuth2IOException) {
+                onException(limiter, start, inFlight, (OAuth2IOException) cause);
+            } else {
+                limiter.release();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Get concurrency limiter of the request host.
+     *
+     * @param request oauth2 http request
+     * @return concurrency limiter
+     */
+    private OAuth2ConcurrencyLimiter concurrencyLimiterOf(OAuth2HttpRequest request) {
+        return concurrencyLimiters.computeIfAbsent(
+                request.getUrl().getOrigin(), key -> new OAuth2ConcurrencyLimiter(openPlatform + '@' + key, props));
+    }
+
+    /**
+     * Acquire a permit of the concurrency limiter.
+     *
+     * @param limiter concurrency limiter
+     * @param request oauth2 http request
+     * @return number of in-flight requests including this one
+     * @throws DeadlineExceededException if the deadline of the request has been reached
+     * @throws ConcurrencyLimitExceededException if the limit has been reached
+     */
+    private static int acquire(OAuth2ConcurrencyLimiter limiter, OAuth2HttpRequest request)
+            throws OAuth2IOException {
+        OAuth2Deadline deadline = OAuth2Deadline.of(request);
+        if (deadline != null && deadline.isExpired()) { throw new DeadlineExceededException(); }
+        int inFlight = limiter.tryAcquire();
+        if (inFlight > 0) { return inFlight; }
+        throw new ConcurrencyLimitExceededException(limiter.getName(), limiter.getLimit());
+    }
+
+    /**
+     * Sample the response.
+     *
+     * @param limiter concurrency limiter
+     * @param start start time in nanos
+     * @param inFlight number of in-flight requests when the request started
+     * @param response oauth2 http response
+     */
+    private static void onResponse(
+            OAuth2ConcurrencyLimiter limiter, long start, int inFlight, OAuth2HttpResponse response) {
+        int status = response.getStatus();
+        limiter.onSample(System.nanoTime() - start, inFlight, status == 429 || status >= 500);
+    }
+
+    /**
+     * Sample the exception.
+     *
+     * @param limiter concurrency limiter
+     * @param start start time in nanos
+     * @param inFlight number of in-flight requests when the request started
+     * @param e oauth2 io exception
+     */
+    private static void onException(
+            OAuth2ConcurrencyLimiter limiter, long start, int inFlight, OAuth2IOException e) {
+        if (e instanceof ConnectionLeaseTimeoutException || e instanceof DeadlineExceededException) {
+            // The local connection pool is exhausted, or the caller has run out of time(the timeout was shrunk to the
+            // remaining time of the deadline), which says nothing about the open platform.
+            limiter.release();
+        } else {
+            limiter.onSample(System.nanoTime() - start, inFlight, true);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2ConcurrencyLimitProperties;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OAuth2 concurrency limiter.
+ *
+ * <p>The limit is adjusted by a TCP Vegas like algorithm driven by the observed round trip time(rtt):
+ * <ul>
+ * <li>The min rtt is regarded as the no-load rtt, it is probed again every {@code probeInterval} samples.</li>
+ * <li>The estimated queue size is {@code limit * (1 - noLoadRtt / rtt)}. If it is small, the open platform is fast and
+ * the limit grows; if it is large, latency is rising and the limit shrinks.</li>
+ * <li>If a request fails or is rejected by the open platform, the limit is multiplied by {@code backoffRatio}.</li>
+ * </ul>
+ * Requests exceeding the limit are rejected immediately instead of being queued.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class OAuth2ConcurrencyLimiter {
+
+    /** Concurrency limiter name. */
+    private final String name;
+    /** Current concurrency limit. */
+    private volatile int limit;
+
+    // ==================== properties ==================================================
+
+    /** Min concurrency limit. */
+    @Getter(AccessLevel.NONE)
+    private final int minLimit;
+    /** Max concurrency limit. */
+    @Getter(AccessLevel.NONE)
+    private final int maxLimit;
+    /** Backoff ratio. */
+    @Getter(AccessLevel.NONE)
+    private final double backoffRatio;
+    /** Probe interval. */
+    @Getter(AccessLevel.NONE)
+    private final int probeInterval;
+
+    // ==================== state =======================================================
+
+    /** Number of in-flight requests. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Estimated limit. */
+    @Getter(AccessLevel.NONE)
+    private double estimatedLimit;
+    /** No-load rtt in nanos, or {@code 0} if unknown. */
+    @Getter(AccessLevel.NONE)
+    private long noLoadRttNanos;
+    /** Number of samples before probing no-load rtt again. */
+    @Getter(AccessLevel.NONE)
+    private int probeCountdown;
+
+    /**
+     * Construct an {@code OAuth2ConcurrencyLimiter}.
+     *
+     * @param name concurrency limiter name
+     * @param props concurrency limit properties
+     */
+    public OAuth2ConcurrencyLimiter(String name, OAuth2ConcurrencyLimitProperties props) {
+        this.name = name;
+        this.minLimit = props.getMinLimit();
+        this.maxLimit = props.getMaxLimit();
+        this.backoffRatio = props.getBackoffRatio();
+        this.probeInterval = props.getProbeInterval();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, props.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+        this.probeCountdown = nextProbeCountdown();
+    }
+
+    /**
+     * Get number of in-flight requests.
+     *
+     * @return number of in-flight requests
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Try to acquire a permit.
+     *
+     * <p>If acquired, exactly one of {@link #onSample(long, int, boolean)} and {@link #release()} must be called after
+     * the request.
+     *
+     * @return number of in-flight requests including this one, or {@code -1} if the limit has been reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) { return -1; }
+            if (inFlight.compareAndSet(current, current + 1)) { return current + 1; }
+        }
+    }
+
+    /** Release the permit without sampling, e.g. the request failed for local reasons. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Release the permit and adjust the limit by the sample.
+     *
+     * @param rttNanos round trip time in nanos
+     * @param inFlightAtStart number of in-flight requests when the request started
+     * @param dropped whether the request failed or was rejected by the open platform
+     */
+    public void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart, dropped);
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Update the limit.
+     *
+     * @param rttNanos round trip time in nanos
+     * @param inFlightAtStart number of in-flight requests when the request started
+     * @param dropped whether the request failed or was rejected by the open platform
+     */
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (--probeCountdown <= 0) {
+            probeCountdown = nextProbeCountdown();
+            noLoadRttNanos = 0;
+        }
+        double current = estimatedLimit;
+        double next;
+        if (dropped) {
+            next = current * backoffRatio;
+        } else if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        } else if (inFlightAtStart * 2 < current) {
+            // The limit is not the bottleneck, the sample says nothing about it.
+            return;
+        } else {
+            double log = Math.max(1, Math.log10(current));
+            double queueSize = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+            if (queueSize <= log) {
+                next = current + 6 * log;
+            } else if (queueSize < 3 * log) {
+                next = current + log;
+            } else if (queueSize > 6 * log) {
+                next = current - log;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Get next probe countdown with jitter, so that limiters will not probe at the same time.
+     *
+     * @return next probe countdown
+     */
+    private int nextProbeCountdown() {
+        return probeInterval + ThreadLocalRandom.current().nextInt(Math.max(1, probeInterval / 2));
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.deadline;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * OAuth2 deadline, the point in time by which a call(maybe consisting of several requests) must be finished.
+ *
+ * <p>A deadline is bound to the current thread by {@link #call(FutureUtils.OAuth2Callable)} or
+ * {@link #callAsync(Supplier)}, and nested deadlines never extend the outer one. Requests sent within the scope carry
+ * the deadline to the oauth2 http client, which shrinks timeouts of each attempt to the remaining time and fails fast
+ * with {@link DeadlineExceededException} once the deadline has been reached.
+ *
+ * <pre>
+ * OAuth2Deadline.after(Duration.ofSeconds(5)).call(() -&gt; client.exchangeForUser(redirectUriQuery));
+ * </pre>
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public final class OAuth2Deadline {
+
+    /** Deadline bound to the current thread. */
+    private static final ThreadLocal<OAuth2Deadline> CURRENT = new ThreadLocal<>();
+
+    /** Deadline in nanos, based on {@link System#nanoTime()}. */
+    private final long deadlineNanos;
+
+    /**
+     * Construct an {@code OAuth2Deadline}.
+     *
+     * @param deadlineNanos deadline in nanos
+     */
+    private OAuth2Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Get remaining time in nanos.
+     *
+     * @return remaining time in nanos, non-positive if the deadline has been reached
+     */
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * Get remaining time.
+     *
+     * @return remaining time, zero if the deadline has been reached
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0L, remainingNanos()));
+    }
+
+    /**
+     * Whether the deadline has been reached.
+     *
+     * @return {@code true} if the deadline has been reached, otherwise {@code false}
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0L;
+    }
+
+    /**
+     * Shrink the timeout to the remaining time.
+     *
+     * @param timeoutMillis timeout in millis, non-positive value means infinite
+     * @return the smaller one of the timeout and the remaining time in millis, at least {@code 1}
+     */
+    public int shrink(int timeoutMillis) {
+        long remainingMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(remainingNanos()));
+        if (timeoutMillis > 0 && timeoutMillis <= remainingMillis) { return timeoutMillis; }
+        return (int) Math.min(remainingMillis, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the earlier one of this deadline and the other one.
+     *
+     * @param other the other deadline, may be {@code null}
+     * @return the earlier deadline
+     */
+    public OAuth2Deadline min(OAuth2Deadline other) {
+        return (other == null || deadlineNanos - other.deadlineNanos <= 0L) ? this : other;
+    }
+
+    /**
+     * Call the callable with this deadline bound to the current thread.
+     *
+     * <p>If a deadline has been bound already, the earlier one takes effect.
+     *
+     * @param callable callable
+     * @param <T> type of result
+     * @return result
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    public <T> T call(FutureUtils.OAuth2Callable<T> callable) throws OAuth2Exception {
+        OAuth2Deadline outer = CURRENT.get();
+        CURRENT.set(min(outer));
+        try {
+            return callable.call();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    /**
+     * Call the supplier with this deadline bound to the current thread.
+     *
+     * <p>If a deadline has been bound already, the earlier one takes effect. Only requests sent while the supplier is
+     * being called carry the deadline, stages composed later should be bound by {@link #bind(Function)}.
+     *
+     * @param supplier supplier of future
+     * @param <T> type of result
+     * @return future of result
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> supplier) {
+        OAuth2Deadline outer = CURRENT.get();
+        CURRENT.set(min(outer));
+        try {
+            return supplier.get();
+        } finally {
+            restore(outer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OAuth2Deadline(remaining=" + remaining() + ")";
+    }
+
+    // #################### static ######################################################
+
+    /**
+     * Initialize a deadline after the timeout from now.
+     *
+     * @param timeout timeout
+     * @return deadline
+     */
+    public static OAuth2Deadline after(Duration timeout) {
+        return new OAuth2Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Get the deadline bound to the current thread.
+     *
+     * @return deadline bound to the current thread, or {@code null} if there is none
+     */
+    public static OAuth2Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Get the deadline of the request, or the one bound to the current thread if the request has none.
+     *
+     * @param request oauth2 http request
+     * @return deadline, or {@code null} if there is none
+     */
+    public static OAuth2Deadline of(OAuth2HttpRequest request) {
+        OAuth2Deadline deadline = request.getDeadline();
+        return (deadline != null) ? deadline : CURRENT.get();
+    }
+
+    /**
+     * Bind the deadline of the current thread to the function, which is useful to compose asynchronous stages.
+     *
+     * <pre>
+     * exchangeForTokenAsync(redirectUriQuery).thenCompose(OAuth2Deadline.bind(this::exchangeForUserAsync));
+     * </pre>
+     *
+     * @param function function that returns future
+     * @param <T> type of argument
+     * @param <R> type of result
+     * @return function that will be called with the deadline of the current thread bound
+     */
+    public static <T, R> Function<T, CompletableFuture<R>> bind(Function<T, CompletableFuture<R>> function) {
+        OAuth2Deadline deadline = CURRENT.get();
+        if (deadline == null) { return function; }
+        return arg -> deadline.callAsync(() -> function.apply(arg));
+    }
+
+    /**
+     * Check whether the deadline bound to the current thread has been reached.
+     *
+     * @throws DeadlineExceededException if the deadline has been reached
+     */
+    public static void checkCurrent() throws DeadlineExceededException {
+        OAuth2Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) { throw new DeadlineExceededException(); }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Restore the outer deadline.
+     *
+     * @param outer outer deadline, may be {@code null}
+     */
+    private static void restore(OAuth2Deadline outer) {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * OAuth2 dns resolver.
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+@FunctionalInterface
+public interface OAuth2DnsResolver {
+
+    /** System default dns resolver, which is backed by {@link InetAddress#getAllByName(String)}. */
+    OAuth2DnsResolver SYSTEM = InetAddress::getAllByName;
+
+    /**
+     * Resolve the host to ip addresses.
+     *
+     * @param host host name
+     * @return ip addresses of the host
+     * @throws UnknownHostException if the host cannot be resolved
+     */
+    InetAddress[] resolve(String host) throws UnknownHostException;
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.event;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonDecoder;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Event oauth2 http client, which decorates another oauth2 http client to record phase timings of sampled exchanges.
+ *
+ * <p>The exchange event is bound to the executing thread while the delegate is executing, and completed when the
+ * response is read or closed, or the exchange failed. Reading the response as json of a sampled exchange reads the
+ * whole body before parsing, so that body read and json parse are timed separately.
+ * <p>It should be the innermost decorator of the transport, so that only the transport is timed.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class EventOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    private final String openPlatform;
+    /** Delegate oauth2 http client. */
+    private final OAuth2HttpClient delegate;
+    /** Oauth2 http event listener. */
+    private final OAuth2HttpEventListener listener;
+
+    /**
+     * Construct an {@code EventOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @param listener oauth2 http event listener
+     */
+    public EventOAuth2HttpClient(String openPlatform, OAuth2HttpClient delegate, OAuth2HttpEventListener listener) {
+        this.openPlatform = openPlatform;
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        if (!listener.isSampled(openPlatform, request)) { return delegate.execute(request); }
+        OAuth2HttpExchangeEvent event = new OAuth2HttpExchangeEvent(openPlatform, request);
+        OAuth2HttpExchangeEvent previous = OAuth2HttpExchangeEvent.bind(event);
+        OAuth2HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (OAuth2IOException | RuntimeException e) {
+            fail(event, e);
+            throw e;
+        } finally {
+            OAuth2HttpExchangeEvent.restore(previous);
+        }
+        event.onResponse(response.getStatus());
+        return new EventOAuth2HttpResponse(response, event);
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        if (!listener.isSampled(openPlatform, request)) { return delegate.executeAsync(request); }
+        OAuth2HttpExchangeEvent event = new OAuth2HttpExchangeEvent(openPlatform, request);
+        OAuth2HttpExchangeEvent previous = OAuth2HttpExchangeEvent.bind(event);
+        CompletableFuture<OAuth2HttpResponse> future;
+        try {
+            future = delegate.executeAsync(request);
+        } catch (RuntimeException e) {
+            fail(event, e);
+            throw e;
+        } finally {
+            OAuth2HttpExchangeEvent.restore(previous);
+        }
+        return future.handle((response, e) -> {
+            if (e != null) {
+                Throwable cause = FutureUtils.unwrap(e);
+                fail(event, cause);
+                throw new CompletionException(cause);
+            }
+            event.onResponse(response.getStatus());
+            return new EventOAuth2HttpResponse(response, event);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Complete the event with the error.
+     *
+     * @param event exchange event
+     * @param error error
+     */
+    private void fail(OAuth2HttpExchangeEvent event, Throwable error) {
+        event.onError(error);
+        complete(event);
+    }
+
+    /**
+     * Complete the event and notify the listener.
+     *
+     * @param event exchange event
+     */
+    private void complete(OAuth2HttpExchangeEvent event) {
+        if (!event.complete()) { return; }
+        try {
+            listener.onExchange(event);
+        } catch (RuntimeException ignored) {
+            // Events are best-effort.
+        }
+    }
+
+    /** Response of a sampled exchange, which records phases of reading. */
+    private class EventOAuth2HttpResponse implements OAuth2HttpResponse {
+
+        /** Delegate oauth2 http response. */
+        private final OAuth2HttpResponse response;
+        /** Exchange event. */
+        private final OAuth2HttpExchangeEvent event;
+
+        /**
+         * Construct an {@code EventOAuth2HttpResponse}.
+         *
+         * @param response delegate oauth2 http response
+         * @param event exchange event
+         */
+        EventOAuth2HttpResponse(OAuth2HttpResponse response, OAuth2HttpExchangeEvent event) {
+            this.response = response;
+            this.event = event;
+        }
+
+        @Override
+        public int getStatus() {
+            return response.getStatus();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.getHeader(name);
+        }
+
+        @Override
+        public List<String> getHeaders(String name) {
+            return response.getHeaders(name);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return response.getInputStream();
+        }
+
+        @Override
+        public String readInputStreamAsString() throws OAuth2IOException {
+            event.beginPhase(OAuth2HttpPhase.BODY_READ);
+            try {
+                return response.readInputStreamAsString();
+            } catch (OAuth2IOException | RuntimeException e) {
+                event.onError(e);
+                throw e;
+            } finally {
+                event.endPhase(OAuth2HttpPhase.BODY_READ);
+                complete(event);
+            }
+        }
+
+        @Override
+        public DataMap readJsonAsDataMap() throws OAuth2IOException {
+            return readJson((parser, json) -> ReadUtils.readJsonAsDataMap(parser));
+        }
+
+        @Override
+        public <T> T readJson(OAuth2JsonDecoder<T> decoder) throws OAuth2IOException {
+            try {
+                byte[] body;
+                event.beginPhase(OAuth2HttpPhase.BODY_READ);
+                try {
+                    body = ReadUtils.readInputStreamAsByteArray(response.getInputStream());
+                } finally {
+                    event.endPhase(OAuth2HttpPhase.BODY_READ);
+                    response.close();
+                }
+                event.beginPhase(OAuth2HttpPhase.JSON_PARSE);
+                try {
+                    return ReadUtils.readJson(body, decoder);
+                } finally {
+                    event.endPhase(OAuth2HttpPhase.JSON_PARSE);
+                }
+            } catch (IOException e) {
+                OAuth2IOException exception = new OAuth2IOException(e);
+                event.onError(exception);
+                throw exception;
+            } catch (RuntimeException e) {
+                event.onError(e);
+                throw e;
+            } finally {
+                complete(event);
+            }
+        }
+
+        @Override
+        public DataMap readQueryLikeTextAsDataMap() throws OAuth2IOException {
+            event.beginPhase(OAuth2HttpPhase.BODY_READ);
+            try {
+                return response.readQueryLikeTextAsDataMap();
+            } catch (OAuth2IOException | RuntimeException e) {
+                event.onError(e);
+                throw e;
+            } finally {
+                event.endPhase(OAuth2HttpPhase.BODY_READ);
+                complete(event);
+            }
+        }
+
+        @Override
+        public void close() throws OAuth2IOException {
+            try {
+                response.close();
+            } finally {
+                complete(event);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.event;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+
+/**
+ * OAuth2 http event listener, which receives phase timings of sampled exchanges.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@FunctionalInterface
+public interface OAuth2HttpEventListener {
+
+    /**
+     * Whether the exchange should be sampled.
+     *
+     * <p>Exchanges that are not sampled are executed without any timing. The default implementation returns
+     * {@code true}.
+     *
+     * @param openPlatform open platform
+     * @param request oauth2 http request
+     * @return {@code true} if the exchange should be sampled, otherwise {@code false}
+     */
+    default boolean isSampled(String openPlatform, OAuth2HttpRequest request) {
+        return true;
+    }
+
+    /**
+     * Called when a sampled exchange is completed, that is, the response is read or closed, or the exchange failed.
+     *
+     * @param event exchange event
+     */
+    void onExchange(OAuth2HttpExchangeEvent event);
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.event;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * OAuth2 http exchange event, which records phase timings of a sampled exchange.
+ *
+ * <p>Timings are offsets in nanos from the start of the exchange. If a phase occurs more than once(e.g. the exchange
+ * is retried), only the last occurrence is kept. The event is not thread-safe, phases are recorded by the thread
+ * executing the corresponding step.
+ * <p>While the exchange is executed by the transport, the event is bound to the executing thread, so that transports
+ * can record phases by {@link #beginCurrentPhase(OAuth2HttpPhase)} and {@link #endCurrentPhase(OAuth2HttpPhase)}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class OAuth2HttpExchangeEvent {
+
+    /** Exchange events bound to threads. */
+    private static final ThreadLocal<OAuth2HttpExchangeEvent> CURRENT = new ThreadLocal<>();
+    /** All phases. */
+    private static final OAuth2HttpPhase[] PHASES = OAuth2HttpPhase.values();
+
+    /** Open platform. */
+    private final String openPlatform;
+    /** Name of the request, or url of the request({@code SCHEME://HOST[:PORT]/PATH}) if the request has no name. */
+    private final String requestName;
+    /** Request method. */
+    private final OAuth2HttpRequest.Method method;
+    /** Url of the request({@code SCHEME://HOST[:PORT]/PATH}). */
+    private final String url;
+    /** Start time in millis since epoch. */
+    private final long startTimeMillis;
+    /** Start time in nanos. */
+    @Getter(AccessLevel.NONE)
+    private final long startNanos = System.nanoTime();
+    /** Start offsets of phases, {@code -1} if not recorded. */
+    @Getter(AccessLevel.NONE)
+    private final long[] phaseStarts = initOffsets();
+    /** End offsets of phases, {@code -1} if not recorded. */
+    @Getter(AccessLevel.NONE)
+    private final long[] phaseEnds = initOffsets();
+    /** Offset when the response head is received, {@code -1} if not received. */
+    private long responseNanos = -1L;
+    /** Offset when the exchange is completed, {@code -1} if not completed. */
+    private long durationNanos = -1L;
+    /** Response status, {@code -1} if not received. */
+    private int status = -1;
+    /** Error of the exchange, or {@code null} if no error. */
+    private Throwable error;
+
+    /**
+     * Construct an {@code OAuth2HttpExchangeEvent}.
+     *
+     * @param openPlatform open platform
+     * @param request oauth2 http request
+     */
+    public OAuth2HttpExchangeEvent(String openPlatform, OAuth2HttpRequest request) {
+        this.openPlatform = openPlatform;
+        this.url = request.getUrl().getPureUrl();
+        this.requestName = (request.getName() == null) ? url : request.getName();
+        this.method = request.getMethod();
+        this.startTimeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Record the beginning of the phase.
+     *
+     * @param phase phase
+     */
+    public void beginPhase(OAuth2HttpPhase phase) {
+        phaseStarts[phase.ordinal()] = elapsedNanos();
+        phaseEnds[phase.ordinal()] = -1L;
+    }
+
+    /**
+     * Record the end of the phase, ignored if the phase has not begun or has already ended.
+     *
+     * @param phase phase
+     */
+    public void endPhase(OAuth2HttpPhase phase) {
+        int index = phase.ordinal();
+        if (phaseStarts[index] >= 0L && phaseEnds[index] < 0L) { phaseEnds[index] = elapsedNanos(); }
+    }
+
+    /**
+     * Get start offset of the phase.
+     *
+     * @param phase phase
+     * @return start offset of the phase in nanos, or {@code -1} if not recorded
+     */
+    public long getPhaseStartNanos(OAuth2HttpPhase phase) {
+        return phaseStarts[phase.ordinal()];
+    }
+
+    /**
+     * Get end offset of the phase.
+     *
+     * @param phase phase
+     * @return end offset of the phase in nanos, or {@code -1} if not recorded
+     */
+    public long getPhaseEndNanos(OAuth2HttpPhase phase) {
+        return phaseEnds[phase.ordinal()];
+    }
+
+    /**
+     * Get duration of the phase.
+     *
+     * @param phase phase
+     * @return duration of the phase in nanos, or {@code -1} if not recorded
+     */
+    public long getPhaseNanos(OAuth2HttpPhase phase) {
+        long end = phaseEnds[phase.ordinal()];
+        return (end < 0L) ? -1L : (end - phaseStarts[phase.ordinal()]);
+    }
+
+    /**
+     * Whether the event is completed.
+     *
+     * @return {@code true} if the event is completed, otherwise {@code false}
+     */
+    public boolean isCompleted() {
+        return durationNanos >= 0L;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append(openPlatform).append(' ').append(requestName)
+                .append(" status=").append(status)
+                .append(" response=").append(responseNanos)
+                .append(" duration=").append(durationNanos);
+        for (OAuth2HttpPhase phase : PHASES) {
+            long nanos = getPhaseNanos(phase);
+            if (nanos >= 0L) { builder.append(' ').append(phase).append('=').append(nanos); }
+        }
+        if (error != null) { builder.append(" error=").append(error); }
+        return builder.toString();
+    }
+
+    // #################### thread binding ##############################################
+
+    /**
+     * Get the exchange event bound to the current thread.
+     *
+     * @return exchange event, or {@code null} if the current exchange is not sampled
+     */
+    public static OAuth2HttpExchangeEvent current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record the beginning of the phase of the exchange event bound to the current thread, if any.
+     *
+     * @param phase phase
+     */
+    public static void beginCurrentPhase(OAuth2HttpPhase phase) {
+        OAuth2HttpExchangeEvent event = CURRENT.get();
+        if (event != null) { event.beginPhase(phase); }
+    }
+
+    /**
+     * Record the end of the phase of the exchange event bound to the current thread, if any.
+     *
+     * @param phase phase
+     */
+    public static void endCurrentPhase(OAuth2HttpPhase phase) {
+        OAuth2HttpExchangeEvent event = CURRENT.get();
+        if (event != null) { event.endPhase(phase); }
+    }
+
+    /**
+     * Bind the exchange event to the current thread.
+     *
+     * @param event exchange event
+     * @return the exchange event previously bound, or {@code null} if none
+     */
+    static OAuth2HttpExchangeEvent bind(OAuth2HttpExchangeEvent event) {
+        OAuth2HttpExchangeEvent previous = CURRENT.get();
+        CURRENT.set(event);
+        return previous;
+    }
+
+    /**
+     * Restore the exchange event bound to the current thread.
+     *
+     * @param previous the exchange event previously bound, or {@code null} if none
+     */
+    static void restore(OAuth2HttpExchangeEvent previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    // #################### lifecycle ###################################################
+
+    /**
+     * Record that the response head is received.
+     *
+     * @param status response status
+     */
+    void onResponse(int status) {
+        this.responseNanos = elapsedNanos();
+        this.status = status;
+    }
+
+    /**
+     * Record that the exchange failed.
+     *
+     * @param error error
+     */
+    void onError(Throwable error) {
+        this.error = error;
+    }
+
+    /**
+     * Complete the event.
+     *
+     * @return {@code true} if the event is completed by this call, {@code false} if it has been completed
+     */
+    boolean complete() {
+        if (durationNanos >= 0L) { return false; }
+        durationNanos = elapsedNanos();
+        return true;
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Get nanos elapsed since the exchange started.
+     *
+     * @return nanos elapsed since the exchange started
+     */
+    private long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Initialize offsets of phases.
+     *
+     * @return offsets of phases, all {@code -1}
+     */
+    private static long[] initOffsets() {
+        long[] offsets = new long[PHASES.length];
+        Arrays.fill(offsets, -1L);
+        return offsets;
+    }
+
+}
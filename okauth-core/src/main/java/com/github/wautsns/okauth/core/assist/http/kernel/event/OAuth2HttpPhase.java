@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.event;
+
+/**
+ * Phase of an oauth2 http exchange.
+ *
+ * <p>Phases of connection establishment(lease, DNS, connect, TLS handshake) and request transmission(request write,
+ * first byte) are only recorded by transports that support them, such as {@code HttpClient4OAuth2HttpClient}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public enum OAuth2HttpPhase {
+
+    /** Leasing a connection from the connection pool. */
+    LEASE,
+    /** Resolving the host. */
+    DNS,
+    /** Connecting the socket. */
+    CONNECT,
+    /** TLS handshake. */
+    TLS_HANDSHAKE,
+    /** Writing the request. */
+    REQUEST_WRITE,
+    /** Waiting for the response head after the request is written. */
+    FIRST_BYTE,
+    /** Reading the response body. */
+    BODY_READ,
+    /** Parsing the response body as json. */
+    JSON_PARSE
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.event;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2LatencyHistogram;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampling oauth2 http event listener, which samples a fraction of exchanges and records phase latencies into
+ * histograms.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class SamplingOAuth2HttpEventListener implements OAuth2HttpEventListener {
+
+    /** Fraction of exchanges to sample, in [0, 1]. */
+    @Getter
+    private final double sampleRate;
+    /** Phase latency histograms. */
+    private final Map<PhaseKey, OAuth2LatencyHistogram> phaseLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a {@code SamplingOAuth2HttpEventListener}.
+     *
+     * @param sampleRate fraction of exchanges to sample, in [0, 1]
+     */
+    public SamplingOAuth2HttpEventListener(double sampleRate) {
+        if (!(sampleRate >= 0D && sampleRate <= 1D)) {
+            throw new IllegalArgumentException("sampleRate must be in [0, 1].");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public boolean isSampled(String openPlatform, OAuth2HttpRequest request) {
+        return (sampleRate >= 1D) || (sampleRate > 0D && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    @Override
+    public void onExchange(OAuth2HttpExchangeEvent event) {
+        for (OAuth2HttpPhase phase : OAuth2HttpPhase.values()) {
+            long nanos = event.getPhaseNanos(phase);
+            if (nanos < 0L) { continue; }
+            PhaseKey key = new PhaseKey(event.getOpenPlatform(), event.getRequestName(), phase);
+            phaseLatencies.computeIfAbsent(key, k -> new OAuth2LatencyHistogram()).record(nanos);
+        }
+    }
+
+    /**
+     * Get phase latency histograms.
+     *
+     * @return unmodifiable view of phase latency histograms
+     */
+    public Map<PhaseKey, OAuth2LatencyHistogram> getPhaseLatencies() {
+        return Collections.unmodifiableMap(phaseLatencies);
+    }
+
+    /** Key of phase. */
+    @Value
+    public static class PhaseKey {
+
+        /** Open platform. */
+        String openPlatform;
+        /** Name of the request. */
+        String requestName;
+        /** Phase. */
+        OAuth2HttpPhase phase;
+
+    }
+
+}
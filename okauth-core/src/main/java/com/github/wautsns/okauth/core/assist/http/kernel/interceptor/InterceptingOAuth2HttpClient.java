@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.interceptor;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Intercepting oauth2 http client, which decorates another oauth2 http client with an ordered chain of interceptors.
+ *
+ * <p>Use {@link #decorate(String, OAuth2HttpClient, List)} to skip the decoration if there are no interceptors, so
+ * that exchanges cost nothing extra.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class InterceptingOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    @Getter
+    private final String openPlatform;
+    /** Delegate oauth2 http client. */
+    @Getter
+    private final OAuth2HttpClient delegate;
+    /** Interceptors. */
+    private final OAuth2HttpInterceptor[] interceptors;
+
+    /**
+     * Construct an {@code InterceptingOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @param interceptors interceptors in order
+     */
+    public InterceptingOAuth2HttpClient(
+            String openPlatform, OAuth2HttpClient delegate, List<OAuth2HttpInterceptor> interceptors) {
+        this.openPlatform = openPlatform;
+        this.delegate = delegate;
+        this.interceptors = interceptors.toArray(new OAuth2HttpInterceptor[0]);
+    }
+
+    /**
+     * Get interceptors.
+     *
+     * @return interceptors in order
+     */
+    public List<OAuth2HttpInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors));
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        long start = System.nanoTime();
+        int sent = 0;
+        OAuth2HttpResponse response = null;
+        try {
+            while (response == null && sent < interceptors.length) {
+                response = interceptors[sent].beforeSend(request);
+                sent++;
+            }
+            if (response == null) { response = delegate.execute(request); }
+        } catch (OAuth2IOException | RuntimeException e) {
+            notifyError(request, e, sent, start);
+            throw e;
+        }
+        return receive(request, response, sent, start);
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        long start = System.nanoTime();
+        int sent = 0;
+        OAuth2HttpResponse response = null;
+        CompletableFuture<OAuth2HttpResponse> future;
+        try {
+            while (response == null && sent < interceptors.length) {
+                response = interceptors[sent].beforeSend(request);
+                sent++;
+            }
+            future = (response == null)
+                    ? delegate.executeAsync(request)
+                    : CompletableFuture.completedFuture(response);
+        } catch (OAuth2IOException | RuntimeException e) {
+            notifyError(request, e, sent, start);
+            return FutureUtils.failed(e);
+        }
+        int finalSent = sent;
+        return future.handle((result, e) -> {
+            if (e != null) {
+                Throwable cause = FutureUtils.unwrap(e);
+                notifyError(request, cause, finalSent, start);
+                throw new CompletionException(cause);
+            }
+            try {
+                return receive(request, result, finalSent, start);
+            } catch (OAuth2IOException ex) {
+                throw new CompletionException(ex);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### decoration ##################################################
+
+    /**
+     * Decorate the oauth2 http client with the interceptors.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @param interceptors interceptors in order, may be {@code null}
+     * @return the delegate itself if there are no interceptors, otherwise an intercepting oauth2 http client
+     */
+    public static OAuth2HttpClient decorate(
+            String openPlatform, OAuth2HttpClient delegate, List<OAuth2HttpInterceptor> interceptors) {
+        if (interceptors == null || interceptors.isEmpty()) { return delegate; }
+        return new InterceptingOAuth2HttpClient(openPlatform, delegate, interceptors);
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Pass the response to interceptors whose {@code beforeSend} has been called, in the reverse order.
+     *
+     * @param request oauth2 http request
+     * @param response oauth2 http response
+     * @param sent number of interceptors whose {@code beforeSend} has been called
+     * @param start start time in nanos
+     * @return oauth2 http response
+     * @throws OAuth2IOException if IO exception occurs
+     */
+    private OAuth2HttpResponse receive(
+            OAuth2HttpRequest request, OAuth2HttpResponse response, int sent, long start) throws OAuth2IOException {
+        long elapsedNanos = System.nanoTime() - start;
+        int remaining = sent;
+        try {
+            while (remaining > 0) {
+                response = interceptors[--remaining].afterReceive(request, response, elapsedNanos);
+            }
+            return response;
+        } catch (OAuth2IOException | RuntimeException e) {
+            notifyError(request, e, remaining, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Notify interceptors whose {@code beforeSend} has been called of the error, in the reverse order.
+     *
+     * @param request oauth2 http request
+     * @param error error
+     * @param sent number of interceptors whose {@code beforeSend} has been called
+     * @param start start time in nanos
+     */
+    private void notifyError(OAuth2HttpRequest request, Throwable error, int sent, long start) {
+        long elapsedNanos = System.nanoTime() - start;
+        for (int i = sent - 1; i >= 0; i--) {
+            try {
+                interceptors[i].onError(request, error, elapsedNanos);
+            } catch (RuntimeException ignored) {
+                // The original error is rethrown.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.interceptor;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+
+/**
+ * OAuth2 http interceptor, which sees each exchange of {@link InterceptingOAuth2HttpClient}.
+ *
+ * <p>For each exchange, {@link #beforeSend(OAuth2HttpRequest)} is called in the order of interceptors, then
+ * {@link #afterReceive(OAuth2HttpRequest, OAuth2HttpResponse, long)} or
+ * {@link #onError(OAuth2HttpRequest, Throwable, long)} is called in the reverse order, only for interceptors whose
+ * {@code beforeSend} has been called.
+ * <p>The request is passed as is rather than copied, interceptors may modify it(e.g. add headers) in
+ * {@code beforeSend}. Interceptors are shared by concurrent exchanges, so they must be thread-safe.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public interface OAuth2HttpInterceptor {
+
+    /**
+     * Called before the request is sent.
+     *
+     * <p>If a response is returned, the request will not be sent to the following interceptors and the delegate, and
+     * the response will be passed to {@code afterReceive} as if it were received(e.g. cached responses or injected
+     * faults).
+     * <p>The default implementation returns {@code null}.
+     *
+     * @param request oauth2 http request
+     * @return response to short-circuit the exchange, or {@code null} to continue
+     * @throws OAuth2IOException if the exchange should fail with IO exception
+     */
+    default OAuth2HttpResponse beforeSend(OAuth2HttpRequest request) throws OAuth2IOException {
+        return null;
+    }
+
+    /**
+     * Called after the response is received.
+     *
+     * <p>The default implementation returns the response as is.
+     *
+     * @param request oauth2 http request
+     * @param response oauth2 http response
+     * @param elapsedNanos nanos elapsed since the exchange started
+     * @return oauth2 http response, may be a different one
+     * @throws OAuth2IOException if the exchange should fail with IO exception
+     */
+    default OAuth2HttpResponse afterReceive(
+            OAuth2HttpRequest request, OAuth2HttpResponse response, long elapsedNanos) throws OAuth2IOException {
+        return response;
+    }
+
+    /**
+     * Called if the exchange failed.
+     *
+     * <p>The error will be rethrown after all interceptors are notified. Exceptions thrown by this method are ignored.
+     * <p>The default implementation does nothing.
+     *
+     * @param request oauth2 http request
+     * @param error error, usually {@code OAuth2IOException}
+     * @param elapsedNanos nanos elapsed since the exchange started
+     */
+    default void onError(OAuth2HttpRequest request, Throwable error, long elapsedNanos) {}
+
+}
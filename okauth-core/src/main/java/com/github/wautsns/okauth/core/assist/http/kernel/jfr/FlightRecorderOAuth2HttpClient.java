@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.jfr;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.assist.jfr.OAuth2FlightRecorder;
+import com.github.wautsns.okauth.core.assist.jfr.OAuth2FlightRecording;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Flight recorder oauth2 http client, which emits a Java Flight Recorder event for each execution of the delegate.
+ *
+ * <p>Use {@link #decorate(String, OAuth2HttpClient)} to skip the decoration if the current JVM cannot emit events.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ * @see OAuth2FlightRecorder
+ */
+public class FlightRecorderOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    @Getter
+    private final String openPlatform;
+    /** Delegate oauth2 http client. */
+    @Getter
+    private final OAuth2HttpClient delegate;
+
+    /**
+     * Construct a {@code FlightRecorderOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     */
+    public FlightRecorderOAuth2HttpClient(String openPlatform, OAuth2HttpClient delegate) {
+        this.openPlatform = openPlatform;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        OAuth2FlightRecording recording = OAuth2FlightRecorder.beginHttpExchange(openPlatform, request);
+        if (recording == OAuth2FlightRecording.NONE) { return delegate.execute(request); }
+        OAuth2HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (OAuth2IOException | RuntimeException e) {
+            recording.finish(e);
+            throw e;
+        }
+        finish(recording, response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        OAuth2FlightRecording recording = OAuth2FlightRecorder.beginHttpExchange(openPlatform, request);
+        if (recording == OAuth2FlightRecording.NONE) { return delegate.executeAsync(request); }
+        CompletableFuture<OAuth2HttpResponse> future;
+        try {
+            future = delegate.executeAsync(request);
+        } catch (RuntimeException e) {
+            recording.finish(e);
+            throw e;
+        }
+        return future.whenComplete((response, e) -> {
+            if (e == null) {
+                finish(recording, response);
+            } else {
+                recording.finish(FutureUtils.unwrap(e));
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### decoration ##################################################
+
+    /**
+     * Decorate the oauth2 http client to emit flight recorder events.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @return the delegate itself if events cannot be emitted, otherwise a flight recorder oauth2 http client
+     */
+    public static OAuth2HttpClient decorate(String openPlatform, OAuth2HttpClient delegate) {
+        if (!OAuth2FlightRecorder.isAvailable()) { return delegate; }
+        return new FlightRecorderOAuth2HttpClient(openPlatform, delegate);
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Finish the recording with the response received.
+     *
+     * @param recording recording
+     * @param response oauth2 http response
+     */
+    private static void finish(OAuth2FlightRecording recording, OAuth2HttpResponse response) {
+        recording.setStatus(response.getStatus());
+        String contentLength = response.getHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                recording.setBytes(Long.parseLong(contentLength.trim()));
+            } catch (NumberFormatException ignored) {
+                // The number of bytes remains unknown.
+            }
+        }
+        recording.finish(null);
+    }
+
+}
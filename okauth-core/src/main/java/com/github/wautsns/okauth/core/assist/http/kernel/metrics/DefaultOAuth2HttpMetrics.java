@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.metrics;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default oauth2 http metrics, which keeps measurements in memory without any dependency.
+ *
+ * <ul>
+ * <li>exchange latency: {@linkplain OAuth2LatencyHistogram histogram} per open platform, endpoint and status
+ * class</li>
+ * <li>connection lease wait: histogram per pool and route</li>
+ * <li>connection reuse: counters per pool and route</li>
+ * <li>pool snapshots: the latest snapshot per pool</li>
+ * </ul>
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class DefaultOAuth2HttpMetrics implements OAuth2HttpMetrics {
+
+    /** Exchange latency histograms. */
+    private final Map<ExchangeKey, OAuth2LatencyHistogram> exchangeLatencies = new ConcurrentHashMap<>();
+    /** Connection lease wait histograms. */
+    private final Map<RouteKey, OAuth2LatencyHistogram> leaseWaits = new ConcurrentHashMap<>();
+    /** Connection reuse counters. */
+    private final Map<RouteKey, ConnectionReuse> connectionReuses = new ConcurrentHashMap<>();
+    /** The latest pool snapshots, key is name of the pool. */
+    private final Map<String, OAuth2HttpPoolSnapshot> poolSnapshots = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordExchange(String openPlatform, String endpoint, String statusClass, long durationNanos) {
+        ExchangeKey key = new ExchangeKey(openPlatform, endpoint, statusClass);
+        exchangeLatencies.computeIfAbsent(key, k -> new OAuth2LatencyHistogram()).record(durationNanos);
+    }
+
+    @Override
+    public void recordConnectionLease(String pool, String route, long waitNanos, boolean reused) {
+        RouteKey key = new RouteKey(pool, route);
+        leaseWaits.computeIfAbsent(key, k -> new OAuth2LatencyHistogram()).record(waitNanos);
+        connectionReuses.computeIfAbsent(key, k -> new ConnectionReuse()).record(reused);
+    }
+
+    @Override
+    public void recordPoolSnapshot(OAuth2HttpPoolSnapshot snapshot) {
+        poolSnapshots.put(snapshot.getPool(), snapshot);
+    }
+
+    /**
+     * Get exchange latency histograms.
+     *
+     * @return unmodifiable view of exchange latency histograms
+     */
+    public Map<ExchangeKey, OAuth2LatencyHistogram> getExchangeLatencies() {
+        return Collections.unmodifiableMap(exchangeLatencies);
+    }
+
+    /**
+     * Get connection lease wait histograms.
+     *
+     * @return unmodifiable view of connection lease wait histograms
+     */
+    public Map<RouteKey, OAuth2LatencyHistogram> getLeaseWaits() {
+        return Collections.unmodifiableMap(leaseWaits);
+    }
+
+    /**
+     * Get connection reuse counters.
+     *
+     * @return unmodifiable view of connection reuse counters
+     */
+    public Map<RouteKey, ConnectionReuse> getConnectionReuses() {
+        return Collections.unmodifiableMap(connectionReuses);
+    }
+
+    /**
+     * Get the latest pool snapshots.
+     *
+     * @return unmodifiable view of the latest pool snapshots, key is name of the pool
+     */
+    public Map<String, OAuth2HttpPoolSnapshot> getPoolSnapshots() {
+        return Collections.unmodifiableMap(poolSnapshots);
+    }
+
+    /** Key of exchange. */
+    @Value
+    public static class ExchangeKey {
+
+        /** Open platform. */
+        String openPlatform;
+        /** Endpoint({@code SCHEME://HOST[:PORT]/PATH}). */
+        String endpoint;
+        /** Status class. */
+        String statusClass;
+
+    }
+
+    /** Key of route. */
+    @Value
+    public static class RouteKey {
+
+        /** Name of the connection pool. */
+        String pool;
+        /** Route({@code SCHEME://HOST:PORT}). */
+        String route;
+
+    }
+
+    /** Connection reuse counters. */
+    public static class ConnectionReuse {
+
+        /** Number of connections reused. */
+        private final LongAdder reused = new LongAdder();
+        /** Number of connections created. */
+        private final LongAdder created = new LongAdder();
+
+        /**
+         * Record a leased connection.
+         *
+         * @param reused whether the connection is reused
+         */
+        private void record(boolean reused) {
+            (reused ? this.reused : this.created).increment();
+        }
+
+        /**
+         * Get number of connections reused.
+         *
+         * @return number of connections reused
+         */
+        public long getReused() {
+            return reused.sum();
+        }
+
+        /**
+         * Get number of connections created.
+         *
+         * @return number of connections created
+         */
+        public long getCreated() {
+            return created.sum();
+        }
+
+        /**
+         * Get reuse ratio.
+         *
+         * @return reuse ratio in range [0, 1], or {@code 0} if no connection has been leased
+         */
+        public double getReuseRatio() {
+            long reusedValue = getReused();
+            long total = reusedValue + getCreated();
+            return (total == 0L) ? 0D : ((double) reusedValue / total);
+        }
+
+    }
+
+}
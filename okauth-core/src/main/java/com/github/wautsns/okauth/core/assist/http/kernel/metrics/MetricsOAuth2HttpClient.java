@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.metrics;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Metrics oauth2 http client, which decorates another oauth2 http client to record exchange latencies.
+ *
+ * <p>Each exchange is recorded with the open platform, endpoint({@code SCHEME://HOST[:PORT]/PATH}) and status class
+ * of the response, or {@link OAuth2HttpMetrics#STATUS_CLASS_IO_ERROR} if IO exception occurs. Exchanges failed with
+ * runtime exceptions are not recorded.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class MetricsOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    private final String openPlatform;
+    /** Delegate oauth2 http client. */
+    private final OAuth2HttpClient delegate;
+    /** Oauth2 http metrics. */
+    private final OAuth2HttpMetrics metrics;
+
+    /**
+     * Construct a {@code MetricsOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param delegate delegate oauth2 http client
+     * @param metrics oauth2 http metrics
+     */
+    public MetricsOAuth2HttpClient(String openPlatform, OAuth2HttpClient delegate, OAuth2HttpMetrics metrics) {
+        this.openPlatform = openPlatform;
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        long start = System.nanoTime();
+        OAuth2HttpResponse response;
+        try {
+            response = delegate.execute(request);
+        } catch (OAuth2IOException e) {
+            record(request, OAuth2HttpMetrics.STATUS_CLASS_IO_ERROR, start);
+            throw e;
+        }
+        record(request, OAuth2HttpMetrics.statusClassOf(response.getStatus()), start);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        long start = System.nanoTime();
+        return delegate.executeAsync(request).whenComplete((response, e) -> {
+            if (e == null) {
+                record(request, OAuth2HttpMetrics.statusClassOf(response.getStatus()), start);
+            } else if (FutureUtils.unwrap(e) instanceof OAuth2IOException) {
+                record(request, OAuth2HttpMetrics.STATUS_CLASS_IO_ERROR, start);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Record the exchange.
+     *
+     * @param request oauth2 http request
+     * @param statusClass status class
+     * @param start start time in nanos
+     */
+    private void record(OAuth2HttpRequest request, String statusClass, long start) {
+        metrics.recordExchange(openPlatform, request.getUrl().getPureUrl(), statusClass, System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.metrics;
+
+/**
+ * OAuth2 http metrics, which receives measurements of oauth2 http clients.
+ *
+ * <p>All methods are called on the request path or by background threads of the transport, implementations should
+ * be thread-safe and must not block.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public interface OAuth2HttpMetrics {
+
+    /** Metrics that records nothing. */
+    OAuth2HttpMetrics NONE = new OAuth2HttpMetrics() {};
+
+    /** Status class of exchanges failed with IO exception. */
+    String STATUS_CLASS_IO_ERROR = "IO_ERROR";
+
+    /**
+     * Record an exchange(including retries) of the open platform.
+     *
+     * @param openPlatform open platform
+     * @param endpoint endpoint({@code SCHEME://HOST[:PORT]/PATH})
+     * @param statusClass status class, such as {@code 2xx}, or {@link #STATUS_CLASS_IO_ERROR}
+     * @param durationNanos duration in nanos
+     */
+    default void recordExchange(String openPlatform, String endpoint, String statusClass, long durationNanos) {}
+
+    /**
+     * Record a connection leased from the connection pool of the transport.
+     *
+     * @param pool name of the connection pool
+     * @param route route({@code SCHEME://HOST:PORT}) of the connection
+     * @param waitNanos time waited for the connection in nanos
+     * @param reused {@code true} if the connection is reused, {@code false} if it is newly created
+     */
+    default void recordConnectionLease(String pool, String route, long waitNanos, boolean reused) {}
+
+    /**
+     * Record a snapshot of the connection pool of the transport.
+     *
+     * @param snapshot snapshot of the connection pool
+     */
+    default void recordPoolSnapshot(OAuth2HttpPoolSnapshot snapshot) {}
+
+    /**
+     * Get status class of the status.
+     *
+     * @param status http status
+     * @return status class, such as {@code 2xx}
+     */
+    static String statusClassOf(int status) {
+        return (status / 100) + "xx";
+    }
+
+}
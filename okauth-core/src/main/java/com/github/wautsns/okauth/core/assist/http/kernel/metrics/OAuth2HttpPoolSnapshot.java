@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.metrics;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the connection pool of an oauth2 http client.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Value
+public class OAuth2HttpPoolSnapshot {
+
+    /** Name of the connection pool. */
+    String pool;
+    /** Time the snapshot was taken, in milliseconds since epoch. */
+    long timestamp;
+    /** Total stats. */
+    Stats total;
+    /** Stats of routes, key is route({@code SCHEME://HOST:PORT}). */
+    Map<String, Stats> routes;
+
+    /** Stats of connections. */
+    @Value
+    public static class Stats {
+
+        /** Number of connections leased. */
+        int leased;
+        /** Number of requests waiting for a connection. */
+        int pending;
+        /** Number of idle connections available. */
+        int available;
+        /** Max number of connections. */
+        int max;
+
+    }
+
+}
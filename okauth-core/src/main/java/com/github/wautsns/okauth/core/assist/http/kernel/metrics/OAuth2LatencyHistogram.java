@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.metrics;
+
+import lombok.Value;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OAuth2 latency histogram.
+ *
+ * <p>Values are recorded into log-linear buckets in the same way as HdrHistogram: each power of two is split into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets, so the relative error of any percentile is at most
+ * {@code 1/}{@value #SUB_BUCKET_COUNT}(about 3%) while the memory footprint is fixed. Values are in nanos, values
+ * not less than {@code 2^41}ns(about 36 minutes) are recorded into the last bucket.
+ * <p>Recording is lock-free, reading is weakly consistent while values are being recorded.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class OAuth2LatencyHistogram {
+
+    /** Bits of sub-bucket index. */
+    private static final int SUB_BUCKET_BITS = 5;
+    /** Number of sub-buckets per power of two. */
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** Exponent of the max trackable value. */
+    private static final int MAX_EXPONENT = 40;
+    /** Number of buckets, the last one is for values greater than the max trackable value. */
+    private static final int BUCKET_COUNT = ((MAX_EXPONENT - SUB_BUCKET_BITS + 2) << SUB_BUCKET_BITS) + 1;
+
+    /** Counts of buckets. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    /** Total count. */
+    private final LongAdder count = new LongAdder();
+    /** Sum of values. */
+    private final LongAdder sum = new LongAdder();
+    /** Max value. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Record a value.
+     *
+     * @param nanos value in nanos, negative value is regarded as {@code 0}
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Get total count of recorded values.
+     *
+     * @return total count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get value at the percentile.
+     *
+     * <p>The value returned is the highest value equivalent to the recorded value(upper bound of the bucket), but no
+     * greater than the max recorded value.
+     *
+     * @param percentile percentile, in range [0, 100]
+     * @return value in nanos, or {@code 0} if no value has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0L;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0L) { return 0L; }
+        double clamped = Math.min(100D, Math.max(0D, percentile));
+        long rank = Math.max(1L, (long) Math.ceil(clamped / 100D * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) { return Math.min(highestEquivalentValueOf(i), max.get()); }
+        }
+        return max.get();
+    }
+
+    /**
+     * Take a snapshot of the histogram.
+     *
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        long countValue = count.sum();
+        return new Snapshot(
+                countValue, (countValue == 0L) ? 0L : (sum.sum() / countValue), max.get(),
+                getValueAtPercentile(50D), getValueAtPercentile(90D),
+                getValueAtPercentile(99D), getValueAtPercentile(99.9D));
+    }
+
+    /** Snapshot of the histogram, values are in nanos. */
+    @Value
+    public static class Snapshot {
+
+        /** Total count. */
+        long count;
+        /** Mean value. */
+        long mean;
+        /** Max value. */
+        long max;
+        /** Value at percentile 50. */
+        long p50;
+        /** Value at percentile 90. */
+        long p90;
+        /** Value at percentile 99. */
+        long p99;
+        /** Value at percentile 99.9. */
+        long p999;
+
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Get index of bucket of the value.
+     *
+     * @param value non-negative value
+     * @return index of bucket
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) { return (int) value; }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) { return BUCKET_COUNT - 1; }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Get the highest value of the bucket.
+     *
+     * @param index index of bucket
+     * @return the highest value
+     */
+    private static long highestEquivalentValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) { return index; }
+        if (index == BUCKET_COUNT - 1) { return Long.MAX_VALUE; }
+        int exponent = (index >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = ((long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1)))) << shift;
+        return lowest + (1L << shift) - 1L;
+    }
+
+}
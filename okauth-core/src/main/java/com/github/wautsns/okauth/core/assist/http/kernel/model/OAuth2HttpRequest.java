@@ -15,6 +15,7 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.model;
 
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2HttpHeaders;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
@@ -40,9 +41,14 @@ public class OAuth2HttpRequest implements Serializable {
     private static final long serialVersionUID = -5239420641606727328L;
 
     /** Request method. */
+    @Getter
+    @RequiredArgsConstructor
     public enum Method {
-        GET, POST, PUT, PATCH, DELETE,
-        OPTIONS, HEAD, TRACE
+        GET(true), POST(false), PUT(true), PATCH(false), DELETE(true),
+        OPTIONS(true), HEAD(true), TRACE(true);
+
+        /** Whether the method is idempotent by definition. */
+        private final boolean idempotent;
     }
 
     /** Request method. */
@@ -53,6 +59,13 @@ public class OAuth2HttpRequest implements Serializable {
     private OAuth2HttpHeaders headers;
     /** Request entity. */
     private OAuth2HttpEntity entity;
+    /** Whether the request is idempotent. If null, it depends on the method. */
+    @Getter(AccessLevel.NONE)
+    private Boolean idempotent;
+    /** Deadline of the request. If null, the deadline bound to the current thread will be used. */
+    private transient OAuth2Deadline deadline;
+    /** Name of the request(e.g. token, user, refresh), which identifies the request in events. */
+    private String name;
 
     /**
      * Get headers.
@@ -94,6 +107,53 @@ public class OAuth2HttpRequest implements Serializable {
         return (OAuth2HttpJsonEntity) entity;
     }
 
+    /**
+     * Whether the request is idempotent, that is, it can be retried safely even if it may have been processed.
+     *
+     * @return {@code true} if the request is idempotent, otherwise {@code false}
+     */
+    public boolean isIdempotent() {
+        return (idempotent == null) ? method.isIdempotent() : idempotent;
+    }
+
+    /**
+     * Set whether the request is idempotent.
+     *
+     * <p>Requests carrying one-time credentials such as authorization code or refresh token should be marked as not
+     * idempotent even if the method is GET, since the credential may have been consumed by the open platform even if
+     * the response is lost.
+     *
+     * @param idempotent whether the request is idempotent
+     * @return self reference
+     */
+    public OAuth2HttpRequest setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
+        return this;
+    }
+
+    /**
+     * Set deadline of the request.
+     *
+     * @param deadline deadline, may be {@code null}
+     * @return self reference
+     * @see OAuth2Deadline#of(OAuth2HttpRequest)
+     */
+    public OAuth2HttpRequest setDeadline(OAuth2Deadline deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * Set name of the request.
+     *
+     * @param name name of the request(e.g. token, user, refresh), may be {@code null}
+     * @return self reference
+     */
+    public OAuth2HttpRequest setName(String name) {
+        this.name = name;
+        return this;
+    }
+
     /**
      * Create and return a copy of this object.
      *
@@ -103,6 +163,9 @@ public class OAuth2HttpRequest implements Serializable {
         OAuth2HttpRequest copy = new OAuth2HttpRequest(method, url.copy());
         copy.headers = (this.headers == null) ? null : this.headers.copy();
         copy.entity = (this.entity == null) ? null : this.entity.copy();
+        copy.idempotent = this.idempotent;
+        copy.deadline = this.deadline;
+        copy.name = this.name;
         return copy;
     }
 
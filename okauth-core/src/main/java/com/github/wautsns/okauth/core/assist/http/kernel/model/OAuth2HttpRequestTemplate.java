@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.builtin.OAuth2HttpFormUrlEncodedEntity;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.builtin.OAuth2HttpJsonEntity;
+
+/**
+ * OAuth2 http request template.
+ *
+ * <p>The template is immutable. Static url query, form url encoded entity and unchanged values of json entity of the
+ * prototype are pre-encoded once when the template is created, and requests initialized by the template share the
+ * pre-encoded text, so that only dynamic parameters(e.g. code, access_token) added to the request need to be encoded
+ * for each call.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public final class OAuth2HttpRequestTemplate {
+
+    /** Prototype, which never escapes from the template. */
+    private final OAuth2HttpRequest prototype;
+
+    /**
+     * Construct an oauth2 http request template.
+     *
+     * @param prototype prototype, which will not be modified
+     */
+    private OAuth2HttpRequestTemplate(OAuth2HttpRequest prototype) {
+        OAuth2HttpRequest frozen = prototype.copy().setDeadline(null);
+        frozen.getUrl().getQuery().preEncode();
+        OAuth2HttpEntity entity = frozen.getEntity();
+        if (entity instanceof OAuth2HttpFormUrlEncodedEntity) {
+            ((OAuth2HttpFormUrlEncodedEntity) entity).preEncode();
+        } else if (entity instanceof OAuth2HttpJsonEntity) {
+            ((OAuth2HttpJsonEntity) entity).preSerialize();
+        }
+        this.prototype = frozen;
+    }
+
+    /**
+     * Get request method.
+     *
+     * @return request method
+     */
+    public OAuth2HttpRequest.Method getMethod() {
+        return prototype.getMethod();
+    }
+
+    /**
+     * Get name of the request.
+     *
+     * @return name of the request, may be {@code null}
+     */
+    public String getName() {
+        return prototype.getName();
+    }
+
+    /**
+     * Initialize a new request.
+     *
+     * <p>The new request can be modified freely without affecting the template.
+     *
+     * @return a new request
+     */
+    public OAuth2HttpRequest newRequest() {
+        return prototype.copy();
+    }
+
+    /**
+     * Create a template whose prototype is a copy of the specified request.
+     *
+     * @param prototype prototype request, which will not be modified
+     * @return oauth2 http request template
+     */
+    public static OAuth2HttpRequestTemplate of(OAuth2HttpRequest prototype) {
+        return new OAuth2HttpRequestTemplate(prototype);
+    }
+
+}
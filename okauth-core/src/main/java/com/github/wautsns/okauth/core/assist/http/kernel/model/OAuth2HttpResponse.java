@@ -100,6 +100,24 @@ public interface OAuth2HttpResponse {
         }
     }
 
+    /**
+     * Read http response input stream(json) with the decoder.
+     *
+     * @param decoder json decoder
+     * @param <T> type of decoded value
+     * @return decoded value
+     * @throws OAuth2IOException if IO exception occurs
+     */
+    default <T> T readJson(OAuth2JsonDecoder<T> decoder) throws OAuth2IOException {
+        try {
+            return ReadUtils.readJson(ReadUtils.readInputStreamAsByteArray(getInputStream()), decoder);
+        } catch (IOException e) {
+            throw new OAuth2IOException(e);
+        } finally {
+            close();
+        }
+    }
+
     /**
      * Read http response input stream(query-like text) as {@code DataMap}.
      *
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * OAuth2 json decoder.
+ *
+ * <p>Decoders bind the fields they need from a streaming {@link JsonParser}, so that no intermediate {@code DataMap}
+ * is built for each response.
+ *
+ * @param <T> type of decoded value
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@FunctionalInterface
+public interface OAuth2JsonDecoder<T> {
+
+    /**
+     * Decode json.
+     *
+     * @param parser json parser(positioned before the first token)
+     * @param json json bytes that the parser reads(eg. for building the original data map lazily)
+     * @return decoded value
+     * @throws IOException if IO exception occurs
+     */
+    T decode(JsonParser parser, byte[] json) throws IOException;
+
+    /** Json field binder. */
+    @FunctionalInterface
+    interface FieldBinder {
+
+        /**
+         * Bind the field.
+         *
+         * <p>The parser is positioned at the value of the field. If the field is bound, the value(including children)
+         * must be consumed.
+         *
+         * @param name field name
+         * @param parser json parser
+         * @return {@code true} if the field is bound, otherwise {@code false}(the value will be skipped)
+         * @throws IOException if IO exception occurs
+         */
+        boolean bind(String name, JsonParser parser) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OAuth2 json projection.
+ *
+ * <p>The projection reads only the declared paths(names joined by {@code '.'}, eg. {@code "error.code"}) into a
+ * {@code DataMap} with the same nested structure as the json, and skips everything else. Paths are declared in
+ * groups, and the reading stops as soon as all paths of any group are found(eg. {@code of("id").or("error_code",
+ * "error_msg")}).
+ *
+ * <p>The projection is immutable and can be shared.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public final class OAuth2JsonProjection implements OAuth2JsonDecoder<DataMap> {
+
+    /** Path groups. */
+    private final List<List<String>> groups;
+    /** Indexes of paths of each group. */
+    private final int[][] groupIndexes;
+    /** Count of distinct paths. */
+    private final int pathCount;
+    /** Root node. */
+    private final Node root;
+
+    /**
+     * Construct an oauth2 json projection.
+     *
+     * @param groups path groups
+     * @throws IllegalArgumentException if a path is empty or overlaps another path
+     */
+    private OAuth2JsonProjection(List<List<String>> groups) {
+        this.groups = groups;
+        this.groupIndexes = new int[groups.size()][];
+        this.root = new Node();
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            List<String> group = groups.get(i);
+            int[] groupIndex = new int[group.size()];
+            for (int j = 0; j < group.size(); j++) {
+                String path = group.get(j);
+                Integer index = indexes.get(path);
+                if (index == null) {
+                    index = indexes.size();
+                    indexes.put(path, index);
+                    root.attach(path, index);
+                }
+                groupIndex[j] = index;
+            }
+            groupIndexes[i] = groupIndex;
+        }
+        this.pathCount = indexes.size();
+    }
+
+    /**
+     * Initialize a projection with the path group.
+     *
+     * @param paths paths
+     * @return oauth2 json projection
+     * @throws IllegalArgumentException if a path is empty or overlaps another path
+     */
+    public static OAuth2JsonProjection of(String... paths) {
+        return new OAuth2JsonProjection(Collections.singletonList(Arrays.asList(paths)));
+    }
+
+    /**
+     * Initialize a new projection with the additional path group.
+     *
+     * @param paths paths
+     * @return new oauth2 json projection
+     * @throws IllegalArgumentException if a path is empty or overlaps another path
+     */
+    public OAuth2JsonProjection or(String... paths) {
+        List<List<String>> newGroups = new ArrayList<>(groups.size() + 1);
+        newGroups.addAll(groups);
+        newGroups.add(Arrays.asList(paths));
+        return new OAuth2JsonProjection(newGroups);
+    }
+
+    @Override
+    public DataMap decode(JsonParser parser, byte[] json) throws IOException {
+        JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, String.format("Expected json object but was [%s].", token));
+        }
+        DataMap result = new DataMap(8);
+        readObject(parser, root, result, new boolean[pathCount]);
+        return result;
+    }
+
+    /**
+     * Read fields of json object(the parser is positioned at the start of the object).
+     *
+     * @param parser json parser
+     * @param node node of the object
+     * @param target data map to put values
+     * @param found whether each path is found
+     * @return {@code true} if all paths of any group are found, otherwise {@code false}
+     * @throws IOException if IO exception occurs
+     */
+    private boolean readObject(JsonParser parser, Node node, DataMap target, boolean[] found) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            Node child = node.children.get(name);
+            JsonToken token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+            } else if (child.index >= 0) {
+                target.put(name, ReadUtils.readJsonValue(parser));
+                found[child.index] = true;
+                if (isAnyGroupFound(found)) { return true; }
+            } else if (token == JsonToken.START_OBJECT) {
+                DataMap value = new DataMap(8);
+                target.put(name, value);
+                if (readObject(parser, child, value, found)) { return true; }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether all paths of any group are found.
+     *
+     * @param found whether each path is found
+     * @return {@code true} if all paths of any group are found, otherwise {@code false}
+     */
+    private boolean isAnyGroupFound(boolean[] found) {
+        for (int[] groupIndex : groupIndexes) {
+            boolean all = true;
+            for (int index : groupIndex) {
+                if (!found[index]) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) { return true; }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return groups.toString();
+    }
+
+    /** Node of path tree. */
+    private static final class Node {
+
+        /** Child nodes. */
+        private final Map<String, Node> children = new HashMap<>(4);
+        /** Index of path if the node is the end of the path, otherwise {@code -1}. */
+        private int index = -1;
+
+        /**
+         * Attach the path to the node.
+         *
+         * @param path path
+         * @param index index of the path
+         * @throws IllegalArgumentException if the path is empty or overlaps another path
+         */
+        private void attach(String path, int index) {
+            Node node = this;
+            for (String name : path.split("\\.", -1)) {
+                if (name.isEmpty() || node.index >= 0) {
+                    throw new IllegalArgumentException(String.format("Illegal or overlapped path [%s].", path));
+                }
+                node = node.children.computeIfAbsent(name, n -> new Node());
+            }
+            if (node.index >= 0 || !node.children.isEmpty()) {
+                throw new IllegalArgumentException(String.format("Illegal or overlapped path [%s].", path));
+            }
+            node.index = index;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model.basic;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Lazy data map.
+ *
+ * <p>The data map is built from json bytes only when it is required for the first time.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public final class LazyDataMap implements Serializable {
+
+    private static final long serialVersionUID = -3377094196012535212L;
+
+    /** Json bytes, or {@code null} if the data map is specified directly. */
+    private transient byte[] json;
+    /** Data map, or {@code null} if it is not built yet. */
+    private transient volatile DataMap dataMap;
+
+    /**
+     * Construct a lazy data map.
+     *
+     * @param json json bytes
+     * @param dataMap data map
+     */
+    private LazyDataMap(byte[] json, DataMap dataMap) {
+        this.json = json;
+        this.dataMap = dataMap;
+    }
+
+    /**
+     * Initialize a lazy data map with the json bytes.
+     *
+     * @param json json bytes
+     * @return lazy data map
+     */
+    public static LazyDataMap ofJson(byte[] json) {
+        return new LazyDataMap(Objects.requireNonNull(json), null);
+    }
+
+    /**
+     * Initialize a lazy data map with the data map that is already built.
+     *
+     * @param dataMap data map
+     * @return lazy data map
+     */
+    public static LazyDataMap of(DataMap dataMap) {
+        return new LazyDataMap(null, Objects.requireNonNull(dataMap));
+    }
+
+    /**
+     * Get data map(build it from json bytes if necessary).
+     *
+     * @return data map
+     * @throws UncheckedIOException if the json bytes cannot be read as data map
+     */
+    public DataMap get() {
+        DataMap result = dataMap;
+        if (result == null) {
+            synchronized (this) {
+                result = dataMap;
+                if (result == null) {
+                    try {
+                        dataMap = result = ReadUtils.readJsonAsDataMap(json);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // #################### serialization ###############################################
+
+    /**
+     * Write the json bytes(the data map will be written as json if it has been built, since it may be modified).
+     *
+     * @param out object output stream
+     * @throws IOException if IO exception occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        DataMap built = dataMap;
+        out.writeObject((built == null) ? json : WriteUtils.writeObjectAsJsonBytes(built));
+    }
+
+    /**
+     * Read the json bytes.
+     *
+     * @param in object input stream
+     * @throws IOException if IO exception occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        json = (byte[]) in.readObject();
+    }
+
+}
@@ -15,28 +15,84 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.model.basic;
 
-import lombok.Getter;
-
 import java.io.Serializable;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.ListIterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
  * Name value pairs.
  *
+ * <p>Names and values are stored alternately in a compact array, so iterating, copying, setting and removing do not
+ * allocate any node.
+ *
  * @author wautsns
  * @since May 16, 2020
  */
-@Getter
 public class NameValuePairs implements Serializable {
 
-    private static final long serialVersionUID = -2963874324351686069L;
+    private static final long serialVersionUID = 4512083746250417983L;
+
+    /** Empty original data, which is shared by empty pairs. */
+    private static final String[] EMPTY = new String[0];
+    /** Initial capacity(number of pairs) when the first pair is added. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Original data: names and values stored alternately. */
+    private String[] origin = EMPTY;
+    /** Number of used elements in original data(twice the number of pairs). */
+    private int length;
+
+    /**
+     * Get original data: names and values stored alternately.
+     *
+     * @return an unmodifiable view of original data
+     */
+    public List<String> getOrigin() {
+        return Collections.unmodifiableList(Arrays.asList(origin).subList(0, length));
+    }
+
+    /**
+     * Get the number of name value pairs.
+     *
+     * @return the number of name value pairs
+     */
+    public int size() {
+        return length >> 1;
+    }
 
-    /** Original data. */
-    private final LinkedList<String> origin = new LinkedList<>();
+    /**
+     * Whether there are no name value pairs.
+     *
+     * @return {@code true} if there are no name value pairs, otherwise {@code false}
+     */
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Get name at the specified index.
+     *
+     * @param index index of the pair
+     * @return name
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getName(int index) {
+        return origin[checkIndex(index) << 1];
+    }
+
+    /**
+     * Get value at the specified index.
+     *
+     * @param index index of the pair
+     * @return value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getValue(int index) {
+        return origin[(checkIndex(index) << 1) + 1];
+    }
 
     /**
      * Iterate over each name value pair.
@@ -44,8 +100,9 @@ public class NameValuePairs implements Serializable {
      * @param action the action to be performed for each name value pair
      */
     public void forEach(BiConsumer<String, String> action) {
-        for (Iterator<String> iterator = origin.iterator(); iterator.hasNext(); ) {
-            action.accept(iterator.next(), iterator.next());
+        String[] origin = this.origin;
+        for (int i = 0, length = this.length; i < length; i += 2) {
+            action.accept(origin[i], origin[i + 1]);
         }
     }
 
@@ -60,8 +117,7 @@ public class NameValuePairs implements Serializable {
      */
     public NameValuePairs add(String name, String value) {
         if (value == null) { return this; }
-        origin.add(name);
-        origin.add(value);
+        append(name, value);
         return this;
     }
 
@@ -79,8 +135,7 @@ public class NameValuePairs implements Serializable {
         if (value == null) {
             return add(name, defaultValue);
         } else {
-            origin.add(name);
-            origin.add(value);
+            append(name, value);
             return this;
         }
     }
@@ -107,10 +162,9 @@ public class NameValuePairs implements Serializable {
      * @return self reference
      */
     public NameValuePairs set(String name, String value) {
-        for (ListIterator<String> iterator = origin.listIterator(); iterator.hasNext(); ) {
-            String target = iterator.next();
-            iterator.next();
-            if (target.equals(name)) { iterator.set(value); }
+        String[] origin = this.origin;
+        for (int i = 0, length = this.length; i < length; i += 2) {
+            if (origin[i].equals(name)) { origin[i + 1] = value; }
         }
         return this;
     }
@@ -121,13 +175,15 @@ public class NameValuePairs implements Serializable {
      * @param name name
      */
     public void remove(String name) {
-        for (Iterator<String> iterator = origin.iterator(); iterator.hasNext(); ) {
-            if (iterator.next().equals(name)) {
-                iterator.remove();
-                iterator.next();
-                iterator.remove();
-            }
+        String[] origin = this.origin;
+        int retained = 0;
+        for (int i = 0, length = this.length; i < length; i += 2) {
+            if (origin[i].equals(name)) { continue; }
+            origin[retained++] = origin[i];
+            origin[retained++] = origin[i + 1];
         }
+        Arrays.fill(origin, retained, length, null);
+        length = retained;
     }
 
     /**
@@ -136,9 +192,72 @@ public class NameValuePairs implements Serializable {
      * @return a copy of this object
      */
     public NameValuePairs copy() {
-        NameValuePairs copy = new NameValuePairs();
-        copy.origin.addAll(this.origin);
-        return copy;
+        return copyTo(new NameValuePairs());
+    }
+
+    /**
+     * Copy name value pairs to the target.
+     *
+     * @param target target name value pairs, which should be empty
+     * @param <T> type of target name value pairs
+     * @return target name value pairs
+     */
+    protected <T extends NameValuePairs> T copyTo(T target) {
+        NameValuePairs copy = target;
+        copy.origin = (length == 0) ? EMPTY : Arrays.copyOf(origin, length);
+        copy.length = length;
+        return target;
+    }
+
+    /**
+     * Insert name value pairs(as is) at the beginning.
+     *
+     * @param pairs name value pairs to insert
+     */
+    protected void insertFirst(NameValuePairs pairs) {
+        if (pairs.length == 0) { return; }
+        String[] inserted = new String[pairs.length + origin.length];
+        System.arraycopy(pairs.origin, 0, inserted, 0, pairs.length);
+        System.arraycopy(origin, 0, inserted, pairs.length, length);
+        origin = inserted;
+        length += pairs.length;
+    }
+
+    /** Remove all name value pairs. */
+    protected void clear() {
+        origin = EMPTY;
+        length = 0;
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Append name and value(as is) to original data.
+     *
+     * @param name name
+     * @param value value
+     */
+    private void append(String name, String value) {
+        if (length == origin.length) {
+            int capacity = (length == 0) ? (INITIAL_CAPACITY << 1) : (length << 1);
+            origin = Arrays.copyOf(origin, capacity);
+        }
+        origin[length++] = name;
+        origin[length++] = value;
+    }
+
+    /**
+     * Check index of the pair.
+     *
+     * @param index index of the pair
+     * @return index of the pair
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private int checkIndex(int index) {
+        // Not size(), which may be overridden to count entries that are not stored in original data.
+        int size = length >> 1;
+        if (index >= 0 && index < size) { return index; }
+        throw new IndexOutOfBoundsException(String.format("Index [%d] is out of range [0, %d).", index, size));
     }
 
 }
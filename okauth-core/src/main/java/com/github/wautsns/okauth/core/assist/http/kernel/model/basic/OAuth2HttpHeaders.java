@@ -104,9 +104,7 @@ public class OAuth2HttpHeaders extends NameValuePairs {
 
     @Override
     public OAuth2HttpHeaders copy() {
-        OAuth2HttpHeaders copy = new OAuth2HttpHeaders();
-        copy.getOrigin().addAll(this.getOrigin());
-        return copy;
+        return copyTo(new OAuth2HttpHeaders());
     }
 
 }
@@ -15,6 +15,7 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.model.basic;
 
+import com.github.wautsns.okauth.core.assist.http.kernel.util.PercentEncodingUtils;
 import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
 
 import java.io.Serializable;
@@ -57,11 +58,7 @@ public class OAuth2Url implements Serializable {
         } else {
             this.pureUrl = url.substring(0, indexOfQuery);
             this.query = new OAuth2UrlEncodedEntries();
-            String[] queryItems = url.substring(indexOfQuery + 1).split("&");
-            for (String queryItem : queryItems) {
-                String[] nameAndUrlEncodedValue = queryItem.split("=", 2);
-                this.query.addUrlEncoded(nameAndUrlEncodedValue[0], nameAndUrlEncodedValue[1]);
-            }
+            PercentEncodingUtils.forEachEncodedQueryItem(url.substring(indexOfQuery + 1), query::addUrlEncoded);
         }
     }
 
@@ -74,6 +71,27 @@ public class OAuth2Url implements Serializable {
         return pureUrl;
     }
 
+    /**
+     * Get origin({@code SCHEME://HOST[:PORT]}) of the url.
+     *
+     * @return origin
+     */
+    public String getOrigin() {
+        int indexOfScheme = pureUrl.indexOf("://");
+        int indexOfPath = pureUrl.indexOf('/', (indexOfScheme < 0) ? 0 : (indexOfScheme + 3));
+        return (indexOfPath < 0) ? pureUrl : pureUrl.substring(0, indexOfPath);
+    }
+
+    /**
+     * Get path of the url.
+     *
+     * @return path, or {@code "/"} if the url has no path
+     */
+    public String getPath() {
+        String path = pureUrl.substring(getOrigin().length());
+        return path.isEmpty() ? "/" : path;
+    }
+
     /**
      * Get url query.
      *
@@ -116,9 +134,10 @@ public class OAuth2Url implements Serializable {
 
     @Override
     public String toString() {
-        if (query == null) { return (anchor == null) ? pureUrl : (pureUrl + '#' + anchor); }
-        StringBuilder url = new StringBuilder(pureUrl);
-        url.append('?').append(WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(query));
+        String queryLikeText = (query == null) ? "" : WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(query);
+        if (queryLikeText.isEmpty()) { return (anchor == null) ? pureUrl : (pureUrl + '#' + anchor); }
+        StringBuilder url = new StringBuilder(pureUrl.length() + queryLikeText.length() + 1);
+        url.append(pureUrl).append('?').append(queryLikeText);
         if (anchor != null) { url.append('#').append(anchor); }
         return url.toString();
     }
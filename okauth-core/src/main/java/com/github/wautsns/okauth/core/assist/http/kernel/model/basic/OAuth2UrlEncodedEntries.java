@@ -15,9 +15,12 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.model.basic;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.PercentEncodingUtils;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
+
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * OAuth2 url encoded entries.
@@ -29,6 +32,11 @@ public class OAuth2UrlEncodedEntries extends NameValuePairs {
 
     private static final long serialVersionUID = -6684282712581355622L;
 
+    /** Pre-encoded query like text of the leading entries, which is shared with copies. */
+    private String preEncoded;
+    /** Number of pre-encoded entries. */
+    private int preEncodedSize;
+
     // #################### oauth app properties ########################################
 
     /**
@@ -185,6 +193,57 @@ public class OAuth2UrlEncodedEntries extends NameValuePairs {
 
     // #################### common #####################################################
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Pre-encoded entries are restored first.
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getOrigin() {
+        restorePreEncoded();
+        return super.getOrigin();
+    }
+
+    @Override
+    public int size() {
+        return preEncodedSize + super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return preEncoded == null && super.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Pre-encoded entries are restored first.
+     *
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String getName(int index) {
+        restorePreEncoded();
+        return super.getName(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Pre-encoded entries are restored first.
+     *
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String getValue(int index) {
+        restorePreEncoded();
+        return super.getValue(index);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -197,11 +256,7 @@ public class OAuth2UrlEncodedEntries extends NameValuePairs {
     @Override
     public OAuth2UrlEncodedEntries add(String name, String value) {
         if (value == null) { return this; }
-        try {
-            return addUrlEncoded(name, URLEncoder.encode(value, "UTF-8"));
-        } catch (UnsupportedEncodingException e) {
-            throw new IllegalStateException(e);
-        }
+        return addUrlEncoded(name, PercentEncodingUtils.encode(value));
     }
 
     /**
@@ -245,16 +300,7 @@ public class OAuth2UrlEncodedEntries extends NameValuePairs {
      */
     @Override
     public OAuth2UrlEncodedEntries set(String name, String value) {
-        String urlEncodedValue;
-        if (value == null) {
-            urlEncodedValue = null;
-        } else {
-            try {
-                urlEncodedValue = URLEncoder.encode(value, "UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                throw new IllegalStateException(e);
-            }
-        }
+        String urlEncodedValue = (value == null) ? null : PercentEncodingUtils.encode(value);
         return setUrlEncoded(name, urlEncodedValue);
     }
 
@@ -279,6 +325,19 @@ public class OAuth2UrlEncodedEntries extends NameValuePairs {
         return (OAuth2UrlEncodedEntries) super.addAll(nameUrlEncodedValueMap);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Pre-encoded entries are iterated first.
+     *
+     * @param action {@inheritDoc}
+     */
+    @Override
+    public void forEach(BiConsumer<String, String> action) {
+        if (preEncoded != null) { PercentEncodingUtils.forEachEncodedQueryItem(preEncoded, action); }
+        super.forEach(action);
+    }
+
     /**
      * Associate url encoded value with the specified name(Old value will be replaced).
      *
@@ -287,14 +346,110 @@ public class OAuth2UrlEncodedEntries extends NameValuePairs {
      * @return self reference
      */
     public OAuth2UrlEncodedEntries setUrlEncoded(String name, String value) {
+        restorePreEncoded();
         return (OAuth2UrlEncodedEntries) super.set(name, value);
     }
 
+    @Override
+    public void remove(String name) {
+        restorePreEncoded();
+        super.remove(name);
+    }
+
     @Override
     public OAuth2UrlEncodedEntries copy() {
-        OAuth2UrlEncodedEntries copy = new OAuth2UrlEncodedEntries();
-        copy.getOrigin().addAll(this.getOrigin());
-        return copy;
+        return copyTo(new OAuth2UrlEncodedEntries());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The pre-encoded text is shared with the target if it is url encoded entries.
+     *
+     * @param target {@inheritDoc}
+     * @param <T> {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    protected <T extends NameValuePairs> T copyTo(T target) {
+        super.copyTo(target);
+        if (target instanceof OAuth2UrlEncodedEntries) {
+            ((OAuth2UrlEncodedEntries) target).preEncoded = this.preEncoded;
+            ((OAuth2UrlEncodedEntries) target).preEncodedSize = this.preEncodedSize;
+        }
+        return target;
+    }
+
+    // #################### pre-encoding ################################################
+
+    /**
+     * Pre-encode current entries as query like text, which will be shared with copies of this object instead of
+     * being copied and encoded again.
+     *
+     * <p>Entries added later are written after the pre-encoded text.
+     *
+     * @return self reference
+     */
+    public OAuth2UrlEncodedEntries preEncode() {
+        if (super.isEmpty()) { return this; }
+        String text = WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(this);
+        preEncodedSize = size();
+        preEncoded = text;
+        clear();
+        return this;
+    }
+
+    /**
+     * Get pre-encoded query like text.
+     *
+     * <p>Used by writers together with {@link #sizeOfAppended()}, {@link #getAppendedName(int)} and
+     * {@link #getAppendedValue(int)}, so that pre-encoded entries need not be restored.
+     *
+     * @return pre-encoded query like text, or {@code null} if no entries are pre-encoded
+     */
+    public String getPreEncoded() {
+        return preEncoded;
+    }
+
+    /**
+     * Get the number of entries which are not pre-encoded.
+     *
+     * @return the number of entries which are not pre-encoded
+     */
+    public int sizeOfAppended() {
+        return super.size();
+    }
+
+    /**
+     * Get name at the specified index of entries which are not pre-encoded.
+     *
+     * @param index index of the entry
+     * @return name
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getAppendedName(int index) {
+        return super.getName(index);
+    }
+
+    /**
+     * Get value at the specified index of entries which are not pre-encoded.
+     *
+     * @param index index of the entry
+     * @return url encoded value
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String getAppendedValue(int index) {
+        return super.getValue(index);
+    }
+
+    /** Restore pre-encoded entries as original data so that they can be replaced or removed. */
+    private void restorePreEncoded() {
+        if (preEncoded == null) { return; }
+        NameValuePairs restored = new NameValuePairs();
+        PercentEncodingUtils.forEachEncodedQueryItem(preEncoded, restored::add);
+        preEncoded = null;
+        preEncodedSize = 0;
+        insertFirst(restored);
     }
 
 }
@@ -15,7 +15,11 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 
 /**
  * OAuth2 http entity.
@@ -25,12 +29,39 @@ import java.io.Serializable;
  */
 public interface OAuth2HttpEntity extends Serializable {
 
+    /**
+     * Get length of the content in bytes.
+     *
+     * @return length of the content in bytes, or {@code -1} if it is unknown until the entity is written
+     */
+    default long getContentLength() {
+        return -1L;
+    }
+
+    /**
+     * Write the entity to the output stream.
+     *
+     * <p><strong>The method will not close the output stream.</strong>
+     *
+     * @param outputStream output stream
+     * @throws IOException if IO exception occurs
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+
     /**
      * To bytes.
      *
      * @return bytes
      */
-    byte[] toBytes();
+    default byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeTo(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
 
     /**
      * Create and return a copy of this object.
@@ -19,6 +19,9 @@ import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2UrlEn
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
 import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * OAuth2 http form url encoded entity.
  *
@@ -29,6 +32,16 @@ public class OAuth2HttpFormUrlEncodedEntity extends OAuth2UrlEncodedEntries impl
 
     private static final long serialVersionUID = -3092924176481279906L;
 
+    @Override
+    public long getContentLength() {
+        return WriteUtils.measureUrlEncodedEntriesAsQueryLikeTextBytes(this);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(toBytes());
+    }
+
     @Override
     public byte[] toBytes() {
         return WriteUtils.writeUrlEncodedEntriesAsQueryLikeTextBytes(this);
@@ -36,9 +49,7 @@ public class OAuth2HttpFormUrlEncodedEntity extends OAuth2UrlEncodedEntries impl
 
     @Override
     public OAuth2HttpFormUrlEncodedEntity copy() {
-        OAuth2HttpFormUrlEncodedEntity copy = new OAuth2HttpFormUrlEncodedEntity();
-        copy.getOrigin().addAll(this.getOrigin());
-        return copy;
+        return copyTo(new OAuth2HttpFormUrlEncodedEntity());
     }
 
 }
@@ -15,13 +15,17 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.builtin;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
 import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -38,6 +42,8 @@ public class OAuth2HttpJsonEntity implements OAuth2HttpEntity {
     private Set<String> changeableDataMapNames;
     /** Original data map. */
     private DataMap origin;
+    /** Pre-serialized unchanged values, which are shared with copies. */
+    private transient Map<String, PreSerializedValue> preSerializedValues;
 
     /**
      * Put unchanged value.
@@ -91,15 +97,57 @@ public class OAuth2HttpJsonEntity implements OAuth2HttpEntity {
         return origin.getAsDataMap(name);
     }
 
+    /**
+     * Pre-serialize current unchanged values as json, which will be shared with copies of this object instead of
+     * being serialized again.
+     *
+     * <p>Values put later(including values replacing pre-serialized ones) are serialized as usual.
+     *
+     * @return self reference
+     */
+    public OAuth2HttpJsonEntity preSerialize() {
+        if (origin == null) { return this; }
+        Map<String, PreSerializedValue> values = new HashMap<>();
+        origin.forEach((name, value) -> {
+            if (changeableDataMapNames != null && changeableDataMapNames.contains(name)) { return; }
+            values.put(name, new PreSerializedValue(value, WriteUtils.writeObjectAsJsonString(value)));
+        });
+        preSerializedValues = values.isEmpty() ? null : values;
+        return this;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (preSerializedValues == null) {
+            WriteUtils.writeObjectAsJson(origin, outputStream);
+            return;
+        }
+        try (JsonGenerator generator = WriteUtils.initJsonGenerator(outputStream)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, Serializable> entry : origin.entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                PreSerializedValue preSerialized = preSerializedValues.get(entry.getKey());
+                if (preSerialized != null && preSerialized.value == entry.getValue()) {
+                    generator.writeRawValue(preSerialized.json);
+                } else {
+                    generator.writeObject(entry.getValue());
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
     @Override
     public byte[] toBytes() {
-        return WriteUtils.writeObjectAsJsonString(origin).getBytes(StandardCharsets.UTF_8);
+        if (preSerializedValues == null) { return WriteUtils.writeObjectAsJsonBytes(origin); }
+        return OAuth2HttpEntity.super.toBytes();
     }
 
     @Override
     public OAuth2HttpJsonEntity copy() {
         OAuth2HttpJsonEntity copy = new OAuth2HttpJsonEntity();
         copy.changeableDataMapNames = this.changeableDataMapNames;
+        copy.preSerializedValues = this.preSerializedValues;
         if (changeableDataMapNames == null) {
             copy.origin = new DataMap(this.origin);
         } else {
@@ -132,4 +180,25 @@ public class OAuth2HttpJsonEntity implements OAuth2HttpEntity {
         return copy;
     }
 
+    /** Pre-serialized value. */
+    private static class PreSerializedValue {
+
+        /** Original value. */
+        private final Object value;
+        /** Json of the value. */
+        private final String json;
+
+        /**
+         * Construct a pre-serialized value.
+         *
+         * @param value original value
+         * @param json json of the value
+         */
+        private PreSerializedValue(Object value, String json) {
+            this.value = value;
+            this.json = json;
+        }
+
+    }
+
 }
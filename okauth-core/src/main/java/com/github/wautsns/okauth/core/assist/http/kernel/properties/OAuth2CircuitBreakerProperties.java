@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.properties;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+/**
+ * OAuth2 circuit breaker properties.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OAuth2CircuitBreakerProperties {
+
+    /** Number of the most recent calls to calculate failure rate and slow call rate. */
+    private Integer slidingWindowSize;
+    /** Min number of calls in the sliding window before the rates are calculated. */
+    private Integer minimumNumberOfCalls;
+    /** Failure rate threshold(0, 1], exceeding which the circuit breaker opens. */
+    private Double failureRateThreshold;
+    /** Calls taking longer than this duration are considered slow. */
+    private Duration slowCallDurationThreshold;
+    /** Slow call rate threshold(0, 1], exceeding which the circuit breaker opens. */
+    private Double slowCallRateThreshold;
+    /** Time the circuit breaker stays open before permitting probe calls. */
+    private Duration waitDurationInOpenState;
+    /** Number of probe calls permitted when the circuit breaker is half open. */
+    private Integer permittedNumberOfCallsInHalfOpenState;
+
+    /**
+     * Create and return a copy of this object.
+     *
+     * @return a copy of this properties
+     */
+    public OAuth2CircuitBreakerProperties copy() {
+        return new OAuth2CircuitBreakerProperties()
+                .setSlidingWindowSize(slidingWindowSize)
+                .setMinimumNumberOfCalls(minimumNumberOfCalls)
+                .setFailureRateThreshold(failureRateThreshold)
+                .setSlowCallDurationThreshold(slowCallDurationThreshold)
+                .setSlowCallRateThreshold(slowCallRateThreshold)
+                .setWaitDurationInOpenState(waitDurationInOpenState)
+                .setPermittedNumberOfCallsInHalfOpenState(permittedNumberOfCallsInHalfOpenState);
+    }
+
+    /**
+     * Fill null properties with the source.
+     *
+     * @param source source properties
+     * @return self reference
+     */
+    public OAuth2CircuitBreakerProperties fillNullProperties(OAuth2CircuitBreakerProperties source) {
+        if (slidingWindowSize == null) { slidingWindowSize = source.slidingWindowSize; }
+        if (minimumNumberOfCalls == null) { minimumNumberOfCalls = source.minimumNumberOfCalls; }
+        if (failureRateThreshold == null) { failureRateThreshold = source.failureRateThreshold; }
+        if (slowCallDurationThreshold == null) { slowCallDurationThreshold = source.slowCallDurationThreshold; }
+        if (slowCallRateThreshold == null) { slowCallRateThreshold = source.slowCallRateThreshold; }
+        if (waitDurationInOpenState == null) { waitDurationInOpenState = source.waitDurationInOpenState; }
+        if (permittedNumberOfCallsInHalfOpenState == null) {
+            permittedNumberOfCallsInHalfOpenState = source.permittedNumberOfCallsInHalfOpenState;
+        }
+        return this;
+    }
+
+    // #################### utils #######################################################
+
+    /**
+     * Initialize default circuit breaker properties.
+     *
+     * <ul>
+     * <li>slidingWindowSize: {@code 20}</li>
+     * <li>minimumNumberOfCalls: {@code 10}</li>
+     * <li>failureRateThreshold: {@code 0.5}</li>
+     * <li>slowCallDurationThreshold: {@code 3s}</li>
+     * <li>slowCallRateThreshold: {@code 0.8}</li>
+     * <li>waitDurationInOpenState: {@code 10s}</li>
+     * <li>permittedNumberOfCallsInHalfOpenState: {@code 3}</li>
+     * </ul>
+     *
+     * @return circuit breaker properties with default properties
+     */
+    public static OAuth2CircuitBreakerProperties initDefault() {
+        return new OAuth2CircuitBreakerProperties()
+                .setSlidingWindowSize(20)
+                .setMinimumNumberOfCalls(10)
+                .setFailureRateThreshold(0.5)
+                .setSlowCallDurationThreshold(Duration.parse("PT3S"))
+                .setSlowCallRateThreshold(0.8)
+                .setWaitDurationInOpenState(Duration.parse("PT10S"))
+                .setPermittedNumberOfCallsInHalfOpenState(3);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.properties;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * OAuth2 concurrency limit properties.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OAuth2ConcurrencyLimitProperties {
+
+    /** Initial concurrency limit. */
+    private Integer initialLimit;
+    /** Min concurrency limit. */
+    private Integer minLimit;
+    /**
+     * Max concurrency limit. It should not exceed the max concurrent requests per route of the http client, otherwise
+     * excess requests will wait for connections instead of being shed.
+     */
+    private Integer maxLimit;
+    /** Ratio the limit is multiplied by when a request fails or is rejected by the open platform. */
+    private Double backoffRatio;
+    /** Number of samples after which the no-load round trip time is probed again. */
+    private Integer probeInterval;
+
+    /**
+     * Create and return a copy of this object.
+     *
+     * @return a copy of this properties
+     */
+    public OAuth2ConcurrencyLimitProperties copy() {
+        return new OAuth2ConcurrencyLimitProperties()
+                .setInitialLimit(initialLimit)
+                .setMinLimit(minLimit)
+                .setMaxLimit(maxLimit)
+                .setBackoffRatio(backoffRatio)
+                .setProbeInterval(probeInterval);
+    }
+
+    // #################### utils #######################################################
+
+    /**
+     * Initialize default concurrency limit properties.
+     *
+     * <ul>
+     * <li>initialLimit: {@code 8}</li>
+     * <li>minLimit: {@code 2}</li>
+     * <li>maxLimit: {@code 32}</li>
+     * <li>backoffRatio: {@code 0.9}</li>
+     * <li>probeInterval: {@code 1000}</li>
+     * </ul>
+     *
+     * @return concurrency limit properties with default properties
+     */
+    public static OAuth2ConcurrencyLimitProperties initDefault() {
+        return new OAuth2ConcurrencyLimitProperties()
+                .setInitialLimit(8)
+                .setMinLimit(2)
+                .setMaxLimit(32)
+                .setBackoffRatio(0.9)
+                .setProbeInterval(1000);
+    }
+
+}
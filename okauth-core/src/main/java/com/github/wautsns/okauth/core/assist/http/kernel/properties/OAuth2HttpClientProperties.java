@@ -15,6 +15,10 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.properties;
 
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpMetrics;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.DefaultOAuth2RetryPolicy;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryPolicy;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -38,14 +42,31 @@ public class OAuth2HttpClientProperties {
     private Duration readTimeout;
     /** Max concurrent requests. */
     private Integer maxConcurrentRequests;
+    /** Max concurrent requests per route. If null, {@link #maxConcurrentRequests} will be used. */
+    private Integer maxConcurrentRequestsPerRoute;
+    /**
+     * Max concurrent requests of the specified hosts([SCHEME://]HOST[:PORT], scheme defaults to https), which
+     * overrides {@link #maxConcurrentRequestsPerRoute}.
+     */
+    private Map<String, Integer> maxConcurrentRequestsPerHost;
+    /** Timeout of leasing a connection from the pool. If null, it will wait until a connection is available. */
+    private Duration connectionRequestTimeout;
     /** Max idle time of connection. */
     private Duration maxIdleTime;
     /** Keep alive timeout of connection. */
     private Duration keepAliveTimeout;
-    /** Retry times. */
+    /** Retry times. Ignored if {@link #retryPolicy} is specified. */
     private Integer retryTimes;
+    /** Retry policy. If null, {@link DefaultOAuth2RetryPolicy} with {@link #retryTimes} as max retries will be used. */
+    private OAuth2RetryPolicy retryPolicy;
     /** Proxy([SCHEME://]IP[:PORT]). */
     private String proxy;
+    /** Dns resolver. If null, the system default dns resolver will be used. */
+    private OAuth2DnsResolver dnsResolver;
+    /** Metrics of the transport(connection lease and pool snapshots). If null, nothing will be recorded. */
+    private OAuth2HttpMetrics metrics;
+    /** Interval of pool snapshots. If null, pool snapshots will not be recorded periodically. */
+    private Duration poolSnapshotInterval;
     /** Custom properties. */
     private Map<String, Object> customProperties;
 
@@ -59,11 +80,19 @@ public class OAuth2HttpClientProperties {
                 .setConnectTimeout(connectTimeout)
                 .setReadTimeout(readTimeout)
                 .setMaxConcurrentRequests(maxConcurrentRequests)
+                .setMaxConcurrentRequestsPerRoute(maxConcurrentRequestsPerRoute)
+                .setMaxConcurrentRequestsPerHost(
+                        (maxConcurrentRequestsPerHost == null) ? null : new HashMap<>(maxConcurrentRequestsPerHost))
+                .setConnectionRequestTimeout(connectionRequestTimeout)
                 .setMaxIdleTime(maxIdleTime)
                 .setKeepAliveTimeout(keepAliveTimeout)
-                .setReadTimeout(readTimeout)
+                .setRetryTimes(retryTimes)
+                .setRetryPolicy(retryPolicy)
                 .setProxy(proxy)
-                .setCustomProperties(new HashMap<>(customProperties));
+                .setDnsResolver(dnsResolver)
+                .setMetrics(metrics)
+                .setPoolSnapshotInterval(poolSnapshotInterval)
+                .setCustomProperties((customProperties == null) ? null : new HashMap<>(customProperties));
     }
 
     // #################### utils #######################################################
@@ -78,6 +107,7 @@ public class OAuth2HttpClientProperties {
      * <li>maxIdleTime: {@code 5m}</li>
      * <li>keepAliveTimeout: {@code 3m}</li>
      * <li>retryTimes: {@code 2}</li>
+     * <li>poolSnapshotInterval: {@code 10s}(only works if metrics is specified)</li>
      * </ul>
      *
      * @return http client properties with default properties
@@ -89,7 +119,8 @@ public class OAuth2HttpClientProperties {
                 .setMaxConcurrentRequests(64)
                 .setMaxIdleTime(Duration.parse("PT5M"))
                 .setKeepAliveTimeout(Duration.parse("PT3M"))
-                .setRetryTimes(1);
+                .setRetryTimes(1)
+                .setPoolSnapshotInterval(Duration.parse("PT10S"));
     }
 
 }
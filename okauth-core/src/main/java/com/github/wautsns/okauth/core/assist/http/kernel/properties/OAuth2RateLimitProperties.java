@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.properties;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.InMemoryOAuth2RateLimitStore;
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.OAuth2RateLimitStore;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OAuth2 rate limit properties.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OAuth2RateLimitProperties {
+
+    /** What to do if no permit is available. */
+    public enum Mode {
+        /** Reject the request immediately. */
+        REJECT,
+        /** Wait for a permit until the timeout(or the deadline of the request) is reached. */
+        WAIT
+    }
+
+    /** What to do if no permit is available. */
+    private Mode mode;
+    /** Max time to wait for a permit in {@link Mode#WAIT WAIT} mode. */
+    private Duration timeout;
+    /** Permits per second of each endpoint not specified in {@link #endpoints}. If null, they are not limited. */
+    private Double permitsPerSecond;
+    /** Max burst of each endpoint not specified in {@link #endpoints}. If null, it is ceil(permitsPerSecond). */
+    private Integer burstCapacity;
+    /** Limits of the specified endpoints, key is path of the endpoint, such as {@code /cgi-bin/gettoken}. */
+    private Map<String, Limit> endpoints;
+    /** Rate limit store. If null, an {@link InMemoryOAuth2RateLimitStore} will be used. */
+    private OAuth2RateLimitStore store;
+
+    /**
+     * Create and return a copy of this object.
+     *
+     * @return a copy of this properties
+     */
+    public OAuth2RateLimitProperties copy() {
+        Map<String, Limit> endpointsCopy = null;
+        if (endpoints != null) {
+            endpointsCopy = new LinkedHashMap<>();
+            for (Map.Entry<String, Limit> entry : endpoints.entrySet()) {
+                endpointsCopy.put(entry.getKey(), entry.getValue().copy());
+            }
+        }
+        return new OAuth2RateLimitProperties()
+                .setMode(mode)
+                .setTimeout(timeout)
+                .setPermitsPerSecond(permitsPerSecond)
+                .setBurstCapacity(burstCapacity)
+                .setEndpoints(endpointsCopy)
+                .setStore(store);
+    }
+
+    /** Limit of an endpoint. */
+    @Data
+    @Accessors(chain = true)
+    public static class Limit {
+
+        /** Permits per second. */
+        private Double permitsPerSecond;
+        /** Max burst. If null, it is {@code ceil(permitsPerSecond)}. */
+        private Integer burstCapacity;
+
+        /**
+         * Create and return a copy of this object.
+         *
+         * @return a copy of this limit
+         */
+        public Limit copy() {
+            return new Limit()
+                    .setPermitsPerSecond(permitsPerSecond)
+                    .setBurstCapacity(burstCapacity);
+        }
+
+    }
+
+    // #################### utils #######################################################
+
+    /**
+     * Initialize default rate limit properties.
+     *
+     * <ul>
+     * <li>mode: {@code WAIT}</li>
+     * <li>timeout: {@code 1s}</li>
+     * </ul>
+     *
+     * @return rate limit properties with default properties
+     */
+    public static OAuth2RateLimitProperties initDefault() {
+        return new OAuth2RateLimitProperties()
+                .setMode(Mode.WAIT)
+                .setTimeout(Duration.parse("PT1S"));
+    }
+
+}
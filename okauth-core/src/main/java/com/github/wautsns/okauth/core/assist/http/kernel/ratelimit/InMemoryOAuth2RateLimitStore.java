@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory oauth2 rate limit store, whose token buckets are only shared within the current JVM.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class InMemoryOAuth2RateLimitStore implements OAuth2RateLimitStore {
+
+    /** Token buckets, key is key of the token bucket. */
+    private final Map<String, TokenBucket> tokenBuckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long reserve(String key, double permitsPerSecond, int capacity, long maxWaitNanos) {
+        return tokenBuckets.computeIfAbsent(key, k -> new TokenBucket(capacity))
+                .reserve(permitsPerSecond, capacity, maxWaitNanos);
+    }
+
+    /** Token bucket, whose tokens may be negative if permits have been reserved in advance. */
+    private static class TokenBucket {
+
+        /** Available tokens. */
+        private double tokens;
+        /** Last refill time in nanos. */
+        private long refilledAt;
+
+        /**
+         * Construct a full token bucket.
+         *
+         * @param capacity capacity of the token bucket
+         */
+        private TokenBucket(int capacity) {
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * Reserve a permit.
+         *
+         * @param permitsPerSecond permits refilled per second
+         * @param capacity capacity of the token bucket
+         * @param maxWaitNanos max time to wait in nanos
+         * @return time to wait in nanos, or {@code -1} if not reserved
+         */
+        private synchronized long reserve(double permitsPerSecond, int capacity, long maxWaitNanos) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerSecond / 1_000_000_000D);
+            refilledAt = now;
+            if (tokens >= 1D) {
+                tokens -= 1D;
+                return 0L;
+            }
+            long waitNanos = (long) Math.ceil((1D - tokens) / permitsPerSecond * 1_000_000_000D);
+            if (waitNanos > maxWaitNanos) { return -1L; }
+            tokens -= 1D;
+            return waitNanos;
+        }
+
+    }
+
+}
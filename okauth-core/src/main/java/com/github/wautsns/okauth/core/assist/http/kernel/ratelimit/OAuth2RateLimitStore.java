@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.ratelimit;
+
+/**
+ * OAuth2 rate limit store, which holds token buckets of rate limiters.
+ *
+ * <p>Implementations backed by a shared storage(such as redis) can share quotas of open platforms across nodes. Each
+ * call should be atomic.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ * @see InMemoryOAuth2RateLimitStore
+ */
+@FunctionalInterface
+public interface OAuth2RateLimitStore {
+
+    /**
+     * Reserve a permit of the token bucket.
+     *
+     * <p>If no permit is available now, the permit will be reserved only if it will be available within the max wait
+     * time, and the caller should wait for the returned time before sending the request.
+     *
+     * @param key key of the token bucket
+     * @param permitsPerSecond permits refilled per second
+     * @param capacity capacity of the token bucket, that is, max burst
+     * @param maxWaitNanos max time to wait in nanos, {@code 0} means no waiting
+     * @return time to wait in nanos before the permit is available, or {@code -1} if not reserved
+     */
+    long reserve(String key, double permitsPerSecond, int capacity, long maxWaitNanos);
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.ratelimit;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2RateLimitProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.RateLimitExceededException;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit oauth2 http client, which decorates another oauth2 http client with token bucket rate limiters.
+ *
+ * <p>Each endpoint of the app has its own token bucket named {@code OPEN_PLATFORM:APP_KEY@PATH}({@code :APP_KEY} is
+ * omitted if app key is {@code null}), so that quotas enforced by open platforms per app can be respected even if apps
+ * of the same open platform share a store. Endpoints are identified by path, the same as the key of endpoint limits
+ * of {@link OAuth2RateLimitProperties}. If no permit is available, the request will be rejected or wait(without
+ * blocking any thread if executed asynchronously) according to the
+ * {@linkplain OAuth2RateLimitProperties.Mode mode}, and {@link RateLimitExceededException} will be thrown if it is
+ * rejected.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class RateLimitOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Open platform. */
+    private final String openPlatform;
+    /** App key(e.g. client id, corp id), which identifies the app on the open platform, may be {@code null}. */
+    private final String appKey;
+    /** Delegate oauth2 http client. */
+    private final OAuth2HttpClient delegate;
+    /** Rate limit properties. */
+    private final OAuth2RateLimitProperties props;
+    /** Rate limit store. */
+    private final OAuth2RateLimitStore store;
+    /** Limit of endpoints not specified, or {@code null} if they are not limited. */
+    private final OAuth2RateLimitProperties.Limit defaultLimit;
+    /** Limits of the specified endpoints, key is path of the endpoint. */
+    private final Map<String, OAuth2RateLimitProperties.Limit> limits = new HashMap<>();
+    /** Prefix of token bucket names: {@code OPEN_PLATFORM[:APP_KEY]}. */
+    @Getter(AccessLevel.NONE)
+    private final String namePrefix;
+
+    /**
+     * Construct a {@code RateLimitOAuth2HttpClient}.
+     *
+     * @param openPlatform open platform
+     * @param appKey app key(e.g. client id, corp id), which identifies the app, may be {@code null}
+     * @param delegate delegate oauth2 http client
+     * @param props rate limit properties
+     */
+    public RateLimitOAuth2HttpClient(
+            String openPlatform, String appKey, OAuth2HttpClient delegate, OAuth2RateLimitProperties props) {
+        this.openPlatform = openPlatform;
+        this.appKey = appKey;
+        this.namePrefix = (appKey == null) ? openPlatform : (openPlatform + ':' + appKey);
+        this.delegate = delegate;
+        this.props = props.copy();
+        this.store = (props.getStore() == null) ? new InMemoryOAuth2RateLimitStore() : props.getStore();
+        this.defaultLimit = resolveLimit(new OAuth2RateLimitProperties.Limit()
+                .setPermitsPerSecond(props.getPermitsPerSecond())
+                .setBurstCapacity(props.getBurstCapacity()));
+        if (props.getEndpoints() != null) {
+            props.getEndpoints().forEach((path, limit) -> limits.put(path, resolveLimit(limit)));
+        }
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        long waitNanos = reserve(request);
+        if (waitNanos > 0L) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OAuth2IOException(new InterruptedIOException(e.getMessage()));
+            }
+        }
+        return delegate.execute(request);
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        long waitNanos;
+        try {
+            waitNanos = reserve(request);
+        } catch (OAuth2IOException e) {
+            return FutureUtils.failed(e);
+        }
+        if (waitNanos <= 0L) { return delegate.executeAsync(request); }
+        // The request will be sent in the scheduler thread, to which the deadline of the current thread is not bound.
+        OAuth2Deadline deadline = OAuth2Deadline.current();
+        CompletableFuture<OAuth2HttpResponse> future = new CompletableFuture<>();
+        SchedulerHolder.INSTANCE.schedule(() -> {
+            try {
+                CompletableFuture<OAuth2HttpResponse> delegateFuture = (deadline == null)
+                        ? delegate.executeAsync(request)
+                        : deadline.callAsync(() -> delegate.executeAsync(request));
+                delegateFuture.whenComplete((response, e) -> {
+                    if (e == null) {
+                        future.complete(response);
+                    } else {
+                        future.completeExceptionally(FutureUtils.unwrap(e));
+                    }
+                });
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, waitNanos, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Collection<String> hosts, int connectionsPerHost) {
+        return delegate.warmUp(hosts, connectionsPerHost);
+    }
+
+    /**
+     * Close the delegate oauth2 http client if it is closeable.
+     *
+     * @throws IOException if IO exception occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable) { ((Closeable) delegate).close(); }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Reserve a permit for the request.
+     *
+     * @param request oauth2 http request
+     * @return time to wait in nanos before sending the request
+     * @throws RateLimitExceededException if no permit is available within the timeout
+     */
+    private long reserve(OAuth2HttpRequest request) throws RateLimitExceededException {
+        String path = request.getUrl().getPath();
+        OAuth2RateLimitProperties.Limit limit = limits.getOrDefault(path, defaultLimit);
+        if (limit == null) { return 0L; }
+        long maxWaitNanos = 0L;
+        if (props.getMode() == OAuth2RateLimitProperties.Mode.WAIT) {
+            maxWaitNanos = (props.getTimeout() == null) ? Long.MAX_VALUE : props.getTimeout().toNanos();
+            OAuth2Deadline deadline = OAuth2Deadline.of(request);
+            if (deadline != null) { maxWaitNanos = Math.max(0L, Math.min(maxWaitNanos, deadline.remainingNanos())); }
+        }
+        String name = namePrefix + '@' + path;
+        long waitNanos = store.reserve(name, limit.getPermitsPerSecond(), limit.getBurstCapacity(), maxWaitNanos);
+        if (waitNanos >= 0L) { return waitNanos; }
+        throw new RateLimitExceededException(name);
+    }
+
+    /**
+     * Resolve the limit, filling burst capacity if it is null.
+     *
+     * @param limit limit
+     * @return resolved limit, or {@code null} if permits per second is not specified
+     */
+    private static OAuth2RateLimitProperties.Limit resolveLimit(OAuth2RateLimitProperties.Limit limit) {
+        Double permitsPerSecond = limit.getPermitsPerSecond();
+        if (permitsPerSecond == null) { return null; }
+        if (permitsPerSecond <= 0D) { throw new IllegalArgumentException("permitsPerSecond must be positive."); }
+        Integer burstCapacity = limit.getBurstCapacity();
+        if (burstCapacity == null) { burstCapacity = (int) Math.max(1L, (long) Math.ceil(permitsPerSecond)); }
+        return new OAuth2RateLimitProperties.Limit()
+                .setPermitsPerSecond(permitsPerSecond)
+                .setBurstCapacity(burstCapacity);
+    }
+
+    /** Lazily initialized scheduler for delayed requests. */
+    private static class SchedulerHolder {
+
+        /** Single daemon thread scheduler, requests are sent asynchronously. */
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "okauth-rate-limit-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.retry;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConnectionLeaseTimeoutException;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default oauth2 retry policy.
+ *
+ * <ul>
+ * <li>Requests are retried if IO exception occurs(except timeout, unknown host, SSL exception and connection lease
+ * timeout), or the response status is one of {@code retryableStatuses}.</li>
+ * <li>Requests that are not {@linkplain OAuth2HttpRequest#isIdempotent() idempotent} are retried only if the
+ * connection could not be established, that is, the request has not been sent.</li>
+ * <li>Delay before the next attempt grows exponentially with full jitter, or is specified by the
+ * {@code Retry-After} header of the response.</li>
+ * <li>Retries are limited by a token bucket: each request deposits {@code budgetRatio} token and each retry withdraws
+ * one token, so that retries are at most a fraction of requests and will not amplify load during an outage of the open
+ * platform.</li>
+ * </ul>
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+public class DefaultOAuth2RetryPolicy implements OAuth2RetryPolicy {
+
+    /** The IOException types that should not be retried. */
+    private static final List<Class<? extends IOException>> EXCEPTIONS_NOT_RETRIED = Arrays.asList(
+            InterruptedIOException.class,
+            UnknownHostException.class,
+            SSLException.class);
+
+    /** Milli tokens of one retry. */
+    private static final long TOKEN = 1000L;
+
+    /** Max retries. */
+    private final int maxRetries;
+    /** Initial backoff in millis. */
+    private final long initialBackoffMillis;
+    /** Max backoff in millis. */
+    private final long maxBackoffMillis;
+    /** Retryable statuses. */
+    private final Set<Integer> retryableStatuses;
+    /** Max retry after in millis, or {@code -1} if {@code Retry-After} is ignored. */
+    private final long maxRetryAfterMillis;
+    /** Milli tokens deposited by each request, or {@code -1} if retries are not limited by budget. */
+    private final long depositPerRequest;
+    /** Capacity of milli tokens. */
+    private final long budgetCapacity;
+    /** Remaining milli tokens. */
+    private final AtomicLong budget;
+
+    /** Construct a default {@code DefaultOAuth2RetryPolicy}. */
+    public DefaultOAuth2RetryPolicy() {
+        this(RetryProperties.initDefault());
+    }
+
+    /**
+     * Construct a {@code DefaultOAuth2RetryPolicy}.
+     *
+     * @param props retry properties
+     */
+    public DefaultOAuth2RetryPolicy(RetryProperties props) {
+        this.maxRetries = props.getMaxRetries();
+        this.initialBackoffMillis = props.getInitialBackoff().toMillis();
+        this.maxBackoffMillis = props.getMaxBackoff().toMillis();
+        this.retryableStatuses = (props.getRetryableStatuses() == null)
+                ? Collections.emptySet()
+                : new HashSet<>(props.getRetryableStatuses());
+        this.maxRetryAfterMillis = (props.getMaxRetryAfter() == null) ? -1 : props.getMaxRetryAfter().toMillis();
+        this.depositPerRequest = (props.getBudgetRatio() == null) ? -1 : (long) (props.getBudgetRatio() * TOKEN);
+        this.budgetCapacity = props.getBudgetCapacity() * TOKEN;
+        this.budget = new AtomicLong(budgetCapacity);
+    }
+
+    @Override
+    public void onRequest(OAuth2HttpRequest request) {
+        if (depositPerRequest > 0) {
+            budget.accumulateAndGet(depositPerRequest, (tokens, deposit) -> Math.min(tokens + deposit, budgetCapacity));
+        }
+    }
+
+    @Override
+    public Duration retryDelay(
+            OAuth2HttpRequest request, int attempts, OAuth2HttpResponse response, OAuth2IOException exception) {
+        if (attempts > maxRetries) { return null; }
+        long delayMillis;
+        if (exception != null) {
+            if (!shouldRetry(request, exception)) { return null; }
+            delayMillis = backoffMillis(attempts);
+        } else {
+            if (!request.isIdempotent() || !retryableStatuses.contains(response.getStatus())) { return null; }
+            long retryAfterMillis = retryAfterMillis(response);
+            if (retryAfterMillis > maxRetryAfterMillis && maxRetryAfterMillis >= 0) { return null; }
+            delayMillis = (retryAfterMillis >= 0) ? retryAfterMillis : backoffMillis(attempts);
+        }
+        return tryWithdraw() ? Duration.ofMillis(delayMillis) : null;
+    }
+
+    /**
+     * Whether the request should be retried if the exception occurs.
+     *
+     * @param request oauth2 http request
+     * @param exception oauth2 io exception
+     * @return {@code true} if the request should be retried, otherwise {@code false}
+     */
+    protected boolean shouldRetry(OAuth2HttpRequest request, OAuth2IOException exception) {
+        // Retrying does not help if the pool is exhausted, but makes it worse.
+        if (exception instanceof ConnectionLeaseTimeoutException) { return false; }
+        Throwable cause = exception.getCause();
+        if (!request.isIdempotent()) { return cause instanceof ConnectException; }
+        return EXCEPTIONS_NOT_RETRIED.stream().noneMatch(type -> type.isInstance(cause));
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Get backoff of the attempt with full jitter.
+     *
+     * @param attempts number of attempts made so far
+     * @return backoff in millis
+     */
+    private long backoffMillis(int attempts) {
+        long ceiling = initialBackoffMillis << Math.min(attempts - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffMillis) { ceiling = maxBackoffMillis; }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Get delay specified by header {@code Retry-After}(delay-seconds or HTTP-date).
+     *
+     * @param response oauth2 http response
+     * @return delay in millis, or {@code -1} if not specified or ignored
+     */
+    private long retryAfterMillis(OAuth2HttpResponse response) {
+        if (maxRetryAfterMillis < 0) { return -1; }
+        String retryAfter = response.getHeader("Retry-After");
+        if (retryAfter == null) { return -1; }
+        retryAfter = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException ignored) {
+            // Not delay-seconds, try HTTP-date.
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Try to withdraw a token from the retry budget.
+     *
+     * @return {@code true} if withdrawn, otherwise {@code false}
+     */
+    private boolean tryWithdraw() {
+        if (depositPerRequest < 0) { return true; }
+        while (true) {
+            long tokens = budget.get();
+            if (tokens < TOKEN) { return false; }
+            if (budget.compareAndSet(tokens, tokens - TOKEN)) { return true; }
+        }
+    }
+
+    // #################### properties ##################################################
+
+    /** Retry properties. */
+    @Data
+    @Accessors(chain = true)
+    public static class RetryProperties {
+
+        /** Max retries. */
+        private Integer maxRetries;
+        /** Backoff ceiling of the first retry, which will be doubled for each subsequent retry. */
+        private Duration initialBackoff;
+        /** Max backoff ceiling. */
+        private Duration maxBackoff;
+        /** Response statuses that should be retried(only for idempotent requests). */
+        private Set<Integer> retryableStatuses;
+        /**
+         * Max delay specified by header {@code Retry-After} to be honoured, requests will not be retried if the
+         * delay is longer. If null, header {@code Retry-After} will be ignored.
+         */
+        private Duration maxRetryAfter;
+        /** Tokens deposited by each request, that is, max ratio of retries to requests. If null, no limit. */
+        private Double budgetRatio;
+        /** Max tokens of the retry budget, that is, max retries in a burst. */
+        private Integer budgetCapacity;
+
+        /**
+         * Initialize default retry properties.
+         *
+         * <ul>
+         * <li>maxRetries: {@code 1}</li>
+         * <li>initialBackoff: {@code 100ms}</li>
+         * <li>maxBackoff: {@code 2s}</li>
+         * <li>retryableStatuses: {@code [429, 502, 503, 504]}</li>
+         * <li>maxRetryAfter: {@code 3s}</li>
+         * <li>budgetRatio: {@code 0.1}</li>
+         * <li>budgetCapacity: {@code 10}</li>
+         * </ul>
+         *
+         * @return retry properties with default properties
+         */
+        public static RetryProperties initDefault() {
+            return new RetryProperties()
+                    .setMaxRetries(1)
+                    .setInitialBackoff(Duration.parse("PT0.1S"))
+                    .setMaxBackoff(Duration.parse("PT2S"))
+                    .setRetryableStatuses(new HashSet<>(Arrays.asList(429, 502, 503, 504)))
+                    .setMaxRetryAfter(Duration.parse("PT3S"))
+                    .setBudgetRatio(0.1)
+                    .setBudgetCapacity(10);
+        }
+
+    }
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.retry;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import lombok.experimental.UtilityClass;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * OAuth2 retry executor, which executes requests with retry policy.
+ *
+ * <p>The {@linkplain OAuth2Deadline#of(OAuth2HttpRequest) deadline} is resolved once and bound to the thread of each
+ * attempt(the request is never modified, since it may be shared by callers), so that attempts can shrink their timeouts
+ * to the remaining time. No attempt will be made after the deadline, and no retry will be scheduled if the delay
+ * exceeds the remaining time.
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+@UtilityClass
+public class OAuth2RetryExecutor {
+
+    /**
+     * Execute the request with retry policy.
+     *
+     * <p>The current thread will sleep between attempts.
+     *
+     * @param policy retry policy
+     * @param request oauth2 http request
+     * @param attempt function that executes the request once
+     * @return oauth2 http response of the last attempt
+     * @throws OAuth2IOException if IO exception occurs in the last attempt, or interrupted while waiting
+     * @throws DeadlineExceededException if the deadline has been reached
+     */
+    public static OAuth2HttpResponse execute(
+            OAuth2RetryPolicy policy, OAuth2HttpRequest request, Attempt attempt) throws OAuth2IOException {
+        OAuth2Deadline deadline = OAuth2Deadline.of(request);
+        policy.onRequest(request);
+        for (int attempts = 1; ; attempts++) {
+            if (deadline != null && deadline.isExpired()) { throw new DeadlineExceededException(); }
+            Duration delay;
+            try {
+                OAuth2HttpResponse response = attempt.execute(request);
+                delay = policy.retryDelay(request, attempts, response, null);
+                if (delay == null || exceeds(deadline, delay)) { return response; }
+                closeQuietly(response);
+            } catch (OAuth2IOException e) {
+                if (deadline != null && deadline.isExpired()) { throw deadlineExceeded(e); }
+                delay = policy.retryDelay(request, attempts, null, e);
+                if (delay == null || exceeds(deadline, delay)) { throw e; }
+            }
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Execute the request asynchronously with retry policy.
+     *
+     * <p>No thread will be blocked between attempts.
+     *
+     * @param policy retry policy
+     * @param request oauth2 http request
+     * @param attempt function that executes the request once asynchronously
+     * @return future of oauth2 http response of the last attempt
+     */
+    public static CompletableFuture<OAuth2HttpResponse> executeAsync(
+            OAuth2RetryPolicy policy, OAuth2HttpRequest request,
+            Function<OAuth2HttpRequest, CompletableFuture<OAuth2HttpResponse>> attempt) {
+        OAuth2Deadline deadline = OAuth2Deadline.of(request);
+        if (policy == OAuth2RetryPolicy.NEVER && deadline == null) { return attempt.apply(request); }
+        policy.onRequest(request);
+        CompletableFuture<OAuth2HttpResponse> future = new CompletableFuture<>();
+        executeAsync(policy, request, deadline, attempt, 1, future);
+        return future;
+    }
+
+    /** Attempt that executes the request once. */
+    @FunctionalInterface
+    public interface Attempt {
+
+        /**
+         * Execute the request once.
+         *
+         * @param request oauth2 http request
+         * @return oauth2 http response
+         * @throws OAuth2IOException if IO exception occurs
+         */
+        OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException;
+
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Execute the request asynchronously, and retry if necessary.
+     *
+     * @param policy retry policy
+     * @param request oauth2 http request
+     * @param deadline deadline resolved once for all attempts, may be {@code null}
+     * @param attempt function that executes the request once asynchronously
+     * @param attempts number of the current attempt
+     * @param future future to complete
+     */
+    private static void executeAsync(
+            OAuth2RetryPolicy policy, OAuth2HttpRequest request, OAuth2Deadline deadline,
+            Function<OAuth2HttpRequest, CompletableFuture<OAuth2HttpResponse>> attempt,
+            int attempts, CompletableFuture<OAuth2HttpResponse> future) {
+        if (deadline != null && deadline.isExpired()) {
+            future.completeExceptionally(new DeadlineExceededException());
+            return;
+        }
+        CompletableFuture<OAuth2HttpResponse> attemptFuture;
+        try {
+            // Retries run in threads to which the deadline of the caller is not bound.
+            attemptFuture = (deadline == null)
+                    ? attempt.apply(request)
+                    : deadline.callAsync(() -> attempt.apply(request));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        attemptFuture.whenComplete((response, e) -> {
+            Duration delay;
+            try {
+                if (e == null) {
+                    delay = policy.retryDelay(request, attempts, response, null);
+                    if (delay == null || exceeds(deadline, delay)) {
+                        future.complete(response);
+                        return;
+                    }
+                    closeQuietly(response);
+                } else {
+                    Throwable cause = FutureUtils.unwrap(e);
+                    if (cause instanceof OAuth2IOException && deadline != null && deadline.isExpired()) {
+                        future.completeExceptionally(deadlineExceeded((OAuth2IOException) cause));
+                        return;
+                    }
+                    delay = (cause instanceof OAuth2IOException)
+                            ? policy.retryDelay(request, attempts, null, (OAuth2IOException) cause)
+                            : null;
+                    if (delay == null || exceeds(deadline, delay)) {
+                        future.completeExceptionally(cause);
+                        return;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                future.completeExceptionally(ex);
+                return;
+            }
+            Runnable next = () -> executeAsync(policy, request, deadline, attempt, attempts + 1, future);
+            if (delay.isZero()) {
+                next.run();
+            } else {
+                SchedulerHolder.INSTANCE.schedule(next, delay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * Whether the retry delay exceeds the remaining time of the deadline.
+     *
+     * @param deadline deadline, may be {@code null}
+     * @param delay retry delay
+     * @return {@code true} if the retry delay exceeds the remaining time, otherwise {@code false}
+     */
+    private static boolean exceeds(OAuth2Deadline deadline, Duration delay) {
+        return deadline != null && delay.toNanos() >= deadline.remainingNanos();
+    }
+
+    /**
+     * Convert the exception of the attempt that was cut by the deadline.
+     *
+     * @param e oauth2 io exception of the attempt
+     * @return deadline exceeded exception
+     */
+    private static DeadlineExceededException deadlineExceeded(OAuth2IOException e) {
+        if (e instanceof DeadlineExceededException) { return (DeadlineExceededException) e; }
+        DeadlineExceededException exception = new DeadlineExceededException();
+        exception.addSuppressed(e);
+        return exception;
+    }
+
+    /**
+     * Sleep for the delay.
+     *
+     * @param delay delay
+     * @throws OAuth2IOException if interrupted while sleeping
+     */
+    private static void sleep(Duration delay) throws OAuth2IOException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuth2IOException(new InterruptedIOException(e.getMessage()));
+        }
+    }
+
+    /**
+     * Close the discarded response quietly.
+     *
+     * @param response oauth2 http response
+     */
+    private static void closeQuietly(OAuth2HttpResponse response) {
+        try {
+            response.close();
+        } catch (OAuth2IOException ignored) {
+            // The response is discarded.
+        }
+    }
+
+    /** Lazily initialized scheduler for delayed attempts. */
+    private static class SchedulerHolder {
+
+        /** Single daemon thread scheduler, attempts are expected to be non-blocking. */
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "okauth-retry-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.retry;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+
+import java.time.Duration;
+
+/**
+ * OAuth2 retry policy.
+ *
+ * <p>Retry policy is transport independent, it is applied by {@link OAuth2RetryExecutor}.
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+public interface OAuth2RetryPolicy {
+
+    /** Retry policy that never retries. */
+    OAuth2RetryPolicy NEVER = (request, attempts, response, exception) -> null;
+
+    /**
+     * Called once before the first attempt of each request.
+     *
+     * <p>The default implementation does nothing.
+     *
+     * @param request oauth2 http request
+     */
+    default void onRequest(OAuth2HttpRequest request) {
+    }
+
+    /**
+     * Determine whether to retry the request, and how long to wait before the next attempt.
+     *
+     * <p>Exactly one of {@code response} and {@code exception} is not {@code null}.
+     *
+     * @param request oauth2 http request
+     * @param attempts number of attempts made so far, starts from 1
+     * @param response response of the last attempt, or {@code null} if the last attempt failed with exception
+     * @param exception exception of the last attempt, or {@code null} if the last attempt has response
+     * @return delay before the next attempt, or {@code null} if the request should not be retried
+     */
+    Duration retryDelay(
+            OAuth2HttpRequest request, int attempts, OAuth2HttpResponse response, OAuth2IOException exception);
+
+    // #################### utils #######################################################
+
+    /**
+     * Initialize retry policy of the http client properties.
+     *
+     * <p>If {@code retryPolicy} is specified, it will be returned. Otherwise, a {@link DefaultOAuth2RetryPolicy} with
+     * {@code retryTimes} as max retries will be returned, or {@link #NEVER} if retryTimes is null or not positive.
+     *
+     * @param props oauth2 http client properties
+     * @return retry policy
+     */
+    static OAuth2RetryPolicy init(OAuth2HttpClientProperties props) {
+        if (props.getRetryPolicy() != null) { return props.getRetryPolicy(); }
+        Integer retryTimes = props.getRetryTimes();
+        if (retryTimes == null || retryTimes <= 0) { return NEVER; }
+        return new DefaultOAuth2RetryPolicy(
+                DefaultOAuth2RetryPolicy.RetryProperties.initDefault().setMaxRetries(retryTimes));
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.util;
+
+import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Future utils.
+ *
+ * <p>Futures returned by okauth are completed exceptionally with {@code OAuth2Exception}(maybe wrapped in
+ * {@code CompletionException}) if oauth2 failed.
+ *
+ * @author wautsns
+ * @since Jul 02, 2020
+ */
+@UtilityClass
+public class FutureUtils {
+
+    /**
+     * Call the callable and return a completed future of the result.
+     *
+     * <p>The callable will be called in the current thread.
+     *
+     * @param callable callable
+     * @param <T> type of result
+     * @return completed future of the result, or a future completed exceptionally if the callable failed
+     */
+    public static <T> CompletableFuture<T> call(OAuth2Callable<T> callable) {
+        try {
+            return CompletableFuture.completedFuture(callable.call());
+        } catch (OAuth2Exception | RuntimeException e) {
+            return failed(e);
+        }
+    }
+
+    /**
+     * Return a future that is already completed exceptionally with the given exception.
+     *
+     * @param e exception
+     * @param <T> type of result
+     * @return future completed exceptionally
+     */
+    public static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Convert the oauth2 function to a function that can be used in {@code CompletableFuture} chains.
+     *
+     * <p>{@code OAuth2Exception} will be wrapped in {@code CompletionException}.
+     *
+     * @param function oauth2 function
+     * @param <T> type of argument
+     * @param <R> type of result
+     * @return function
+     */
+    public static <T, R> Function<T, R> unchecked(OAuth2Function<T, R> function) {
+        return arg -> {
+            try {
+                return function.apply(arg);
+            } catch (OAuth2Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    /**
+     * Unwrap {@code CompletionException} and {@code ExecutionException}.
+     *
+     * @param e exception
+     * @return the original exception
+     */
+    public static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    /**
+     * Wait for the future to complete and return the result.
+     *
+     * @param future future
+     * @param <T> type of result
+     * @return result
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    public static <T> T join(CompletableFuture<T> future) throws OAuth2Exception {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof OAuth2Exception) {
+                throw (OAuth2Exception) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    // #################### functional interfaces #######################################
+
+    /** Callable that may throw {@code OAuth2Exception}. */
+    @FunctionalInterface
+    public interface OAuth2Callable<T> {
+
+        /**
+         * Compute a result.
+         *
+         * @return result
+         * @throws OAuth2Exception if oauth2 failed
+         */
+        T call() throws OAuth2Exception;
+
+    }
+
+    /** Function that may throw {@code OAuth2Exception}. */
+    @FunctionalInterface
+    public interface OAuth2Function<T, R> {
+
+        /**
+         * Apply this function to the given argument.
+         *
+         * @param arg argument
+         * @return result
+         * @throws OAuth2Exception if oauth2 failed
+         */
+        R apply(T arg) throws OAuth2Exception;
+
+    }
+
+}
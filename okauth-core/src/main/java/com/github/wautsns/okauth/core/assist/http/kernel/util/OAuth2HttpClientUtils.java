@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.util;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClientRegistry;
+import com.github.wautsns.okauth.core.assist.http.kernel.circuitbreaker.CircuitBreakerOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit.ConcurrencyLimitOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.EventOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.interceptor.InterceptingOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.jfr.FlightRecorderOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.MetricsOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.RateLimitOAuth2HttpClient;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OAuth2 http client utils.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@UtilityClass
+public class OAuth2HttpClientUtils {
+
+    /**
+     * Unwrap the oauth2 http client decorated by okauth.
+     *
+     * @param httpClient oauth2 http client
+     * @return oauth2 http clients from the outermost to the innermost(usually the transport)
+     */
+    public static List<OAuth2HttpClient> unwrap(OAuth2HttpClient httpClient) {
+        List<OAuth2HttpClient> httpClients = new ArrayList<>();
+        for (OAuth2HttpClient current = httpClient; current != null; ) {
+            httpClients.add(current);
+            if (current instanceof OAuth2HttpClientRegistry.SharedOAuth2HttpClient) {
+                current = ((OAuth2HttpClientRegistry.SharedOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof RateLimitOAuth2HttpClient) {
+                current = ((RateLimitOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof CircuitBreakerOAuth2HttpClient) {
+                current = ((CircuitBreakerOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof ConcurrencyLimitOAuth2HttpClient) {
+                current = ((ConcurrencyLimitOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof InterceptingOAuth2HttpClient) {
+                current = ((InterceptingOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof EventOAuth2HttpClient) {
+                current = ((EventOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof FlightRecorderOAuth2HttpClient) {
+                current = ((FlightRecorderOAuth2HttpClient) current).getDelegate();
+            } else if (current instanceof MetricsOAuth2HttpClient) {
+                current = ((MetricsOAuth2HttpClient) current).getDelegate();
+            } else {
+                current = null;
+            }
+        }
+        return httpClients;
+    }
+
+    /**
+     * Whether the transport of the oauth2 http client decorated by okauth is non-blocking.
+     *
+     * <p>A transport is regarded as non-blocking if it overrides
+     * {@link OAuth2HttpClient#executeAsync(OAuth2HttpRequest)}.
+     *
+     * @param httpClient oauth2 http client
+     * @return {@code true} if the transport is non-blocking, otherwise {@code false}
+     */
+    public static boolean isNonBlocking(OAuth2HttpClient httpClient) {
+        List<OAuth2HttpClient> httpClients = unwrap(httpClient);
+        OAuth2HttpClient transport = httpClients.get(httpClients.size() - 1);
+        try {
+            return transport.getClass().getMethod("executeAsync", OAuth2HttpRequest.class).getDeclaringClass()
+                    != OAuth2HttpClient.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
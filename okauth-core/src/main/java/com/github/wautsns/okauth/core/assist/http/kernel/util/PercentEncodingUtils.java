@@ -0,0 +1,267 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Percent encoding utils(application/x-www-form-urlencoded).
+ *
+ * <p>Encoding is compatible with {@link java.net.URLEncoder} in UTF-8, and decoding is compatible with
+ * {@link java.net.URLDecoder} in UTF-8. Text which needs no escaping is returned as is.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@UtilityClass
+public class PercentEncodingUtils {
+
+    /** Hex digits(upper case). */
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    /** Whether the ascii char can be written without escaping. */
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) { UNRESERVED[c] = true; }
+        for (char c = 'A'; c <= 'Z'; c++) { UNRESERVED[c] = true; }
+        for (char c = '0'; c <= '9'; c++) { UNRESERVED[c] = true; }
+        UNRESERVED['-'] = UNRESERVED['_'] = UNRESERVED['.'] = UNRESERVED['*'] = true;
+    }
+
+    // #################### encode ######################################################
+
+    /**
+     * Encode the text.
+     *
+     * @param text text
+     * @return encoded text, or the text itself if no chars need escaping
+     */
+    public static String encode(String text) {
+        int index = indexOfCharToEscape(text);
+        if (index < 0) { return text; }
+        StringBuilder encoded = new StringBuilder(text.length() + 16);
+        encoded.append(text, 0, index);
+        return encodeFrom(text, index, encoded).toString();
+    }
+
+    /**
+     * Encode the text and append it to the target.
+     *
+     * @param text text
+     * @param target target
+     * @return target
+     */
+    public static StringBuilder encode(String text, StringBuilder target) {
+        int index = indexOfCharToEscape(text);
+        if (index < 0) { return target.append(text); }
+        target.append(text, 0, index);
+        return encodeFrom(text, index, target);
+    }
+
+    /**
+     * Get index of the first char which needs escaping.
+     *
+     * @param text text
+     * @return index of the first char which needs escaping, or {@code -1} if there is none
+     */
+    private static int indexOfCharToEscape(String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 128 || !UNRESERVED[c]) { return i; }
+        }
+        return -1;
+    }
+
+    /**
+     * Encode the text from the specified index and append it to the target.
+     *
+     * @param text text
+     * @param from index to start from
+     * @param target target
+     * @return target
+     */
+    private static StringBuilder encodeFrom(String text, int from, StringBuilder target) {
+        for (int i = from, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 128) {
+                if (UNRESERVED[c]) {
+                    target.append(c);
+                } else if (c == ' ') {
+                    target.append('+');
+                } else {
+                    appendEscaped(c, target);
+                }
+            } else if (c < 0x800) {
+                appendEscaped(0xC0 | (c >> 6), target);
+                appendEscaped(0x80 | (c & 0x3F), target);
+            } else if (!Character.isSurrogate(c)) {
+                appendEscaped(0xE0 | (c >> 12), target);
+                appendEscaped(0x80 | ((c >> 6) & 0x3F), target);
+                appendEscaped(0x80 | (c & 0x3F), target);
+            } else if (Character.isHighSurrogate(c) && (i + 1 < length)
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                appendEscaped(0xF0 | (codePoint >> 18), target);
+                appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), target);
+                appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), target);
+                appendEscaped(0x80 | (codePoint & 0x3F), target);
+            } else {
+                // Malformed surrogate is replaced with '?', the same as URLEncoder.
+                appendEscaped('?', target);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Append escaped byte to the target.
+     *
+     * @param b byte
+     * @param target target
+     */
+    private static void appendEscaped(int b, StringBuilder target) {
+        target.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+
+    // #################### decode ######################################################
+
+    /**
+     * Decode the text.
+     *
+     * @param text encoded text
+     * @return decoded text, or the text itself if it contains no escaped chars
+     * @throws IllegalArgumentException if the text contains illegal escaped chars
+     */
+    public static String decode(String text) {
+        return decode(text, 0, text.length());
+    }
+
+    /**
+     * Decode the text in the specified range.
+     *
+     * @param text encoded text
+     * @param from start index(inclusive)
+     * @param to end index(exclusive)
+     * @return decoded text
+     * @throws IllegalArgumentException if the text contains illegal escaped chars
+     */
+    private static String decode(String text, int from, int to) {
+        int index = from;
+        while (index < to && text.charAt(index) != '%' && text.charAt(index) != '+') { index++; }
+        if (index == to) { return (from == 0 && to == text.length()) ? text : text.substring(from, to); }
+        StringBuilder decoded = new StringBuilder(to - from);
+        decoded.append(text, from, index);
+        byte[] bytes = null;
+        while (index < to) {
+            char c = text.charAt(index);
+            if (c == '+') {
+                decoded.append(' ');
+                index++;
+            } else if (c != '%') {
+                decoded.append(c);
+                index++;
+            } else {
+                if (bytes == null) { bytes = new byte[(to - index) / 3]; }
+                int count = 0;
+                while (index < to && text.charAt(index) == '%') {
+                    if (index + 2 >= to) {
+                        throw new IllegalArgumentException(String.format("Incomplete escaped chars in [%s].", text));
+                    }
+                    bytes[count++] = (byte) ((hexValue(text, index + 1) << 4) | hexValue(text, index + 2));
+                    index += 3;
+                }
+                decoded.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+            }
+        }
+        return decoded.toString();
+    }
+
+    /**
+     * Get value of the hex digit at the specified index.
+     *
+     * @param text text
+     * @param index index of the hex digit
+     * @return value of the hex digit
+     * @throws IllegalArgumentException if the char is not a hex digit
+     */
+    private static int hexValue(String text, int index) {
+        int value = Character.digit(text.charAt(index), 16);
+        if (value >= 0) { return value; }
+        throw new IllegalArgumentException(String.format("Illegal hex char [%s] in [%s].", text.charAt(index), text));
+    }
+
+    // #################### query like text #############################################
+
+    /**
+     * Iterate over each item of query like text(eg. a=3&amp;b=4), names and values are decoded.
+     *
+     * <p>Empty items are ignored, and the value of the item without {@code '='} is an empty string.
+     *
+     * @param text query like text
+     * @param action the action to be performed for each item
+     * @throws IllegalArgumentException if the text contains illegal escaped chars
+     */
+    public static void forEachQueryItem(String text, BiConsumer<String, String> action) {
+        forEachQueryItem(text, true, action);
+    }
+
+    /**
+     * Iterate over each item of query like text(eg. a=3&amp;b=4), names and values are kept encoded.
+     *
+     * <p>Empty items are ignored, and the value of the item without {@code '='} is an empty string.
+     *
+     * @param text query like text
+     * @param action the action to be performed for each item
+     */
+    public static void forEachEncodedQueryItem(String text, BiConsumer<String, String> action) {
+        forEachQueryItem(text, false, action);
+    }
+
+    /**
+     * Iterate over each item of query like text in one scanning pass.
+     *
+     * @param text query like text
+     * @param decode whether to decode names and values
+     * @param action the action to be performed for each item
+     */
+    private static void forEachQueryItem(String text, boolean decode, BiConsumer<String, String> action) {
+        int length = text.length();
+        int start = 0;
+        int indexOfEq = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = (i == length) ? '&' : text.charAt(i);
+            if (c == '=' && indexOfEq < 0) {
+                indexOfEq = i;
+            } else if (c == '&') {
+                if (i > start) {
+                    int endOfName = (indexOfEq < 0) ? i : indexOfEq;
+                    int startOfValue = (indexOfEq < 0) ? i : (indexOfEq + 1);
+                    if (decode) {
+                        action.accept(decode(text, start, endOfName), decode(text, startOfValue, i));
+                    } else {
+                        action.accept(text.substring(start, endOfName), text.substring(startOfValue, i));
+                    }
+                }
+                start = i + 1;
+                indexOfEq = -1;
+            }
+        }
+    }
+
+}
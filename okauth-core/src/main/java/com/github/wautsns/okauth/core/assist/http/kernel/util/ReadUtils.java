@@ -15,15 +15,20 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonDecoder;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import lombok.experimental.UtilityClass;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 
 /**
  * Read utils.
@@ -39,6 +44,11 @@ public class ReadUtils {
             .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
     /** Java type: {@code DataMap}. */
     private static final JavaType JAVA_TYPE_DATA_MAP = OBJECT_MAPPER.getTypeFactory().constructType(DataMap.class);
+    /** Java type: {@code Serializable}. */
+    private static final JavaType JAVA_TYPE_SERIALIZABLE =
+            OBJECT_MAPPER.getTypeFactory().constructType(Serializable.class);
+    /** Jackson JsonFactory. */
+    private static final JsonFactory JSON_FACTORY = OBJECT_MAPPER.getFactory();
 
     /**
      * Read input stream as {@code String} value.
@@ -59,6 +69,25 @@ public class ReadUtils {
         return result.toString();
     }
 
+    /**
+     * Read input stream as byte array.
+     *
+     * <p><strong>The method will not close the input stream.</strong>
+     *
+     * @param inputStream input stream
+     * @return byte array
+     * @throws IOException if IO exception occurs
+     */
+    public static byte[] readInputStreamAsByteArray(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            result.write(buffer, 0, length);
+        }
+        return result.toByteArray();
+    }
+
     /**
      * Read query like input stream(eg. a=3&amp;b=4) as {@code DataMap} value.
      *
@@ -75,15 +104,15 @@ public class ReadUtils {
     /**
      * Read query like text(eg. a=3&amp;b=4) as {@code DataMap} value.
      *
+     * <p>Names and values will be url decoded.
+     *
      * @param string query like string
      * @return {@code DataMap} value
+     * @throws IllegalArgumentException if the text contains illegal escaped chars
      */
     public static DataMap readQueryLikeTextAsDataMap(String string) {
         DataMap dataMap = new DataMap();
-        for (String item : string.split("&")) {
-            String[] nameAndValue = item.split("=", 2);
-            dataMap.put(nameAndValue[0], nameAndValue[1]);
-        }
+        PercentEncodingUtils.forEachQueryItem(string, dataMap::put);
         return dataMap;
     }
 
@@ -98,6 +127,17 @@ public class ReadUtils {
         return OBJECT_MAPPER.readValue(string, JAVA_TYPE_DATA_MAP);
     }
 
+    /**
+     * Read json bytes as {@code DataMap} value.
+     *
+     * @param bytes json bytes
+     * @return {@code DataMap} value
+     * @throws IOException if IO exception occurs
+     */
+    public static DataMap readJsonAsDataMap(byte[] bytes) throws IOException {
+        return OBJECT_MAPPER.readValue(bytes, JAVA_TYPE_DATA_MAP);
+    }
+
     /**
      * Read json input stream as {@code DataMap} value.
      *
@@ -111,4 +151,100 @@ public class ReadUtils {
         return OBJECT_MAPPER.readValue(inputStream, JAVA_TYPE_DATA_MAP);
     }
 
+    /**
+     * Read json parser as {@code DataMap} value.
+     *
+     * <p><strong>The method will not close the json parser.</strong>
+     *
+     * @param parser json parser
+     * @return {@code DataMap} value
+     * @throws IOException if IO exception occurs
+     */
+    public static DataMap readJsonAsDataMap(JsonParser parser) throws IOException {
+        return OBJECT_MAPPER.readValue(parser, JAVA_TYPE_DATA_MAP);
+    }
+
+    // #################### streaming json ##############################################
+
+    /**
+     * Read json bytes with the decoder.
+     *
+     * @param bytes json bytes
+     * @param decoder json decoder
+     * @param <T> type of decoded value
+     * @return decoded value
+     * @throws IOException if IO exception occurs
+     */
+    public static <T> T readJson(byte[] bytes, OAuth2JsonDecoder<T> decoder) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes)) {
+            return decoder.decode(parser, bytes);
+        }
+    }
+
+    /**
+     * Read fields of json object with the binder.
+     *
+     * <p>Values of fields that are not bound will be skipped.
+     *
+     * @param parser json parser(positioned before or at the start of the json object)
+     * @param binder field binder
+     * @throws IOException if IO exception occurs or the value is not a json object
+     */
+    public static void readJsonObjectFields(JsonParser parser, OAuth2JsonDecoder.FieldBinder binder)
+            throws IOException {
+        JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, String.format("Expected json object but was [%s].", token));
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (!binder.bind(name, parser)) { parser.skipChildren(); }
+        }
+    }
+
+    /**
+     * Read current json value as {@code Serializable}(the same as values of {@code DataMap}).
+     *
+     * @param parser json parser(positioned at the value)
+     * @return {@code Serializable} value, or {@code null} if the value is json null
+     * @throws IOException if IO exception occurs
+     */
+    public static Serializable readJsonValue(JsonParser parser) throws IOException {
+        return OBJECT_MAPPER.readValue(parser, JAVA_TYPE_SERIALIZABLE);
+    }
+
+    /**
+     * Read current json value as {@code Integer}.
+     *
+     * @param parser json parser(positioned at the value)
+     * @return {@code Integer} value, or {@code null} if the value is json null
+     * @throws IOException if IO exception occurs
+     */
+    public static Integer readJsonValueAsInteger(JsonParser parser) throws IOException {
+        return (parser.currentToken() == JsonToken.VALUE_NULL) ? null : parser.getValueAsInt();
+    }
+
+    /**
+     * Read current json value as {@code Long}.
+     *
+     * @param parser json parser(positioned at the value)
+     * @return {@code Long} value, or {@code null} if the value is json null
+     * @throws IOException if IO exception occurs
+     */
+    public static Long readJsonValueAsLong(JsonParser parser) throws IOException {
+        return (parser.currentToken() == JsonToken.VALUE_NULL) ? null : parser.getValueAsLong();
+    }
+
+    /**
+     * Read current json value as {@code Boolean}.
+     *
+     * @param parser json parser(positioned at the value)
+     * @return {@code Boolean} value, or {@code null} if the value is json null
+     * @throws IOException if IO exception occurs
+     */
+    public static Boolean readJsonValueAsBoolean(JsonParser parser) throws IOException {
+        return (parser.currentToken() == JsonToken.VALUE_NULL) ? null : parser.getValueAsBoolean();
+    }
+
 }
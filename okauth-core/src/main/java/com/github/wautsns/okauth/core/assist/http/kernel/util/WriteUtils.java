@@ -15,6 +15,7 @@
  */
 package com.github.wautsns.okauth.core.assist.http.kernel.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -22,6 +23,8 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2UrlEncodedEntries;
 import lombok.experimental.UtilityClass;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -36,17 +39,26 @@ public class WriteUtils {
     /** Jackson ObjectMapper. */
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
             .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
 
     /**
      * Write urlEncodedEntries as query like text(eg. a=3&amp;b=qwe).
      *
+     * <p>Pre-encoded text of the entries is written as is.
+     *
      * @param urlEncodedEntries url encoded entries
      * @return query like text
      */
     public static String writeUrlEncodedEntriesAsQueryLikeText(OAuth2UrlEncodedEntries urlEncodedEntries) {
+        String preEncoded = urlEncodedEntries.getPreEncoded();
+        if (urlEncodedEntries.sizeOfAppended() == 0) { return (preEncoded == null) ? "" : preEncoded; }
         StringBuilder queryLikeText = new StringBuilder();
-        urlEncodedEntries.forEach((name, value) -> queryLikeText.append(name).append('=').append(value).append('&'));
+        if (preEncoded != null) { queryLikeText.append(preEncoded).append('&'); }
+        for (int i = 0, size = urlEncodedEntries.sizeOfAppended(); i < size; i++) {
+            queryLikeText.append(urlEncodedEntries.getAppendedName(i)).append('=')
+                    .append(urlEncodedEntries.getAppendedValue(i)).append('&');
+        }
         queryLikeText.deleteCharAt(queryLikeText.length() - 1);
         return queryLikeText.toString();
     }
@@ -58,7 +70,66 @@ public class WriteUtils {
      * @return query like text bytes
      */
     public static byte[] writeUrlEncodedEntriesAsQueryLikeTextBytes(OAuth2UrlEncodedEntries urlEncodedEntries) {
-        return writeUrlEncodedEntriesAsQueryLikeText(urlEncodedEntries).getBytes(StandardCharsets.UTF_8);
+        int length = measureUrlEncodedEntriesAsQueryLikeTextBytes(urlEncodedEntries);
+        if (length < 0) {
+            return writeUrlEncodedEntriesAsQueryLikeText(urlEncodedEntries).getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        String preEncoded = urlEncodedEntries.getPreEncoded();
+        int index = (preEncoded == null) ? 0 : writeAscii(preEncoded, bytes, 0);
+        for (int i = 0, size = urlEncodedEntries.sizeOfAppended(); i < size; i++) {
+            if (index > 0) { bytes[index++] = '&'; }
+            index = writeAscii(urlEncodedEntries.getAppendedName(i), bytes, index);
+            bytes[index++] = '=';
+            index = writeAscii(urlEncodedEntries.getAppendedValue(i), bytes, index);
+        }
+        return bytes;
+    }
+
+    /**
+     * Measure length of urlEncodedEntries as query like text(eg. a=3&amp;b=qwe) bytes.
+     *
+     * @param urlEncodedEntries url encoded entries
+     * @return length of query like text bytes, or {@code -1} if the text contains non-ascii chars
+     */
+    public static int measureUrlEncodedEntriesAsQueryLikeTextBytes(OAuth2UrlEncodedEntries urlEncodedEntries) {
+        String preEncoded = urlEncodedEntries.getPreEncoded();
+        int length = (preEncoded == null) ? 0 : measureAscii(preEncoded);
+        for (int i = 0, size = urlEncodedEntries.sizeOfAppended(); i < size; i++) {
+            int nameLength = measureAscii(urlEncodedEntries.getAppendedName(i));
+            int valueLength = measureAscii(urlEncodedEntries.getAppendedValue(i));
+            if (nameLength < 0 || valueLength < 0) { return -1; }
+            length += ((length == 0) ? 0 : 1) + nameLength + 1 + valueLength;
+        }
+        return length;
+    }
+
+    /**
+     * Measure length of ascii text.
+     *
+     * @param text text
+     * @return length of the text, or {@code -1} if the text contains non-ascii chars
+     */
+    private static int measureAscii(String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (text.charAt(i) >= 128) { return -1; }
+        }
+        return text.length();
+    }
+
+    /**
+     * Write ascii text to bytes.
+     *
+     * @param text ascii text
+     * @param bytes target bytes
+     * @param index index to start writing
+     * @return index after the written text
+     */
+    private static int writeAscii(String text, byte[] bytes, int index) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            bytes[index++] = (byte) text.charAt(i);
+        }
+        return index;
     }
 
     /**
@@ -71,6 +142,33 @@ public class WriteUtils {
         return new String(writeObjectAsJsonBytes(object), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Write object as json to the output stream.
+     *
+     * <p><strong>The method will not close the output stream.</strong>
+     *
+     * @param object object
+     * @param outputStream output stream
+     * @throws IOException if IO exception occurs
+     */
+    public static void writeObjectAsJson(Object object, OutputStream outputStream) throws IOException {
+        OBJECT_MAPPER.writeValue(outputStream, object);
+    }
+
+    /**
+     * Initialize json generator writing to the output stream.
+     *
+     * <p>Objects written by the generator are serialized in the same way as {@link #writeObjectAsJsonBytes(Object)},
+     * and closing the generator will not close the output stream.
+     *
+     * @param outputStream output stream
+     * @return json generator
+     * @throws IOException if IO exception occurs
+     */
+    public static JsonGenerator initJsonGenerator(OutputStream outputStream) throws IOException {
+        return OBJECT_MAPPER.getFactory().createGenerator(outputStream);
+    }
+
     /**
      * Write object as json bytes.
      *
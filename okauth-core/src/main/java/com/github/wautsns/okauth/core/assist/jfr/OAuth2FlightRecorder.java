@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.jfr;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
+import lombok.experimental.UtilityClass;
+
+/**
+ * OAuth2 flight recorder, which emits Java Flight Recorder events of okauth.
+ *
+ * <p>This is a multi-release class. The one compiled for Java 8 records nothing, while the one under
+ * {@code META-INF/versions/11} emits events in category {@code OkAuth}:
+ * <ul>
+ * <li>{@code okauth.ApiCall}: a call of public APIs of oauth2 clients.</li>
+ * <li>{@code okauth.HttpExchange}: an execution of oauth2 http request, until the response is received.</li>
+ * <li>{@code okauth.TokenFetch}: getting token of wechat work corp, including waiting for another thread.</li>
+ * </ul>
+ * Events are recorded only while a flight recording is running, otherwise the cost is almost nothing.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@UtilityClass
+public class OAuth2FlightRecorder {
+
+    /**
+     * Whether events can be emitted by the current JVM.
+     *
+     * @return {@code true} if events can be emitted, otherwise {@code false}
+     */
+    public static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Begin recording a call of the API.
+     *
+     * @param openPlatform open platform
+     * @param api API
+     * @return recording
+     */
+    public static OAuth2FlightRecording beginApiCall(String openPlatform, OAuth2Api api) {
+        return OAuth2FlightRecording.NONE;
+    }
+
+    /**
+     * Begin recording an execution of the oauth2 http request.
+     *
+     * @param openPlatform open platform
+     * @param request oauth2 http request
+     * @return recording
+     */
+    public static OAuth2FlightRecording beginHttpExchange(String openPlatform, OAuth2HttpRequest request) {
+        return OAuth2FlightRecording.NONE;
+    }
+
+    /**
+     * Begin recording getting token.
+     *
+     * @param openPlatform open platform
+     * @return recording
+     */
+    public static OAuth2FlightRecording beginTokenFetch(String openPlatform) {
+        return OAuth2FlightRecording.NONE;
+    }
+
+}
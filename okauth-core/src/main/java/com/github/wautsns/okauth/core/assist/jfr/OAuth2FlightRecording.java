@@ -0,0 +1,67 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.jfr;
+
+/**
+ * OAuth2 flight recording, which is an in-progress Java Flight Recorder event.
+ *
+ * <p>Setters that do not apply to the event are ignored.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ * @see OAuth2FlightRecorder
+ */
+public interface OAuth2FlightRecording {
+
+    /** Recording that records nothing. */
+    OAuth2FlightRecording NONE = new OAuth2FlightRecording() {};
+
+    /**
+     * Set the status of the http response.
+     *
+     * @param status status of the http response
+     */
+    default void setStatus(int status) {}
+
+    /**
+     * Set the number of bytes of the http response entity.
+     *
+     * @param bytes number of bytes, or {@code -1} if unknown
+     */
+    default void setBytes(long bytes) {}
+
+    /**
+     * Set whether the token is got from the token cache.
+     *
+     * @param cacheHit {@code true} if the token is got from the token cache, otherwise {@code false}
+     */
+    default void setCacheHit(boolean cacheHit) {}
+
+    /**
+     * Add time spent waiting for another thread that is fetching the token.
+     *
+     * @param waitNanos wait time in nanos
+     */
+    default void addWaitNanos(long waitNanos) {}
+
+    /**
+     * End the recording, and commit the event if it should be committed.
+     *
+     * @param error exception if failed, otherwise {@code null}
+     */
+    default void finish(Throwable error) {}
+
+}
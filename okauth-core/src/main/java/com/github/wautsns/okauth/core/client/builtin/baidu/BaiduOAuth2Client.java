@@ -18,7 +18,9 @@ package com.github.wautsns.okauth.core.client.builtin.baidu;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonProjection;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
@@ -29,10 +31,15 @@ import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQuery
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Baidu oauth2 client.
  *
@@ -49,7 +56,7 @@ public class BaiduOAuth2Client
      * @param appInfo oauth2 app info
      */
     public BaiduOAuth2Client(BaiduOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), TokenRefreshCallback.IGNORE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), TokenRefreshCallback.IGNORE);
     }
 
     /**
@@ -70,6 +77,11 @@ public class BaiduOAuth2Client
         return BuiltInOpenPlatformNames.BAIDU;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://openapi.baidu.com");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -87,24 +99,15 @@ public class BaiduOAuth2Client
                 .add("force_login", extra.getForceLogin().value)
                 .add("confirm_login", extra.getConfirmLogin().value)
                 .add("login_type", extra.getLoginType().value);
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<BaiduOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = "https://openapi.baidu.com/oauth/2.0/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .addGrantTypeWithValueAuthorizationCode()
-                .addClientId(appInfo.getApiKey())
-                .addClientSecret(appInfo.getSecretKey())
-                .addRedirectUri(appInfo.getRedirectUri());
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         return redirectUriQuery -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
             return new BaiduOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
         };
@@ -112,15 +115,9 @@ public class BaiduOAuth2Client
 
     @Override
     protected RefreshToken<BaiduOAuth2Token> initApiRefreshToken() {
-        String url = "https://openapi.baidu.com/oauth/2.0/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .addGrantTypeWithValueRefreshToken()
-                .addClientId(appInfo.getApiKey())
-                .addClientSecret(appInfo.getSecretKey())
-                .addScope(BaiduOAuth2AppInfo.Scope.joinWith(appInfo.getScopes(), " "));
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
             return new BaiduOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
         };
@@ -128,20 +125,102 @@ public class BaiduOAuth2Client
 
     @Override
     protected ExchangeTokenForOpenid<BaiduOAuth2Token> initApiExchangeTokenForOpenid() {
-        return token -> exchangeForUser(token).getOpenid();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("openid").or("error_code", "error_msg");
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addAccessToken(token.getAccessToken());
+            return executeNotGetOrRefreshTokenAndCheck(request, projection).getAsString("openid");
+        };
     }
 
     @Override
     protected ExchangeTokenForUser<BaiduOAuth2Token, BaiduOAuth2User> initApiExchangeTokenForUser() {
-        String url = "https://openapi.baidu.com/rest/2.0/passport/users/getInfo";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addAccessToken(token.getAccessToken());
             return new BaiduOAuth2User(executeNotGetOrRefreshTokenAndCheck(request));
         };
     }
 
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, BaiduOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        return redirectUriQuery -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
+            return executeAsync(request, response -> new BaiduOAuth2Token(checkGetOrRefreshTokenResponse(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<BaiduOAuth2Token, BaiduOAuth2Token> initApiRefreshTokenAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
+            return executeAsync(request, response -> new BaiduOAuth2Token(checkGetOrRefreshTokenResponse(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<BaiduOAuth2Token, BaiduOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addAccessToken(token.getAccessToken());
+            return executeAsync(request, response -> new BaiduOAuth2User(checkNotGetOrRefreshTokenResponse(response)));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = "https://openapi.baidu.com/oauth/2.0/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("token").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .addGrantTypeWithValueAuthorizationCode()
+                .addClientId(appInfo.getApiKey())
+                .addClientSecret(appInfo.getSecretKey())
+                .addRedirectUri(appInfo.getRedirectUri());
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: refresh token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForRefreshToken() {
+        String url = "https://openapi.baidu.com/oauth/2.0/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("refresh").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .addGrantTypeWithValueRefreshToken()
+                .addClientId(appInfo.getApiKey())
+                .addClientSecret(appInfo.getSecretKey())
+                .addScope(BaiduOAuth2AppInfo.Scope.joinWith(appInfo.getScopes(), " "));
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
+        String url = "https://openapi.baidu.com/rest/2.0/passport/users/getInfo";
+        return OAuth2HttpRequest.initGet(url).setName("user");
+    }
+
     // #################### execute request and check response ##########################
 
     /**
@@ -152,7 +231,17 @@ public class BaiduOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+        return checkGetOrRefreshTokenResponse(httpClient.execute(request));
+    }
+
+    /**
+     * Check response of request that is GET_TOKEN or REFRESH_TOKEN.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap checkGetOrRefreshTokenResponse(OAuth2HttpResponse response) throws OAuth2Exception {
         DataMap dataMap = response.readJsonAsDataMap();
         String error = dataMap.getAsString("error");
         if (error == null) { return dataMap; }
@@ -168,8 +257,41 @@ public class BaiduOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
-        DataMap dataMap = response.readJsonAsDataMap();
+        return checkNotGetOrRefreshTokenResponse(httpClient.execute(request));
+    }
+
+    /**
+     * Execute request that is neither GET_TOKEN nor REFRESH_TOKEN, and check response with the projection.
+     *
+     * @param request request
+     * @param projection json projection(error fields must be included)
+     * @return correct data map(projected)
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request, OAuth2JsonProjection projection)
+            throws OAuth2Exception {
+        return checkNotGetOrRefreshTokenDataMap(httpClient.execute(request).readJson(projection));
+    }
+
+    /**
+     * Check response of request that is neither GET_TOKEN nor REFRESH_TOKEN.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap checkNotGetOrRefreshTokenResponse(OAuth2HttpResponse response) throws OAuth2Exception {
+        return checkNotGetOrRefreshTokenDataMap(response.readJsonAsDataMap());
+    }
+
+    /**
+     * Check data map of response of request that is neither GET_TOKEN nor REFRESH_TOKEN.
+     *
+     * @param dataMap data map of response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap checkNotGetOrRefreshTokenDataMap(DataMap dataMap) throws OAuth2Exception {
         String errorCode = dataMap.getAsString("error_code");
         if (errorCode == null) { return dataMap; }
         String errorMsg = dataMap.getAsString("error_msg");
@@ -18,6 +18,7 @@ package com.github.wautsns.okauth.core.client.builtin.dingtalk;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
@@ -26,11 +27,16 @@ import com.github.wautsns.okauth.core.client.builtin.dingtalk.model.DingTalkOAut
 import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForUser;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.client.kernel.util.Encryptor;
 import com.github.wautsns.okauth.core.client.kernel.util.Encryptors;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * DingTalk oauth2 client.
  *
@@ -46,7 +52,7 @@ public class DingTalkOAuth2Client extends OAuth2Client<DingTalkOAuth2AppInfo, Di
      * @param appInfo oauth2 app info
      */
     public DingTalkOAuth2Client(DingTalkOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient());
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared());
     }
 
     /**
@@ -64,16 +70,17 @@ public class DingTalkOAuth2Client extends OAuth2Client<DingTalkOAuth2AppInfo, Di
         return BuiltInOpenPlatformNames.DING_TALK;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://oapi.dingtalk.com");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
     protected InitializeAuthorizeUrl initApiInitializeAuthorizeUrl() {
         OAuth2Url basic = initBasicAuthorizeUrl(appInfo.getAuthorizeType());
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     /**
@@ -150,21 +157,61 @@ public class DingTalkOAuth2Client extends OAuth2Client<DingTalkOAuth2AppInfo, Di
 
     @Override
     protected ExchangeRedirectUriQueryForUser<DingTalkOAuth2User> initApiExchangeRedirectUriQueryForUser() {
-        String url = "https://oapi.dingtalk.com/sns/getuserinfo_bycode";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery().add("accessKey", appInfo.getAppId());
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForUser());
         Encryptor encryptor = Encryptors.hmacSha256(appInfo.getAppSecret());
         return redirectUriQuery -> {
-            String timestamp = Long.toString(System.currentTimeMillis());
-            OAuth2HttpRequest request = basic.copy();
-            request.getUrl().getQuery()
-                    .add("timestamp", timestamp)
-                    .add("signature", encryptor.encrypt(timestamp))
-                    .add("tmp_auth_code", redirectUriQuery.getCode());
+            OAuth2HttpRequest request = initRequestWithSignature(basic, encryptor, redirectUriQuery);
             return new DingTalkOAuth2User(executeAndCheck(request));
         };
     }
 
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, DingTalkOAuth2User> initApiExchangeRedirectUriQueryForUserAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForUser());
+        Encryptor encryptor = Encryptors.hmacSha256(appInfo.getAppSecret());
+        return redirectUriQuery -> {
+            OAuth2HttpRequest request = initRequestWithSignature(basic, encryptor, redirectUriQuery);
+            return executeAsync(request, response -> new DingTalkOAuth2User(check(response)));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForUser() {
+        String url = "https://oapi.dingtalk.com/sns/getuserinfo_bycode";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("user").setIdempotent(false);
+        basic.getUrl().getQuery().add("accessKey", appInfo.getAppId());
+        return basic;
+    }
+
+    /**
+     * Initialize request with timestamp and signature.
+     *
+     * @param basic basic request template
+     * @param encryptor encryptor
+     * @param redirectUriQuery redirect uri query
+     * @return request
+     */
+    private static OAuth2HttpRequest initRequestWithSignature(
+            OAuth2HttpRequestTemplate basic, Encryptor encryptor, OAuth2RedirectUriQuery redirectUriQuery) {
+        String timestamp = Long.toString(System.currentTimeMillis());
+        OAuth2HttpRequest request = basic.newRequest();
+        request.getUrl().getQuery()
+                .add("timestamp", timestamp)
+                .add("signature", encryptor.encrypt(timestamp))
+                .add("tmp_auth_code", redirectUriQuery.getCode());
+        return request;
+    }
+
     // #################### execute request and check response ##########################
 
     /**
@@ -175,7 +222,17 @@ public class DingTalkOAuth2Client extends OAuth2Client<DingTalkOAuth2AppInfo, Di
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+        return check(httpClient.execute(request));
+    }
+
+    /**
+     * Check response.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap check(OAuth2HttpResponse response) throws OAuth2Exception {
         DataMap dataMap = response.readJsonAsDataMap();
         String errcode = dataMap.getAsString("errcode");
         String errmsg = dataMap.getAsString("errmsg");
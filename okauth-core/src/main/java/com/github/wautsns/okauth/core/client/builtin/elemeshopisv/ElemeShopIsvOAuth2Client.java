@@ -18,10 +18,13 @@ package com.github.wautsns.okauth.core.client.builtin.elemeshopisv;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonProjection;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.builtin.OAuth2HttpJsonEntity;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
 import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.builtin.elemeshopisv.model.ElemeShopIsvOAuth2Token;
@@ -31,6 +34,8 @@ import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQuery
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.client.kernel.util.Encryptors;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
@@ -40,6 +45,7 @@ import com.github.wautsns.okauth.core.exception.specific.user.UserRefusedAuthori
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -60,7 +66,7 @@ public class ElemeShopIsvOAuth2Client
      * @param appInfo oauth2 app info
      */
     public ElemeShopIsvOAuth2Client(ElemeShopIsvOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), TokenRefreshCallback.IGNORE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), TokenRefreshCallback.IGNORE);
     }
 
     /**
@@ -81,6 +87,11 @@ public class ElemeShopIsvOAuth2Client
         return BuiltInOpenPlatformNames.ELEME_SHOP_ISV;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList(getHostOfCurrentEnv());
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -92,22 +103,13 @@ public class ElemeShopIsvOAuth2Client
                 .addResponseTypeWithValueCode()
                 .addRedirectUri(appInfo.getRedirectUri())
                 .addScope("all");
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<ElemeShopIsvOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = getHostOfCurrentEnv() + "/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url);
-        basic.getHeaders().addAuthorizationBasic(appInfo.getKey(), appInfo.getSecret());
-        basic.getEntityFormUrlEncoded()
-                .addGrantTypeWithValueAuthorizationCode()
-                .addRedirectUri(appInfo.getRedirectUri())
-                .addClientId(appInfo.getKey());
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         Integer refreshTokenExpiresIn = getRefreshTokenExpiresInOfCurrentEnv();
         return redirectUriQuery -> {
             String error = redirectUriQuery.getError();
@@ -115,7 +117,7 @@ public class ElemeShopIsvOAuth2Client
                 String errorDescription = redirectUriQuery.getErrorDescription();
                 throw new UserRefusedAuthorizationException(getOpenPlatform());
             } else {
-                OAuth2HttpRequest request = basic.copy();
+                OAuth2HttpRequest request = basic.newRequest();
                 request.getEntityFormUrlEncoded().addCode(redirectUriQuery.getCode());
                 ElemeShopIsvOAuth2Token token = new ElemeShopIsvOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
                 token.getOriginalDataMap().put("refresh_token_expires_in", refreshTokenExpiresIn);
@@ -126,13 +128,10 @@ public class ElemeShopIsvOAuth2Client
 
     @Override
     protected RefreshToken<ElemeShopIsvOAuth2Token> initApiRefreshToken() {
-        String url = getHostOfCurrentEnv() + "/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url);
-        basic.getHeaders().addAuthorizationBasic(appInfo.getKey(), appInfo.getSecret());
-        basic.getEntityFormUrlEncoded().addGrantTypeWithValueRefreshToken();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         Integer refreshTokenExpiresIn = getRefreshTokenExpiresInOfCurrentEnv();
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getEntityFormUrlEncoded().addRefreshToken(token.getRefreshToken());
             token = new ElemeShopIsvOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
             token.getOriginalDataMap().put("refresh_token_expires_in", refreshTokenExpiresIn);
@@ -142,30 +141,136 @@ public class ElemeShopIsvOAuth2Client
 
     @Override
     protected ExchangeTokenForOpenid<ElemeShopIsvOAuth2Token> initApiExchangeTokenForOpenid() {
-        return token -> exchangeForUser(token).getOpenid();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("result.userId").or("error.code", "error.message");
+        return token -> {
+            OAuth2HttpRequest request = initSignedRequestForExchangeTokenForUser(basic, token);
+            return executeNotGetOrRefreshTokenAndCheck(request, projection).getAsString("userId");
+        };
     }
 
     @Override
     protected ExchangeTokenForUser<ElemeShopIsvOAuth2Token, ElemeShopIsvOAuth2User> initApiExchangeTokenForUser() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = initSignedRequestForExchangeTokenForUser(basic, token);
+            return new ElemeShopIsvOAuth2User(executeNotGetOrRefreshTokenAndCheck(request));
+        };
+    }
+
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, ElemeShopIsvOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        Integer refreshTokenExpiresIn = getRefreshTokenExpiresInOfCurrentEnv();
+        return redirectUriQuery -> {
+            String error = redirectUriQuery.getError();
+            if (error != null) {
+                return FutureUtils.failed(new UserRefusedAuthorizationException(getOpenPlatform()));
+            } else {
+                OAuth2HttpRequest request = basic.newRequest();
+                request.getEntityFormUrlEncoded().addCode(redirectUriQuery.getCode());
+                return executeAsync(request, response -> {
+                    ElemeShopIsvOAuth2Token token = new ElemeShopIsvOAuth2Token(checkGetOrRefreshTokenResponse(response));
+                    token.getOriginalDataMap().put("refresh_token_expires_in", refreshTokenExpiresIn);
+                    return token;
+                });
+            }
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<ElemeShopIsvOAuth2Token, ElemeShopIsvOAuth2Token> initApiRefreshTokenAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
+        Integer refreshTokenExpiresIn = getRefreshTokenExpiresInOfCurrentEnv();
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getEntityFormUrlEncoded().addRefreshToken(token.getRefreshToken());
+            return executeAsync(request, response -> {
+                ElemeShopIsvOAuth2Token refreshed = new ElemeShopIsvOAuth2Token(checkGetOrRefreshTokenResponse(response));
+                refreshed.getOriginalDataMap().put("refresh_token_expires_in", refreshTokenExpiresIn);
+                return refreshed;
+            });
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<ElemeShopIsvOAuth2Token, ElemeShopIsvOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = initSignedRequestForExchangeTokenForUser(basic, token);
+            return executeAsync(request, response -> new ElemeShopIsvOAuth2User(checkNotGetOrRefreshTokenResponse(response)));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = getHostOfCurrentEnv() + "/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url).setName("token");
+        basic.getHeaders().addAuthorizationBasic(appInfo.getKey(), appInfo.getSecret());
+        basic.getEntityFormUrlEncoded()
+                .addGrantTypeWithValueAuthorizationCode()
+                .addRedirectUri(appInfo.getRedirectUri())
+                .addClientId(appInfo.getKey());
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: refresh token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForRefreshToken() {
+        String url = getHostOfCurrentEnv() + "/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url).setName("refresh");
+        basic.getHeaders().addAuthorizationBasic(appInfo.getKey(), appInfo.getSecret());
+        basic.getEntityFormUrlEncoded().addGrantTypeWithValueRefreshToken();
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
         String url = getHostOfCurrentEnv() + "/api/v1/";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url);
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url).setName("user");
         basic.getHeaders().addContentTypeWithValueJson();
         basic.getEntityJson()
                 .putUnchangedValue("nop", "1.0.0")
                 .putUnchangedValue("id", "useless")
                 .putUnchangedValue("action", "eleme.user.getUser")
                 .putUnchangedValue("params", (Serializable) Collections.emptyMap());
-        return token -> {
-            OAuth2HttpRequest request = basic.copy();
-            DataMap metas = new DataMap(2, 1f)
-                    .with("app_key", appInfo.getKey())
-                    .with("timestamp", System.currentTimeMillis());
-            request.getEntityJson()
-                    .putUnchangedValue("token", token.getAccessToken())
-                    .putUnchangedValue("metas", metas);
-            sign(request.getEntityJson());
-            return new ElemeShopIsvOAuth2User(executeNotGetOrRefreshTokenAndCheck(request));
-        };
+        return basic;
+    }
+
+    /**
+     * Initialize signed request for API: exchange token for user.
+     *
+     * @param basic basic request template
+     * @param token token
+     * @return signed request
+     */
+    private OAuth2HttpRequest initSignedRequestForExchangeTokenForUser(
+            OAuth2HttpRequestTemplate basic, ElemeShopIsvOAuth2Token token) {
+        OAuth2HttpRequest request = basic.newRequest();
+        DataMap metas = new DataMap(2, 1f)
+                .with("app_key", appInfo.getKey())
+                .with("timestamp", System.currentTimeMillis());
+        request.getEntityJson()
+                .putUnchangedValue("token", token.getAccessToken())
+                .putUnchangedValue("metas", metas);
+        sign(request.getEntityJson());
+        return request;
     }
 
     /**
@@ -237,7 +342,17 @@ public class ElemeShopIsvOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+        return checkGetOrRefreshTokenResponse(httpClient.execute(request));
+    }
+
+    /**
+     * Check response of request that is GET_TOKEN or REFRESH_TOKEN.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap checkGetOrRefreshTokenResponse(OAuth2HttpResponse response) throws OAuth2Exception {
         DataMap dataMap = response.readJsonAsDataMap();
         String error = dataMap.getAsString("error");
         String errorDescription = dataMap.getAsString("error_description");
@@ -258,8 +373,41 @@ public class ElemeShopIsvOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
-        DataMap dataMap = response.readJsonAsDataMap();
+        return checkNotGetOrRefreshTokenResponse(httpClient.execute(request));
+    }
+
+    /**
+     * Execute request that is neither GET_TOKEN nor REFRESH_TOKEN, and check response with the projection.
+     *
+     * @param request request
+     * @param projection json projection(error fields must be included)
+     * @return correct data map(projected)
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request, OAuth2JsonProjection projection)
+            throws OAuth2Exception {
+        return checkNotGetOrRefreshTokenDataMap(httpClient.execute(request).readJson(projection));
+    }
+
+    /**
+     * Check response of request that is neither GET_TOKEN nor REFRESH_TOKEN.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap checkNotGetOrRefreshTokenResponse(OAuth2HttpResponse response) throws OAuth2Exception {
+        return checkNotGetOrRefreshTokenDataMap(response.readJsonAsDataMap());
+    }
+
+    /**
+     * Check data map of response of request that is neither GET_TOKEN nor REFRESH_TOKEN.
+     *
+     * @param dataMap data map of response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap checkNotGetOrRefreshTokenDataMap(DataMap dataMap) throws OAuth2Exception {
         DataMap errorDataMap = dataMap.getAsDataMap("error");
         if (errorDataMap == null) { return dataMap.getAsDataMap("result"); }
         String code = errorDataMap.getAsString("code");
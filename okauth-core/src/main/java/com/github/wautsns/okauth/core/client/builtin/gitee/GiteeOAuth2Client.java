@@ -18,7 +18,9 @@ package com.github.wautsns.okauth.core.client.builtin.gitee;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonDecoder;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
@@ -29,11 +31,16 @@ import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQuery
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredRefreshTokenException;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Gitee oauth2 client.
  *
@@ -50,7 +57,7 @@ public class GiteeOAuth2Client
      * @param appInfo oauth2 app info
      */
     public GiteeOAuth2Client(GiteeOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), TokenRefreshCallback.IGNORE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), TokenRefreshCallback.IGNORE);
     }
 
     /**
@@ -71,6 +78,11 @@ public class GiteeOAuth2Client
         return BuiltInOpenPlatformNames.GITEE;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://gitee.com");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -82,38 +94,27 @@ public class GiteeOAuth2Client
                 .addRedirectUri(appInfo.getRedirectUri())
                 .addResponseTypeWithValueCode()
                 .addScope(GiteeOAuth2AppInfo.Scope.joinWith(appInfo.getScopes(), " "));
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<GiteeOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = "https://gitee.com/oauth/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url);
-        basic.getUrl().getQuery()
-                .addGrantTypeWithValueAuthorizationCode()
-                .addClientId(appInfo.getClientId())
-                .addClientSecret(appInfo.getClientSecret())
-                .addRedirectUri(appInfo.getRedirectUri());
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         return redirectUriQuery -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
-            return new GiteeOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
+            return executeGetOrRefreshTokenAndCheck(request);
         };
     }
 
     @Override
     protected RefreshToken<GiteeOAuth2Token> initApiRefreshToken() {
-        String url = "https://gitee.com/oauth/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url);
-        basic.getUrl().getQuery().addGrantTypeWithValueRefreshToken();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
-            return new GiteeOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
+            return executeGetOrRefreshTokenAndCheck(request);
         };
     }
 
@@ -124,29 +125,114 @@ public class GiteeOAuth2Client
 
     @Override
     protected ExchangeTokenForUser<GiteeOAuth2Token, GiteeOAuth2User> initApiExchangeTokenForUser() {
-        String url = "https://gitee.com/api/v5/user";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addAccessToken(token.getAccessToken());
+            return executeNotGetOrRefreshTokenAndCheck(request, GiteeOAuth2User::decode);
+        };
+    }
+
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, GiteeOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        return redirectUriQuery -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
+            return executeAsync(request, this::checkGetOrRefreshTokenResponse);
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<GiteeOAuth2Token, GiteeOAuth2Token> initApiRefreshTokenAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
+            return executeAsync(request, this::checkGetOrRefreshTokenResponse);
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<GiteeOAuth2Token, GiteeOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addAccessToken(token.getAccessToken());
-            return new GiteeOAuth2User(executeNotGetOrRefreshTokenAndCheck(request));
+            return executeAsync(
+                    request, response -> checkNotGetOrRefreshTokenResponse(response, GiteeOAuth2User::decode));
         };
     }
 
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = "https://gitee.com/oauth/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url).setName("token");
+        basic.getUrl().getQuery()
+                .addGrantTypeWithValueAuthorizationCode()
+                .addClientId(appInfo.getClientId())
+                .addClientSecret(appInfo.getClientSecret())
+                .addRedirectUri(appInfo.getRedirectUri());
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: refresh token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForRefreshToken() {
+        String url = "https://gitee.com/oauth/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url).setName("refresh");
+        basic.getUrl().getQuery().addGrantTypeWithValueRefreshToken();
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
+        String url = "https://gitee.com/api/v5/user";
+        return OAuth2HttpRequest.initGet(url).setName("user");
+    }
+
     // #################### execute request and check response ##########################
 
     /**
      * Execute request that is GET_TOKEN or REFRESH_TOKEN, and check response.
      *
      * @param request request
-     * @return correct data map
+     * @return token
      * @throws OAuth2Exception if oauth2 failed
      */
-    protected DataMap executeGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
-        DataMap dataMap = response.readJsonAsDataMap();
+    protected GiteeOAuth2Token executeGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
+        return checkGetOrRefreshTokenResponse(httpClient.execute(request));
+    }
+
+    /**
+     * Check response of request that is GET_TOKEN or REFRESH_TOKEN.
+     *
+     * @param response response
+     * @return token
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected GiteeOAuth2Token checkGetOrRefreshTokenResponse(OAuth2HttpResponse response) throws OAuth2Exception {
+        GiteeOAuth2Token token = response.readJson(GiteeOAuth2Token::decode);
+        if (token.getAccessToken() != null) { return token; }
+        DataMap dataMap = token.getOriginalDataMap();
         String error = dataMap.getAsString("error");
-        if (error == null) { return dataMap; }
+        if (error == null) { return token; }
         String errorDescription = dataMap.getAsString("error_description");
         if ("invalid_grant".equals(error)) {
             throw new ExpiredRefreshTokenException(getOpenPlatform(), error, errorDescription);
@@ -159,13 +245,29 @@ public class GiteeOAuth2Client
      * Execute request that is neither GET_TOKEN nor REFRESH_TOKEN, and check response.
      *
      * @param request request
-     * @return correct data map
+     * @param decoder decoder for correct response
+     * @param <T> type of decoded value
+     * @return decoded value
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected <T> T executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request, OAuth2JsonDecoder<T> decoder)
+            throws OAuth2Exception {
+        return checkNotGetOrRefreshTokenResponse(httpClient.execute(request), decoder);
+    }
+
+    /**
+     * Check response of request that is neither GET_TOKEN nor REFRESH_TOKEN.
+     *
+     * @param response response
+     * @param decoder decoder for correct response
+     * @param <T> type of decoded value
+     * @return decoded value
      * @throws OAuth2Exception if oauth2 failed
      */
-    protected DataMap executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+    protected <T> T checkNotGetOrRefreshTokenResponse(OAuth2HttpResponse response, OAuth2JsonDecoder<T> decoder)
+            throws OAuth2Exception {
+        if (response.getStatus() < 400) { return response.readJson(decoder); }
         DataMap dataMap = response.readJsonAsDataMap();
-        if (response.getStatus() < 400) { return dataMap; }
         String message = dataMap.getAsString("message");
         if ("401 Unauthorized: Access token is expired".equals(message)) {
             throw new ExpiredAccessTokenException(getOpenPlatform(), "401 Unauthorized", "Access token is expired");
@@ -15,12 +15,26 @@
  */
 package com.github.wautsns.okauth.core.client.builtin.gitee.model;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.LazyDataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RefreshableToken;
-import lombok.Data;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 /**
  * Gitee oauth2 token.
  *
@@ -38,35 +52,119 @@ import lombok.experimental.Accessors;
  * @author wautsns
  * @since May 17, 2020
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
+@Builder(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Accessors(chain = true)
 public class GiteeOAuth2Token implements OAuth2RefreshableToken {
 
     private static final long serialVersionUID = 7155633421437700449L;
 
     /** Token id. */
+    @Setter
     private String tokenId;
     /** Original data map. */
-    private final DataMap originalDataMap;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LazyDataMap originalDataMap;
+    /** Access token. */
+    private String accessToken;
+    /** Access token expiration seconds. */
+    private Integer accessTokenExpirationSeconds;
+    /** Refresh token. */
+    private String refreshToken;
+    /**
+     * Scopes(delimiter: space).
+     *
+     * @see com.github.wautsns.okauth.core.client.builtin.gitee.GiteeOAuth2AppInfo.Scope
+     */
+    private String scopes;
+    /** Created at(seconds timestamp). */
+    private Long createdAt;
 
-    @Override
-    public String getOpenPlatform() {
-        return BuiltInOpenPlatformNames.GITEE;
+    /**
+     * Construct a Gitee oauth2 token.
+     *
+     * @param originalDataMap original data map
+     */
+    public GiteeOAuth2Token(DataMap originalDataMap) {
+        init(originalDataMap);
     }
 
-    @Override
-    public String getAccessToken() {
-        return originalDataMap.getAsString("access_token");
+    /**
+     * Initialize fields with the original data map.
+     *
+     * @param originalDataMap original data map
+     */
+    private void init(DataMap originalDataMap) {
+        this.originalDataMap = LazyDataMap.of(originalDataMap);
+        this.accessToken = originalDataMap.getAsString("access_token");
+        this.accessTokenExpirationSeconds = originalDataMap.getAsInteger("expires_in");
+        this.refreshToken = originalDataMap.getAsString("refresh_token");
+        this.scopes = originalDataMap.getAsString("scope");
+        this.createdAt = originalDataMap.getAsLong("created_at");
     }
 
+    /**
+     * Decode json as Gitee oauth2 token.
+     *
+     * @param parser json parser
+     * @param json json bytes
+     * @return Gitee oauth2 token
+     * @throws IOException if IO exception occurs
+     */
+    public static GiteeOAuth2Token decode(JsonParser parser, byte[] json) throws IOException {
+        GiteeOAuth2TokenBuilder builder = builder().originalDataMap(LazyDataMap.ofJson(json));
+        ReadUtils.readJsonObjectFields(parser, (name, valueParser) -> bind(builder, name, valueParser));
+        return builder.build();
+    }
+
+    /**
+     * Bind the field if the value is scalar.
+     *
+     * @param builder builder
+     * @param name field name
+     * @param parser json parser
+     * @return {@code true} if the field is bound, otherwise {@code false}
+     * @throws IOException if IO exception occurs
+     */
+    private static boolean bind(GiteeOAuth2TokenBuilder builder, String name, JsonParser parser) throws IOException {
+        if (!parser.currentToken().isScalarValue()) { return false; }
+        switch (name) {
+            case "access_token":
+                builder.accessToken(parser.getValueAsString());
+                return true;
+            case "expires_in":
+                builder.accessTokenExpirationSeconds(ReadUtils.readJsonValueAsInteger(parser));
+                return true;
+            case "refresh_token":
+                builder.refreshToken(parser.getValueAsString());
+                return true;
+            case "scope":
+                builder.scopes(parser.getValueAsString());
+                return true;
+            case "created_at":
+                builder.createdAt(ReadUtils.readJsonValueAsLong(parser));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Builder of {@code GiteeOAuth2Token}(generated by lombok), declared for javadoc to resolve. */
+    private static class GiteeOAuth2TokenBuilder {}
+
     @Override
-    public Integer getAccessTokenExpirationSeconds() {
-        return originalDataMap.getAsInteger("expires_in");
+    public DataMap getOriginalDataMap() {
+        return originalDataMap.get();
     }
 
     @Override
-    public String getRefreshToken() {
-        return originalDataMap.getAsString("refresh_token");
+    public String getOpenPlatform() {
+        return BuiltInOpenPlatformNames.GITEE;
     }
 
     /** FIXME Gitee oauth2 refresh token expires in ??(Assume 7 days). */
@@ -77,23 +175,38 @@ public class GiteeOAuth2Token implements OAuth2RefreshableToken {
         return REFRESH_TOKEN_EXPIRATION_SECONDS;
     }
 
+    // #################### serialization ###############################################
+
+    /** Serialized fields, other fields are bound from the original data map. */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("tokenId", String.class),
+            new ObjectStreamField("originalDataMap", DataMap.class)
+    };
+
     /**
-     * Get scopes(delimiter: space).
+     * Write the token id and original data map.
      *
-     * @return scopes
-     * @see com.github.wautsns.okauth.core.client.builtin.gitee.GiteeOAuth2AppInfo.Scope
+     * @param out object output stream
+     * @throws IOException if IO exception occurs
      */
-    public String getScopes() {
-        return originalDataMap.getAsString("scope");
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("tokenId", tokenId);
+        fields.put("originalDataMap", getOriginalDataMap());
+        out.writeFields();
     }
 
     /**
-     * Get created at(seconds timestamp).
+     * Read the token id and original data map, and bind other fields from the original data map.
      *
-     * @return created at(seconds timestamp)
+     * @param in object input stream
+     * @throws IOException if IO exception occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
      */
-    public Long getCreatedAt() {
-        return originalDataMap.getAsLong("created_at");
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        tokenId = (String) fields.get("tokenId", null);
+        init((DataMap) fields.get("originalDataMap", null));
     }
 
 }
@@ -18,23 +18,31 @@ package com.github.wautsns.okauth.core.client.builtin.github;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonDecoder;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonProjection;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2Token;
 import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2User;
 import com.github.wautsns.okauth.core.client.kernel.TokenAvailableOAuth2Client;
-import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForToken;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.user.UserRefusedAuthorizationException;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * GitHub oauth2 client.
  *
@@ -51,7 +59,7 @@ public class GitHubOAuth2Client
      * @param appInfo oauth2 app info
      */
     public GitHubOAuth2Client(GitHubOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient());
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared());
     }
 
     /**
@@ -69,6 +77,11 @@ public class GitHubOAuth2Client
         return BuiltInOpenPlatformNames.GITHUB;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Arrays.asList("https://github.com", "https://api.github.com");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -83,66 +96,125 @@ public class GitHubOAuth2Client
         basic.getQuery()
                 .add("login", extra.getLogin())
                 .add("allow_signup", extra.getAllowSignup().value);
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<GitHubOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = "https://github.com/login/oauth/access_token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url);
-        basic.getHeaders().addAcceptWithValueJson();
-        basic.getUrl().getQuery()
-                .addClientId(appInfo.getClientId())
-                .addClientSecret(appInfo.getClientSecret());
-        // not required: .addRedirectUri(appInfo.getRedirectUri());
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         return redirectUriQuery -> {
             String code = redirectUriQuery.getCode();
             if (code != null) {
-                OAuth2HttpRequest request = basic.copy();
+                OAuth2HttpRequest request = basic.newRequest();
                 request.getUrl().getQuery()
                         .addCode(redirectUriQuery.getCode());
                 // not required: .addState(redirectUriQuery.getState());
-                return new GitHubOAuth2Token(executeGetOrRefreshTokenAndCheck(request));
+                return executeGetOrRefreshTokenAndCheck(request);
             } else {
-                String error = redirectUriQuery.getError();
-                String description = redirectUriQuery.getErrorDescription();
-                if ("access_denied".equals(error)) {
-                    throw new UserRefusedAuthorizationException(getOpenPlatform());
-                } else {
-                    throw new OAuth2ErrorException(getOpenPlatform(), error, description);
-                }
+                throw initRedirectUriQueryErrorException(redirectUriQuery);
             }
         };
     }
 
     @Override
     protected ExchangeTokenForOpenid<GitHubOAuth2Token> initApiExchangeTokenForOpenid() {
-        return token -> exchangeForUser(token).getOpenid();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("id");
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getHeaders().addAuthorization("token", token.getAccessToken());
+            return executeNotGetOrRefreshTokenAndCheck(request, projection).getAsString("id");
+        };
     }
 
     @Override
     protected ExchangeTokenForUser<GitHubOAuth2Token, GitHubOAuth2User> initApiExchangeTokenForUser() {
-        String url = "https://api.github.com/user";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getHeaders().addAuthorization("token", token.getAccessToken());
-            return new GitHubOAuth2User(executeNotGetOrRefreshTokenAndCheck(request));
+            return executeNotGetOrRefreshTokenAndCheck(request, GitHubOAuth2User::decode);
         };
     }
 
     @Override
-    protected ExchangeRedirectUriQueryForOpenid initApiExchangeRedirectUriQueryForOpenid() {
-        return redirectUriQuery -> exchangeForUser(redirectUriQuery).getOpenid();
+    protected ExchangeRedirectUriQueryForUser<GitHubOAuth2User> initApiExchangeRedirectUriQueryForUser() {
+        return redirectUriQuery -> exchangeForUser(exchangeForToken(redirectUriQuery));
+    }
+
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, GitHubOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        return redirectUriQuery -> {
+            String code = redirectUriQuery.getCode();
+            if (code != null) {
+                OAuth2HttpRequest request = basic.newRequest();
+                request.getUrl().getQuery()
+                        .addCode(redirectUriQuery.getCode());
+                return executeAsync(request, this::checkGetOrRefreshTokenResponse);
+            } else {
+                return FutureUtils.failed(initRedirectUriQueryErrorException(redirectUriQuery));
+            }
+        };
     }
 
     @Override
-    protected ExchangeRedirectUriQueryForUser<GitHubOAuth2User> initApiExchangeRedirectUriQueryForUser() {
-        return redirectUriQuery -> exchangeForUser(exchangeForToken(redirectUriQuery));
+    protected OAuth2AsyncFunctionApi<GitHubOAuth2Token, GitHubOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getHeaders().addAuthorization("token", token.getAccessToken());
+            return executeAsync(
+                    request, response -> checkNotGetOrRefreshTokenResponse(response, GitHubOAuth2User::decode));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = "https://github.com/login/oauth/access_token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initPost(url).setName("token");
+        basic.getHeaders().addAcceptWithValueJson();
+        basic.getUrl().getQuery()
+                .addClientId(appInfo.getClientId())
+                .addClientSecret(appInfo.getClientSecret());
+        // not required: .addRedirectUri(appInfo.getRedirectUri());
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
+        String url = "https://api.github.com/user";
+        return OAuth2HttpRequest.initGet(url).setName("user");
+    }
+
+    /**
+     * Initialize exception for the redirect uri query that contains error instead of code.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return oauth2 exception
+     */
+    private OAuth2Exception initRedirectUriQueryErrorException(OAuth2RedirectUriQuery redirectUriQuery) {
+        String error = redirectUriQuery.getError();
+        String description = redirectUriQuery.getErrorDescription();
+        if ("access_denied".equals(error)) {
+            return new UserRefusedAuthorizationException(getOpenPlatform());
+        } else {
+            return new OAuth2ErrorException(getOpenPlatform(), error, description);
+        }
     }
 
     // #################### execute request and check response ##########################
@@ -151,14 +223,26 @@ public class GitHubOAuth2Client
      * Execute request that is GET_TOKEN or REFRESH_TOKEN, and check response.
      *
      * @param request request
-     * @return correct data map
+     * @return token
      * @throws OAuth2Exception if oauth2 failed
      */
-    protected DataMap executeGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
-        DataMap dataMap = response.readJsonAsDataMap();
+    protected GitHubOAuth2Token executeGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
+        return checkGetOrRefreshTokenResponse(httpClient.execute(request));
+    }
+
+    /**
+     * Check response of request that is GET_TOKEN or REFRESH_TOKEN.
+     *
+     * @param response response
+     * @return token
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected GitHubOAuth2Token checkGetOrRefreshTokenResponse(OAuth2HttpResponse response) throws OAuth2Exception {
+        GitHubOAuth2Token token = response.readJson(GitHubOAuth2Token::decode);
+        if (token.getAccessToken() != null) { return token; }
+        DataMap dataMap = token.getOriginalDataMap();
         String error = dataMap.getAsString("error");
-        if (error == null) { return dataMap; }
+        if (error == null) { return token; }
         String errorDescription = dataMap.getAsString("error_description");
         throw new OAuth2ErrorException(getOpenPlatform(), error, errorDescription);
     }
@@ -167,13 +251,29 @@ public class GitHubOAuth2Client
      * Execute request that is neither GET_TOKEN nor REFRESH_TOKEN, and check response.
      *
      * @param request request
-     * @return correct data map
+     * @param decoder decoder for correct response
+     * @param <T> type of decoded value
+     * @return decoded value
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected <T> T executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request, OAuth2JsonDecoder<T> decoder)
+            throws OAuth2Exception {
+        return checkNotGetOrRefreshTokenResponse(httpClient.execute(request), decoder);
+    }
+
+    /**
+     * Check response of request that is neither GET_TOKEN nor REFRESH_TOKEN.
+     *
+     * @param response response
+     * @param decoder decoder for correct response
+     * @param <T> type of decoded value
+     * @return decoded value
      * @throws OAuth2Exception if oauth2 failed
      */
-    protected DataMap executeNotGetOrRefreshTokenAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+    protected <T> T checkNotGetOrRefreshTokenResponse(OAuth2HttpResponse response, OAuth2JsonDecoder<T> decoder)
+            throws OAuth2Exception {
+        if (response.getStatus() < 400) { return response.readJson(decoder); }
         DataMap dataMap = response.readJsonAsDataMap();
-        if (response.getStatus() < 400) { return dataMap; }
         String error = Integer.toString(response.getStatus());
         String message = dataMap.getAsString("message");
         if ("Bad credentials".equals(message)) {
@@ -15,12 +15,26 @@
  */
 package com.github.wautsns.okauth.core.client.builtin.github.model;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.LazyDataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2Token;
-import lombok.Data;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 /**
  * GitHub oauth2 token.
  *
@@ -35,25 +49,103 @@ import lombok.experimental.Accessors;
  * @author wautsns
  * @since May 17, 2020
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
+@Builder(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Accessors(chain = true)
 public class GitHubOAuth2Token implements OAuth2Token {
 
     private static final long serialVersionUID = 8408050532302185568L;
 
     /** Token id. */
+    @Setter
     private String tokenId;
     /** Original data map. */
-    private final DataMap originalDataMap;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LazyDataMap originalDataMap;
+    /** Access token. */
+    private String accessToken;
+    /** Scopes(delimiter: comma). */
+    private String scopes;
+    /** Token type: {@code "bearer"}. */
+    private String tokenType;
+
+    /**
+     * Construct a GitHub oauth2 token.
+     *
+     * @param originalDataMap original data map
+     */
+    public GitHubOAuth2Token(DataMap originalDataMap) {
+        init(originalDataMap);
+    }
+
+    /**
+     * Initialize fields with the original data map.
+     *
+     * @param originalDataMap original data map
+     */
+    private void init(DataMap originalDataMap) {
+        this.originalDataMap = LazyDataMap.of(originalDataMap);
+        this.accessToken = originalDataMap.getAsString("access_token");
+        this.scopes = originalDataMap.getAsString("scope");
+        this.tokenType = originalDataMap.getAsString("token_type");
+    }
+
+    /**
+     * Decode json as GitHub oauth2 token.
+     *
+     * @param parser json parser
+     * @param json json bytes
+     * @return GitHub oauth2 token
+     * @throws IOException if IO exception occurs
+     */
+    public static GitHubOAuth2Token decode(JsonParser parser, byte[] json) throws IOException {
+        GitHubOAuth2TokenBuilder builder = builder().originalDataMap(LazyDataMap.ofJson(json));
+        ReadUtils.readJsonObjectFields(parser, (name, valueParser) -> bind(builder, name, valueParser));
+        return builder.build();
+    }
+
+    /**
+     * Bind the field if the value is scalar.
+     *
+     * @param builder builder
+     * @param name field name
+     * @param parser json parser
+     * @return {@code true} if the field is bound, otherwise {@code false}
+     * @throws IOException if IO exception occurs
+     */
+    private static boolean bind(GitHubOAuth2TokenBuilder builder, String name, JsonParser parser) throws IOException {
+        if (!parser.currentToken().isScalarValue()) { return false; }
+        switch (name) {
+            case "access_token":
+                builder.accessToken(parser.getValueAsString());
+                return true;
+            case "scope":
+                builder.scopes(parser.getValueAsString());
+                return true;
+            case "token_type":
+                builder.tokenType(parser.getValueAsString());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Builder of {@code GitHubOAuth2Token}(generated by lombok), declared for javadoc to resolve. */
+    private static class GitHubOAuth2TokenBuilder {}
 
     @Override
-    public String getOpenPlatform() {
-        return BuiltInOpenPlatformNames.GITHUB;
+    public DataMap getOriginalDataMap() {
+        return originalDataMap.get();
     }
 
     @Override
-    public String getAccessToken() {
-        return originalDataMap.getAsString("access_token");
+    public String getOpenPlatform() {
+        return BuiltInOpenPlatformNames.GITHUB;
     }
 
     /** FIXME GitHub oauth2 access token expires in ??(Assume 1 day). */
@@ -64,22 +156,38 @@ public class GitHubOAuth2Token implements OAuth2Token {
         return ACCESS_TOKEN_EXPIRATION_SECONDS;
     }
 
+    // #################### serialization ###############################################
+
+    /** Serialized fields, other fields are bound from the original data map. */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("tokenId", String.class),
+            new ObjectStreamField("originalDataMap", DataMap.class)
+    };
+
     /**
-     * Get scopes(delimiter: comma).
+     * Write the token id and original data map.
      *
-     * @return scopes
+     * @param out object output stream
+     * @throws IOException if IO exception occurs
      */
-    public String getScopes() {
-        return originalDataMap.getAsString("scope");
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("tokenId", tokenId);
+        fields.put("originalDataMap", getOriginalDataMap());
+        out.writeFields();
     }
 
     /**
-     * Get token type: {@code "bearer"}.
+     * Read the token id and original data map, and bind other fields from the original data map.
      *
-     * @return {@code "bearer"}
+     * @param in object input stream
+     * @throws IOException if IO exception occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
      */
-    public String getTokenType() {
-        return originalDataMap.getAsString("token_type");
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        tokenId = (String) fields.get("tokenId", null);
+        init((DataMap) fields.get("originalDataMap", null));
     }
 
 }
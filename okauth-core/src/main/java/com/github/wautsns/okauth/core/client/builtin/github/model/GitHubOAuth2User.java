@@ -15,12 +15,25 @@
  */
 package com.github.wautsns.okauth.core.client.builtin.github.model;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.LazyDataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
-import lombok.Data;
-
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 /**
  * GitHub oauth2 user.
@@ -64,143 +77,287 @@ import java.time.LocalDateTime;
  * @author wautsns
  * @since May 17, 2020
  */
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
+@Builder(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class GitHubOAuth2User implements OAuth2User {
 
     private static final long serialVersionUID = 2546759827060779258L;
 
     /** Original data map. */
-    private final DataMap originalDataMap;
-
-    @Override
-    public String getOpenPlatform() {
-        return BuiltInOpenPlatformNames.GITHUB;
-    }
-
-    public String getLogin() {
-        return originalDataMap.getAsString("login");
-    }
-
-    public String getId() {
-        return originalDataMap.getAsString("id");
-    }
-
-    public String getNodeId() {
-        return originalDataMap.getAsString("node_id");
-    }
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LazyDataMap originalDataMap;
+    /** Login. */
+    private String login;
+    /** Id. */
+    private String id;
+    /** Node id. */
+    private String nodeId;
+    /** Avatar url. */
+    private String avatarUrl;
+    /** Gravatar id. */
+    private String gravatarId;
+    /** Url. */
+    private String url;
+    /** Html url. */
+    private String htmlUrl;
+    /** Followers url. */
+    private String followersUrl;
+    /** Following url. */
+    private String followingUrl;
+    /** Gists url. */
+    private String gistsUrl;
+    /** Starred url. */
+    private String starredUrl;
+    /** Subscriptions url. */
+    private String subscriptionsUrl;
+    /** Organizations url. */
+    private String organizationsUrl;
+    /** Repos url. */
+    private String reposUrl;
+    /** Events url. */
+    private String eventsUrl;
+    /** Received events url. */
+    private String receivedEventsUrl;
+    /** Type. */
+    private String type;
+    /** Site admin. */
+    private Boolean siteAdmin;
+    /** Name. */
+    private String name;
+    /** Company. */
+    private String company;
+    /** Blog. */
+    private String blog;
+    /** Location. */
+    private String location;
+    /** Email. */
+    private String email;
+    /** Hireable. */
+    private Boolean hireable;
+    /** Bio. */
+    private String bio;
+    /** Public repos. */
+    private Integer publicRepos;
+    /** Public gists. */
+    private Integer publicGists;
+    /** Followers. */
+    private Integer followers;
+    /** Followings. */
+    private Integer followings;
+    /** Created at(text). */
+    @Getter(AccessLevel.NONE)
+    private String createdAt;
+    /** Updated at(text). */
+    @Getter(AccessLevel.NONE)
+    private String updatedAt;
+
+    /**
+     * Construct a GitHub oauth2 user.
+     *
+     * @param originalDataMap original data map
+     */
+    public GitHubOAuth2User(DataMap originalDataMap) {
+        init(originalDataMap);
+    }
+
+    /**
+     * Initialize fields with the original data map.
+     *
+     * @param originalDataMap original data map
+     */
+    private void init(DataMap originalDataMap) {
+        this.originalDataMap = LazyDataMap.of(originalDataMap);
+        this.login = originalDataMap.getAsString("login");
+        this.id = originalDataMap.getAsString("id");
+        this.nodeId = originalDataMap.getAsString("node_id");
+        this.avatarUrl = originalDataMap.getAsString("avatar_url");
+        this.gravatarId = originalDataMap.getAsString("gravatar_id");
+        this.url = originalDataMap.getAsString("url");
+        this.htmlUrl = originalDataMap.getAsString("html_url");
+        this.followersUrl = originalDataMap.getAsString("followers_url");
+        this.followingUrl = originalDataMap.getAsString("following_url");
+        this.gistsUrl = originalDataMap.getAsString("gists_url");
+        this.starredUrl = originalDataMap.getAsString("starred_url");
+        this.subscriptionsUrl = originalDataMap.getAsString("subscriptions_url");
+        this.organizationsUrl = originalDataMap.getAsString("organizations_url");
+        this.reposUrl = originalDataMap.getAsString("repos_url");
+        this.eventsUrl = originalDataMap.getAsString("events_url");
+        this.receivedEventsUrl = originalDataMap.getAsString("received_events_url");
+        this.type = originalDataMap.getAsString("type");
+        this.siteAdmin = originalDataMap.getAsBoolean("site_admin");
+        this.name = originalDataMap.getAsString("name");
+        this.company = originalDataMap.getAsString("company");
+        this.blog = originalDataMap.getAsString("blog");
+        this.location = originalDataMap.getAsString("location");
+        this.email = originalDataMap.getAsString("email");
+        this.hireable = originalDataMap.getAsBoolean("hireable");
+        this.bio = originalDataMap.getAsString("bio");
+        this.publicRepos = originalDataMap.getAsInteger("public_repos");
+        this.publicGists = originalDataMap.getAsInteger("public_gists");
+        this.followers = originalDataMap.getAsInteger("followers");
+        this.followings = originalDataMap.getAsInteger("following");
+        this.createdAt = originalDataMap.getAsString("created_at");
+        this.updatedAt = originalDataMap.getAsString("updated_at");
+    }
+
+    /**
+     * Decode json as GitHub oauth2 user.
+     *
+     * @param parser json parser
+     * @param json json bytes
+     * @return GitHub oauth2 user
+     * @throws IOException if IO exception occurs
+     */
+    public static GitHubOAuth2User decode(JsonParser parser, byte[] json) throws IOException {
+        GitHubOAuth2UserBuilder builder = builder().originalDataMap(LazyDataMap.ofJson(json));
+        ReadUtils.readJsonObjectFields(parser, (name, valueParser) -> bind(builder, name, valueParser));
+        return builder.build();
+    }
+
+    /**
+     * Bind the field if the value is scalar.
+     *
+     * @param builder builder
+     * @param name field name
+     * @param parser json parser
+     * @return {@code true} if the field is bound, otherwise {@code false}
+     * @throws IOException if IO exception occurs
+     */
+    private static boolean bind(GitHubOAuth2UserBuilder builder, String name, JsonParser parser) throws IOException {
+        if (!parser.currentToken().isScalarValue()) { return false; }
+        switch (name) {
+            case "login":
+                builder.login(parser.getValueAsString());
+                return true;
+            case "id":
+                builder.id(parser.getValueAsString());
+                return true;
+            case "node_id":
+                builder.nodeId(parser.getValueAsString());
+                return true;
+            case "avatar_url":
+                builder.avatarUrl(parser.getValueAsString());
+                return true;
+            case "gravatar_id":
+                builder.gravatarId(parser.getValueAsString());
+                return true;
+            case "url":
+                builder.url(parser.getValueAsString());
+                return true;
+            case "html_url":
+                builder.htmlUrl(parser.getValueAsString());
+                return true;
+            case "followers_url":
+                builder.followersUrl(parser.getValueAsString());
+                return true;
+            case "following_url":
+                builder.followingUrl(parser.getValueAsString());
+                return true;
+            case "gists_url":
+                builder.gistsUrl(parser.getValueAsString());
+                return true;
+            case "starred_url":
+                builder.starredUrl(parser.getValueAsString());
+                return true;
+            case "subscriptions_url":
+                builder.subscriptionsUrl(parser.getValueAsString());
+                return true;
+            case "organizations_url":
+                builder.organizationsUrl(parser.getValueAsString());
+                return true;
+            case "repos_url":
+                builder.reposUrl(parser.getValueAsString());
+                return true;
+            case "events_url":
+                builder.eventsUrl(parser.getValueAsString());
+                return true;
+            case "received_events_url":
+                builder.receivedEventsUrl(parser.getValueAsString());
+                return true;
+            case "type":
+                builder.type(parser.getValueAsString());
+                return true;
+            case "site_admin":
+                builder.siteAdmin(ReadUtils.readJsonValueAsBoolean(parser));
+                return true;
+            case "name":
+                builder.name(parser.getValueAsString());
+                return true;
+            case "company":
+                builder.company(parser.getValueAsString());
+                return true;
+            case "blog":
+                builder.blog(parser.getValueAsString());
+                return true;
+            case "location":
+                builder.location(parser.getValueAsString());
+                return true;
+            case "email":
+                builder.email(parser.getValueAsString());
+                return true;
+            case "hireable":
+                builder.hireable(ReadUtils.readJsonValueAsBoolean(parser));
+                return true;
+            case "bio":
+                builder.bio(parser.getValueAsString());
+                return true;
+            case "public_repos":
+                builder.publicRepos(ReadUtils.readJsonValueAsInteger(parser));
+                return true;
+            case "public_gists":
+                builder.publicGists(ReadUtils.readJsonValueAsInteger(parser));
+                return true;
+            case "followers":
+                builder.followers(ReadUtils.readJsonValueAsInteger(parser));
+                return true;
+            case "following":
+                builder.followings(ReadUtils.readJsonValueAsInteger(parser));
+                return true;
+            case "created_at":
+                builder.createdAt(parser.getValueAsString());
+                return true;
+            case "updated_at":
+                builder.updatedAt(parser.getValueAsString());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Builder of {@code GitHubOAuth2User}(generated by lombok), declared for javadoc to resolve. */
+    private static class GitHubOAuth2UserBuilder {}
 
     @Override
-    public String getAvatarUrl() {
-        return originalDataMap.getAsString("avatar_url");
-    }
-
-    public String getGravatarId() {
-        return originalDataMap.getAsString("gravatar_id");
-    }
-
-    public String getUrl() {
-        return originalDataMap.getAsString("url");
-    }
-
-    public String getHtmlUrl() {
-        return originalDataMap.getAsString("html_url");
-    }
-
-    public String getFollowersUrl() {
-        return originalDataMap.getAsString("followers_url");
-    }
-
-    public String getFollowingUrl() {
-        return originalDataMap.getAsString("following_url");
-    }
-
-    public String getGistsUrl() {
-        return originalDataMap.getAsString("gists_url");
-    }
-
-    public String getStarredUrl() {
-        return originalDataMap.getAsString("starredUrl");
-    }
-
-    public String getSubscriptionsUrl() {
-        return originalDataMap.getAsString("subscriptions_url");
-    }
-
-    public String getOrganizationsUrl() {
-        return originalDataMap.getAsString("organizations_url");
-    }
-
-    public String getReposUrl() {
-        return originalDataMap.getAsString("repos_url");
-    }
-
-    public String getEventsUrl() {
-        return originalDataMap.getAsString("events_url");
-    }
-
-    public String getReceivedEventsUrl() {
-        return originalDataMap.getAsString("received_events_url");
-    }
-
-    public String getType() {
-        return originalDataMap.getAsString("type");
-    }
-
-    public Boolean getSiteAdmin() {
-        return originalDataMap.getAsBoolean("site_admin");
-    }
-
-    public String getName() {
-        return originalDataMap.getAsString("name");
-    }
-
-    public String getCompany() {
-        return originalDataMap.getAsString("company");
-    }
-
-    public String getBlog() {
-        return originalDataMap.getAsString("blog");
-    }
-
-    public String getLocation() {
-        return originalDataMap.getAsString("location");
+    public DataMap getOriginalDataMap() {
+        return originalDataMap.get();
     }
 
     @Override
-    public String getEmail() {
-        return originalDataMap.getAsString("email");
-    }
-
-    public Boolean getHireable() {
-        return originalDataMap.getAsBoolean("hireable");
-    }
-
-    public String getBio() {
-        return originalDataMap.getAsString("bio");
-    }
-
-    public Integer getPublicRepos() {
-        return originalDataMap.getAsInteger("public_repos");
-    }
-
-    public Integer getPublicGists() {
-        return originalDataMap.getAsInteger("public_gists");
-    }
-
-    public Integer getFollowers() {
-        return originalDataMap.getAsInteger("followers");
-    }
-
-    public Integer getFollowings() {
-        return originalDataMap.getAsInteger("followings");
+    public String getOpenPlatform() {
+        return BuiltInOpenPlatformNames.GITHUB;
     }
 
+    /**
+     * Get created at.
+     *
+     * @return created at
+     */
     public LocalDateTime getCreatedAt() {
-        return originalDataMap.getAsLocalDateTime("created_at");
+        return (createdAt == null) ? null : LocalDateTime.parse(createdAt, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
     }
 
+    /**
+     * Get updated at.
+     *
+     * @return updated at
+     */
     public LocalDateTime getUpdatedAt() {
-        return originalDataMap.getAsLocalDateTime("updated_at");
+        return (updatedAt == null) ? null : LocalDateTime.parse(updatedAt, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
     }
 
     // #################### amendment ###################################################
@@ -225,4 +382,35 @@ public class GitHubOAuth2User implements OAuth2User {
         return getName();
     }
 
+    // #################### serialization ###############################################
+
+    /** Serialized fields, other fields are bound from the original data map. */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("originalDataMap", DataMap.class)
+    };
+
+    /**
+     * Write the original data map.
+     *
+     * @param out object output stream
+     * @throws IOException if IO exception occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("originalDataMap", getOriginalDataMap());
+        out.writeFields();
+    }
+
+    /**
+     * Read the original data map, and bind other fields from the original data map.
+     *
+     * @param in object input stream
+     * @throws IOException if IO exception occurs
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        init((DataMap) fields.get("originalDataMap", null));
+    }
+
 }
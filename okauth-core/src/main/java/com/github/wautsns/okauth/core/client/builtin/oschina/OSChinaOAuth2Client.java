@@ -18,6 +18,7 @@ package com.github.wautsns.okauth.core.client.builtin.oschina;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
@@ -29,11 +30,16 @@ import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQuery
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidRefreshTokenException;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * OSChina oauth2 client.
  *
@@ -50,7 +56,7 @@ public class OSChinaOAuth2Client
      * @param appInfo oauth2 app info
      */
     public OSChinaOAuth2Client(OSChinaOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), TokenRefreshCallback.IGNORE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), TokenRefreshCallback.IGNORE);
     }
 
     /**
@@ -71,6 +77,11 @@ public class OSChinaOAuth2Client
         return BuiltInOpenPlatformNames.OSCHINA;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://www.oschina.net");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -81,24 +92,15 @@ public class OSChinaOAuth2Client
                 .addClientId(appInfo.getClientId())
                 .addResponseTypeWithValueCode()
                 .addRedirectUri(appInfo.getRedirectUri());
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<OSChinaOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = "https://www.oschina.net/action/openapi/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .addClientId(appInfo.getClientId())
-                .addClientSecret(appInfo.getClientSecret())
-                .addGrantTypeWithValueAuthorizationCode()
-                .addRedirectUri(appInfo.getRedirectUri());
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         return redirectUriQuery -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
             return new OSChinaOAuth2Token(executeAndCheck(request));
         };
@@ -106,15 +108,9 @@ public class OSChinaOAuth2Client
 
     @Override
     protected RefreshToken<OSChinaOAuth2Token> initApiRefreshToken() {
-        String url = "https://www.oschina.net/action/openapi/token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .addClientId(appInfo.getClientId())
-                .addClientSecret(appInfo.getClientSecret())
-                .addGrantTypeWithValueRefreshToken()
-                .addRedirectUri(appInfo.getRedirectUri());
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
             return new OSChinaOAuth2Token(executeAndCheck(request));
         };
@@ -127,15 +123,91 @@ public class OSChinaOAuth2Client
 
     @Override
     protected ExchangeTokenForUser<OSChinaOAuth2Token, OSChinaOAuth2User> initApiExchangeTokenForUser() {
-        String url = "https://www.oschina.net/action/openapi/user";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addAccessToken(token.getAccessToken());
             return new OSChinaOAuth2User(executeAndCheck(request));
         };
     }
 
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, OSChinaOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        return redirectUriQuery -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
+            return executeAsync(request, response -> new OSChinaOAuth2Token(check(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OSChinaOAuth2Token, OSChinaOAuth2Token> initApiRefreshTokenAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
+            return executeAsync(request, response -> new OSChinaOAuth2Token(check(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OSChinaOAuth2Token, OSChinaOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addAccessToken(token.getAccessToken());
+            return executeAsync(request, response -> new OSChinaOAuth2User(check(response)));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = "https://www.oschina.net/action/openapi/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("token").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .addClientId(appInfo.getClientId())
+                .addClientSecret(appInfo.getClientSecret())
+                .addGrantTypeWithValueAuthorizationCode()
+                .addRedirectUri(appInfo.getRedirectUri());
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: refresh token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForRefreshToken() {
+        String url = "https://www.oschina.net/action/openapi/token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("refresh").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .addClientId(appInfo.getClientId())
+                .addClientSecret(appInfo.getClientSecret())
+                .addGrantTypeWithValueRefreshToken()
+                .addRedirectUri(appInfo.getRedirectUri());
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
+        String url = "https://www.oschina.net/action/openapi/user";
+        return OAuth2HttpRequest.initGet(url).setName("user");
+    }
+
     // #################### execute request and check response ##########################
 
     /**
@@ -146,7 +218,17 @@ public class OSChinaOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+        return check(httpClient.execute(request));
+    }
+
+    /**
+     * Check response.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap check(OAuth2HttpResponse response) throws OAuth2Exception {
         DataMap dataMap = response.readJsonAsDataMap();
         String error = dataMap.getAsString("error");
         if (error == null) { return dataMap; }
@@ -18,6 +18,7 @@ package com.github.wautsns.okauth.core.client.builtin.tiktok;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
@@ -29,12 +30,17 @@ import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQuery
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredRefreshTokenException;
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidAccessTokenException;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * TikTok oauth2 client.
  *
@@ -51,7 +57,7 @@ public class TikTokOAuth2Client
      * @param appInfo oauth2 app info
      */
     public TikTokOAuth2Client(TikTokOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), TokenRefreshCallback.IGNORE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), TokenRefreshCallback.IGNORE);
     }
 
     /**
@@ -72,6 +78,11 @@ public class TikTokOAuth2Client
         return BuiltInOpenPlatformNames.TIK_TOK;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://open.douyin.com");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -83,23 +94,15 @@ public class TikTokOAuth2Client
                 .addResponseTypeWithValueCode()
                 .addScope(TikTokOAuth2AppInfo.Scope.joinWith(appInfo.getScopes(), ","))
                 .addRedirectUri(appInfo.getRedirectUri());
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<TikTokOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = "https://open.douyin.com/oauth/access_token/";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .add("clientKey", appInfo.getClientKey())
-                .addClientSecret(appInfo.getClientSecret())
-                .addGrantTypeWithValueAuthorizationCode();
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         return redirectUriQuery -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
             return new TikTokOAuth2Token(executeAndCheck(request));
         };
@@ -107,13 +110,9 @@ public class TikTokOAuth2Client
 
     @Override
     protected RefreshToken<TikTokOAuth2Token> initApiRefreshToken() {
-        String url = "https://open.douyin.com/oauth/refresh_token/";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .add("clientKey", appInfo.getClientKey())
-                .addGrantTypeWithValueRefreshToken();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
             return new TikTokOAuth2Token(executeAndCheck(request));
         };
@@ -126,10 +125,9 @@ public class TikTokOAuth2Client
 
     @Override
     protected ExchangeTokenForUser<TikTokOAuth2Token, TikTokOAuth2User> initApiExchangeTokenForUser() {
-        String url = "https://open.douyin.com/oauth/userinfo/";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery()
                     .addAccessToken(token.getAccessToken())
                     .add("open_id", token.getOpenid());
@@ -137,6 +135,82 @@ public class TikTokOAuth2Client
         };
     }
 
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, TikTokOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        return redirectUriQuery -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
+            return executeAsync(request, response -> new TikTokOAuth2Token(check(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<TikTokOAuth2Token, TikTokOAuth2Token> initApiRefreshTokenAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
+            return executeAsync(request, response -> new TikTokOAuth2Token(check(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<TikTokOAuth2Token, TikTokOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery()
+                    .addAccessToken(token.getAccessToken())
+                    .add("open_id", token.getOpenid());
+            return executeAsync(request, response -> new TikTokOAuth2User(check(response)));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = "https://open.douyin.com/oauth/access_token/";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("token").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .add("clientKey", appInfo.getClientKey())
+                .addClientSecret(appInfo.getClientSecret())
+                .addGrantTypeWithValueAuthorizationCode();
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: refresh token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForRefreshToken() {
+        String url = "https://open.douyin.com/oauth/refresh_token/";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("refresh").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .add("clientKey", appInfo.getClientKey())
+                .addGrantTypeWithValueRefreshToken();
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
+        String url = "https://open.douyin.com/oauth/userinfo/";
+        return OAuth2HttpRequest.initGet(url).setName("user");
+    }
+
     // #################### execute request and check response ##########################
 
     /**
@@ -147,7 +221,17 @@ public class TikTokOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+        return check(httpClient.execute(request));
+    }
+
+    /**
+     * Check response.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap check(OAuth2HttpResponse response) throws OAuth2Exception {
         DataMap dataMap = response.readJsonAsDataMap().getAsDataMap("data");
         String errcode = dataMap.getAsString("error_code");
         String errmsg = dataMap.getAsString("description");
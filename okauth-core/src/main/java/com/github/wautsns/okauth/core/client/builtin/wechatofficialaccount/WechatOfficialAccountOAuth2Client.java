@@ -18,6 +18,7 @@ package com.github.wautsns.okauth.core.client.builtin.wechatofficialaccount;
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
@@ -29,6 +30,8 @@ import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQuery
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
@@ -36,6 +39,9 @@ import com.github.wautsns.okauth.core.exception.specific.token.ExpiredRefreshTok
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidRefreshTokenException;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * WechatOfficialAccount oauth2 client.
  *
@@ -54,7 +60,7 @@ public class WechatOfficialAccountOAuth2Client
      * @param appInfo oauth2 app info
      */
     public WechatOfficialAccountOAuth2Client(WechatOfficialAccountOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), TokenRefreshCallback.IGNORE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), TokenRefreshCallback.IGNORE);
     }
 
     /**
@@ -75,6 +81,11 @@ public class WechatOfficialAccountOAuth2Client
         return BuiltInOpenPlatformNames.WECHAT_OFFICIAL_ACCOUNT;
     }
 
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://api.weixin.qq.com");
+    }
+
     // #################### initialize api ##############################################
 
     @Override
@@ -87,26 +98,15 @@ public class WechatOfficialAccountOAuth2Client
                 .addResponseTypeWithValueCode()
                 .addScope(appInfo.getScope().value);
         basic.setAnchor("wechat_redirect");
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     @Override
     protected ExchangeRedirectUriQueryForToken<WechatOfficialAccountOAuth2Token> initApiExchangeRedirectUriQueryForToken() {
-        String url = "https://api.weixin.qq.com/sns/oauth2/access_token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .addAppid(appInfo.getUniqueIdentifier())
-                .addSecret(appInfo.getAppSecret())
-                .addGrantTypeWithValueAuthorizationCode()
-                .addRedirectUri(appInfo.getRedirectUri())
-                .addResponseTypeWithValueCode()
-                .addScope(appInfo.getScope().value);
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
         return redirectUriQuery -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
             return new WechatOfficialAccountOAuth2Token(executeAndCheck(request));
         };
@@ -114,13 +114,9 @@ public class WechatOfficialAccountOAuth2Client
 
     @Override
     protected RefreshToken<WechatOfficialAccountOAuth2Token> initApiRefreshToken() {
-        String url = "https://api.weixin.qq.com/sns/oauth2/refresh_token";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
-        basic.getUrl().getQuery()
-                .addAppid(appInfo.getUniqueIdentifier())
-                .addGrantTypeWithValueRefreshToken();
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
             return new WechatOfficialAccountOAuth2Token(executeAndCheck(request));
         };
@@ -133,10 +129,9 @@ public class WechatOfficialAccountOAuth2Client
 
     @Override
     protected ExchangeTokenForUser<WechatOfficialAccountOAuth2Token, WechatOfficialAccountOAuth2User> initApiExchangeTokenForUser() {
-        String url = "https://api.weixin.qq.com/sns/userinfo";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
         return token -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery()
                     .addAccessToken(token.getAccessToken())
                     .add("openid", token.getOpenId());
@@ -144,6 +139,85 @@ public class WechatOfficialAccountOAuth2Client
         };
     }
 
+    // #################### initialize api(async) #######################################
+
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, WechatOfficialAccountOAuth2Token> initApiExchangeRedirectUriQueryForTokenAsync() {
+        OAuth2HttpRequestTemplate basic =
+                OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeRedirectUriQueryForToken());
+        return redirectUriQuery -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addCode(redirectUriQuery.getCode());
+            return executeAsync(request, response -> new WechatOfficialAccountOAuth2Token(check(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<WechatOfficialAccountOAuth2Token, WechatOfficialAccountOAuth2Token> initApiRefreshTokenAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForRefreshToken());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery().addRefreshToken(token.getRefreshToken());
+            return executeAsync(request, response -> new WechatOfficialAccountOAuth2Token(check(response)));
+        };
+    }
+
+    @Override
+    protected OAuth2AsyncFunctionApi<WechatOfficialAccountOAuth2Token, WechatOfficialAccountOAuth2User> initApiExchangeTokenForUserAsync() {
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(initBasicRequestForExchangeTokenForUser());
+        return token -> {
+            OAuth2HttpRequest request = basic.newRequest();
+            request.getUrl().getQuery()
+                    .addAccessToken(token.getAccessToken())
+                    .add("openid", token.getOpenId());
+            return executeAsync(request, response -> new WechatOfficialAccountOAuth2User(check(response)));
+        };
+    }
+
+    // #################### basic request ###############################################
+
+    /**
+     * Initialize basic request for API: exchange redirect uri query for token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeRedirectUriQueryForToken() {
+        String url = "https://api.weixin.qq.com/sns/oauth2/access_token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("token").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .addAppid(appInfo.getUniqueIdentifier())
+                .addSecret(appInfo.getAppSecret())
+                .addGrantTypeWithValueAuthorizationCode()
+                .addRedirectUri(appInfo.getRedirectUri())
+                .addResponseTypeWithValueCode()
+                .addScope(appInfo.getScope().value);
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: refresh token.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForRefreshToken() {
+        String url = "https://api.weixin.qq.com/sns/oauth2/refresh_token";
+        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url).setName("refresh").setIdempotent(false);
+        basic.getUrl().getQuery()
+                .addAppid(appInfo.getUniqueIdentifier())
+                .addGrantTypeWithValueRefreshToken();
+        return basic;
+    }
+
+    /**
+     * Initialize basic request for API: exchange token for user.
+     *
+     * @return basic request
+     */
+    private OAuth2HttpRequest initBasicRequestForExchangeTokenForUser() {
+        String url = "https://api.weixin.qq.com/sns/userinfo";
+        return OAuth2HttpRequest.initGet(url).setName("user");
+    }
+
     // #################### execute request and check response ##########################
 
     /**
@@ -154,7 +228,17 @@ public class WechatOfficialAccountOAuth2Client
      * @throws OAuth2Exception if oauth2 failed
      */
     protected DataMap executeAndCheck(OAuth2HttpRequest request) throws OAuth2Exception {
-        OAuth2HttpResponse response = httpClient.execute(request);
+        return check(httpClient.execute(request));
+    }
+
+    /**
+     * Check response.
+     *
+     * @param response response
+     * @return correct data map
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected DataMap check(OAuth2HttpResponse response) throws OAuth2Exception {
         DataMap dataMap = response.readJsonAsDataMap();
         String errcode = dataMap.getAsString("errcode");
         String errmsg = dataMap.getAsString("errmsg");
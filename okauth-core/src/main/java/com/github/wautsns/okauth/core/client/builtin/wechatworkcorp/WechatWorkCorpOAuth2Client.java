@@ -17,10 +17,14 @@ package com.github.wautsns.okauth.core.client.builtin.wechatworkcorp;
 
 import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequestTemplate;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
+import com.github.wautsns.okauth.core.assist.jfr.OAuth2FlightRecorder;
+import com.github.wautsns.okauth.core.assist.jfr.OAuth2FlightRecording;
 import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.model.WechatWorkCorpOAuth2Token;
 import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.model.WechatWorkCorpOAuth2User;
@@ -33,11 +37,21 @@ import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2FunctionApi;
 import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2SupplierApi;
 import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.token.InvalidAccessTokenException;
 import com.github.wautsns.okauth.core.exception.specific.user.InvalidUserAuthorizationException;
 
-import java.util.concurrent.Semaphore;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * WechatWorkCorp oauth2 client.
@@ -62,7 +76,7 @@ public class WechatWorkCorpOAuth2Client extends OAuth2Client<WechatWorkCorpOAuth
      * @param appInfo oauth2 app info
      */
     public WechatWorkCorpOAuth2Client(WechatWorkCorpOAuth2AppInfo appInfo) {
-        this(appInfo, new HttpClient4OAuth2HttpClient(), WechatWorkCorpTokenLocalCache.INSTANCE);
+        this(appInfo, HttpClient4OAuth2HttpClient.acquireShared(), WechatWorkCorpTokenLocalCache.INSTANCE);
     }
 
     /**
@@ -87,46 +101,150 @@ public class WechatWorkCorpOAuth2Client extends OAuth2Client<WechatWorkCorpOAuth
         return BuiltInOpenPlatformNames.WECHAT_WORK_CORP;
     }
 
-    /** Semaphore for getting token. */
-    private final Semaphore semaphoreForGettingToken = new Semaphore(1);
+    @Override
+    protected List<String> getApiHosts() {
+        return Collections.singletonList("https://qyapi.weixin.qq.com");
+    }
+
+    /** Token fetch in flight, which is shared by concurrent callers on cache miss. */
+    private final AtomicReference<CompletableFuture<WechatWorkCorpOAuth2Token>> tokenFetchInFlight =
+            new AtomicReference<>();
+    /** Number of tokens got from the token cache. */
+    private final LongAdder tokenCacheHits = new LongAdder();
+    /** Number of tokens fetched from the open platform since the token cache missed. */
+    private final LongAdder tokenCacheMisses = new LongAdder();
 
     /**
      * Get oauth2 token.
      *
      * <p><strong>If the cached token has expired, in the case of concurrency, only one request will actually perform
      * the fetch operation.</strong>
+     * Others wait for it until the deadline bound to the current thread(if any) is reached.
      *
      * @return oauth2 token
      * @throws OAuth2Exception if oauth2 failed
      */
     public WechatWorkCorpOAuth2Token getToken() throws OAuth2Exception {
+        OAuth2FlightRecording recording = OAuth2FlightRecorder.beginTokenFetch(getOpenPlatform());
+        try {
+            WechatWorkCorpOAuth2Token token = getToken(recording);
+            recording.finish(null);
+            return token;
+        } catch (OAuth2Exception | RuntimeException e) {
+            recording.finish(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Get oauth2 token, with the flight recording updated.
+     *
+     * <p>On cache miss, only one caller fetches the token from the open platform, concurrent callers wait for the
+     * result of it(or the current deadline, if any).
+     *
+     * @param recording flight recording
+     * @return oauth2 token
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    private WechatWorkCorpOAuth2Token getToken(OAuth2FlightRecording recording) throws OAuth2Exception {
         DataMap originalDataMap = tokenCache.get();
         if (originalDataMap != null) {
+            tokenCacheHits.increment();
+            recording.setCacheHit(true);
             return new WechatWorkCorpOAuth2Token(originalDataMap);
-        } else if (semaphoreForGettingToken.tryAcquire()) {
+        }
+        CompletableFuture<WechatWorkCorpOAuth2Token> fetch = new CompletableFuture<>();
+        CompletableFuture<WechatWorkCorpOAuth2Token> inFlight;
+        do {
+            inFlight = tokenFetchInFlight.get();
+        } while (inFlight == null && !tokenFetchInFlight.compareAndSet(null, fetch));
+        if (inFlight == null) {
             try {
+                tokenCacheMisses.increment();
+                recording.setCacheHit(false);
                 WechatWorkCorpOAuth2Token token = apiGetToken.execute();
                 tokenCache.save(token.getOriginalDataMap(), token.getAccessTokenExpirationSeconds());
+                fetch.complete(token);
                 return token;
+            } catch (Throwable e) {
+                // Waiters must be woken up even if an error is thrown.
+                fetch.completeExceptionally(e);
+                throw e;
             } finally {
-                semaphoreForGettingToken.release();
+                tokenFetchInFlight.set(null);
+            }
+        }
+        long waitStart = System.nanoTime();
+        try {
+            WechatWorkCorpOAuth2Token token = awaitTokenFetch(inFlight);
+            tokenCacheHits.increment();
+            recording.setCacheHit(true);
+            return token;
+        } finally {
+            recording.addWaitNanos(System.nanoTime() - waitStart);
+        }
+    }
+
+    /**
+     * Wait for the token fetch in flight until the current deadline(if any).
+     *
+     * @param inFlight token fetch in flight
+     * @return oauth2 token
+     * @throws OAuth2Exception if oauth2 failed, the deadline is exceeded or the thread is interrupted
+     */
+    private static WechatWorkCorpOAuth2Token awaitTokenFetch(CompletableFuture<WechatWorkCorpOAuth2Token> inFlight)
+            throws OAuth2Exception {
+        OAuth2Deadline deadline = OAuth2Deadline.current();
+        try {
+            return (deadline == null)
+                    ? inFlight.get()
+                    : inFlight.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuth2IOException(new InterruptedIOException(e.getMessage()));
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OAuth2Exception) {
+                throw (OAuth2Exception) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
             }
-        } else {
-            // Not directly recursive is to prevent stack overflow.
-            do {
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                }
-                originalDataMap = tokenCache.get();
-                if (originalDataMap != null) { return new WechatWorkCorpOAuth2Token(originalDataMap); }
-            } while (semaphoreForGettingToken.availablePermits() == 0);
-            // Do not use `tokenCache.get()` directly, because the semaphore may be released due to an exception.
-            return getToken();
         }
     }
 
+    /**
+     * Get token cache.
+     *
+     * @return token cache
+     */
+    public WechatWorkCorpTokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    /**
+     * Get number of tokens got from the token cache.
+     *
+     * @return number of token cache hits
+     */
+    public long getTokenCacheHits() {
+        return tokenCacheHits.sum();
+    }
+
+    /**
+     * Get number of tokens fetched from the open platform since the token cache missed.
+     *
+     * @return number of token cache misses
+     */
+    public long getTokenCacheMisses() {
+        return tokenCacheMisses.sum();
+    }
+
     /**
      * Exchange token and userid for user.
      *
@@ -162,11 +280,7 @@ public class WechatWorkCorpOAuth2Client extends OAuth2Client<WechatWorkCorpOAuth
     @Override
     protected InitializeAuthorizeUrl initApiInitializeAuthorizeUrl() {
         OAuth2Url basic = initBasicAuthorizeUrl(appInfo.getAuthorizeType());
-        return state -> {
-            OAuth2Url authorizeUrl = basic.copy();
-            authorizeUrl.getQuery().addState(state);
-            return authorizeUrl;
-        };
+        return new AppendStateToAuthorizeUrl(basic);
     }
 
     /**
@@ -224,11 +338,12 @@ public class WechatWorkCorpOAuth2Client extends OAuth2Client<WechatWorkCorpOAuth
      */
     protected OAuth2SupplierApi<WechatWorkCorpOAuth2Token> initApiGetToken() {
         String url = "https://qyapi.weixin.qq.com/cgi-bin/gettoken";
-        OAuth2HttpRequest request = OAuth2HttpRequest.initGet(url);
-        request.getUrl().getQuery()
+        OAuth2HttpRequest prototype = OAuth2HttpRequest.initGet(url).setName("gettoken");
+        prototype.getUrl().getQuery()
                 .add("corpid", appInfo.getCorpId())
                 .add("corpsecret", appInfo.getCorpSecret());
-        return () -> new WechatWorkCorpOAuth2Token(executeAndCheck(request));
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(prototype);
+        return () -> new WechatWorkCorpOAuth2Token(executeAndCheck(basic.newRequest()));
     }
 
     /**
@@ -238,9 +353,9 @@ public class WechatWorkCorpOAuth2Client extends OAuth2Client<WechatWorkCorpOAuth
      */
     protected OAuth2FunctionApi<String, WechatWorkCorpOAuth2User> initApiExchangeUseridForUser() {
         String url = "https://qyapi.weixin.qq.com/cgi-bin/user/get";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(OAuth2HttpRequest.initGet(url).setName("user"));
         return userid -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery()
                     .addAccessToken(getToken().getAccessToken())
                     .add("userid", userid);
@@ -251,9 +366,10 @@ public class WechatWorkCorpOAuth2Client extends OAuth2Client<WechatWorkCorpOAuth
     @Override
     protected ExchangeRedirectUriQueryForOpenid initApiExchangeRedirectUriQueryForOpenid() {
         String url = "https://qyapi.weixin.qq.com/cgi-bin/user/getuserinfo";
-        OAuth2HttpRequest basic = OAuth2HttpRequest.initGet(url);
+        OAuth2HttpRequestTemplate basic = OAuth2HttpRequestTemplate.of(
+                OAuth2HttpRequest.initGet(url).setName("openid").setIdempotent(false));
         return redirectUriQuery -> {
-            OAuth2HttpRequest request = basic.copy();
+            OAuth2HttpRequest request = basic.newRequest();
             request.getUrl().getQuery()
                     .addAccessToken(getToken().getAccessToken())
                     .addCode(redirectUriQuery.getCode());
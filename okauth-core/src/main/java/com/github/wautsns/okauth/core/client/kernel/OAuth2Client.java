@@ -16,16 +16,34 @@
 package com.github.wautsns.okauth.core.client.kernel;
 
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
 import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.OAuth2Url;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.PercentEncodingUtils;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
+import com.github.wautsns.okauth.core.assist.jfr.OAuth2FlightRecorder;
+import com.github.wautsns.okauth.core.assist.jfr.OAuth2FlightRecording;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForUser;
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
+import com.github.wautsns.okauth.core.client.kernel.metrics.OAuth2ClientMetrics;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
 import com.github.wautsns.okauth.core.client.kernel.model.OpenPlatformSupplier;
+import com.github.wautsns.okauth.core.client.kernel.properties.OAuth2DeadlineProperties;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import lombok.Getter;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * OAuth2 client.
@@ -39,7 +57,12 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
     @Getter
     protected final A appInfo;
     /** OAuth2 http client. */
+    @Getter
     protected final OAuth2HttpClient httpClient;
+    /** Deadline properties, or {@code null} if APIs have no default deadline. */
+    private volatile OAuth2DeadlineProperties deadlineProps;
+    /** Metrics of APIs. */
+    private volatile OAuth2ClientMetrics metrics = OAuth2ClientMetrics.NONE;
 
     /** API: Initialize authorize url. */
     protected final InitializeAuthorizeUrl apiInitializeAuthorizeUrl;
@@ -47,6 +70,8 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
     protected final ExchangeRedirectUriQueryForOpenid apiExchangeRedirectUriQueryForOpenid;
     /** API: exchange redirect uri query for user. */
     protected final ExchangeRedirectUriQueryForUser<U> apiExchangeRedirectUriQueryForUser;
+    /** API: exchange redirect uri query for user(async). */
+    protected final OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, U> apiExchangeRedirectUriQueryForUserAsync;
 
     /**
      * Construct an oauth2 client.
@@ -60,6 +85,8 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
         this.apiInitializeAuthorizeUrl = Objects.requireNonNull(initApiInitializeAuthorizeUrl());
         this.apiExchangeRedirectUriQueryForUser = Objects.requireNonNull(initApiExchangeRedirectUriQueryForUser());
         this.apiExchangeRedirectUriQueryForOpenid = Objects.requireNonNull(initApiExchangeRedirectUriQueryForOpenid());
+        this.apiExchangeRedirectUriQueryForUserAsync = Objects.requireNonNull(
+                initApiExchangeRedirectUriQueryForUserAsync());
     }
 
     /**
@@ -72,6 +99,19 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
         return apiInitializeAuthorizeUrl.execute(state);
     }
 
+    /**
+     * Initialize authorize url string.
+     *
+     * <p>It is cheaper than {@code initAuthorizeUrl(state).toString()} if the API is initialized by
+     * {@link AppendStateToAuthorizeUrl}, since the static part of the authorize url is encoded only once.
+     *
+     * @param state state
+     * @return authorize url string
+     */
+    public String initAuthorizeUrlString(String state) {
+        return apiInitializeAuthorizeUrl.executeAsString(state);
+    }
+
     /**
      * Exchange redirect uri query for openid.
      *
@@ -80,7 +120,9 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
      * @throws OAuth2Exception if oauth2 failed
      */
     public String exchangeForOpenid(OAuth2RedirectUriQuery redirectUriQuery) throws OAuth2Exception {
-        return apiExchangeRedirectUriQueryForOpenid.execute(redirectUriQuery);
+        return callApi(
+                OAuth2Api.EXCHANGE_REDIRECT_URI_QUERY_FOR_OPENID,
+                () -> apiExchangeRedirectUriQueryForOpenid.execute(redirectUriQuery));
     }
 
     /**
@@ -91,7 +133,84 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
      * @throws OAuth2Exception if oauth2 failed
      */
     public U exchangeForUser(OAuth2RedirectUriQuery redirectUriQuery) throws OAuth2Exception {
-        return apiExchangeRedirectUriQueryForUser.execute(redirectUriQuery);
+        return callApi(
+                OAuth2Api.EXCHANGE_REDIRECT_URI_QUERY_FOR_USER,
+                () -> apiExchangeRedirectUriQueryForUser.execute(redirectUriQuery));
+    }
+
+    /**
+     * Exchange redirect uri query for user asynchronously.
+     *
+     * <p>If oauth2 failed, the future will be completed exceptionally with {@code OAuth2Exception}.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return future of user
+     */
+    public CompletableFuture<U> exchangeForUserAsync(OAuth2RedirectUriQuery redirectUriQuery) {
+        return callApiAsync(
+                OAuth2Api.EXCHANGE_REDIRECT_URI_QUERY_FOR_USER,
+                () -> apiExchangeRedirectUriQueryForUserAsync.execute(redirectUriQuery));
+    }
+
+    /**
+     * Get deadline properties.
+     *
+     * @return deadline properties, or {@code null} if APIs have no default deadline
+     */
+    public OAuth2DeadlineProperties getDeadlineProperties() {
+        return deadlineProps;
+    }
+
+    /**
+     * Set deadline properties, which specify the default deadline of each API.
+     *
+     * <p>The default deadline never extends the deadline bound by the caller.
+     *
+     * @param deadlineProps deadline properties, or {@code null} if APIs have no default deadline
+     * @see OAuth2Deadline
+     */
+    public void setDeadlineProperties(OAuth2DeadlineProperties deadlineProps) {
+        this.deadlineProps = (deadlineProps == null) ? null : deadlineProps.copy();
+    }
+
+    /**
+     * Get metrics of APIs.
+     *
+     * @return metrics of APIs
+     */
+    public OAuth2ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set metrics of APIs.
+     *
+     * @param metrics metrics of APIs, or {@code null} if nothing should be recorded
+     */
+    public void setMetrics(OAuth2ClientMetrics metrics) {
+        this.metrics = (metrics == null) ? OAuth2ClientMetrics.NONE : metrics;
+    }
+
+    /**
+     * Warm up connections to hosts of APIs.
+     *
+     * @param connectionsPerHost number of connections to establish per host
+     * @return future that will be completed when warm-up is done
+     * @see OAuth2HttpClient#warmUp(Collection, int)
+     */
+    public CompletableFuture<Void> warmUp(int connectionsPerHost) {
+        return httpClient.warmUp(getApiHosts(), connectionsPerHost);
+    }
+
+    /**
+     * Get hosts of APIs, which will be used to warm up connections.
+     *
+     * <p>The default implementation returns an empty list.
+     *
+     * @return hosts of APIs([SCHEME://]HOST[:PORT])
+     */
+    protected List<String> getApiHosts() {
+        return Collections.emptyList();
     }
 
     // #################### initialize api ##############################################
@@ -123,6 +242,103 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
      */
     protected abstract ExchangeRedirectUriQueryForUser<U> initApiExchangeRedirectUriQueryForUser();
 
+    /**
+     * Initialize API: exchange redirect uri query for user(async).
+     *
+     * <p>The default implementation executes {@link #apiExchangeRedirectUriQueryForUser} in the current thread.
+     *
+     * @return API: exchange redirect uri query for user(async)
+     * @see #appInfo
+     * @see #httpClient
+     */
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, U> initApiExchangeRedirectUriQueryForUserAsync() {
+        return redirectUriQuery -> FutureUtils.call(() -> apiExchangeRedirectUriQueryForUser.execute(redirectUriQuery));
+    }
+
+    // #################### call api ####################################################
+
+    /**
+     * Call the callable as the API, with the default deadline of the API bound and the call recorded by metrics and
+     * flight recorder.
+     *
+     * @param api API
+     * @param callable callable
+     * @param <R> type of result
+     * @return result
+     * @throws OAuth2Exception if oauth2 failed
+     */
+    protected <R> R callApi(OAuth2Api api, FutureUtils.OAuth2Callable<R> callable) throws OAuth2Exception {
+        OAuth2Deadline deadline = initDeadline(api);
+        OAuth2ClientMetrics currentMetrics = metrics;
+        OAuth2FlightRecording recording = OAuth2FlightRecorder.beginApiCall(getOpenPlatform(), api);
+        if (currentMetrics == OAuth2ClientMetrics.NONE && recording == OAuth2FlightRecording.NONE) {
+            return (deadline == null) ? callable.call() : deadline.call(callable);
+        }
+        long start = System.nanoTime();
+        try {
+            R result = (deadline == null) ? callable.call() : deadline.call(callable);
+            recording.finish(null);
+            currentMetrics.recordApiCall(getOpenPlatform(), api, System.nanoTime() - start, null);
+            return result;
+        } catch (OAuth2Exception | RuntimeException e) {
+            recording.finish(e);
+            currentMetrics.recordApiCall(getOpenPlatform(), api, System.nanoTime() - start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Call the supplier as the API, with the default deadline of the API bound and the call recorded by metrics and
+     * flight recorder.
+     *
+     * @param api API
+     * @param supplier supplier of future
+     * @param <R> type of result
+     * @return future of result
+     */
+    protected <R> CompletableFuture<R> callApiAsync(OAuth2Api api, Supplier<CompletableFuture<R>> supplier) {
+        OAuth2Deadline deadline = initDeadline(api);
+        OAuth2ClientMetrics currentMetrics = metrics;
+        OAuth2FlightRecording recording = OAuth2FlightRecorder.beginApiCall(getOpenPlatform(), api);
+        long start = System.nanoTime();
+        CompletableFuture<R> future = (deadline == null) ? supplier.get() : deadline.callAsync(supplier);
+        if (currentMetrics == OAuth2ClientMetrics.NONE && recording == OAuth2FlightRecording.NONE) { return future; }
+        return future.whenComplete((result, e) -> {
+            Throwable error = (e == null) ? null : FutureUtils.unwrap(e);
+            recording.finish(error);
+            currentMetrics.recordApiCall(getOpenPlatform(), api, System.nanoTime() - start, error);
+        });
+    }
+
+    /**
+     * Initialize the default deadline of the API.
+     *
+     * @param api API
+     * @return default deadline, or {@code null} if the API has no default deadline
+     */
+    private OAuth2Deadline initDeadline(OAuth2Api api) {
+        OAuth2DeadlineProperties props = deadlineProps;
+        Duration timeout = (props == null) ? null : api.getDeadline(props);
+        return (timeout == null || timeout.isNegative() || timeout.isZero()) ? null : OAuth2Deadline.after(timeout);
+    }
+
+    // #################### execute request asynchronously ##############################
+
+    /**
+     * Execute request asynchronously and handle the response.
+     *
+     * <p>The response handler may be called in the IO thread of the http client, so it should not block.
+     *
+     * @param request request
+     * @param responseHandler response handler
+     * @param <R> type of result
+     * @return future of result
+     */
+    protected <R> CompletableFuture<R> executeAsync(
+            OAuth2HttpRequest request, FutureUtils.OAuth2Function<OAuth2HttpResponse, R> responseHandler) {
+        return httpClient.executeAsync(request).thenApply(FutureUtils.unchecked(responseHandler));
+    }
+
     /** Initialize authorize url. */
     @FunctionalInterface
     protected interface InitializeAuthorizeUrl {
@@ -135,6 +351,58 @@ public abstract class OAuth2Client<A extends OAuth2AppInfo, U extends OAuth2User
          */
         OAuth2Url execute(String state);
 
+        /**
+         * Initialize authorize url string.
+         *
+         * @param state state
+         * @return authorize url string
+         */
+        default String executeAsString(String state) {
+            return execute(state).toString();
+        }
+
+    }
+
+    /** Initialize authorize url by appending `state` to the basic authorize url. */
+    protected static final class AppendStateToAuthorizeUrl implements InitializeAuthorizeUrl {
+
+        /** Basic authorize url, whose query is pre-encoded. */
+        private final OAuth2Url basic;
+        /** Basic authorize url string(without state). */
+        private final String basicString;
+        /** Authorize url string before the state value(e.g. {@code https://host/path?a=1&state=}). */
+        private final String prefix;
+        /** Authorize url string after the state value(e.g. {@code #wechat_redirect}), or empty string. */
+        private final String suffix;
+
+        /**
+         * Construct an API: initialize authorize url by appending `state` to the basic authorize url.
+         *
+         * @param basic basic authorize url, which will not be modified
+         */
+        public AppendStateToAuthorizeUrl(OAuth2Url basic) {
+            this.basic = basic.copy();
+            String query = WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(this.basic.getQuery().preEncode());
+            String anchor = this.basic.getAnchor();
+            this.basicString = this.basic.toString();
+            this.prefix = this.basic.getPureUrl() + (query.isEmpty() ? "?state=" : ('?' + query + "&state="));
+            this.suffix = (anchor == null) ? "" : ('#' + anchor);
+        }
+
+        @Override
+        public OAuth2Url execute(String state) {
+            OAuth2Url authorizeUrl = basic.copy();
+            authorizeUrl.getQuery().addState(state);
+            return authorizeUrl;
+        }
+
+        @Override
+        public String executeAsString(String state) {
+            if (state == null) { return basicString; }
+            StringBuilder authorizeUrl = new StringBuilder(prefix.length() + state.length() + suffix.length());
+            return PercentEncodingUtils.encode(state, authorizeUrl.append(prefix)).append(suffix).toString();
+        }
+
     }
 
 }
@@ -16,17 +16,22 @@
 package com.github.wautsns.okauth.core.client.kernel;
 
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForToken;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeRedirectUriQueryForUser;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForOpenid;
 import com.github.wautsns.okauth.core.client.kernel.api.ExchangeTokenForUser;
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2Token;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
 import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Token available oauth2 client.
@@ -43,6 +48,10 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
     protected final ExchangeTokenForOpenid<T> apiExchangeTokenForOpenid;
     /** API: exchange token for user. */
     protected final ExchangeTokenForUser<T, U> apiExchangeTokenForUser;
+    /** API: exchange redirect uri query for token(async). */
+    protected final OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, T> apiExchangeRedirectUriQueryForTokenAsync;
+    /** API: exchange token for user(async). */
+    protected final OAuth2AsyncFunctionApi<T, U> apiExchangeTokenForUserAsync;
 
     /**
      * Construct a token available oauth2 client.
@@ -55,6 +64,9 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
         this.apiExchangeRedirectUriQueryForToken = Objects.requireNonNull(initApiExchangeRedirectUriQueryForToken());
         this.apiExchangeTokenForOpenid = Objects.requireNonNull(initApiExchangeTokenForOpenid());
         this.apiExchangeTokenForUser = Objects.requireNonNull(initApiExchangeTokenForUser());
+        this.apiExchangeRedirectUriQueryForTokenAsync = Objects.requireNonNull(
+                initApiExchangeRedirectUriQueryForTokenAsync());
+        this.apiExchangeTokenForUserAsync = Objects.requireNonNull(initApiExchangeTokenForUserAsync());
     }
 
     /**
@@ -65,7 +77,9 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
      * @throws OAuth2Exception if oauth2 failed
      */
     public T exchangeForToken(OAuth2RedirectUriQuery redirectUriQuery) throws OAuth2Exception {
-        return apiExchangeRedirectUriQueryForToken.execute(redirectUriQuery);
+        return callApi(
+                OAuth2Api.EXCHANGE_REDIRECT_URI_QUERY_FOR_TOKEN,
+                () -> apiExchangeRedirectUriQueryForToken.execute(redirectUriQuery));
     }
 
     /**
@@ -76,7 +90,9 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
      * @throws OAuth2Exception if oauth2 failed
      */
     public String exchangeForOpenid(T token) throws OAuth2Exception {
-        return apiExchangeTokenForOpenid.execute(token);
+        return callApi(
+                OAuth2Api.EXCHANGE_TOKEN_FOR_OPENID,
+                () -> apiExchangeTokenForOpenid.execute(token));
     }
 
     /**
@@ -87,7 +103,37 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
      * @throws OAuth2Exception if oauth2 failed
      */
     public U exchangeForUser(T token) throws OAuth2Exception {
-        return apiExchangeTokenForUser.execute(token);
+        return callApi(
+                OAuth2Api.EXCHANGE_TOKEN_FOR_USER,
+                () -> apiExchangeTokenForUser.execute(token));
+    }
+
+    /**
+     * Exchange redirect uri query for token asynchronously.
+     *
+     * <p>If oauth2 failed, the future will be completed exceptionally with {@code OAuth2Exception}.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return future of token
+     */
+    public CompletableFuture<T> exchangeForTokenAsync(OAuth2RedirectUriQuery redirectUriQuery) {
+        return callApiAsync(
+                OAuth2Api.EXCHANGE_REDIRECT_URI_QUERY_FOR_TOKEN,
+                () -> apiExchangeRedirectUriQueryForTokenAsync.execute(redirectUriQuery));
+    }
+
+    /**
+     * Exchange token for user asynchronously.
+     *
+     * <p>If oauth2 failed, the future will be completed exceptionally with {@code OAuth2Exception}.
+     *
+     * @param token token
+     * @return future of user
+     */
+    public CompletableFuture<U> exchangeForUserAsync(T token) {
+        return callApiAsync(
+                OAuth2Api.EXCHANGE_TOKEN_FOR_USER,
+                () -> apiExchangeTokenForUserAsync.execute(token));
     }
 
     // #################### initialize api ##############################################
@@ -113,6 +159,29 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
      */
     protected abstract ExchangeTokenForUser<T, U> initApiExchangeTokenForUser();
 
+    /**
+     * Initialize API: exchange redirect uri query for token(async).
+     *
+     * <p>The default implementation executes {@link #apiExchangeRedirectUriQueryForToken} in the current thread.
+     *
+     * @return API: exchange redirect uri query for token(async)
+     */
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, T> initApiExchangeRedirectUriQueryForTokenAsync() {
+        return redirectUriQuery -> FutureUtils.call(
+                () -> apiExchangeRedirectUriQueryForToken.execute(redirectUriQuery));
+    }
+
+    /**
+     * Initialize API: exchange token for user(async).
+     *
+     * <p>The default implementation executes {@link #apiExchangeTokenForUser} in the current thread.
+     *
+     * @return API: exchange token for user(async)
+     */
+    protected OAuth2AsyncFunctionApi<T, U> initApiExchangeTokenForUserAsync() {
+        return token -> FutureUtils.call(() -> apiExchangeTokenForUser.execute(token));
+    }
+
     @Override
     protected ExchangeRedirectUriQueryForOpenid initApiExchangeRedirectUriQueryForOpenid() {
         return redirectUriQuery -> exchangeForOpenid(exchangeForToken(redirectUriQuery));
@@ -123,4 +192,10 @@ public abstract class TokenAvailableOAuth2Client<A extends OAuth2AppInfo, T exte
         return redirectUriQuery -> exchangeForUser(exchangeForToken(redirectUriQuery));
     }
 
+    @Override
+    protected OAuth2AsyncFunctionApi<OAuth2RedirectUriQuery, U> initApiExchangeRedirectUriQueryForUserAsync() {
+        return redirectUriQuery -> exchangeForTokenAsync(redirectUriQuery)
+                .thenCompose(OAuth2Deadline.bind(this::exchangeForUserAsync));
+    }
+
 }
@@ -16,7 +16,11 @@
 package com.github.wautsns.okauth.core.client.kernel;
 
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
 import com.github.wautsns.okauth.core.client.kernel.api.RefreshToken;
+import com.github.wautsns.okauth.core.client.kernel.api.basic.OAuth2AsyncFunctionApi;
 import com.github.wautsns.okauth.core.client.kernel.api.basic.TokenRelatedApi;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RefreshableToken;
 import com.github.wautsns.okauth.core.client.kernel.model.OAuth2Token;
@@ -25,6 +29,8 @@ import com.github.wautsns.okauth.core.exception.OAuth2Exception;
 import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Token refreshable oauth2 client.
@@ -40,6 +46,8 @@ public abstract class TokenRefreshableOAuth2Client<A extends OAuth2AppInfo, T ex
 
     /** API: refresh token. */
     protected final RefreshToken<T> apiRefreshToken;
+    /** API: refresh token(async). */
+    protected final OAuth2AsyncFunctionApi<T, T> apiRefreshTokenAsync;
 
     /**
      * Construct a token refreshable oauth2 client.
@@ -54,16 +62,42 @@ public abstract class TokenRefreshableOAuth2Client<A extends OAuth2AppInfo, T ex
         super(appInfo, httpClient);
         this.tokenRefreshCallback = Objects.requireNonNull(tokenRefreshCallback);
         this.apiRefreshToken = Objects.requireNonNull(initApiRefreshToken());
+        this.apiRefreshTokenAsync = Objects.requireNonNull(initApiRefreshTokenAsync());
     }
 
     @Override
     public String exchangeForOpenid(T token) throws OAuth2Exception {
-        return refreshIfAccessTokenExpired(apiExchangeTokenForOpenid, token);
+        return callApi(
+                OAuth2Api.EXCHANGE_TOKEN_FOR_OPENID,
+                () -> refreshIfAccessTokenExpired(apiExchangeTokenForOpenid, token));
     }
 
     @Override
     public U exchangeForUser(T token) throws OAuth2Exception {
-        return refreshIfAccessTokenExpired(apiExchangeTokenForUser, token);
+        return callApi(
+                OAuth2Api.EXCHANGE_TOKEN_FOR_USER,
+                () -> refreshIfAccessTokenExpired(apiExchangeTokenForUser, token));
+    }
+
+    @Override
+    public CompletableFuture<U> exchangeForUserAsync(T token) {
+        return callApiAsync(
+                OAuth2Api.EXCHANGE_TOKEN_FOR_USER,
+                () -> refreshIfAccessTokenExpiredAsync(apiExchangeTokenForUserAsync, token));
+    }
+
+    /**
+     * Exchange token for user asynchronously, without refreshing the access token if it has expired.
+     *
+     * <p>If the access token has expired, the future will be completed exceptionally with
+     * {@code ExpiredAccessTokenException}, so that callers can refresh the token in their own way(such as reactive
+     * operators).
+     *
+     * @param token token
+     * @return future of user
+     */
+    public CompletableFuture<U> exchangeForUserWithoutRefreshingAsync(T token) {
+        return super.exchangeForUserAsync(token);
     }
 
     /**
@@ -75,11 +109,32 @@ public abstract class TokenRefreshableOAuth2Client<A extends OAuth2AppInfo, T ex
      */
     public final T refreshToken(T token) throws OAuth2Exception {
         tokenRefreshCallback.beforeRefreshing(getOpenPlatform(), token);
-        T newToken = apiRefreshToken.execute(token);
+        T newToken = callApi(OAuth2Api.REFRESH_TOKEN, () -> apiRefreshToken.execute(token));
         tokenRefreshCallback.afterRefreshing(getOpenPlatform(), token, newToken);
         return newToken;
     }
 
+    /**
+     * Refresh token asynchronously.
+     *
+     * <p>{@link TokenRefreshCallback#afterRefreshing(String, OAuth2Token, OAuth2Token)} may be called in the IO
+     * thread of the http client. If a callback fails, the future will be completed exceptionally.
+     *
+     * @param token token
+     * @return future of token
+     */
+    public final CompletableFuture<T> refreshTokenAsync(T token) {
+        // Composed on a completed stage, so that the callback runs in the current thread but fails the future.
+        CompletableFuture<T> future = CompletableFuture.completedFuture(token).thenCompose(oldToken -> {
+            tokenRefreshCallback.beforeRefreshing(getOpenPlatform(), oldToken);
+            return callApiAsync(OAuth2Api.REFRESH_TOKEN, () -> apiRefreshTokenAsync.execute(oldToken));
+        });
+        return future.thenApply(newToken -> {
+            tokenRefreshCallback.afterRefreshing(getOpenPlatform(), token, newToken);
+            return newToken;
+        });
+    }
+
     /**
      * Auto-refresh access token if the api throws {@code ExpiredAccessTokenException}.
      *
@@ -97,6 +152,32 @@ public abstract class TokenRefreshableOAuth2Client<A extends OAuth2AppInfo, T ex
         }
     }
 
+    /**
+     * Auto-refresh access token if the future of api is completed with {@code ExpiredAccessTokenException}.
+     *
+     * @param tokenRelatedApi token related api(async)
+     * @param token token
+     * @param <R> type of result
+     * @return future of result
+     */
+    protected <R> CompletableFuture<R> refreshIfAccessTokenExpiredAsync(
+            OAuth2AsyncFunctionApi<T, R> tokenRelatedApi, T token) {
+        // The handler may be called in the IO thread, so the deadline of the current thread should be bound.
+        Function<T, CompletableFuture<R>> refreshAndRetry = OAuth2Deadline.bind(
+                oldToken -> refreshTokenAsync(oldToken).thenCompose(OAuth2Deadline.bind(tokenRelatedApi::execute)));
+        return tokenRelatedApi.execute(token)
+                .handle((result, e) -> {
+                    if (e == null) { return CompletableFuture.completedFuture(result); }
+                    Throwable cause = FutureUtils.unwrap(e);
+                    if (cause instanceof ExpiredAccessTokenException) {
+                        return refreshAndRetry.apply(token);
+                    } else {
+                        return FutureUtils.<R>failed(cause);
+                    }
+                })
+                .thenCompose(Function.identity());
+    }
+
     // #################### initialize api ##############################################
 
     /**
@@ -106,6 +187,17 @@ public abstract class TokenRefreshableOAuth2Client<A extends OAuth2AppInfo, T ex
      */
     protected abstract RefreshToken<T> initApiRefreshToken();
 
+    /**
+     * Initialize API: refresh token(async).
+     *
+     * <p>The default implementation executes {@link #apiRefreshToken} in the current thread.
+     *
+     * @return API: refresh token(async)
+     */
+    protected OAuth2AsyncFunctionApi<T, T> initApiRefreshTokenAsync() {
+        return token -> FutureUtils.call(() -> apiRefreshToken.execute(token));
+    }
+
     // #################### extra #######################################################
 
     /** Token refresh callback. */
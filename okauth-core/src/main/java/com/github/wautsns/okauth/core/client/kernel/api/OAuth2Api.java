@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.api;
+
+import com.github.wautsns.okauth.core.client.kernel.properties.OAuth2DeadlineProperties;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Public APIs of oauth2 clients.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OAuth2Api {
+
+    EXCHANGE_REDIRECT_URI_QUERY_FOR_TOKEN(
+            "exchangeRedirectUriQueryForToken", OAuth2DeadlineProperties::getExchangeRedirectUriQueryForToken),
+    EXCHANGE_REDIRECT_URI_QUERY_FOR_OPENID(
+            "exchangeRedirectUriQueryForOpenid", OAuth2DeadlineProperties::getExchangeRedirectUriQueryForOpenid),
+    EXCHANGE_REDIRECT_URI_QUERY_FOR_USER(
+            "exchangeRedirectUriQueryForUser", OAuth2DeadlineProperties::getExchangeRedirectUriQueryForUser),
+    EXCHANGE_TOKEN_FOR_OPENID("exchangeTokenForOpenid", OAuth2DeadlineProperties::getExchangeTokenForOpenid),
+    EXCHANGE_TOKEN_FOR_USER("exchangeTokenForUser", OAuth2DeadlineProperties::getExchangeTokenForUser),
+    REFRESH_TOKEN("refreshToken", OAuth2DeadlineProperties::getRefreshToken);
+
+    /** API name, which is the same as the name of its deadline property. */
+    private final String apiName;
+    /** Getter of the default deadline of the API. */
+    @Getter(AccessLevel.NONE)
+    private final Function<OAuth2DeadlineProperties, Duration> deadlineGetter;
+
+    /**
+     * Get the default deadline of the API.
+     *
+     * @param props deadline properties
+     * @return default deadline, or {@code null} if not specified
+     */
+    public Duration getDeadline(OAuth2DeadlineProperties props) {
+        return deadlineGetter.apply(props);
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.api.basic;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * OAuth2 async function api.
+ *
+ * @author wautsns
+ * @since Jul 02, 2020
+ */
+@FunctionalInterface
+public interface OAuth2AsyncFunctionApi<T, R> {
+
+    /**
+     * Execute asynchronously and return future of result.
+     *
+     * <p>If oauth2 failed, the future will be completed exceptionally with {@code OAuth2Exception}.
+     *
+     * @param arg argument
+     * @return future of result
+     */
+    CompletableFuture<R> execute(T arg);
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.executor;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
+import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executor oauth2 client, which is a facade that runs blocking exchanges of the oauth2 client in the executor.
+ *
+ * <p>With a virtual thread per task executor(see {@link OAuth2Executors}), each in-flight exchange costs a virtual
+ * thread instead of a platform one, so the concurrency is no longer bounded by the size of thread pools. The deadline
+ * bound to the calling thread(if any) is bound to the executing thread as well.
+ *
+ * <p>If oauth2 failed, futures will be completed exceptionally with {@code OAuth2Exception}.
+ *
+ * <pre>
+ * ExecutorOAuth2Client&lt;GitHubOAuth2Client, GitHubUser&gt; client = new ExecutorOAuth2Client&lt;&gt;(
+ *         gitHubOAuth2Client, OAuth2Executors.newExecutor("okauth-exchange-"));
+ * client.exchangeForUser(redirectUriQuery).thenAccept(user -&gt; ...);
+ * client.submit(c -&gt; c.refreshToken(token)).thenAccept(newToken -&gt; ...);
+ * </pre>
+ *
+ * @param <C> type of oauth2 client
+ * @param <U> type of oauth2 user
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class ExecutorOAuth2Client<C extends OAuth2Client<?, U>, U extends OAuth2User> {
+
+    /** OAuth2 client. */
+    private final C client;
+    /** Executor that runs blocking exchanges. */
+    private final Executor executor;
+
+    /**
+     * Construct an {@code ExecutorOAuth2Client}.
+     *
+     * @param client oauth2 client
+     * @param executor executor that runs blocking exchanges
+     */
+    public ExecutorOAuth2Client(C client, Executor executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Get open platform.
+     *
+     * @return open platform
+     */
+    public String getOpenPlatform() {
+        return client.getOpenPlatform();
+    }
+
+    /**
+     * Exchange redirect uri query for openid in the executor.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return future of openid
+     */
+    public CompletableFuture<String> exchangeForOpenid(OAuth2RedirectUriQuery redirectUriQuery) {
+        return submit(c -> c.exchangeForOpenid(redirectUriQuery));
+    }
+
+    /**
+     * Exchange redirect uri query for user in the executor.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return future of user
+     */
+    public CompletableFuture<U> exchangeForUser(OAuth2RedirectUriQuery redirectUriQuery) {
+        return submit(c -> c.exchangeForUser(redirectUriQuery));
+    }
+
+    /**
+     * Call the function with the oauth2 client in the executor.
+     *
+     * <p>The deadline bound to the current thread(if any) is bound to the executing thread. If the executor rejects
+     * the task, the future will be completed exceptionally with {@code RejectedExecutionException}.
+     *
+     * @param function function that calls blocking APIs of the oauth2 client
+     * @param <R> type of result
+     * @return future of result
+     */
+    public <R> CompletableFuture<R> submit(FutureUtils.OAuth2Function<? super C, R> function) {
+        OAuth2Deadline deadline = OAuth2Deadline.current();
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete((deadline == null)
+                            ? function.apply(client)
+                            : deadline.call(() -> function.apply(client)));
+                } catch (OAuth2Exception | RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+}
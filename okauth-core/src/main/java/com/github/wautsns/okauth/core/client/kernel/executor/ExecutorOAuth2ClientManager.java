@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.executor;
+
+import com.github.wautsns.okauth.core.client.OAuth2ClientManager;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
+import com.github.wautsns.okauth.core.exception.specific.openplatform.UnsupportedOpenPlatformException;
+import lombok.Getter;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor oauth2 client manager, which gets oauth2 clients from the oauth2 client manager as executor oauth2 clients.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class ExecutorOAuth2ClientManager {
+
+    /** OAuth2 client manager. */
+    private final OAuth2ClientManager oauth2ClientManager;
+    /** Executor that runs blocking exchanges. */
+    private final Executor executor;
+
+    /**
+     * Construct an {@code ExecutorOAuth2ClientManager}.
+     *
+     * @param oauth2ClientManager oauth2 client manager
+     * @param executor executor that runs blocking exchanges
+     */
+    public ExecutorOAuth2ClientManager(OAuth2ClientManager oauth2ClientManager, Executor executor) {
+        this.oauth2ClientManager = oauth2ClientManager;
+        this.executor = executor;
+    }
+
+    /**
+     * Get executor oauth2 client.
+     *
+     * @param name open platform name
+     * @param <C> type of oauth2 client
+     * @param <U> type of oauth2 user
+     * @return executor oauth2 client
+     * @throws UnsupportedOpenPlatformException if there is no oauth2 client named the specified name
+     */
+    public <C extends OAuth2Client<?, U>, U extends OAuth2User> ExecutorOAuth2Client<C, U> get(String name)
+            throws UnsupportedOpenPlatformException {
+        C client = oauth2ClientManager.get(name);
+        return new ExecutorOAuth2Client<>(client, executor);
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.executor;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OAuth2 executors, which create executors for {@link ExecutorOAuth2Client}.
+ *
+ * <p>Virtual threads are created by reflection, so that okauth still runs on Java 8.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@UtilityClass
+public class OAuth2Executors {
+
+    /** Default max number of platform threads. */
+    public static final int DEFAULT_MAX_THREADS = 64;
+    /** Default capacity of the queue of tasks waiting for platform threads. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /** {@code Thread.ofVirtual()}, or {@code null} if virtual threads are not supported. */
+    private static final Method OF_VIRTUAL;
+    /** {@code Thread.Builder.name(String, long)}. */
+    private static final Method BUILDER_NAME;
+    /** {@code Thread.Builder.factory()}. */
+    private static final Method BUILDER_FACTORY;
+    /** {@code Executors.newThreadPerTaskExecutor(ThreadFactory)}. */
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+        } catch (ReflectiveOperationException ignored) {
+            // Virtual threads are not supported before Java 21.
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    /**
+     * Whether virtual threads are supported by the current JVM.
+     *
+     * @return {@code true} if virtual threads are supported, otherwise {@code false}
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     *
+     * <p>Blocking exchanges of okauth do not hold monitors while waiting, so they do not pin carrier threads.
+     *
+     * @param threadNamePrefix prefix of thread names, followed by a sequence number
+     * @return virtual thread per task executor
+     * @throws UnsupportedOperationException if virtual threads are not supported
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+        if (OF_VIRTUAL == null) {
+            throw new UnsupportedOperationException(String.format(
+                    "Virtual threads are not supported by the current JVM [%s].",
+                    System.getProperty("java.version")));
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), threadNamePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Create a bounded thread pool of daemon platform threads.
+     *
+     * <p>Idle threads will be terminated after 60 seconds. Tasks are queued if all threads are busy, and rejected with
+     * {@link RejectedExecutionException} if the queue is full, so that a burst of blocking exchanges can neither
+     * create unbounded threads nor queue unbounded tasks.
+     *
+     * @param threadNamePrefix prefix of thread names, followed by a sequence number
+     * @param maxThreads max number of threads
+     * @param queueCapacity capacity of the queue of tasks waiting for threads
+     * @return bounded thread pool
+     */
+    public static ExecutorService newBoundedThreadPool(String threadNamePrefix, int maxThreads, int queueCapacity) {
+        AtomicLong sequence = new AtomicLong();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                maxThreads, maxThreads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadNamePrefix + sequence.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Create an executor that runs each task in a virtual thread if supported, otherwise in a bounded thread pool of
+     * platform threads with {@link #DEFAULT_MAX_THREADS} and {@link #DEFAULT_QUEUE_CAPACITY}.
+     *
+     * @param threadNamePrefix prefix of thread names, followed by a sequence number
+     * @return executor
+     * @see #newBoundedThreadPool(String, int, int)
+     */
+    public static ExecutorService newExecutor(String threadNamePrefix) {
+        return isVirtualThreadSupported()
+                ? newVirtualThreadPerTaskExecutor(threadNamePrefix)
+                : newBoundedThreadPool(threadNamePrefix, DEFAULT_MAX_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.metrics;
+
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
+
+/**
+ * OAuth2 client metrics, which receives measurements of public APIs of oauth2 clients.
+ *
+ * <p>Composite APIs(such as exchanging redirect uri query for user) are recorded as a whole, and so are the APIs
+ * they call. Implementations should be thread-safe and must not block, since they may be called in the IO thread of
+ * the http client.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public interface OAuth2ClientMetrics {
+
+    /** Metrics that records nothing. */
+    OAuth2ClientMetrics NONE = new OAuth2ClientMetrics() {};
+
+    /**
+     * Record a call of the API.
+     *
+     * @param openPlatform open platform
+     * @param api API
+     * @param durationNanos duration in nanos
+     * @param error exception(such as {@code OAuth2ErrorException}) if the call failed, otherwise {@code null}
+     */
+    default void recordApiCall(String openPlatform, OAuth2Api api, long durationNanos, Throwable error) {}
+
+}
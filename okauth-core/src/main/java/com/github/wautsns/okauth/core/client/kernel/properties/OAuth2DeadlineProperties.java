@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.properties;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+/**
+ * OAuth2 deadline properties, which specify the default deadline of each API of the oauth2 client.
+ *
+ * <p>The deadline covers all requests sent by the API, including token refreshing and retries. Null or non-positive
+ * value means no default deadline, and the API is only limited by timeouts of each request.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OAuth2DeadlineProperties {
+
+    /** Deadline of API: exchange redirect uri query for token. */
+    private Duration exchangeRedirectUriQueryForToken;
+    /** Deadline of API: exchange redirect uri query for openid. */
+    private Duration exchangeRedirectUriQueryForOpenid;
+    /** Deadline of API: exchange redirect uri query for user. */
+    private Duration exchangeRedirectUriQueryForUser;
+    /** Deadline of API: exchange token for openid. */
+    private Duration exchangeTokenForOpenid;
+    /** Deadline of API: exchange token for user. */
+    private Duration exchangeTokenForUser;
+    /** Deadline of API: refresh token. */
+    private Duration refreshToken;
+
+    /**
+     * Create and return a copy of this object.
+     *
+     * @return a copy of this properties
+     */
+    public OAuth2DeadlineProperties copy() {
+        return new OAuth2DeadlineProperties()
+                .setExchangeRedirectUriQueryForToken(exchangeRedirectUriQueryForToken)
+                .setExchangeRedirectUriQueryForOpenid(exchangeRedirectUriQueryForOpenid)
+                .setExchangeRedirectUriQueryForUser(exchangeRedirectUriQueryForUser)
+                .setExchangeTokenForOpenid(exchangeTokenForOpenid)
+                .setExchangeTokenForUser(exchangeTokenForUser)
+                .setRefreshToken(refreshToken);
+    }
+
+    // #################### utils #######################################################
+
+    /**
+     * Initialize default deadline properties.
+     *
+     * <ul>
+     * <li>exchangeRedirectUriQueryForToken: {@code 10s}</li>
+     * <li>exchangeRedirectUriQueryForOpenid: {@code 15s}</li>
+     * <li>exchangeRedirectUriQueryForUser: {@code 15s}</li>
+     * <li>exchangeTokenForOpenid: {@code 10s}</li>
+     * <li>exchangeTokenForUser: {@code 10s}</li>
+     * <li>refreshToken: {@code 10s}</li>
+     * </ul>
+     *
+     * @return deadline properties with default properties
+     */
+    public static OAuth2DeadlineProperties initDefault() {
+        return new OAuth2DeadlineProperties()
+                .setExchangeRedirectUriQueryForToken(Duration.parse("PT10S"))
+                .setExchangeRedirectUriQueryForOpenid(Duration.parse("PT15S"))
+                .setExchangeRedirectUriQueryForUser(Duration.parse("PT15S"))
+                .setExchangeTokenForOpenid(Duration.parse("PT10S"))
+                .setExchangeTokenForUser(Duration.parse("PT10S"))
+                .setRefreshToken(Duration.parse("PT10S"));
+    }
+
+}
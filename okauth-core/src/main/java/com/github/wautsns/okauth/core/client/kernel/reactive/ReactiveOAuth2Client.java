@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.reactive;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.OAuth2HttpClientUtils;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
+import lombok.AccessLevel;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reactive oauth2 client, which is a facade that exposes asynchronous APIs of the oauth2 client as {@code Mono}.
+ *
+ * <p>Nothing is sent until the {@code Mono} is subscribed, and each subscription sends requests again. The deadline
+ * bound to the subscribing thread(if any) takes effect. If oauth2 failed, the {@code Mono} will emit
+ * {@code OAuth2Exception}.
+ *
+ * <p>If the oauth2 client is backed by a blocking oauth2 http client, requests are executed on
+ * {@code Schedulers.boundedElastic()} rather than the subscribing thread(which may be an event loop), and the deadline
+ * bound to the subscribing thread is carried over. A non-blocking oauth2 http client(such as
+ * {@code HttpAsyncClient4OAuth2HttpClient}) is still preferred, which occupies no thread while waiting for responses.
+ *
+ * @param <C> type of oauth2 client
+ * @param <U> type of oauth2 user
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class ReactiveOAuth2Client<C extends OAuth2Client<?, U>, U extends OAuth2User> {
+
+    /** OAuth2 client. */
+    private final C client;
+    /** Whether the oauth2 http client of the oauth2 client is non-blocking. */
+    @Getter(AccessLevel.NONE)
+    private final boolean nonBlocking;
+
+    /**
+     * Construct a {@code ReactiveOAuth2Client}.
+     *
+     * @param client oauth2 client
+     */
+    public ReactiveOAuth2Client(C client) {
+        this.client = client;
+        this.nonBlocking = OAuth2HttpClientUtils.isNonBlocking(client.getHttpClient());
+    }
+
+    /**
+     * Get open platform.
+     *
+     * @return open platform
+     */
+    public String getOpenPlatform() {
+        return client.getOpenPlatform();
+    }
+
+    /**
+     * Exchange redirect uri query for user.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return mono of user
+     */
+    public Mono<U> exchangeForUser(OAuth2RedirectUriQuery redirectUriQuery) {
+        return fromFuture(c -> c.exchangeForUserAsync(redirectUriQuery));
+    }
+
+    /**
+     * Call the asynchronous API of the oauth2 client on each subscription.
+     *
+     * <p>If the oauth2 http client is blocking, the API is called on {@code Schedulers.boundedElastic()}.
+     *
+     * @param function function that calls asynchronous APIs of the oauth2 client
+     * @param <R> type of result
+     * @return mono of result
+     */
+    public <R> Mono<R> fromFuture(Function<? super C, CompletableFuture<R>> function) {
+        Mono<R> mono;
+        if (nonBlocking) {
+            mono = Mono.defer(() -> Mono.fromFuture(function.apply(client)));
+        } else {
+            mono = Mono.defer(() -> {
+                OAuth2Deadline deadline = OAuth2Deadline.current();
+                Supplier<CompletableFuture<R>> call = () -> function.apply(client);
+                return Mono.defer(() -> Mono.fromFuture((deadline == null) ? call.get() : deadline.callAsync(call)))
+                        .subscribeOn(Schedulers.boundedElastic());
+            });
+        }
+        return mono.onErrorMap(CompletionException.class, FutureUtils::unwrap);
+    }
+
+}
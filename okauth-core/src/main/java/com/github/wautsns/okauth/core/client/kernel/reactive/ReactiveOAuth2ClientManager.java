@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.reactive;
+
+import com.github.wautsns.okauth.core.client.OAuth2ClientManager;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.TokenRefreshableOAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RefreshableToken;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
+import com.github.wautsns.okauth.core.exception.specific.openplatform.UnsupportedOpenPlatformException;
+import lombok.Getter;
+
+/**
+ * Reactive oauth2 client manager, which gets oauth2 clients from the oauth2 client manager as reactive oauth2 clients.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Getter
+public class ReactiveOAuth2ClientManager {
+
+    /** OAuth2 client manager. */
+    private final OAuth2ClientManager oauth2ClientManager;
+
+    /**
+     * Construct a {@code ReactiveOAuth2ClientManager}.
+     *
+     * @param oauth2ClientManager oauth2 client manager
+     */
+    public ReactiveOAuth2ClientManager(OAuth2ClientManager oauth2ClientManager) {
+        this.oauth2ClientManager = oauth2ClientManager;
+    }
+
+    /**
+     * Get reactive oauth2 client.
+     *
+     * @param name open platform name
+     * @param <C> type of oauth2 client
+     * @param <U> type of oauth2 user
+     * @return reactive oauth2 client
+     * @throws UnsupportedOpenPlatformException if there is no oauth2 client named the specified name
+     */
+    public <C extends OAuth2Client<?, U>, U extends OAuth2User> ReactiveOAuth2Client<C, U> get(String name)
+            throws UnsupportedOpenPlatformException {
+        C client = oauth2ClientManager.get(name);
+        return new ReactiveOAuth2Client<>(client);
+    }
+
+    /**
+     * Get reactive token refreshable oauth2 client.
+     *
+     * @param name open platform name
+     * @param <C> type of oauth2 client
+     * @param <T> type of oauth2 token
+     * @param <U> type of oauth2 user
+     * @return reactive token refreshable oauth2 client
+     * @throws UnsupportedOpenPlatformException if there is no oauth2 client named the specified name
+     * @throws IllegalArgumentException if the oauth2 client is not token refreshable
+     */
+    public <C extends TokenRefreshableOAuth2Client<?, T, U>, T extends OAuth2RefreshableToken, U extends OAuth2User>
+            ReactiveTokenRefreshableOAuth2Client<C, T, U> getTokenRefreshable(String name)
+            throws UnsupportedOpenPlatformException {
+        OAuth2Client<?, ?> client = oauth2ClientManager.get(name);
+        if (!(client instanceof TokenRefreshableOAuth2Client)) {
+            throw new IllegalArgumentException(String.format(
+                    "The oauth2 client named [%s] is not token refreshable.", name));
+        }
+        @SuppressWarnings("unchecked")
+        C tokenRefreshableClient = (C) client;
+        return new ReactiveTokenRefreshableOAuth2Client<>(tokenRefreshableClient);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel.reactive;
+
+import com.github.wautsns.okauth.core.client.kernel.TokenRefreshableOAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RedirectUriQuery;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2RefreshableToken;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2User;
+import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Reactive token refreshable oauth2 client, which refreshes the access token by operators if it has expired.
+ *
+ * <pre>
+ * reactiveClient.exchangeForToken(redirectUriQuery)
+ *         .flatMap(reactiveClient::exchangeForUser)
+ *         .timeout(Duration.ofSeconds(5));
+ * </pre>
+ *
+ * @param <C> type of oauth2 client
+ * @param <T> type of oauth2 token
+ * @param <U> type of oauth2 user
+ * @author wautsns
+ * @since Jul 08, 2020
+ * @see ReactiveOAuth2Client
+ */
+public class ReactiveTokenRefreshableOAuth2Client<
+        C extends TokenRefreshableOAuth2Client<?, T, U>, T extends OAuth2RefreshableToken, U extends OAuth2User>
+        extends ReactiveOAuth2Client<C, U> {
+
+    /**
+     * Construct a {@code ReactiveTokenRefreshableOAuth2Client}.
+     *
+     * @param client token refreshable oauth2 client
+     */
+    public ReactiveTokenRefreshableOAuth2Client(C client) {
+        super(client);
+    }
+
+    /**
+     * Exchange redirect uri query for token.
+     *
+     * @param redirectUriQuery redirect uri query
+     * @return mono of token
+     */
+    public Mono<T> exchangeForToken(OAuth2RedirectUriQuery redirectUriQuery) {
+        return fromFuture(c -> c.exchangeForTokenAsync(redirectUriQuery));
+    }
+
+    /**
+     * Exchange token for user, and refresh the token if the access token has expired.
+     *
+     * @param token token
+     * @return mono of user
+     */
+    public Mono<U> exchangeForUser(T token) {
+        return refreshIfAccessTokenExpired(token, t -> fromFuture(c -> c.exchangeForUserWithoutRefreshingAsync(t)));
+    }
+
+    /**
+     * Refresh token.
+     *
+     * @param token token
+     * @return mono of new token
+     */
+    public Mono<T> refreshToken(T token) {
+        return fromFuture(c -> c.refreshTokenAsync(token));
+    }
+
+    /**
+     * Call the token related function, and call it again with the refreshed token if the access token has expired.
+     *
+     * @param token token
+     * @param tokenRelatedFunction function that calls token related APIs
+     * @param <R> type of result
+     * @return mono of result
+     */
+    public <R> Mono<R> refreshIfAccessTokenExpired(T token, Function<T, Mono<R>> tokenRelatedFunction) {
+        return Mono.defer(() -> tokenRelatedFunction.apply(token))
+                .onErrorResume(
+                        ExpiredAccessTokenException.class,
+                        e -> refreshToken(token).flatMap(tokenRelatedFunction));
+    }
+
+}
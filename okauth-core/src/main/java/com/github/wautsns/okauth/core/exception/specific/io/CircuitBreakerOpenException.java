@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.exception.specific.io;
+
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+
+import java.io.IOException;
+
+/**
+ * Circuit breaker open exception.
+ *
+ * <p>Thrown without sending the request if the circuit breaker of the open platform host is open.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class CircuitBreakerOpenException extends OAuth2IOException {
+
+    private static final long serialVersionUID = -3186724409158012470L;
+
+    /**
+     * Construct a CircuitBreakerOpenException.
+     *
+     * @param circuitBreaker name of the circuit breaker
+     */
+    public CircuitBreakerOpenException(String circuitBreaker) {
+        super(new IOException("Circuit breaker [" + circuitBreaker + "] is open."));
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.exception.specific.io;
+
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+
+import java.io.IOException;
+
+/**
+ * Concurrency limit exceeded exception.
+ *
+ * <p>Thrown without sending the request if in-flight requests to the open platform host have reached the adaptive
+ * concurrency limit, that is, the request is shed instead of being queued.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class ConcurrencyLimitExceededException extends OAuth2IOException {
+
+    private static final long serialVersionUID = 5730381749014476502L;
+
+    /**
+     * Construct a ConcurrencyLimitExceededException.
+     *
+     * @param limiter name of the concurrency limiter
+     * @param limit current concurrency limit
+     */
+    public ConcurrencyLimitExceededException(String limiter, int limit) {
+        super(new IOException("Concurrency limit [" + limiter + "] of " + limit + " is exceeded."));
+    }
+
+}
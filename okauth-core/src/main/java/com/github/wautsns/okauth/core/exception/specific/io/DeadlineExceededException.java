@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.exception.specific.io;
+
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+
+import java.net.SocketTimeoutException;
+
+/**
+ * Deadline exceeded exception.
+ *
+ * <p>Thrown if the deadline of the call has been reached, either before sending the request or while waiting for the
+ * response.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class DeadlineExceededException extends OAuth2IOException {
+
+    private static final long serialVersionUID = 2281743370928645190L;
+
+    /** Construct a DeadlineExceededException. */
+    public DeadlineExceededException() {
+        super(new SocketTimeoutException("Deadline exceeded."));
+    }
+
+}
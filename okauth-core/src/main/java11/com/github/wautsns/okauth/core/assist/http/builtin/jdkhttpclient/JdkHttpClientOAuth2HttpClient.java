@@ -0,0 +1,446 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.jdkhttpclient;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.OAuth2HttpEntity;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryExecutor;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryPolicy;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.ConnectionLeaseTimeoutException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.net.ssl.SSLException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdkHttpClient oauth2 http client.
+ *
+ * <p>Requests are executed by {@code java.net.http.HttpClient}(HTTP/2 preferred, falls back to HTTP/1.1), so
+ * exchanges with the same host can be multiplexed over a few connections. The response entity is buffered in memory
+ * before the future is completed.
+ * <p>Notes on {@linkplain OAuth2HttpClientProperties properties}:
+ * <ul>
+ * <li>{@code maxConcurrentRequests}, {@code maxConcurrentRequestsPerRoute} and {@code maxConcurrentRequestsPerHost}
+ * limit in-flight exchanges(route: SCHEME://HOST:PORT), excess requests are queued without blocking.</li>
+ * <li>{@code connectionRequestTimeout} limits the time a request is queued, a request that is not started in time
+ * fails with {@link ConnectionLeaseTimeoutException}.</li>
+ * <li>{@code connectTimeout} and {@code readTimeout} are infinite if null.</li>
+ * <li>{@code maxIdleTime} and {@code keepAliveTimeout} are not supported, since the idle timeout of connections is
+ * JVM-wide in {@code java.net.http}(system property {@code jdk.httpclient.keepalive.timeout}). Values other than the
+ * {@linkplain OAuth2HttpClientProperties#initDefault() default} ones are rejected.</li>
+ * <li>{@code HttpTimeoutException} is converted to {@code SocketTimeoutException}, so that retry policies can treat
+ * timeouts in the same way as other transports.</li>
+ * <li>{@code proxy} only supports http proxy.</li>
+ * <li>{@code dnsResolver} is not supported and is rejected, since {@code java.net.http} always resolves hosts by
+ * {@code InetAddress}.</li>
+ * </ul>
+ *
+ * @author wautsns
+ * @since Jul 04, 2020
+ */
+@Getter
+public class JdkHttpClientOAuth2HttpClient implements OAuth2HttpClient, Closeable {
+
+    /** Original http client. */
+    protected final HttpClient origin;
+    /** Read timeout, or {@code null} if infinite. */
+    private final Duration readTimeout;
+    /** Retry policy. */
+    private final OAuth2RetryPolicy retryPolicy;
+    /** Max concurrent requests. */
+    private final int maxConcurrentRequests;
+    /** Max concurrent requests per route. */
+    private final int maxConcurrentRequestsPerRoute;
+    /** Max concurrent requests of the specified routes. */
+    private final Map<String, Integer> maxConcurrentRequestsPerHost;
+    /** Timeout of waiting in the queue(in milliseconds), or {@code -1} if unbounded. */
+    private final long connectionRequestTimeoutMillis;
+
+    /** Lock of the following states. */
+    @Getter(AccessLevel.NONE)
+    private final Object lock = new Object();
+    /** Number of in-flight requests. */
+    @Getter(AccessLevel.NONE)
+    private int inFlightRequests;
+    /** Number of in-flight requests per route. */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> inFlightRequestsPerRoute = new HashMap<>();
+    /** Requests waiting for permit. */
+    @Getter(AccessLevel.NONE)
+    private final Deque<PendingRequest> pendingRequests = new ArrayDeque<>();
+    /** Whether the http client is closed. */
+    @Getter(AccessLevel.NONE)
+    private boolean closed;
+
+    /** Construct a default {@code JdkHttpClientOAuth2HttpClient}. */
+    public JdkHttpClientOAuth2HttpClient() {
+        this(OAuth2HttpClientProperties.initDefault());
+    }
+
+    /**
+     * Construct a {@code JdkHttpClientOAuth2HttpClient}.
+     *
+     * @param props oauth2 http client properties
+     * @throws IllegalArgumentException if unsupported properties are specified
+     */
+    public JdkHttpClientOAuth2HttpClient(OAuth2HttpClientProperties props) {
+        OAuth2HttpClientProperties defaultProps = OAuth2HttpClientProperties.initDefault();
+        rejectUnsupported("maxIdleTime", props.getMaxIdleTime(), defaultProps.getMaxIdleTime());
+        rejectUnsupported("keepAliveTimeout", props.getKeepAliveTimeout(), defaultProps.getKeepAliveTimeout());
+        rejectUnsupported("dnsResolver", props.getDnsResolver(), null);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        // ==================== request config ==============================================
+        if (props.getConnectTimeout() != null) { builder.connectTimeout(props.getConnectTimeout()); }
+        this.readTimeout = props.getReadTimeout();
+        // ==================== max concurrent requests =====================================
+        this.maxConcurrentRequests = props.getMaxConcurrentRequests();
+        Integer maxPerRoute = props.getMaxConcurrentRequestsPerRoute();
+        this.maxConcurrentRequestsPerRoute = (maxPerRoute == null) ? maxConcurrentRequests : maxPerRoute;
+        Map<String, Integer> maxPerHost = new HashMap<>();
+        if (props.getMaxConcurrentRequestsPerHost() != null) {
+            props.getMaxConcurrentRequestsPerHost().forEach((host, max) -> maxPerHost.put(
+                    initRoute(URI.create(host.contains("://") ? host : ("https://" + host))), max));
+        }
+        this.maxConcurrentRequestsPerHost = Collections.unmodifiableMap(maxPerHost);
+        Duration connectionRequestTimeout = props.getConnectionRequestTimeout();
+        this.connectionRequestTimeoutMillis = (connectionRequestTimeout == null)
+                ? -1L
+                : connectionRequestTimeout.toMillis();
+        // ==================== retry policy ================================================
+        this.retryPolicy = OAuth2RetryPolicy.init(props);
+        // ==================== proxy =======================================================
+        String proxy = props.getProxy();
+        if (proxy != null) { builder.proxy(ProxySelector.of(parseProxy(proxy))); }
+        // ==================== build http client ===========================================
+        this.origin = buildOriginHttpClient(builder, props);
+    }
+
+    /**
+     * Build original http client.
+     *
+     * @param builder jdkHttpClient builder
+     * @param props oauth2 http client properties
+     * @return original http client
+     */
+    protected HttpClient buildOriginHttpClient(HttpClient.Builder builder, OAuth2HttpClientProperties props) {
+        return builder.build();
+    }
+
+    @Override
+    public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+        try {
+            return executeAsync(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuth2IOException(new InterruptedIOException(e.getMessage()));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OAuth2IOException) {
+                throw (OAuth2IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+        return OAuth2RetryExecutor.executeAsync(retryPolicy, request, this::executeOnceAsync);
+    }
+
+    /**
+     * Execute oauth2 request asynchronously once without retry.
+     *
+     * @param request oauth2 request
+     * @return future of oauth2 response
+     */
+    protected CompletableFuture<OAuth2HttpResponse> executeOnceAsync(OAuth2HttpRequest request) {
+        URI uri;
+        try {
+            uri = URI.create(request.getUrl().toString());
+        } catch (RuntimeException e) {
+            return FutureUtils.failed(e);
+        }
+        String route = initRoute(uri);
+        CompletableFuture<OAuth2HttpResponse> future = new CompletableFuture<>();
+        acquirePermit(route).whenComplete((ignored, leaseFailure) -> {
+            if (leaseFailure != null) {
+                future.completeExceptionally(leaseFailure);
+                return;
+            }
+            try {
+                HttpRequest originalHttpRequest = initOriginalHttpRequest(request, uri);
+                HttpResponse.BodyHandler<byte[]> bodyHandler = HttpResponse.BodyHandlers.ofByteArray();
+                origin.sendAsync(originalHttpRequest, bodyHandler).whenComplete((result, e) -> {
+                    releasePermit(route);
+                    if (e == null) {
+                        future.complete(new JdkHttpClientOAuth2HttpResponse(result));
+                    } else {
+                        future.completeExceptionally(new OAuth2IOException(toIOException(FutureUtils.unwrap(e))));
+                    }
+                });
+            } catch (RuntimeException e) {
+                releasePermit(route);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Close the http client.
+     *
+     * <p>Queued requests fail and new requests are rejected, in-flight exchanges are not aborted, since
+     * {@code java.net.http.HttpClient} can not be closed before Java 21.
+     */
+    @Override
+    public void close() {
+        List<PendingRequest> rejected;
+        synchronized (lock) {
+            if (closed) { return; }
+            closed = true;
+            rejected = new ArrayList<>(pendingRequests);
+            pendingRequests.clear();
+        }
+        rejected.forEach(pendingRequest -> pendingRequest.lease.completeExceptionally(initClosedException()));
+    }
+
+    // #################### internal ####################################################
+
+    /** Default user agent. Some open platforms will response 403, if not disguised as a browser. */
+    private static final String USER_AGENT = "Chrome/83.0.4103.61";
+
+    /**
+     * Initialize original http request.
+     *
+     * <p>If there is a {@linkplain OAuth2Deadline#of(OAuth2HttpRequest) deadline}, the read timeout will be shrunk to
+     * the remaining time.
+     *
+     * @param request oauth2 http request
+     * @param uri uri of the request
+     * @return original http request
+     */
+    private HttpRequest initOriginalHttpRequest(OAuth2HttpRequest request, URI uri) {
+        OAuth2Deadline deadline = OAuth2Deadline.of(request);
+        Duration timeout = (deadline == null)
+                ? readTimeout
+                : Duration.ofMillis(deadline.shrink((readTimeout == null) ? -1 : (int) readTimeout.toMillis()));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (timeout != null) { builder.timeout(timeout); }
+        boolean[] userAgentSpecified = {false};
+        request.forEachHeader((name, value) -> {
+            if ("User-Agent".equalsIgnoreCase(name)) { userAgentSpecified[0] = true; }
+            builder.header(name, value);
+        });
+        if (!userAgentSpecified[0]) { builder.header("User-Agent", USER_AGENT); }
+        OAuth2HttpEntity entity = request.getEntity();
+        HttpRequest.BodyPublisher bodyPublisher = (entity == null)
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(entity.toBytes());
+        return builder.method(request.getMethod().name(), bodyPublisher).build();
+    }
+
+    /**
+     * Reject the unsupported property if it is specified with a value other than the default one.
+     *
+     * @param name property name
+     * @param value property value
+     * @param defaultValue default value, which is ignored
+     * @throws IllegalArgumentException if the property is specified
+     */
+    private static void rejectUnsupported(String name, Object value, Object defaultValue) {
+        if (value == null || value.equals(defaultValue)) { return; }
+        throw new IllegalArgumentException(String.format(
+                "Property [%s] is not supported by JdkHttpClientOAuth2HttpClient, but got [%s].", name, value));
+    }
+
+    /**
+     * Convert the cause to {@code IOException}.
+     *
+     * @param cause cause of failure
+     * @return io exception
+     */
+    private static IOException toIOException(Throwable cause) {
+        if (cause instanceof HttpTimeoutException) {
+            SocketTimeoutException e = new SocketTimeoutException(cause.getMessage());
+            e.initCause(cause);
+            return e;
+        }
+        return (cause instanceof IOException) ? (IOException) cause : new IOException(cause);
+    }
+
+    /**
+     * Initialize route of the uri.
+     *
+     * @param uri uri
+     * @return route(SCHEME://HOST:PORT)
+     */
+    private static String initRoute(URI uri) {
+        String scheme = (uri.getScheme() == null) ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = (uri.getHost() == null) ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        int port = uri.getPort();
+        if (port == -1) { port = "https".equals(scheme) ? 443 : 80; }
+        return scheme + "://" + host + ':' + port;
+    }
+
+    /**
+     * Acquire a permit of the route.
+     *
+     * <p>If no permit is available, the request is queued until a permit is released, the client is closed or
+     * {@code connectionRequestTimeout} elapses.
+     *
+     * @param route route of the request
+     * @return future that will be completed when the permit is acquired
+     */
+    private CompletableFuture<Void> acquirePermit(String route) {
+        PendingRequest pendingRequest;
+        synchronized (lock) {
+            if (closed) { return FutureUtils.failed(initClosedException()); }
+            if (tryAcquirePermit(route)) { return CompletableFuture.completedFuture(null); }
+            pendingRequest = new PendingRequest(route);
+            pendingRequests.add(pendingRequest);
+        }
+        if (connectionRequestTimeoutMillis >= 0) {
+            CompletableFuture
+                    .delayedExecutor(connectionRequestTimeoutMillis, TimeUnit.MILLISECONDS, Runnable::run)
+                    .execute(() -> expire(pendingRequest));
+        }
+        return pendingRequest.lease;
+    }
+
+    /**
+     * Release the permit of the route and hand over permits to pending requests.
+     *
+     * @param route route of the request
+     */
+    private void releasePermit(String route) {
+        List<PendingRequest> granted = new ArrayList<>();
+        synchronized (lock) {
+            inFlightRequests--;
+            inFlightRequestsPerRoute.computeIfPresent(route, (key, count) -> (count == 1) ? null : (count - 1));
+            Iterator<PendingRequest> iterator = pendingRequests.iterator();
+            while (iterator.hasNext() && inFlightRequests < maxConcurrentRequests) {
+                PendingRequest pendingRequest = iterator.next();
+                if (tryAcquirePermit(pendingRequest.route)) {
+                    iterator.remove();
+                    granted.add(pendingRequest);
+                }
+            }
+        }
+        granted.forEach(pendingRequest -> pendingRequest.lease.complete(null));
+    }
+
+    /**
+     * Try to acquire a permit of the route. Must be called with the lock held.
+     *
+     * @param route route of the request
+     * @return {@code true} if the permit is acquired, otherwise {@code false}
+     */
+    private boolean tryAcquirePermit(String route) {
+        if (inFlightRequests >= maxConcurrentRequests) { return false; }
+        int max = maxConcurrentRequestsPerHost.getOrDefault(route, maxConcurrentRequestsPerRoute);
+        int inFlightRequestsOfRoute = inFlightRequestsPerRoute.getOrDefault(route, 0);
+        if (inFlightRequestsOfRoute >= max) { return false; }
+        inFlightRequests++;
+        inFlightRequestsPerRoute.put(route, inFlightRequestsOfRoute + 1);
+        return true;
+    }
+
+    /**
+     * Fail the pending request if it is still queued.
+     *
+     * @param pendingRequest pending request
+     */
+    private void expire(PendingRequest pendingRequest) {
+        synchronized (lock) {
+            if (!pendingRequests.remove(pendingRequest)) { return; }
+        }
+        pendingRequest.lease.completeExceptionally(new ConnectionLeaseTimeoutException(new IOException(String.format(
+                "Timeout waiting for permit of [%s] after [%s]ms.",
+                pendingRequest.route, connectionRequestTimeoutMillis))));
+    }
+
+    /**
+     * Initialize the exception for requests rejected by the closed client.
+     *
+     * @return oauth2 io exception
+     */
+    private static OAuth2IOException initClosedException() {
+        return new OAuth2IOException(new IOException("JdkHttpClientOAuth2HttpClient has been closed."));
+    }
+
+    /**
+     * Parse proxy.
+     *
+     * @param proxy proxy([SCHEME://]IP[:PORT])
+     * @return proxy address
+     */
+    private static InetSocketAddress parseProxy(String proxy) {
+        URI uri = URI.create(proxy.contains("://") ? proxy : ("http://" + proxy));
+        int port = uri.getPort();
+        if (port == -1) { port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80; }
+        return InetSocketAddress.createUnresolved(uri.getHost(), port);
+    }
+
+    /** Request waiting for permit. */
+    @RequiredArgsConstructor
+    private static class PendingRequest {
+
+        /** Route of the request. */
+        private final String route;
+        /** Future that will be completed when the permit is acquired. */
+        private final CompletableFuture<Void> lease = new CompletableFuture<>();
+
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.jdkhttpclient;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * JdkHttpClient oauth2 http response.
+ *
+ * @author wautsns
+ * @since Jul 04, 2020
+ */
+@RequiredArgsConstructor
+class JdkHttpClientOAuth2HttpResponse implements OAuth2HttpResponse {
+
+    /** Original http response. */
+    private final HttpResponse<byte[]> origin;
+
+    @Override
+    public int getStatus() {
+        return origin.statusCode();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return origin.headers().firstValue(name).orElse(null);
+    }
+
+    @Override
+    public List<String> getHeaders(String name) {
+        return new LinkedList<>(origin.headers().allValues(name));
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(origin.body());
+    }
+
+    @Override
+    public void close() {}
+
+}
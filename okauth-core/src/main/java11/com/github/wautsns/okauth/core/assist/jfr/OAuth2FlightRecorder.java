@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.jfr;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import lombok.experimental.UtilityClass;
+
+/**
+ * OAuth2 flight recorder, which emits Java Flight Recorder events of okauth.
+ *
+ * <p>This is the Java 11 version of the multi-release class.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@UtilityClass
+public class OAuth2FlightRecorder {
+
+    /** Outcome of succeeded events. */
+    private static final String SUCCESS = "SUCCESS";
+
+    /**
+     * Whether events can be emitted by the current JVM.
+     *
+     * @return {@code true}
+     */
+    public static boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Begin recording a call of the API.
+     *
+     * @param openPlatform open platform
+     * @param api API
+     * @return event, or {@code NONE} if the event is disabled
+     */
+    public static OAuth2FlightRecording beginApiCall(String openPlatform, OAuth2Api api) {
+        ApiCallEvent event = new ApiCallEvent();
+        if (!event.isEnabled()) { return OAuth2FlightRecording.NONE; }
+        event.openPlatform = openPlatform;
+        event.api = api.getApiName();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begin recording an execution of the oauth2 http request.
+     *
+     * @param openPlatform open platform
+     * @param request oauth2 http request
+     * @return event, or {@code NONE} if the event is disabled
+     */
+    public static OAuth2FlightRecording beginHttpExchange(String openPlatform, OAuth2HttpRequest request) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        if (!event.isEnabled()) { return OAuth2FlightRecording.NONE; }
+        event.openPlatform = openPlatform;
+        event.requestName = request.getName();
+        event.method = request.getMethod().name();
+        event.url = request.getUrl().getPureUrl();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begin recording getting token.
+     *
+     * @param openPlatform open platform
+     * @return event, or {@code NONE} if the event is disabled
+     */
+    public static OAuth2FlightRecording beginTokenFetch(String openPlatform) {
+        TokenFetchEvent event = new TokenFetchEvent();
+        if (!event.isEnabled()) { return OAuth2FlightRecording.NONE; }
+        event.openPlatform = openPlatform;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Get outcome of the event.
+     *
+     * @param error exception if failed, otherwise {@code null}
+     * @return {@code SUCCESS} if succeeded, otherwise simple name of the exception class
+     */
+    private static String outcome(Throwable error) {
+        return (error == null) ? SUCCESS : error.getClass().getSimpleName();
+    }
+
+    // #################### events ######################################################
+
+    /** Event of a call of public APIs of oauth2 clients. */
+    @Name("okauth.ApiCall")
+    @Label("OAuth2 API Call")
+    @Category("OkAuth")
+    @StackTrace(false)
+    static class ApiCallEvent extends Event implements OAuth2FlightRecording {
+
+        @Label("Open Platform")
+        String openPlatform;
+        @Label("API")
+        String api;
+        @Label("Outcome")
+        @Description("SUCCESS, or simple name of the exception class")
+        String outcome;
+
+        @Override
+        public void finish(Throwable error) {
+            end();
+            if (!shouldCommit()) { return; }
+            outcome = outcome(error);
+            commit();
+        }
+
+    }
+
+    /** Event of an execution of oauth2 http request, until the response is received. */
+    @Name("okauth.HttpExchange")
+    @Label("OAuth2 HTTP Exchange")
+    @Category("OkAuth")
+    @StackTrace(false)
+    static class HttpExchangeEvent extends Event implements OAuth2FlightRecording {
+
+        @Label("Open Platform")
+        String openPlatform;
+        @Label("Request Name")
+        String requestName;
+        @Label("Method")
+        String method;
+        @Label("URL")
+        @Description("URL without query")
+        String url;
+        @Label("Status")
+        int status;
+        @Label("Response Bytes")
+        @Description("Content length of the response, or -1 if unknown")
+        @DataAmount
+        long bytes = -1;
+        @Label("Outcome")
+        @Description("SUCCESS, or simple name of the exception class")
+        String outcome;
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void finish(Throwable error) {
+            end();
+            if (!shouldCommit()) { return; }
+            outcome = outcome(error);
+            commit();
+        }
+
+    }
+
+    /** Event of getting token of wechat work corp, including waiting for another thread that is fetching it. */
+    @Name("okauth.TokenFetch")
+    @Label("OAuth2 Token Fetch")
+    @Category("OkAuth")
+    @StackTrace(false)
+    static class TokenFetchEvent extends Event implements OAuth2FlightRecording {
+
+        @Label("Open Platform")
+        String openPlatform;
+        @Label("Cache Hit")
+        boolean cacheHit;
+        @Label("Semaphore Wait")
+        @Description("Time spent waiting for another thread that is fetching the token")
+        @Timespan
+        long semaphoreWait;
+        @Label("Outcome")
+        @Description("SUCCESS, or simple name of the exception class")
+        String outcome;
+
+        @Override
+        public void setCacheHit(boolean cacheHit) {
+            this.cacheHit = cacheHit;
+        }
+
+        @Override
+        public void addWaitNanos(long waitNanos) {
+            this.semaphoreWait += waitNanos;
+        }
+
+        @Override
+        public void finish(Throwable error) {
+            end();
+            if (!shouldCommit()) { return; }
+            outcome = outcome(error);
+            commit();
+        }
+
+    }
+
+}
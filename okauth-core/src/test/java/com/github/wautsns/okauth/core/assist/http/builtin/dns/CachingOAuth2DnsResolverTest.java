@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.dns;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link CachingOAuth2DnsResolver}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class CachingOAuth2DnsResolverTest {
+
+    private static final String HOST = "api.example.com";
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final List<Runnable> refreshTasks = new CopyOnWriteArrayList<>();
+    private volatile InetAddress[] addresses;
+    private volatile boolean failing;
+    private final OAuth2DnsResolver delegate = host -> {
+        lookups.incrementAndGet();
+        if (failing) { throw new UnknownHostException(host); }
+        return addresses;
+    };
+
+    @BeforeEach
+    void init() throws UnknownHostException {
+        addresses = address(1);
+    }
+
+    @Test
+    void cachedAddressesAreServedWithinTtl() throws UnknownHostException {
+        CachingOAuth2DnsResolver resolver = initResolver(Duration.ofMinutes(1), Duration.ZERO);
+
+        assertArrayEquals(address(1), resolver.resolve(HOST));
+        assertArrayEquals(address(1), resolver.resolve(HOST.toUpperCase()));
+        assertEquals(1, lookups.get());
+        assertEquals(1L, resolver.getMetrics().getHits());
+        assertEquals(1L, resolver.getMetrics().getMisses());
+        assertEquals(1, resolver.getMetrics().getCachedHosts());
+    }
+
+    @Test
+    void addressesAreRefreshedAheadInBackground() throws Exception {
+        CachingOAuth2DnsResolver resolver = new CachingOAuth2DnsResolver(
+                new CachingOAuth2DnsResolver.CacheProperties()
+                        .setTtl(Duration.ofSeconds(5))
+                        .setRefreshAheadFactor(0.01),
+                delegate, refreshTasks::add);
+        resolver.resolve(HOST);
+        Thread.sleep(60);
+        addresses = address(2);
+
+        assertArrayEquals(address(1), resolver.resolve(HOST));
+        assertEquals(1, lookups.get());
+        // Only one refresh is scheduled at a time.
+        resolver.resolve(HOST);
+        assertEquals(1, refreshTasks.size());
+
+        refreshTasks.remove(0).run();
+        assertEquals(2, lookups.get());
+        assertEquals(1L, resolver.getMetrics().getRefreshes());
+        assertArrayEquals(address(2), resolver.resolve(HOST));
+    }
+
+    @Test
+    void expiredAddressesAreServedImmediatelyWhileRefreshing() throws Exception {
+        CachingOAuth2DnsResolver resolver = initResolver(Duration.ofMillis(20), Duration.ofMinutes(10));
+        resolver.resolve(HOST);
+        Thread.sleep(40);
+        failing = true;
+
+        assertArrayEquals(address(1), resolver.resolve(HOST));
+        assertEquals(1, lookups.get());
+        assertEquals(1L, resolver.getMetrics().getStaleHits());
+        assertEquals(1, refreshTasks.size());
+
+        refreshTasks.remove(0).run();
+        assertEquals(1L, resolver.getMetrics().getRefreshFailures());
+        // The failed refresh will be retried by the next lookup.
+        assertArrayEquals(address(1), resolver.resolve(HOST));
+        assertEquals(1, refreshTasks.size());
+
+        failing = false;
+        addresses = address(2);
+        refreshTasks.remove(0).run();
+        assertArrayEquals(address(2), resolver.resolve(HOST));
+    }
+
+    @Test
+    void addressesExpiredBeyondMaxStaleAreResolvedOnCallerThread() throws Exception {
+        CachingOAuth2DnsResolver resolver = initResolver(Duration.ofMillis(20), Duration.ZERO);
+        resolver.resolve(HOST);
+        Thread.sleep(40);
+        failing = true;
+
+        assertThrows(UnknownHostException.class, () -> resolver.resolve(HOST));
+        assertEquals(2, lookups.get());
+        assertEquals(2L, resolver.getMetrics().getMisses());
+        assertEquals(Collections.emptyList(), refreshTasks);
+    }
+
+    @Test
+    void nullPropertiesAreFilledWithDefaults() throws UnknownHostException {
+        CachingOAuth2DnsResolver partial = new CachingOAuth2DnsResolver(
+                new CachingOAuth2DnsResolver.CacheProperties().setMaxStale(Duration.ZERO), delegate, Runnable::run);
+        CachingOAuth2DnsResolver absent = new CachingOAuth2DnsResolver(null, delegate, Runnable::run);
+
+        assertArrayEquals(address(1), partial.resolve(HOST));
+        assertArrayEquals(address(1), partial.resolve(HOST));
+        assertArrayEquals(address(1), absent.resolve(HOST));
+        assertEquals(2, lookups.get());
+    }
+
+    // #################### utils #######################################################
+
+    private CachingOAuth2DnsResolver initResolver(Duration ttl, Duration maxStale) {
+        return new CachingOAuth2DnsResolver(
+                new CachingOAuth2DnsResolver.CacheProperties()
+                        .setTtl(ttl)
+                        .setRefreshAheadFactor(1D)
+                        .setMaxStale(maxStale),
+                delegate, refreshTasks::add);
+    }
+
+    private static InetAddress[] address(int last) throws UnknownHostException {
+        return new InetAddress[]{InetAddress.getByAddress(HOST, new byte[]{10, 0, 0, (byte) last})};
+    }
+
+}
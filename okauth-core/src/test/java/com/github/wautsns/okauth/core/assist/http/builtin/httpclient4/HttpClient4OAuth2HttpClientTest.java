@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.builtin.httpclient4;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of warm-up of {@link HttpClient4OAuth2HttpClient}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class HttpClient4OAuth2HttpClientTest {
+
+    private final List<Socket> accepted = new CopyOnWriteArrayList<>();
+    private ServerSocket server;
+    private HttpRoute route;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        route = new HttpRoute(new HttpHost("127.0.0.1", server.getLocalPort(), "http"));
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) { accepted.add(server.accept()); }
+            } catch (IOException ignored) {
+                // The server is closed.
+            }
+        }, "acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+        for (Socket socket : accepted) { socket.close(); }
+    }
+
+    @Test
+    void warmUpIsLimitedToMaxConnectionsOfTheRoute() throws Exception {
+        try (HttpClient4OAuth2HttpClient httpClient = new HttpClient4OAuth2HttpClient(initProps()
+                .setMaxConcurrentRequestsPerRoute(2))) {
+            httpClient.warmUp(Collections.singletonList(host()), 5).get(5, TimeUnit.SECONDS);
+
+            assertEquals(2, httpClient.getConnectionManager().getStats(route).getAvailable());
+            assertEquals(0, httpClient.getConnectionManager().getStats(route).getLeased());
+        }
+    }
+
+    @Test
+    void warmUpStopsIfThePoolIsBusy() throws Exception {
+        try (HttpClient4OAuth2HttpClient httpClient = new HttpClient4OAuth2HttpClient(initProps()
+                .setMaxConcurrentRequestsPerRoute(2))) {
+            // Live traffic holds one of the two connections of the route.
+            HttpClientConnection connection = httpClient.getConnectionManager()
+                    .requestConnection(route, null)
+                    .get(1, TimeUnit.SECONDS);
+
+            httpClient.warmUp(Collections.singletonList(host()), 2).get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, httpClient.getConnectionManager().getStats(route).getAvailable());
+            assertEquals(1, httpClient.getConnectionManager().getStats(route).getLeased());
+            httpClient.getConnectionManager().releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // #################### utils #######################################################
+
+    private String host() {
+        return "http://127.0.0.1:" + server.getLocalPort();
+    }
+
+    /** Initialize properties whose connection request timeout is infinite. */
+    private static OAuth2HttpClientProperties initProps() {
+        return OAuth2HttpClientProperties.initDefault()
+                .setConnectTimeout(Duration.ofMillis(200))
+                .setPoolSnapshotInterval(null);
+    }
+
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.circuitbreaker;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2CircuitBreakerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2CircuitBreaker}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    void staysClosedUntilMinimumNumberOfCalls() {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(10, 4, Duration.ofHours(1)));
+        for (int i = 0; i < 3; i++) { call(circuitBreaker, FAST, true); }
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        call(circuitBreaker, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failureRateBelowThresholdKeepsClosed() {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(10, 4, Duration.ofHours(1)));
+        for (int i = 0; i < 20; i++) { call(circuitBreaker, FAST, i % 3 == 1); }
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void slidingWindowEvictsOldestOutcomes() {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(4, 4, Duration.ofHours(1)));
+        call(circuitBreaker, FAST, true);
+        call(circuitBreaker, FAST, false);
+        call(circuitBreaker, FAST, false);
+        call(circuitBreaker, FAST, false);
+        // window: [F, S, S, S] -> [S, S, S, S]
+        call(circuitBreaker, FAST, false);
+        // window: [S, S, S, F]
+        call(circuitBreaker, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        // window: [S, S, F, F], failure rate reaches 0.5
+        call(circuitBreaker, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void slowCallsOpenTheCircuitBreaker() {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(4, 4, Duration.ofHours(1)));
+        call(circuitBreaker, FAST, false);
+        for (int i = 0; i < 2; i++) { call(circuitBreaker, SLOW, false); }
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        // slow call rate reaches 0.75
+        call(circuitBreaker, SLOW, false);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void openRejectsUntilWaitDurationElapsed() throws InterruptedException {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(2, 2, Duration.ofMillis(200)));
+        call(circuitBreaker, FAST, true);
+        call(circuitBreaker, FAST, true);
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        Thread.sleep(300);
+        assertTrue(circuitBreaker.tryAcquirePermission() >= 0L);
+        assertEquals(OAuth2CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void halfOpenPermitsLimitedProbeCalls() {
+        OAuth2CircuitBreaker circuitBreaker = open(initProps(2, 2, Duration.ZERO));
+        acquireProbePermits(circuitBreaker);
+        assertEquals(OAuth2CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void successfulProbeCallsCloseAndResetTheWindow() {
+        OAuth2CircuitBreaker circuitBreaker = open(initProps(4, 4, Duration.ZERO));
+        long[] permits = acquireProbePermits(circuitBreaker);
+        circuitBreaker.onResult(permits[0], FAST, true);
+        circuitBreaker.onResult(permits[1], FAST, false);
+        assertEquals(OAuth2CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onResult(permits[2], FAST, false);
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // Failures before closing are forgotten.
+        for (int i = 0; i < 3; i++) { call(circuitBreaker, FAST, true); }
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        call(circuitBreaker, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void failedProbeCallsReopen() {
+        OAuth2CircuitBreaker circuitBreaker = open(initProps(4, 4, Duration.ZERO));
+        long[] permits = acquireProbePermits(circuitBreaker);
+        circuitBreaker.onResult(permits[0], FAST, true);
+        circuitBreaker.onResult(permits[1], FAST, false);
+        circuitBreaker.onResult(permits[2], FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void slowProbeCallsReopen() {
+        OAuth2CircuitBreaker circuitBreaker = open(initProps(4, 4, Duration.ZERO));
+        long[] permits = acquireProbePermits(circuitBreaker);
+        circuitBreaker.onResult(permits[0], SLOW, false);
+        circuitBreaker.onResult(permits[1], SLOW, false);
+        circuitBreaker.onResult(permits[2], FAST, false);
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        OAuth2CircuitBreaker reopened = open(initProps(4, 4, Duration.ZERO));
+        for (long permit : acquireProbePermits(reopened)) { reopened.onResult(permit, SLOW, false); }
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, reopened.getState());
+    }
+
+    @Test
+    void releasedProbePermissionCanBeAcquiredAgain() {
+        OAuth2CircuitBreaker circuitBreaker = open(initProps(2, 2, Duration.ZERO));
+        long[] permits = acquireProbePermits(circuitBreaker);
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.releasePermission(permits[0]);
+        assertTrue(circuitBreaker.tryAcquirePermission() >= 0L);
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void outcomesOfCallsPermittedBeforeOpeningAreIgnored() {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(2, 2, Duration.ofHours(1)));
+        long[] inFlight = {circuitBreaker.tryAcquirePermission(), circuitBreaker.tryAcquirePermission()};
+        call(circuitBreaker, FAST, true);
+        call(circuitBreaker, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onResult(inFlight[0], FAST, false);
+        circuitBreaker.releasePermission(inFlight[1]);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void inFlightClosedCallsCompletingDuringHalfOpenAreNotProbes() {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", initProps(2, 2, Duration.ZERO));
+        // Calls permitted while closed, which are still in flight when the circuit breaker opens.
+        long[] inFlight = new long[4];
+        for (int i = 0; i < inFlight.length; i++) { inFlight[i] = circuitBreaker.tryAcquirePermission(); }
+        call(circuitBreaker, FAST, true);
+        call(circuitBreaker, FAST, true);
+        long[] probes = acquireProbePermits(circuitBreaker);
+        assertEquals(OAuth2CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        // Stale successes neither close the circuit breaker, nor free probe permits by releasing.
+        for (int i = 0; i < 3; i++) { circuitBreaker.onResult(inFlight[i], FAST, false); }
+        circuitBreaker.releasePermission(inFlight[3]);
+        assertEquals(OAuth2CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(-1L, circuitBreaker.tryAcquirePermission());
+
+        // Only probes decide.
+        for (long probe : probes) { circuitBreaker.onResult(probe, FAST, true); }
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void probesCompletingAfterReopeningAreIgnored() {
+        OAuth2CircuitBreaker circuitBreaker = open(initProps(2, 2, Duration.ZERO));
+        long[] first = acquireProbePermits(circuitBreaker);
+        for (long probe : first) { circuitBreaker.onResult(probe, FAST, true); }
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        long[] second = acquireProbePermits(circuitBreaker);
+        // Results of the first round(e.g. reported twice) do not count in the second round.
+        for (long probe : first) { circuitBreaker.onResult(probe, FAST, true); }
+        assertEquals(OAuth2CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        for (long probe : second) { circuitBreaker.onResult(probe, FAST, false); }
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void nullOrPartialPropertiesAreFilledWithDefaults() {
+        OAuth2CircuitBreaker withNull = new OAuth2CircuitBreaker("null", null);
+        OAuth2CircuitBreaker partial = new OAuth2CircuitBreaker(
+                "partial", new OAuth2CircuitBreakerProperties().setMinimumNumberOfCalls(2));
+
+        for (int i = 0; i < 9; i++) { call(withNull, FAST, true); }
+        assertEquals(OAuth2CircuitBreaker.State.CLOSED, withNull.getState());
+        call(withNull, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, withNull.getState());
+
+        call(partial, FAST, true);
+        call(partial, FAST, true);
+        assertEquals(OAuth2CircuitBreaker.State.OPEN, partial.getState());
+    }
+
+    // #################### utils #######################################################
+
+    /**
+     * Initialize properties: failure rate threshold is 0.5, slow call threshold is 1s and rate is 0.75, 3 probe calls
+     * are permitted in half open state.
+     */
+    private static OAuth2CircuitBreakerProperties initProps(
+            int slidingWindowSize, int minimumNumberOfCalls, Duration waitDurationInOpenState) {
+        return new OAuth2CircuitBreakerProperties()
+                .setSlidingWindowSize(slidingWindowSize)
+                .setMinimumNumberOfCalls(minimumNumberOfCalls)
+                .setFailureRateThreshold(0.5)
+                .setSlowCallDurationThreshold(Duration.ofSeconds(1))
+                .setSlowCallRateThreshold(0.75)
+                .setWaitDurationInOpenState(waitDurationInOpenState)
+                .setPermittedNumberOfCallsInHalfOpenState(3);
+    }
+
+    private static OAuth2CircuitBreaker open(OAuth2CircuitBreakerProperties props) {
+        OAuth2CircuitBreaker circuitBreaker = new OAuth2CircuitBreaker("test", props);
+        while (circuitBreaker.getState() == OAuth2CircuitBreaker.State.CLOSED) { call(circuitBreaker, FAST, true); }
+        return circuitBreaker;
+    }
+
+    /** Acquire all 3 probe permits. */
+    private static long[] acquireProbePermits(OAuth2CircuitBreaker circuitBreaker) {
+        long[] permits = new long[3];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = circuitBreaker.tryAcquirePermission();
+            assertTrue(permits[i] >= 0L);
+        }
+        return permits;
+    }
+
+    private static void call(OAuth2CircuitBreaker circuitBreaker, long durationNanos, boolean failed) {
+        long permit = circuitBreaker.tryAcquirePermission();
+        assertTrue(permit >= 0L);
+        circuitBreaker.onResult(permit, durationNanos, failed);
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2ConcurrencyLimitProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link ConcurrencyLimitOAuth2HttpClient}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class ConcurrencyLimitOAuth2HttpClientTest {
+
+    private static final String URL = "https://example.com/api/user";
+
+    private OAuth2IOException failure;
+
+    private final OAuth2HttpClient delegate = new OAuth2HttpClient() {
+        @Override
+        public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+            throw failure;
+        }
+
+        @Override
+        public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+            return FutureUtils.failed(failure);
+        }
+    };
+
+    @Test
+    void deadlineExceededInDelegateIsNotDropped() {
+        ConcurrencyLimitOAuth2HttpClient httpClient =
+                new ConcurrencyLimitOAuth2HttpClient("test", delegate, initProps());
+
+        failure = new DeadlineExceededException();
+        for (int i = 0; i < 5; i++) {
+            assertThrows(DeadlineExceededException.class, () -> httpClient.execute(OAuth2HttpRequest.initGet(URL)));
+            assertThrows(DeadlineExceededException.class,
+                    () -> FutureUtils.join(httpClient.executeAsync(OAuth2HttpRequest.initGet(URL))));
+        }
+        assertEquals(16, getLimiter(httpClient).getLimit());
+        assertEquals(0, getLimiter(httpClient).getInFlight());
+    }
+
+    @Test
+    void ioExceptionInDelegateIsDropped() {
+        ConcurrencyLimitOAuth2HttpClient httpClient =
+                new ConcurrencyLimitOAuth2HttpClient("test", delegate, initProps());
+
+        failure = new OAuth2IOException(new IOException("connection reset"));
+        assertThrows(OAuth2IOException.class, () -> httpClient.execute(OAuth2HttpRequest.initGet(URL)));
+        assertTrue(getLimiter(httpClient).getLimit() < 16);
+        assertEquals(0, getLimiter(httpClient).getInFlight());
+    }
+
+    // #################### utils #######################################################
+
+    private static OAuth2ConcurrencyLimitProperties initProps() {
+        return new OAuth2ConcurrencyLimitProperties()
+                .setInitialLimit(16)
+                .setMinLimit(2)
+                .setMaxLimit(32)
+                .setBackoffRatio(0.5)
+                .setProbeInterval(1000);
+    }
+
+    private static OAuth2ConcurrencyLimiter getLimiter(ConcurrencyLimitOAuth2HttpClient httpClient) {
+        return httpClient.getConcurrencyLimiters().get("https://example.com");
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2ConcurrencyLimiter}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2ConcurrencyLimiterTest {
+
+    private static final long NO_LOAD_RTT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void initialLimitIsClamped() {
+        assertEquals(32, new OAuth2ConcurrencyLimiter("test", initProps(100, 0.9, 1000)).getLimit());
+        assertEquals(2, new OAuth2ConcurrencyLimiter("test", initProps(1, 0.9, 1000)).getLimit());
+    }
+
+    @Test
+    void requestsExceedingTheLimitAreRejected() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(3, 0.9, 1000));
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(3, limiter.tryAcquire());
+        assertEquals(-1, limiter.tryAcquire());
+        assertEquals(3, limiter.getInFlight());
+
+        limiter.release();
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(3, limiter.tryAcquire());
+    }
+
+    @Test
+    void droppedRequestsBackOff() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(16, 0.5, 1000));
+        sample(limiter, NO_LOAD_RTT, true);
+        assertEquals(8, limiter.getLimit());
+        sample(limiter, NO_LOAD_RTT, true);
+        assertEquals(4, limiter.getLimit());
+        sample(limiter, NO_LOAD_RTT, true);
+        sample(limiter, NO_LOAD_RTT, true);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void firstSampleOnlyMeasuresNoLoadRtt() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(10, 0.9, 1000));
+        sample(limiter, NO_LOAD_RTT * 10, false);
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void limitGrowsWhileRttStaysLow() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(10, 0.9, 1000));
+        sample(limiter, NO_LOAD_RTT, false);
+        // queue size is 0, so the limit grows by 6 * log10(10)
+        limiter.tryAcquire();
+        limiter.onSample(NO_LOAD_RTT, 10, false);
+        assertEquals(16, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onSample(NO_LOAD_RTT, limiter.getLimit(), false);
+        }
+        assertEquals(32, limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksWhileRttRises() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(20, 0.9, 1000));
+        sample(limiter, NO_LOAD_RTT, false);
+        // queue size is ceil(20 * 0.9) = 18 > 6 * log10(20), so the limit shrinks by log10(20)
+        limiter.tryAcquire();
+        limiter.onSample(NO_LOAD_RTT * 10, 20, false);
+        assertEquals(18, limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onSample(NO_LOAD_RTT * 10, limiter.getLimit(), false);
+        }
+        // Settles where the queue size ceil(limit * 0.9) is no longer greater than 6 * max(1, log10(limit)).
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    void moderateQueueKeepsTheLimit() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(20, 0.9, 1000));
+        sample(limiter, NO_LOAD_RTT, false);
+        // queue size is ceil(20 * 0.2) = 4, which is in [3 * log10(20), 6 * log10(20)]
+        limiter.tryAcquire();
+        limiter.onSample(NO_LOAD_RTT * 5 / 4, 20, false);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void samplesOfUnsaturatedLimitAreIgnored() {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(20, 0.9, 1000));
+        sample(limiter, NO_LOAD_RTT, false);
+        limiter.tryAcquire();
+        limiter.onSample(NO_LOAD_RTT * 10, 9, false);
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void noLoadRttIsProbedAgain() {
+        // Probe interval 1 resets the no-load rtt before every sample, so slow samples are regarded as no-load rtt.
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(20, 0.9, 1));
+        sample(limiter, NO_LOAD_RTT, false);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onSample(NO_LOAD_RTT * 10, 20, false);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void inFlightNeverExceedsTheLimit() throws InterruptedException {
+        OAuth2ConcurrencyLimiter limiter = new OAuth2ConcurrencyLimiter("test", initProps(4, 0.9, 1000));
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 10_000; i++) {
+                    int inFlight = limiter.tryAcquire();
+                    if (inFlight < 0) { continue; }
+                    acquired.incrementAndGet();
+                    maxInFlight.accumulateAndGet(inFlight, Math::max);
+                    limiter.release();
+                }
+            }));
+        }
+        start.countDown();
+        futures.forEach(CompletableFuture::join);
+
+        assertTrue(acquired.get() > 0);
+        assertTrue(maxInFlight.get() <= 4, String.valueOf(maxInFlight.get()));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    // #################### utils #######################################################
+
+    /** Initialize properties: min limit is 2 and max limit is 32. */
+    private static OAuth2ConcurrencyLimitProperties initProps(int initialLimit, double backoffRatio, int probeInterval) {
+        return new OAuth2ConcurrencyLimitProperties()
+                .setInitialLimit(initialLimit)
+                .setMinLimit(2)
+                .setMaxLimit(32)
+                .setBackoffRatio(backoffRatio)
+                .setProbeInterval(probeInterval);
+    }
+
+    private static void sample(OAuth2ConcurrencyLimiter limiter, long rttNanos, boolean dropped) {
+        int inFlight = limiter.tryAcquire();
+        assertTrue(inFlight > 0);
+        limiter.onSample(rttNanos, inFlight, dropped);
+    }
+
+}
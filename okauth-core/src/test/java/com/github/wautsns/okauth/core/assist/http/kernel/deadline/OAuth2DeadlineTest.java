@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.deadline;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2Deadline}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2DeadlineTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void remainingTimeAndExpiration() {
+        OAuth2Deadline deadline = OAuth2Deadline.after(Duration.ofSeconds(10));
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingNanos() > Duration.ofSeconds(9).toNanos());
+        assertTrue(deadline.remaining().compareTo(Duration.ofSeconds(10)) <= 0);
+
+        OAuth2Deadline expired = OAuth2Deadline.after(Duration.ofMillis(-1));
+        assertTrue(expired.isExpired());
+        assertTrue(expired.remainingNanos() < 0L);
+        assertEquals(Duration.ZERO, expired.remaining());
+    }
+
+    @Test
+    void shrinkTimeoutToRemainingTime() {
+        OAuth2Deadline deadline = OAuth2Deadline.after(Duration.ofSeconds(10));
+        assertEquals(3000, deadline.shrink(3000));
+        assertWithin(9000, 10000, deadline.shrink(60000));
+        // Non-positive timeout means infinite.
+        assertWithin(9000, 10000, deadline.shrink(0));
+        assertWithin(9000, 10000, deadline.shrink(-1));
+        // Timeout is at least 1ms even if the deadline has been reached.
+        assertEquals(1, OAuth2Deadline.after(Duration.ofMillis(-1)).shrink(3000));
+        assertEquals(Integer.MAX_VALUE, OAuth2Deadline.after(Duration.ofDays(365)).shrink(0));
+    }
+
+    @Test
+    void minReturnsTheEarlierDeadline() {
+        OAuth2Deadline earlier = OAuth2Deadline.after(Duration.ofSeconds(1));
+        OAuth2Deadline later = OAuth2Deadline.after(Duration.ofSeconds(10));
+        assertSame(earlier, earlier.min(later));
+        assertSame(earlier, later.min(earlier));
+        assertSame(later, later.min(null));
+    }
+
+    @Test
+    void callBindsDeadlineToCurrentThreadWithinScope() throws OAuth2Exception {
+        OAuth2Deadline deadline = OAuth2Deadline.after(Duration.ofSeconds(10));
+        assertNull(OAuth2Deadline.current());
+        assertSame(deadline, deadline.call(OAuth2Deadline::current));
+        assertNull(OAuth2Deadline.current());
+
+        assertSame(deadline, deadline.callAsync(() -> CompletableFuture.completedFuture(OAuth2Deadline.current()))
+                .join());
+        assertNull(OAuth2Deadline.current());
+    }
+
+    @Test
+    void deadlineIsUnboundWhenCallFails() {
+        OAuth2Deadline deadline = OAuth2Deadline.after(Duration.ofSeconds(10));
+        assertThrows(DeadlineExceededException.class, () -> deadline.call(() -> {
+            throw new DeadlineExceededException();
+        }));
+        assertNull(OAuth2Deadline.current());
+        assertThrows(IllegalStateException.class, () -> deadline.callAsync(() -> {
+            throw new IllegalStateException();
+        }));
+        assertNull(OAuth2Deadline.current());
+    }
+
+    @Test
+    void nestedDeadlineNeverExtendsTheOuterOne() throws OAuth2Exception {
+        OAuth2Deadline outer = OAuth2Deadline.after(Duration.ofSeconds(1));
+        OAuth2Deadline longer = OAuth2Deadline.after(Duration.ofSeconds(10));
+        OAuth2Deadline shorter = OAuth2Deadline.after(Duration.ofMillis(500));
+
+        outer.call(() -> {
+            assertSame(outer, longer.call(OAuth2Deadline::current));
+            assertSame(shorter, shorter.call(OAuth2Deadline::current));
+            // The outer deadline is restored after the nested scope.
+            assertSame(outer, OAuth2Deadline.current());
+            return null;
+        });
+        assertNull(OAuth2Deadline.current());
+    }
+
+    @Test
+    void deadlineOfRequestTakesPrecedence() throws OAuth2Exception {
+        OAuth2Deadline bound = OAuth2Deadline.after(Duration.ofSeconds(10));
+        OAuth2Deadline own = OAuth2Deadline.after(Duration.ofSeconds(20));
+        OAuth2HttpRequest request = OAuth2HttpRequest.initGet("https://example.com/api/user");
+
+        assertNull(OAuth2Deadline.of(request));
+        assertSame(bound, bound.call(() -> OAuth2Deadline.of(request)));
+        request.setDeadline(own);
+        assertSame(own, bound.call(() -> OAuth2Deadline.of(request)));
+    }
+
+    @Test
+    void checkCurrentFailsOnlyIfBoundDeadlineHasBeenReached() {
+        assertDoesNotThrow(OAuth2Deadline::checkCurrent);
+        assertDoesNotThrow(() -> OAuth2Deadline.after(Duration.ofSeconds(10)).call(() -> {
+            OAuth2Deadline.checkCurrent();
+            return null;
+        }));
+        assertThrows(DeadlineExceededException.class, () -> OAuth2Deadline.after(Duration.ofMillis(-1)).call(() -> {
+            OAuth2Deadline.checkCurrent();
+            return null;
+        }));
+    }
+
+    @Test
+    void bindCarriesDeadlineToAnotherThread() throws OAuth2Exception {
+        Function<Object, CompletableFuture<OAuth2Deadline>> function =
+                arg -> CompletableFuture.completedFuture(OAuth2Deadline.current());
+        // Without a bound deadline, the function is returned as is.
+        assertSame(function, OAuth2Deadline.bind(function));
+
+        OAuth2Deadline deadline = OAuth2Deadline.after(Duration.ofSeconds(10));
+        CompletableFuture<OAuth2Deadline> bound = deadline.call(() -> CompletableFuture
+                .supplyAsync(() -> null, executor)
+                .thenComposeAsync(OAuth2Deadline.bind(function), executor));
+        CompletableFuture<OAuth2Deadline> unbound = deadline.call(() -> CompletableFuture
+                .supplyAsync(() -> null, executor)
+                .thenComposeAsync(function, executor));
+        assertSame(deadline, bound.join());
+        assertNull(unbound.join());
+        // The executor thread does not keep the deadline after the bound function returns.
+        assertNull(CompletableFuture.supplyAsync(OAuth2Deadline::current, executor).join());
+    }
+
+    // #################### utils #######################################################
+
+    /** Assert the actual value is within the range. */
+    private static void assertWithin(int min, int max, int actual) {
+        assertTrue(actual >= min && actual <= max, String.valueOf(actual));
+    }
+
+}
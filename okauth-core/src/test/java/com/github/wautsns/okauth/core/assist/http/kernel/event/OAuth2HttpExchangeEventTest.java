@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.event;
+
+import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2HttpExchangeEvent}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2HttpExchangeEventTest {
+
+    @Test
+    void phaseEndsOnlyOnce() throws InterruptedException {
+        OAuth2HttpExchangeEvent event = initEvent("https://example.com/user");
+        event.endPhase(OAuth2HttpPhase.CONNECT);
+        assertEquals(-1L, event.getPhaseEndNanos(OAuth2HttpPhase.CONNECT));
+
+        event.beginPhase(OAuth2HttpPhase.CONNECT);
+        event.endPhase(OAuth2HttpPhase.CONNECT);
+        long end = event.getPhaseEndNanos(OAuth2HttpPhase.CONNECT);
+        Thread.sleep(2);
+        event.endPhase(OAuth2HttpPhase.CONNECT);
+        assertEquals(end, event.getPhaseEndNanos(OAuth2HttpPhase.CONNECT));
+
+        event.beginPhase(OAuth2HttpPhase.CONNECT);
+        assertEquals(-1L, event.getPhaseEndNanos(OAuth2HttpPhase.CONNECT));
+    }
+
+    @Test
+    void connectPhaseOfHttpClient4EndsIfTlsConnectionFails() throws IOException {
+        OAuth2HttpRequest request = OAuth2HttpRequest.initGet("https://127.0.0.1:" + closedPort() + "/user");
+        OAuth2HttpExchangeEvent event = new OAuth2HttpExchangeEvent("test", request);
+        OAuth2HttpClientProperties props = OAuth2HttpClientProperties.initDefault()
+                .setConnectTimeout(Duration.ofMillis(200))
+                .setRetryTimes(0)
+                .setPoolSnapshotInterval(null);
+        try (HttpClient4OAuth2HttpClient httpClient = new HttpClient4OAuth2HttpClient(props)) {
+            OAuth2HttpExchangeEvent previous = OAuth2HttpExchangeEvent.bind(event);
+            try {
+                assertThrows(OAuth2IOException.class, () -> httpClient.execute(request));
+            } finally {
+                OAuth2HttpExchangeEvent.restore(previous);
+            }
+        }
+
+        assertTrue(event.getPhaseStartNanos(OAuth2HttpPhase.CONNECT) >= 0L);
+        assertTrue(event.getPhaseEndNanos(OAuth2HttpPhase.CONNECT) >= 0L);
+        assertEquals(-1L, event.getPhaseStartNanos(OAuth2HttpPhase.TLS_HANDSHAKE));
+    }
+
+    // #################### utils #######################################################
+
+    private static OAuth2HttpExchangeEvent initEvent(String url) {
+        return new OAuth2HttpExchangeEvent("test", OAuth2HttpRequest.initGet(url));
+    }
+
+    /** Get a port on which nothing listens. */
+    private static int closedPort() throws IOException {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return server.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2LatencyHistogram}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2LatencyHistogramTest {
+
+    /** Sentinel which is greater than all values in tests, so percentiles are not clamped to the max. */
+    private static final long SENTINEL = 1L << 50;
+
+    @Test
+    void smallValuesAreExact() {
+        for (long value = 0; value < 2 * OAuth2LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+            assertEquals(value, highestEquivalentValueOf(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void highestEquivalentValueIsWithinRelativeError() {
+        Random random = new Random(20200708);
+        for (int i = 0; i < 10000; i++) {
+            long value = (long) Math.pow(2, random.nextDouble() * 40);
+            long highest = highestEquivalentValueOf(value);
+            assertTrue(highest >= value, value + " -> " + highest);
+            assertTrue(highest - value <= value / OAuth2LatencyHistogram.SUB_BUCKET_COUNT, value + " -> " + highest);
+        }
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        long value = 0L;
+        while (value < (1L << 40)) {
+            long highest = highestEquivalentValueOf(value);
+            assertEquals(highest, highestEquivalentValueOf(highest), String.valueOf(value));
+            long next = highestEquivalentValueOf(highest + 1);
+            assertTrue(next > highest, String.valueOf(value));
+            value = highest + 1;
+        }
+    }
+
+    @Test
+    void bucketsOfPowersOfTwo() {
+        assertEquals(65L, highestEquivalentValueOf(64L));
+        assertEquals(65L, highestEquivalentValueOf(65L));
+        assertEquals(67L, highestEquivalentValueOf(66L));
+        assertEquals(1024L + 31L, highestEquivalentValueOf(1024L));
+        assertEquals((1L << 40) + (1L << 35) - 1L, highestEquivalentValueOf(1L << 40));
+    }
+
+    @Test
+    void valuesOutOfRange() {
+        OAuth2LatencyHistogram histogram = new OAuth2LatencyHistogram();
+        histogram.record(-5L);
+        assertEquals(0L, histogram.getValueAtPercentile(100D));
+
+        histogram.record(1L << 45);
+        histogram.record(1L << 46);
+        assertEquals(1L << 46, histogram.getValueAtPercentile(100D));
+        assertEquals(1L << 46, histogram.getValueAtPercentile(60D));
+        assertEquals(0L, histogram.getValueAtPercentile(30D));
+    }
+
+    @Test
+    void emptyHistogram() {
+        OAuth2LatencyHistogram histogram = new OAuth2LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(50D));
+        assertEquals(new OAuth2LatencyHistogram.Snapshot(0L, 0L, 0L, 0L, 0L, 0L, 0L), histogram.snapshot());
+    }
+
+    @Test
+    void percentilesOfUniformValues() {
+        OAuth2LatencyHistogram histogram = new OAuth2LatencyHistogram();
+        for (long value = 1L; value <= 100_000L; value++) { histogram.record(value * 1000L); }
+
+        assertEquals(100_000L, histogram.getCount());
+        assertWithin(50_000_000L, histogram.getValueAtPercentile(50D));
+        assertWithin(90_000_000L, histogram.getValueAtPercentile(90D));
+        assertWithin(99_000_000L, histogram.getValueAtPercentile(99D));
+        assertWithin(99_900_000L, histogram.getValueAtPercentile(99.9D));
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100D));
+        assertWithin(1000L, histogram.getValueAtPercentile(0D));
+        assertEquals(histogram.getValueAtPercentile(100D), histogram.getValueAtPercentile(150D));
+    }
+
+    @Test
+    void snapshot() {
+        OAuth2LatencyHistogram histogram = new OAuth2LatencyHistogram();
+        histogram.record(10L);
+        histogram.record(20L);
+        histogram.record(30L);
+        histogram.record(1000L);
+
+        OAuth2LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(4L, snapshot.getCount());
+        assertEquals(265L, snapshot.getMean());
+        assertEquals(1000L, snapshot.getMax());
+        assertEquals(20L, snapshot.getP50());
+        assertEquals(1000L, snapshot.getP90());
+        assertEquals(1000L, snapshot.getP999());
+    }
+
+    @Test
+    void concurrentRecording() {
+        OAuth2LatencyHistogram histogram = new OAuth2LatencyHistogram();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (long value = 1L; value <= 10_000L; value++) { histogram.record(value); }
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        assertEquals(80_000L, histogram.getCount());
+        assertEquals(10_000L, histogram.snapshot().getMax());
+        assertEquals(5000L, histogram.snapshot().getMean());
+        assertWithin(5000L, histogram.getValueAtPercentile(50D));
+    }
+
+    // #################### utils #######################################################
+
+    /**
+     * Get the highest value equivalent to the value, which is the p50 of the value and a greater sentinel.
+     *
+     * @param value value
+     * @return the highest equivalent value
+     */
+    private static long highestEquivalentValueOf(long value) {
+        OAuth2LatencyHistogram histogram = new OAuth2LatencyHistogram();
+        histogram.record(value);
+        histogram.record(SENTINEL);
+        return histogram.getValueAtPercentile(50D);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / OAuth2LatencyHistogram.SUB_BUCKET_COUNT,
+                "expected " + expected + " but was " + actual);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2JsonProjection}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2JsonProjectionTest {
+
+    private static final String USER = "{"
+            + "\"id\":1,"
+            + "\"name\":\"wautsns\","
+            + "\"tags\":[\"a\",{\"b\":1}],"
+            + "\"profile\":{\"avatar\":{\"url\":\"https://example.com/a.png\",\"size\":64},\"bio\":null},"
+            + "\"extra\":{\"nested\":{\"deep\":[1,2,3]}},"
+            + "\"active\":true,"
+            + "\"score\":1.5"
+            + "}";
+
+    @Test
+    void projectTopLevelFields() throws IOException {
+        DataMap projected = project(OAuth2JsonProjection.of("id", "name", "active", "score", "absent"), USER);
+        DataMap full = ReadUtils.readJsonAsDataMap(USER);
+
+        assertEquals(Arrays.asList("id", "name", "active", "score"), Arrays.asList(projected.keySet().toArray()));
+        for (String name : projected.keySet()) { assertEquals(full.get(name), projected.get(name), name); }
+    }
+
+    @Test
+    void projectNestedFieldsWithTheSameStructure() throws IOException {
+        DataMap projected = project(OAuth2JsonProjection.of("profile.avatar.url", "profile.bio"), USER);
+
+        DataMap expected = new DataMap()
+                .with("profile", new DataMap()
+                        .with("avatar", new DataMap().with("url", "https://example.com/a.png"))
+                        .with("bio", null));
+        assertEquals(expected, projected);
+    }
+
+    @Test
+    void projectObjectsAndArraysAsWhole() throws IOException {
+        DataMap projected = project(OAuth2JsonProjection.of("tags", "extra"), USER);
+        DataMap full = ReadUtils.readJsonAsDataMap(USER);
+
+        assertEquals(full.get("tags"), projected.get("tags"));
+        assertEquals(full.get("extra"), projected.get("extra"));
+    }
+
+    @Test
+    void pathThroughNonObjectIsSkipped() throws IOException {
+        DataMap projected = project(OAuth2JsonProjection.of("name.first", "tags.b", "id"), USER);
+        assertEquals(new DataMap().with("id", 1), projected);
+    }
+
+    @Test
+    void readingStopsOnceAnyGroupIsFound() throws IOException {
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("openid").or("error_code", "error_msg");
+
+        assertEquals(new DataMap().with("openid", "x"), project(projection, "{\"openid\":\"x\",\"broken\":"));
+        assertEquals(new DataMap().with("error_code", 111).with("error_msg", "expired"),
+                project(projection, "{\"error_code\":111,\"ignored\":{\"a\":[1]},\"error_msg\":\"expired\",\"x\":"));
+    }
+
+    @Test
+    void readingContinuesUntilAllPathsOfAGroupAreFound() {
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("a", "b");
+        assertThrows(JsonParseException.class, () -> project(projection, "{\"a\":1,\"broken\":"));
+    }
+
+    @Test
+    void pathsSharedByGroups() throws IOException {
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("status", "data.id").or("status", "error.msg");
+        String json = "{\"status\":1,\"error\":{\"code\":3,\"msg\":\"m\"},\"data\":null}";
+
+        DataMap expected = new DataMap()
+                .with("status", 1)
+                .with("error", new DataMap().with("msg", "m"));
+        assertEquals(expected, project(projection, json));
+        assertEquals("[[status, data.id], [status, error.msg]]", projection.toString());
+    }
+
+    @Test
+    void emptyObject() throws IOException {
+        assertTrue(project(OAuth2JsonProjection.of("id"), "{}").isEmpty());
+    }
+
+    @Test
+    void rejectNonObject() {
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("id");
+        assertThrows(JsonParseException.class, () -> project(projection, "[{\"id\":1}]"));
+        assertThrows(JsonParseException.class, () -> project(projection, "\"id\""));
+    }
+
+    @Test
+    void rejectIllegalOrOverlappedPaths() {
+        assertThrows(IllegalArgumentException.class, () -> OAuth2JsonProjection.of(""));
+        assertThrows(IllegalArgumentException.class, () -> OAuth2JsonProjection.of("a..b"));
+        assertThrows(IllegalArgumentException.class, () -> OAuth2JsonProjection.of("a."));
+        assertThrows(IllegalArgumentException.class, () -> OAuth2JsonProjection.of("a", "a.b"));
+        assertThrows(IllegalArgumentException.class, () -> OAuth2JsonProjection.of("a.b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> OAuth2JsonProjection.of("a").or("a.b"));
+    }
+
+    @Test
+    void orReturnsANewProjection() throws IOException {
+        OAuth2JsonProjection projection = OAuth2JsonProjection.of("id");
+        projection.or("name");
+        assertEquals(Collections.singleton("id"), project(projection, USER).keySet());
+    }
+
+    // #################### utils #######################################################
+
+    private static DataMap project(OAuth2JsonProjection projection, String json) throws IOException {
+        return ReadUtils.readJson(json.getBytes(StandardCharsets.UTF_8), projection);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model.basic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link NameValuePairs}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class NameValuePairsTest {
+
+    @Test
+    void addSkipsNullValues() {
+        NameValuePairs pairs = new NameValuePairs()
+                .add("a", "1")
+                .add("b", null)
+                .add("c", null, "3")
+                .add("d", "4", "default")
+                .add("e", null, null);
+        assertEquals(Arrays.asList("a", "1", "c", "3", "d", "4"), pairs.getOrigin());
+        assertEquals(3, pairs.size());
+    }
+
+    @Test
+    void addAllKeepsOrderAndSkipsNullValues() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("x", "1");
+        map.put("y", null);
+        map.put("z", "3");
+        NameValuePairs pairs = new NameValuePairs().add("a", "0").addAll(map).addAll(null);
+        assertEquals(Arrays.asList("a", "0", "x", "1", "z", "3"), pairs.getOrigin());
+    }
+
+    @Test
+    void addGrowsBeyondInitialCapacity() {
+        NameValuePairs pairs = new NameValuePairs();
+        for (int i = 0; i < 100; i++) { pairs.add("n" + i, "v" + i); }
+        assertEquals(100, pairs.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("n" + i, pairs.getName(i));
+            assertEquals("v" + i, pairs.getValue(i));
+        }
+    }
+
+    @Test
+    void setReplacesAllValuesWithTheName() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1").add("b", "2").add("a", "3");
+        assertEquals(Arrays.asList("a", "x", "b", "2", "a", "x"), pairs.set("a", "x").getOrigin());
+    }
+
+    @Test
+    void setDoesNotAddAbsentName() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1");
+        assertEquals(Arrays.asList("a", "1"), pairs.set("b", "2").getOrigin());
+        assertTrue(new NameValuePairs().set("a", "1").isEmpty());
+    }
+
+    @Test
+    void removeRemovesAllPairsWithTheName() {
+        NameValuePairs pairs = new NameValuePairs()
+                .add("a", "1").add("b", "2").add("a", "3").add("c", "4").add("a", "5");
+        pairs.remove("a");
+        assertEquals(Arrays.asList("b", "2", "c", "4"), pairs.getOrigin());
+        pairs.remove("absent");
+        assertEquals(2, pairs.size());
+        pairs.remove("b");
+        pairs.remove("c");
+        assertTrue(pairs.isEmpty());
+    }
+
+    @Test
+    void addAfterRemove() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1").add("b", "2").add("c", "3");
+        pairs.remove("b");
+        pairs.add("d", "4");
+        assertEquals(Arrays.asList("a", "1", "c", "3", "d", "4"), pairs.getOrigin());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1").add("b", "2");
+        NameValuePairs copy = pairs.copy();
+        assertNotSame(pairs, copy);
+        assertEquals(pairs.getOrigin(), copy.getOrigin());
+
+        copy.set("a", "x");
+        copy.add("c", "3");
+        copy.remove("b");
+        assertEquals(Arrays.asList("a", "1", "b", "2"), pairs.getOrigin());
+        assertEquals(Arrays.asList("a", "x", "c", "3"), copy.getOrigin());
+
+        pairs.add("d", "4");
+        assertEquals(Arrays.asList("a", "x", "c", "3"), copy.getOrigin());
+    }
+
+    @Test
+    void copyOfEmptyPairs() {
+        NameValuePairs copy = new NameValuePairs().copy();
+        assertTrue(copy.isEmpty());
+        copy.add("a", "1");
+        assertEquals(Arrays.asList("a", "1"), copy.getOrigin());
+    }
+
+    @Test
+    void forEachIteratesInOrder() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1").add("b", "2").add("a", "3");
+        List<String> items = new ArrayList<>();
+        pairs.forEach((name, value) -> items.add(name + "=" + value));
+        assertEquals(Arrays.asList("a=1", "b=2", "a=3"), items);
+    }
+
+    @Test
+    void indexOutOfRange() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1");
+        assertThrows(IndexOutOfBoundsException.class, () -> pairs.getName(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> pairs.getValue(-1));
+        pairs.remove("a");
+        assertThrows(IndexOutOfBoundsException.class, () -> pairs.getName(0));
+    }
+
+    @Test
+    void originIsUnmodifiable() {
+        NameValuePairs pairs = new NameValuePairs().add("a", "1");
+        assertThrows(UnsupportedOperationException.class, () -> pairs.getOrigin().set(1, "x"));
+    }
+
+}
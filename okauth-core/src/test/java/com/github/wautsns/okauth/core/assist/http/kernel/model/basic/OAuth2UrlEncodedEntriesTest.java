@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.model.basic;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.entity.builtin.OAuth2HttpFormUrlEncodedEntity;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.WriteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of pre-encoded {@link OAuth2UrlEncodedEntries}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2UrlEncodedEntriesTest {
+
+    @Test
+    void preEncodedEntriesBehaveAsPlainEntries() {
+        OAuth2UrlEncodedEntries plain = initEntries();
+        OAuth2UrlEncodedEntries preEncoded = initEntries().preEncode();
+
+        assertEquals("client_id=id&redirect_uri=https%3A%2F%2Fexample.com%2Fcb%3Fa%3D1&scope=a+b%E4%B8%AD&empty=",
+                preEncoded.getPreEncoded());
+        assertEquals(0, preEncoded.sizeOfAppended());
+        assertEqualEntries(plain, preEncoded);
+    }
+
+    @Test
+    void entriesAddedAfterPreEncodingAreAppended() {
+        OAuth2UrlEncodedEntries plain = initEntries().addCode("c/1").addUrlEncoded("raw", "x%20y");
+        OAuth2UrlEncodedEntries preEncoded = initEntries().preEncode().addCode("c/1").addUrlEncoded("raw", "x%20y");
+
+        assertEquals(2, preEncoded.sizeOfAppended());
+        assertEquals("code", preEncoded.getAppendedName(0));
+        assertEquals("c%2F1", preEncoded.getAppendedValue(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> preEncoded.getAppendedName(2));
+        assertEqualEntries(plain, preEncoded);
+    }
+
+    @Test
+    void copiesShareThePreEncodedText() {
+        OAuth2UrlEncodedEntries template = initEntries().preEncode();
+        String text = template.getPreEncoded();
+
+        OAuth2UrlEncodedEntries copy = template.copy().addState("s");
+        assertSame(text, copy.getPreEncoded());
+        assertEqualEntries(initEntries().addState("s"), copy);
+
+        assertSame(text, template.getPreEncoded());
+        assertEqualEntries(initEntries(), template);
+    }
+
+    @Test
+    void setAndRemoveRestorePreEncodedEntriesOfTheCopyOnly() {
+        OAuth2UrlEncodedEntries template = initEntries().preEncode();
+
+        OAuth2UrlEncodedEntries set = template.copy().addCode("1");
+        set.setRedirectUri("https://other.com");
+        assertNull(set.getPreEncoded());
+        assertEqualEntries(initEntries().addCode("1").setRedirectUri("https://other.com"), set);
+
+        OAuth2UrlEncodedEntries removed = template.copy().addCode("1");
+        removed.remove("scope");
+        OAuth2UrlEncodedEntries expected = initEntries().addCode("1");
+        expected.remove("scope");
+        assertEqualEntries(expected, removed);
+
+        assertEqualEntries(initEntries(), template);
+    }
+
+    @Test
+    void accessorsRestorePreEncodedEntries() {
+        OAuth2UrlEncodedEntries preEncoded = initEntries().preEncode().addState("s");
+
+        assertEquals("redirect_uri", preEncoded.getName(1));
+        assertEquals("s", preEncoded.getValue(4));
+        assertNull(preEncoded.getPreEncoded());
+        assertEquals(5, preEncoded.sizeOfAppended());
+        assertEqualEntries(initEntries().addState("s"), preEncoded);
+    }
+
+    @Test
+    void preEncodeEmptyEntries() {
+        OAuth2UrlEncodedEntries entries = new OAuth2UrlEncodedEntries().preEncode();
+        assertNull(entries.getPreEncoded());
+        assertTrue(entries.isEmpty());
+        assertEquals(0, entries.size());
+        assertEquals("", WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(entries));
+
+        entries.addState("s");
+        assertFalse(entries.isEmpty());
+        assertEquals("state=s", WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(entries));
+    }
+
+    @Test
+    void preEncodeTwice() {
+        OAuth2UrlEncodedEntries plain = initEntries().addState("s");
+        OAuth2UrlEncodedEntries preEncoded = initEntries().preEncode().addState("s").preEncode();
+        assertEquals(0, preEncoded.sizeOfAppended());
+        assertEqualEntries(plain, preEncoded);
+    }
+
+    @Test
+    void urlWithPreEncodedQuery() {
+        OAuth2Url plain = new OAuth2Url("https://example.com/path?x=1#anchor");
+        plain.getQuery().addClientId("id").addScope("a b");
+        OAuth2Url preEncoded = new OAuth2Url("https://example.com/path?x=1#anchor");
+        preEncoded.getQuery().addClientId("id").addScope("a b").preEncode().addState("s");
+        plain.getQuery().addState("s");
+
+        assertEquals("https://example.com/path?x=1&client_id=id&scope=a+b&state=s#anchor", plain.toString());
+        assertEquals(plain.toString(), preEncoded.toString());
+    }
+
+    @Test
+    void formEntityWithPreEncodedEntries() {
+        OAuth2HttpFormUrlEncodedEntity plain = new OAuth2HttpFormUrlEncodedEntity();
+        plain.addClientId("id").addScope("中 文").addCode("c");
+        OAuth2HttpFormUrlEncodedEntity preEncoded = new OAuth2HttpFormUrlEncodedEntity();
+        preEncoded.addClientId("id").addScope("中 文").preEncode();
+        OAuth2HttpFormUrlEncodedEntity copy = preEncoded.copy();
+        copy.addCode("c");
+
+        byte[] expected = "client_id=id&scope=%E4%B8%AD+%E6%96%87&code=c".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, plain.toBytes());
+        assertArrayEquals(expected, copy.toBytes());
+        assertEquals(expected.length, copy.getContentLength());
+    }
+
+    // #################### utils #######################################################
+
+    private static OAuth2UrlEncodedEntries initEntries() {
+        return new OAuth2UrlEncodedEntries()
+                .addClientId("id")
+                .addRedirectUri("https://example.com/cb?a=1")
+                .addScope("a b中")
+                .add("empty", "");
+    }
+
+    private static void assertEqualEntries(OAuth2UrlEncodedEntries expected, OAuth2UrlEncodedEntries actual) {
+        assertEquals(WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(expected),
+                WriteUtils.writeUrlEncodedEntriesAsQueryLikeText(actual));
+        assertArrayEquals(WriteUtils.writeUrlEncodedEntriesAsQueryLikeTextBytes(expected),
+                WriteUtils.writeUrlEncodedEntriesAsQueryLikeTextBytes(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(toList(expected), toList(actual));
+        // Accessors restore pre-encoded entries, so they are checked at last.
+        assertEquals(expected.getOrigin(), actual.getOrigin());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getName(i), actual.getName(i));
+            assertEquals(expected.getValue(i), actual.getValue(i));
+        }
+    }
+
+    private static List<String> toList(OAuth2UrlEncodedEntries entries) {
+        List<String> items = new ArrayList<>();
+        entries.forEach((name, value) -> items.addAll(Arrays.asList(name, value)));
+        return items;
+    }
+
+}
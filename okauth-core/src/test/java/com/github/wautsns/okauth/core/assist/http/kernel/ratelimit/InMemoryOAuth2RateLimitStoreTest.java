@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link InMemoryOAuth2RateLimitStore}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class InMemoryOAuth2RateLimitStoreTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstIsPermittedImmediately() {
+        OAuth2RateLimitStore store = new InMemoryOAuth2RateLimitStore();
+        for (int i = 0; i < 3; i++) { assertEquals(0L, store.reserve("key", 1D, 3, 0L)); }
+        assertEquals(-1L, store.reserve("key", 1D, 3, 0L));
+    }
+
+    @Test
+    void permitsAreReservedInAdvanceWithinMaxWait() {
+        OAuth2RateLimitStore store = new InMemoryOAuth2RateLimitStore();
+        assertEquals(0L, store.reserve("key", 2D, 1, 0L));
+
+        long first = store.reserve("key", 2D, 1, SECOND);
+        assertTrue(first > 0L && first <= SECOND / 2, String.valueOf(first));
+        // The second reservation waits for the first one.
+        long second = store.reserve("key", 2D, 1, SECOND);
+        assertTrue(second > SECOND / 2 && second <= SECOND, String.valueOf(second));
+        // The third one would wait longer than max wait, and rejection reserves nothing.
+        assertEquals(-1L, store.reserve("key", 2D, 1, SECOND));
+        assertEquals(-1L, store.reserve("key", 2D, 1, SECOND));
+    }
+
+    @Test
+    void tokensAreRefilledUpToCapacity() throws InterruptedException {
+        OAuth2RateLimitStore store = new InMemoryOAuth2RateLimitStore();
+        assertEquals(0L, store.reserve("key", 100D, 2, 0L));
+        assertEquals(0L, store.reserve("key", 100D, 2, 0L));
+        assertEquals(-1L, store.reserve("key", 100D, 2, 0L));
+
+        Thread.sleep(100);
+        assertEquals(0L, store.reserve("key", 100D, 2, 0L));
+        assertEquals(0L, store.reserve("key", 100D, 2, 0L));
+        assertEquals(-1L, store.reserve("key", 100D, 2, 0L));
+    }
+
+    @Test
+    void tokenBucketsOfKeysAreIndependent() {
+        OAuth2RateLimitStore store = new InMemoryOAuth2RateLimitStore();
+        assertEquals(0L, store.reserve("a", 1D, 1, 0L));
+        assertEquals(-1L, store.reserve("a", 1D, 1, 0L));
+        assertEquals(0L, store.reserve("b", 1D, 1, 0L));
+    }
+
+}
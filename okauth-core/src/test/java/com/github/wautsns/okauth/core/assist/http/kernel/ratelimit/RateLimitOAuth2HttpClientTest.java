@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.ratelimit;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2RateLimitProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import com.github.wautsns.okauth.core.exception.specific.io.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link RateLimitOAuth2HttpClient}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class RateLimitOAuth2HttpClientTest {
+
+    private static final String TOKEN = "https://example.com/oauth/token";
+    private static final String USER = "https://example.com/api/user";
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<OAuth2Deadline> deadlines = new CopyOnWriteArrayList<>();
+    private final OAuth2HttpClient delegate = new OAuth2HttpClient() {
+        @Override
+        public OAuth2HttpResponse execute(OAuth2HttpRequest request) {
+            sent.add(request.getUrl().getPath());
+            deadlines.add(OAuth2Deadline.of(request));
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+            return CompletableFuture.completedFuture(execute(request));
+        }
+    };
+
+    @Test
+    void rejectModeRejectsBeyondBurst() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.REJECT)
+                .setPermitsPerSecond(1D)
+                .setBurstCapacity(2));
+
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> httpClient.execute(OAuth2HttpRequest.initGet(USER)));
+        assertTrue(e.getMessage().contains("test:app@/api/user"), e.getMessage());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void burstCapacityDefaultsToCeilOfPermitsPerSecond() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.REJECT)
+                .setPermitsPerSecond(1.5D));
+
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        assertThrows(RateLimitExceededException.class, () -> httpClient.execute(OAuth2HttpRequest.initGet(USER)));
+    }
+
+    @Test
+    void endpointsHaveTheirOwnLimits() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.REJECT)
+                .setEndpoints(Collections.singletonMap("/oauth/token",
+                        new OAuth2RateLimitProperties.Limit().setPermitsPerSecond(1D))));
+
+        httpClient.execute(OAuth2HttpRequest.initGet(TOKEN));
+        assertThrows(RateLimitExceededException.class, () -> httpClient.execute(OAuth2HttpRequest.initGet(TOKEN)));
+        // Endpoints not specified are not limited without default permits per second.
+        for (int i = 0; i < 10; i++) { httpClient.execute(OAuth2HttpRequest.initGet(USER)); }
+        assertEquals(11, sent.size());
+    }
+
+    @Test
+    void appsSharingTheStoreHaveTheirOwnBuckets() throws OAuth2Exception {
+        OAuth2RateLimitProperties props = initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.REJECT)
+                .setPermitsPerSecond(1D);
+        RateLimitOAuth2HttpClient app1 = new RateLimitOAuth2HttpClient("test", "app1", delegate, props);
+        RateLimitOAuth2HttpClient app2 = new RateLimitOAuth2HttpClient("test", "app2", delegate, props);
+        RateLimitOAuth2HttpClient sameApp = new RateLimitOAuth2HttpClient("test", "app1", delegate, props);
+
+        app1.execute(OAuth2HttpRequest.initGet(USER));
+        app2.execute(OAuth2HttpRequest.initGet(USER));
+        assertThrows(RateLimitExceededException.class, () -> sameApp.execute(OAuth2HttpRequest.initGet(USER)));
+    }
+
+    @Test
+    void bucketsAreKeyedByPathLikeEndpointLimits() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.REJECT)
+                .setEndpoints(Collections.singletonMap("/oauth/token",
+                        new OAuth2RateLimitProperties.Limit().setPermitsPerSecond(1D))));
+
+        httpClient.execute(OAuth2HttpRequest.initGet(TOKEN + "?code=a"));
+        // The same endpoint with other query or host shares the bucket.
+        assertThrows(RateLimitExceededException.class,
+                () -> httpClient.execute(OAuth2HttpRequest.initGet(TOKEN + "?code=b")));
+        assertThrows(RateLimitExceededException.class,
+                () -> httpClient.execute(OAuth2HttpRequest.initGet("https://backup.example.com/oauth/token")));
+    }
+
+    @Test
+    void waitModeDelaysRequests() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.WAIT)
+                .setTimeout(Duration.ofSeconds(1))
+                .setPermitsPerSecond(10D)
+                .setBurstCapacity(1));
+
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        long start = System.nanoTime();
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(80));
+
+        start = System.nanoTime();
+        FutureUtils.join(httpClient.executeAsync(OAuth2HttpRequest.initGet(USER)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(80));
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    void asyncWaitDoesNotBlockTheCaller() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.WAIT)
+                .setTimeout(Duration.ofSeconds(1))
+                .setPermitsPerSecond(5D)
+                .setBurstCapacity(1));
+
+        FutureUtils.join(httpClient.executeAsync(OAuth2HttpRequest.initGet(USER)));
+        long start = System.nanoTime();
+        CompletableFuture<OAuth2HttpResponse> future = httpClient.executeAsync(OAuth2HttpRequest.initGet(USER));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        assertFalse(future.isDone());
+        FutureUtils.join(future);
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void delayedAsyncRequestCarriesTheDeadlineWithoutModifyingTheRequest() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.WAIT)
+                .setTimeout(Duration.ofSeconds(1))
+                .setPermitsPerSecond(10D)
+                .setBurstCapacity(1));
+        OAuth2Deadline deadline = OAuth2Deadline.after(Duration.ofSeconds(10));
+        OAuth2HttpRequest request = OAuth2HttpRequest.initGet(USER);
+
+        FutureUtils.join(deadline.callAsync(() -> httpClient.executeAsync(request)));
+        FutureUtils.join(deadline.callAsync(() -> httpClient.executeAsync(request)));
+
+        assertEquals(2, sent.size());
+        assertSame(deadline, deadlines.get(1));
+        assertNull(request.getDeadline());
+    }
+
+    @Test
+    void waitIsBoundedByTimeoutAndDeadline() throws OAuth2Exception {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.WAIT)
+                .setTimeout(Duration.ofMillis(100))
+                .setPermitsPerSecond(1D)
+                .setBurstCapacity(1));
+        httpClient.execute(OAuth2HttpRequest.initGet(USER));
+        assertThrows(RateLimitExceededException.class, () -> httpClient.execute(OAuth2HttpRequest.initGet(USER)));
+
+        RateLimitOAuth2HttpClient withDeadline = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.WAIT)
+                .setTimeout(Duration.ofSeconds(10))
+                .setPermitsPerSecond(1D)
+                .setBurstCapacity(1));
+        withDeadline.execute(OAuth2HttpRequest.initGet(USER));
+        assertThrows(RateLimitExceededException.class, () -> OAuth2Deadline.after(Duration.ofMillis(100))
+                .call(() -> withDeadline.execute(OAuth2HttpRequest.initGet(USER))));
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void rejectedAsyncRequestFailsTheFuture() {
+        RateLimitOAuth2HttpClient httpClient = new RateLimitOAuth2HttpClient("test", "app", delegate, initProps()
+                .setMode(OAuth2RateLimitProperties.Mode.REJECT)
+                .setPermitsPerSecond(1D));
+
+        assertTrue(httpClient.executeAsync(OAuth2HttpRequest.initGet(USER)).isDone());
+        CompletableFuture<OAuth2HttpResponse> rejected = httpClient.executeAsync(OAuth2HttpRequest.initGet(USER));
+        assertThrows(RateLimitExceededException.class, () -> FutureUtils.join(rejected));
+    }
+
+    @Test
+    void nonPositivePermitsPerSecondIsIllegal() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitOAuth2HttpClient(
+                "test", "app", delegate, initProps().setPermitsPerSecond(0D)));
+    }
+
+    // #################### utils #######################################################
+
+    /** Initialize properties with a private store, so that tests do not share token buckets. */
+    private static OAuth2RateLimitProperties initProps() {
+        return new OAuth2RateLimitProperties().setStore(new InMemoryOAuth2RateLimitStore());
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.retry;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link DefaultOAuth2RetryPolicy}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class DefaultOAuth2RetryPolicyTest {
+
+    private static final OAuth2HttpRequest GET = OAuth2HttpRequest.initGet("https://example.com/user");
+    private static final OAuth2HttpRequest POST = OAuth2HttpRequest.initPost("https://example.com/token");
+
+    @Test
+    void backoffIsFullJitterBoundedByExponentialCeiling() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps()
+                .setInitialBackoff(Duration.ofMillis(100))
+                .setMaxBackoff(Duration.ofSeconds(1)));
+        long[] ceilings = {100, 200, 400, 800, 1000, 1000};
+        for (int attempts = 1; attempts <= ceilings.length; attempts++) {
+            Set<Long> delays = new HashSet<>();
+            for (int i = 0; i < 200; i++) {
+                long delay = policy.retryDelay(GET, attempts, null, ioException(new ConnectException())).toMillis();
+                assertTrue(delay >= 0 && delay <= ceilings[attempts - 1], "attempt " + attempts + ": " + delay);
+                delays.add(delay);
+            }
+            assertTrue(delays.size() > 1, "backoff should be jittered");
+        }
+        // The shift is capped, so that a large number of attempts does not overflow the ceiling.
+        long delay = policy.retryDelay(GET, 64, null, ioException(new ConnectException())).toMillis();
+        assertTrue(delay >= 0 && delay <= 1000);
+    }
+
+    @Test
+    void maxRetries() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps().setMaxRetries(2));
+
+        assertNotNull(policy.retryDelay(GET, 2, null, ioException(new ConnectException())));
+        assertNull(policy.retryDelay(GET, 3, null, ioException(new ConnectException())));
+    }
+
+    @Test
+    void retryAfterInSeconds() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps()
+                .setMaxRetryAfter(Duration.ofSeconds(3)));
+
+        assertEquals(Duration.ofSeconds(2), policy.retryDelay(GET, 1, response(503, " 2 "), null));
+        assertEquals(Duration.ofSeconds(3), policy.retryDelay(GET, 1, response(429, "3"), null));
+        assertEquals(Duration.ZERO, policy.retryDelay(GET, 1, response(503, "-5"), null));
+        // Longer than maxRetryAfter.
+        assertNull(policy.retryDelay(GET, 1, response(503, "4"), null));
+    }
+
+    @Test
+    void retryAfterInHttpDate() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps()
+                .setMaxRetryAfter(Duration.ofSeconds(3)));
+
+        long delay = policy.retryDelay(GET, 1, response(503, httpDate(2)), null).toMillis();
+        // HTTP-date has no fraction of second.
+        assertTrue(delay > 0 && delay <= 2000, String.valueOf(delay));
+        assertEquals(Duration.ZERO, policy.retryDelay(GET, 1, response(503, httpDate(-10)), null));
+        // Longer than maxRetryAfter.
+        assertNull(policy.retryDelay(GET, 1, response(503, httpDate(10)), null));
+    }
+
+    @Test
+    void backoffIsUsedIfRetryAfterIsAbsentInvalidOrIgnored() {
+        DefaultOAuth2RetryPolicy honoured = new DefaultOAuth2RetryPolicy(initProps()
+                .setMaxRetryAfter(Duration.ofSeconds(3)));
+        assertTrue(honoured.retryDelay(GET, 1, response(503, null), null).toMillis() <= 100);
+        assertTrue(honoured.retryDelay(GET, 1, response(503, "soon"), null).toMillis() <= 100);
+
+        DefaultOAuth2RetryPolicy ignored = new DefaultOAuth2RetryPolicy(initProps().setMaxRetryAfter(null));
+        assertTrue(ignored.retryDelay(GET, 1, response(503, "60"), null).toMillis() <= 100);
+    }
+
+    @Test
+    void onlyRetryableStatusesOfIdempotentRequestsAreRetried() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps());
+
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        assertNull(policy.retryDelay(GET, 1, response(500, null), null));
+        assertNull(policy.retryDelay(GET, 1, response(200, null), null));
+        assertNull(policy.retryDelay(POST, 1, response(503, null), null));
+        OAuth2HttpRequest idempotentPost = OAuth2HttpRequest.initPost("https://example.com/user").setIdempotent(true);
+        assertNotNull(policy.retryDelay(idempotentPost, 1, response(503, null), null));
+    }
+
+    @Test
+    void nonIdempotentRequestsAreRetriedOnlyIfConnectionFails() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps());
+
+        assertNotNull(policy.retryDelay(POST, 1, null, ioException(new ConnectException())));
+        assertNull(policy.retryDelay(POST, 1, null, ioException(new SocketException("Connection reset"))));
+        assertNull(policy.retryDelay(POST, 1, null, ioException(new IOException())));
+        OAuth2HttpRequest oneTimeGet = OAuth2HttpRequest.initGet("https://example.com/token").setIdempotent(false);
+        assertNull(policy.retryDelay(oneTimeGet, 1, null, ioException(new SocketException("Connection reset"))));
+
+        assertNotNull(policy.retryDelay(GET, 1, null, ioException(new SocketException("Connection reset"))));
+        assertNull(policy.retryDelay(GET, 1, null, ioException(new SocketTimeoutException())));
+    }
+
+    @Test
+    void budgetIsExhaustedAndRefilledByRequests() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps()
+                .setBudgetRatio(0.5)
+                .setBudgetCapacity(2));
+        // The budget is full initially.
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        assertNull(policy.retryDelay(GET, 1, response(503, null), null));
+
+        // Two requests deposit one token.
+        policy.onRequest(GET);
+        assertNull(policy.retryDelay(GET, 1, response(503, null), null));
+        policy.onRequest(GET);
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        assertNull(policy.retryDelay(GET, 1, response(503, null), null));
+
+        // Deposits are capped by the capacity.
+        for (int i = 0; i < 100; i++) { policy.onRequest(GET); }
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        assertNull(policy.retryDelay(GET, 1, response(503, null), null));
+    }
+
+    @Test
+    void rejectedRetriesDoNotWithdrawTokens() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps()
+                .setBudgetRatio(0.5)
+                .setBudgetCapacity(1));
+        assertNull(policy.retryDelay(GET, 1, response(500, null), null));
+        assertNull(policy.retryDelay(POST, 1, null, ioException(new IOException())));
+
+        assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+    }
+
+    @Test
+    void unlimitedBudget() {
+        DefaultOAuth2RetryPolicy policy = new DefaultOAuth2RetryPolicy(initProps()
+                .setBudgetRatio(null)
+                .setBudgetCapacity(1));
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(policy.retryDelay(GET, 1, response(503, null), null));
+        }
+    }
+
+    // #################### utils #######################################################
+
+    /** Initialize properties that allow many retries, and whose budget is unlimited. */
+    private static DefaultOAuth2RetryPolicy.RetryProperties initProps() {
+        return DefaultOAuth2RetryPolicy.RetryProperties.initDefault()
+                .setMaxRetries(100)
+                .setBudgetRatio(null);
+    }
+
+    private static OAuth2IOException ioException(IOException cause) {
+        return new OAuth2IOException(cause);
+    }
+
+    private static String httpDate(long secondsFromNow) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(secondsFromNow).withNano(0));
+    }
+
+    private static OAuth2HttpResponse response(int status, String retryAfter) {
+        return new OAuth2HttpResponse() {
+            @Override
+            public int getStatus() {
+                return status;
+            }
+
+            @Override
+            public String getHeader(String name) {
+                return "Retry-After".equals(name) ? retryAfter : null;
+            }
+
+            @Override
+            public List<String> getHeaders(String name) {
+                String value = getHeader(name);
+                return (value == null) ? Collections.emptyList() : Collections.singletonList(value);
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+}
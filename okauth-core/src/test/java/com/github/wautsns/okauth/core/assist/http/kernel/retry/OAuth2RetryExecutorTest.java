@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.retry;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link OAuth2RetryExecutor}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class OAuth2RetryExecutorTest {
+
+    @Test
+    void retriesUntilThePolicyGivesUp() throws OAuth2IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        OAuth2HttpResponse response = OAuth2RetryExecutor.execute(
+                retryTimes(2, Duration.ZERO), initRequest(), request -> response(attempts.incrementAndGet()));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3, response.getStatus());
+    }
+
+    @Test
+    void retryIsNotScheduledIfTheDelayExceedsTheDeadline() throws OAuth2IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        OAuth2HttpRequest request = initRequest().setDeadline(OAuth2Deadline.after(Duration.ofSeconds(1)));
+
+        OAuth2HttpResponse response = OAuth2RetryExecutor.execute(
+                retryTimes(1, Duration.ofSeconds(2)), request, r -> response(attempts.incrementAndGet()));
+        assertEquals(1, attempts.get());
+        assertEquals(1, response.getStatus());
+
+        OAuth2IOException exception = new OAuth2IOException(new ConnectException());
+        OAuth2IOException thrown = assertThrows(OAuth2IOException.class, () -> OAuth2RetryExecutor.execute(
+                retryTimes(1, Duration.ofSeconds(2)), request, r -> {
+                    attempts.incrementAndGet();
+                    throw exception;
+                }));
+        assertEquals(2, attempts.get());
+        assertSame(exception, thrown);
+    }
+
+    @Test
+    void retryIsScheduledIfTheDelayFitsTheDeadline() throws OAuth2IOException {
+        AtomicInteger attempts = new AtomicInteger();
+        OAuth2HttpRequest request = initRequest().setDeadline(OAuth2Deadline.after(Duration.ofSeconds(5)));
+
+        OAuth2HttpResponse response = OAuth2RetryExecutor.execute(
+                retryTimes(1, Duration.ofMillis(10)), request, r -> response(attempts.incrementAndGet()));
+
+        assertEquals(2, attempts.get());
+        assertEquals(2, response.getStatus());
+    }
+
+    @Test
+    void noAttemptIsMadeAfterTheDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        OAuth2HttpRequest request = initRequest().setDeadline(OAuth2Deadline.after(Duration.ofMillis(-1)));
+
+        assertThrows(DeadlineExceededException.class, () -> OAuth2RetryExecutor.execute(
+                retryTimes(1, Duration.ZERO), request, r -> response(attempts.incrementAndGet())));
+        assertEquals(0, attempts.get());
+    }
+
+    @Test
+    void asyncRetryIsNotScheduledIfTheDelayExceedsTheDeadline() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        OAuth2HttpRequest request = initRequest().setDeadline(OAuth2Deadline.after(Duration.ofSeconds(1)));
+
+        OAuth2HttpResponse response = OAuth2RetryExecutor.executeAsync(
+                retryTimes(1, Duration.ofSeconds(2)), request,
+                r -> CompletableFuture.completedFuture(response(attempts.incrementAndGet())))
+                .get(1, TimeUnit.SECONDS);
+        assertEquals(1, attempts.get());
+        assertEquals(1, response.getStatus());
+
+        OAuth2IOException exception = new OAuth2IOException(new ConnectException());
+        CompletableFuture<OAuth2HttpResponse> future = OAuth2RetryExecutor.executeAsync(
+                retryTimes(1, Duration.ofSeconds(2)), request, r -> {
+                    attempts.incrementAndGet();
+                    CompletableFuture<OAuth2HttpResponse> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(exception);
+                    return failed;
+                });
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        assertSame(exception, thrown.getCause());
+    }
+
+    @Test
+    void asyncRetryIsScheduledIfTheDelayFitsTheDeadline() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        OAuth2HttpRequest request = initRequest().setDeadline(OAuth2Deadline.after(Duration.ofSeconds(5)));
+        long start = System.nanoTime();
+
+        OAuth2HttpResponse response = OAuth2RetryExecutor.executeAsync(
+                retryTimes(1, Duration.ofMillis(50)), request,
+                r -> CompletableFuture.completedFuture(response(attempts.incrementAndGet())))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, attempts.get());
+        assertEquals(2, response.getStatus());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void asyncAttemptAfterTheDeadlineFails() {
+        OAuth2HttpRequest request = initRequest().setDeadline(OAuth2Deadline.after(Duration.ofMillis(-1)));
+
+        CompletableFuture<OAuth2HttpResponse> future = OAuth2RetryExecutor.executeAsync(
+                retryTimes(1, Duration.ZERO), request, r -> CompletableFuture.completedFuture(response(1)));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertTrue(thrown.getCause() instanceof DeadlineExceededException);
+    }
+
+    // #################### utils #######################################################
+
+    private static OAuth2HttpRequest initRequest() {
+        return OAuth2HttpRequest.initGet("https://example.com/user");
+    }
+
+    /** Retry policy that retries {@code times} times with the fixed delay. */
+    private static OAuth2RetryPolicy retryTimes(int times, Duration delay) {
+        return (request, attempts, response, exception) -> (attempts <= times) ? delay : null;
+    }
+
+    /** Response whose status is the number of the attempt. */
+    private static OAuth2HttpResponse response(int attempt) {
+        return new OAuth2HttpResponse() {
+            @Override
+            public int getStatus() {
+                return attempt;
+            }
+
+            @Override
+            public String getHeader(String name) {
+                return null;
+            }
+
+            @Override
+            public List<String> getHeaders(String name) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.assist.http.kernel.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of {@link PercentEncodingUtils}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class PercentEncodingUtilsTest {
+
+    private static final List<String> SAMPLES = Arrays.asList(
+            "", "abc", "AZaz09", "-_.*", "a b", "a+b", "~!@#$%^&()=[]{}|\\:;\"'<>,?/`",
+            "中文", "日本語テキスト", "emoji😀", "tab\tnew\nline", "\u0000\u007F\u0080߿ࠀ￿",
+            "https://example.com/callback?a=1&b=2#anchor");
+
+    @Test
+    void encodeIsCompatibleWithUrlEncoder() throws UnsupportedEncodingException {
+        for (String text : SAMPLES) {
+            assertEquals(URLEncoder.encode(text, "UTF-8"), PercentEncodingUtils.encode(text), text);
+        }
+        for (char c = 0; c < 128; c++) {
+            String text = String.valueOf(c);
+            assertEquals(URLEncoder.encode(text, "UTF-8"), PercentEncodingUtils.encode(text), text);
+        }
+    }
+
+    @Test
+    void encodeReplacesMalformedSurrogatesLikeUrlEncoder() throws UnsupportedEncodingException {
+        for (String text : Arrays.asList("\uD800", "a\uDC00b", "\uDBFF\uDBFF", "\uDE00\uD83D")) {
+            assertEquals(URLEncoder.encode(text, "UTF-8"), PercentEncodingUtils.encode(text), text);
+        }
+    }
+
+    @Test
+    void encodeReturnsTextItselfIfNoEscapingIsNeeded() {
+        String text = "AZaz09-_.*";
+        assertSame(text, PercentEncodingUtils.encode(text));
+    }
+
+    @Test
+    void encodeAppendsToTarget() {
+        StringBuilder target = new StringBuilder("q=");
+        assertSame(target, PercentEncodingUtils.encode("a b", target));
+        assertEquals("q=a+b", target.toString());
+    }
+
+    @Test
+    void decodeIsCompatibleWithUrlDecoder() throws UnsupportedEncodingException {
+        List<String> encodedTexts = new ArrayList<>(Arrays.asList(
+                "a+b", "a%20b", "%e4%b8%ad%E6%96%87", "100%25", "mixed%2Fcase%2f", "%F0%9F%98%80+%26"));
+        for (String text : SAMPLES) { encodedTexts.add(URLEncoder.encode(text, "UTF-8")); }
+        for (String text : encodedTexts) {
+            assertEquals(URLDecoder.decode(text, "UTF-8"), PercentEncodingUtils.decode(text), text);
+        }
+    }
+
+    @Test
+    void decodeReturnsTextItselfIfNothingIsEscaped() {
+        String text = "abc-_.*~";
+        assertSame(text, PercentEncodingUtils.decode(text));
+    }
+
+    @Test
+    void decodeRejectsIllegalEscapedChars() {
+        for (String text : Arrays.asList("%", "a%2", "%zz", "%2g", "abc%")) {
+            assertThrows(IllegalArgumentException.class, () -> PercentEncodingUtils.decode(text), text);
+            assertThrows(IllegalArgumentException.class, () -> URLDecoder.decode(text, "UTF-8"), text);
+        }
+    }
+
+    @Test
+    void roundTrip() throws UnsupportedEncodingException {
+        Random random = new Random(20200708);
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                int bound = random.nextBoolean() ? 0x80 : Character.MAX_CODE_POINT;
+                int codePoint = random.nextInt(bound);
+                if (Character.getType(codePoint) == Character.SURROGATE) { codePoint = 'x'; }
+                text.appendCodePoint(codePoint);
+            }
+            String encoded = PercentEncodingUtils.encode(text.toString());
+            assertEquals(URLEncoder.encode(text.toString(), "UTF-8"), encoded);
+            assertEquals(text.toString(), PercentEncodingUtils.decode(encoded));
+        }
+    }
+
+    @Test
+    void forEachQueryItem() {
+        List<String> items = new ArrayList<>();
+        PercentEncodingUtils.forEachQueryItem(
+                "a=1&&b=%E4%B8%AD+x&c&d=&e=x=y&", (name, value) -> items.add(name + ":" + value));
+        assertEquals(Arrays.asList("a:1", "b:中 x", "c:", "d:", "e:x=y"), items);
+    }
+
+    @Test
+    void forEachEncodedQueryItem() {
+        List<String> items = new ArrayList<>();
+        PercentEncodingUtils.forEachEncodedQueryItem(
+                "a%20b=%E4%B8%AD+x&c", (name, value) -> items.add(name + ":" + value));
+        assertEquals(Arrays.asList("a%20b:%E4%B8%AD+x", "c:"), items);
+    }
+
+}
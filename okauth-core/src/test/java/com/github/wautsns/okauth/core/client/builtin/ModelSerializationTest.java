@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.builtin;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonDecoder;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+import com.github.wautsns.okauth.core.client.builtin.gitee.model.GiteeOAuth2Token;
+import com.github.wautsns.okauth.core.client.builtin.gitee.model.GiteeOAuth2User;
+import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2Token;
+import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of serialized form of built-in models, which should stay compatible with earlier versions.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class ModelSerializationTest {
+
+    /** GitHub token {@code {"access_token":"a","scope":"repo","token_type":"bearer"}} with token id "t". */
+    private static final String OLD_GITHUB_TOKEN = ""
+            + "rO0ABXNyAExjb20uZ2l0aHViLndhdXRzbnMub2thdXRoLmNvcmUuY2xpZW50LmJ1aWx0aW4uZ2l0aHViLm1vZGVsLkdpdEh1Yk9B"
+            + "dXRoMlRva2VudK9laU9n5GACAAJMAA9vcmlnaW5hbERhdGFNYXB0AEdMY29tL2dpdGh1Yi93YXV0c25zL29rYXV0aC9jb3JlL2Fz"
+            + "c2lzdC9odHRwL2tlcm5lbC9tb2RlbC9iYXNpYy9EYXRhTWFwO0wAB3Rva2VuSWR0ABJMamF2YS9sYW5nL1N0cmluZzt4cHNyAEVj"
+            + "b20uZ2l0aHViLndhdXRzbnMub2thdXRoLmNvcmUuYXNzaXN0Lmh0dHAua2VybmVsLm1vZGVsLmJhc2ljLkRhdGFNYXBvxFVfWx3/"
+            + "nAIAAHhyABdqYXZhLnV0aWwuTGlua2VkSGFzaE1hcDTATlwQbMD7AgABWgALYWNjZXNzT3JkZXJ4cgARamF2YS51dGlsLkhhc2hN"
+            + "YXAFB9rBwxZg0QMAAkYACmxvYWRGYWN0b3JJAAl0aHJlc2hvbGR4cD9AAAAAAAAMdwgAAAAQAAAAA3QADGFjY2Vzc190b2tlbnQA"
+            + "AWF0AAVzY29wZXQABHJlcG90AAp0b2tlbl90eXBldAAGYmVhcmVyeAB0AAF0";
+    /** Gitee user {@code {"id":2,"login":"gitee","followers":3,"created_at":"2020-01-01T00:00:00+08:00"}}. */
+    private static final String OLD_GITEE_USER = ""
+            + "rO0ABXNyAEljb20uZ2l0aHViLndhdXRzbnMub2thdXRoLmNvcmUuY2xpZW50LmJ1aWx0aW4uZ2l0ZWUubW9kZWwuR2l0ZWVPQXV0"
+            + "aDJVc2Vy12U0Vn3nFyMCAAFMAA9vcmlnaW5hbERhdGFNYXB0AEdMY29tL2dpdGh1Yi93YXV0c25zL29rYXV0aC9jb3JlL2Fzc2lz"
+            + "dC9odHRwL2tlcm5lbC9tb2RlbC9iYXNpYy9EYXRhTWFwO3hwc3IARWNvbS5naXRodWIud2F1dHNucy5va2F1dGguY29yZS5hc3Np"
+            + "c3QuaHR0cC5rZXJuZWwubW9kZWwuYmFzaWMuRGF0YU1hcG/EVV9bHf+cAgAAeHIAF2phdmEudXRpbC5MaW5rZWRIYXNoTWFwNMBO"
+            + "XBBswPsCAAFaAAthY2Nlc3NPcmRlcnhyABFqYXZhLnV0aWwuSGFzaE1hcAUH2sHDFmDRAwACRgAKbG9hZEZhY3RvckkACXRocmVz"
+            + "aG9sZHhwP0AAAAAAAAx3CAAAABAAAAAEdAACaWRzcgARamF2YS5sYW5nLkludGVnZXIS4qCk94GHOAIAAUkABXZhbHVleHIAEGph"
+            + "dmEubGFuZy5OdW1iZXKGrJUdC5TgiwIAAHhwAAAAAnQABWxvZ2ludAAFZ2l0ZWV0AAlmb2xsb3dlcnNzcQB+AAgAAAADdAAKY3Jl"
+            + "YXRlZF9hdHQAGTIwMjAtMDEtMDFUMDA6MDA6MDArMDg6MDB4AA==";
+
+    @Test
+    void serialVersionUIDsAreUnchanged() {
+        assertEquals(8408050532302185568L, serialVersionUID(GitHubOAuth2Token.class));
+        assertEquals(2546759827060779258L, serialVersionUID(GitHubOAuth2User.class));
+        assertEquals(7155633421437700449L, serialVersionUID(GiteeOAuth2Token.class));
+        assertEquals(-2925874836823140573L, serialVersionUID(GiteeOAuth2User.class));
+    }
+
+    @Test
+    void gitHubTokenSerializedByEarlierVersionCanBeRead() throws Exception {
+        GitHubOAuth2Token token = (GitHubOAuth2Token) deserialize(Base64.getDecoder().decode(OLD_GITHUB_TOKEN));
+
+        assertEquals("t", token.getTokenId());
+        assertEquals("a", token.getAccessToken());
+        assertEquals("repo", token.getScopes());
+        assertEquals("bearer", token.getTokenType());
+        assertEquals(3, token.getOriginalDataMap().size());
+    }
+
+    @Test
+    void giteeUserSerializedByEarlierVersionCanBeRead() throws Exception {
+        GiteeOAuth2User user = (GiteeOAuth2User) deserialize(Base64.getDecoder().decode(OLD_GITEE_USER));
+
+        assertEquals("2", user.getOpenid());
+        assertEquals("gitee", user.getLogin());
+        assertEquals(3, user.getFollowers());
+        assertEquals(4, user.getOriginalDataMap().size());
+    }
+
+    @Test
+    void decodedModelsSurviveRoundTrip() throws Exception {
+        GitHubOAuth2Token gitHubToken = decode(
+                "{\"access_token\":\"a\",\"scope\":\"repo\",\"token_type\":\"bearer\"}",
+                GitHubOAuth2Token::decode).setTokenId("t");
+        GitHubOAuth2User gitHubUser = decode("{\"login\":\"octocat\",\"id\":1,\"followers\":20}",
+                GitHubOAuth2User::decode);
+        GiteeOAuth2Token giteeToken = decode(
+                "{\"access_token\":\"a\",\"expires_in\":86400,\"refresh_token\":\"r\"}",
+                GiteeOAuth2Token::decode);
+        GiteeOAuth2User giteeUser = decode("{\"id\":2,\"login\":\"gitee\",\"followers\":3}",
+                GiteeOAuth2User::decode);
+
+        for (Object model : new Object[]{gitHubToken, gitHubUser, giteeToken, giteeUser}) {
+            assertEquals(model, deserialize(serialize(model)));
+        }
+        GitHubOAuth2Token copy = (GitHubOAuth2Token) deserialize(serialize(gitHubToken));
+        assertEquals("t", copy.getTokenId());
+        assertEquals(gitHubToken.getOriginalDataMap(), copy.getOriginalDataMap());
+    }
+
+    // #################### utils #######################################################
+
+    private static long serialVersionUID(Class<?> clazz) {
+        return ObjectStreamClass.lookup(clazz).getSerialVersionUID();
+    }
+
+    private static <T> T decode(String json, OAuth2JsonDecoder<T> decoder) throws IOException {
+        return ReadUtils.readJson(json.getBytes(StandardCharsets.UTF_8), decoder);
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.builtin;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2JsonDecoder;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.ReadUtils;
+import com.github.wautsns.okauth.core.client.builtin.gitee.model.GiteeOAuth2Token;
+import com.github.wautsns.okauth.core.client.builtin.gitee.model.GiteeOAuth2User;
+import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2Token;
+import com.github.wautsns.okauth.core.client.builtin.github.model.GitHubOAuth2User;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of streaming model binders, which should be equivalent to binding the data map of the json.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class StreamingModelBinderTest {
+
+    private static final String GITHUB_USER = "{"
+            + "\"login\":\"octocat\",\"id\":1,\"node_id\":\"MDQ6VXNlcjE=\","
+            + "\"avatar_url\":\"https://github.com/images/error/octocat_happy.gif\",\"gravatar_id\":\"\","
+            + "\"url\":\"https://api.github.com/users/octocat\",\"html_url\":\"https://github.com/octocat\","
+            + "\"type\":\"User\",\"site_admin\":false,\"name\":\"monalisa octocat\",\"company\":\"GitHub\","
+            + "\"blog\":\"https://github.com/blog\",\"location\":\"San Francisco\",\"email\":null,"
+            + "\"hireable\":true,\"bio\":\"There once was...\",\"public_repos\":2,\"public_gists\":1,"
+            + "\"followers\":20,\"following\":0,\"plan\":{\"name\":\"Medium\",\"space\":400,\"collaborators\":0},"
+            + "\"created_at\":\"2008-01-14T04:33:35Z\",\"updated_at\":\"2008-01-14T04:33:35Z\""
+            + "}";
+    private static final String GITEE_USER = "{"
+            + "\"id\":2,\"login\":\"gitee\",\"name\":\"Gitee\",\"avatar_url\":\"https://gitee.com/a.png\","
+            + "\"url\":\"https://gitee.com/api/v5/users/gitee\",\"html_url\":\"https://gitee.com/gitee\","
+            + "\"type\":\"User\",\"site_admin\":false,\"blog\":null,\"weibo\":null,\"bio\":\"\","
+            + "\"public_repos\":10,\"public_gists\":0,\"followers\":3,\"following\":4,\"stared\":5,"
+            + "\"watched\":6,\"created_at\":\"2020-01-01T00:00:00+08:00\","
+            + "\"updated_at\":\"2020-07-08T12:00:00+08:00\",\"email\":\"gitee@example.com\","
+            + "\"extra\":[{\"id\":3}]"
+            + "}";
+
+    @Test
+    void gitHubUser() throws IOException {
+        GitHubOAuth2User decoded = decode(GITHUB_USER, GitHubOAuth2User::decode);
+        GitHubOAuth2User bound = new GitHubOAuth2User(ReadUtils.readJsonAsDataMap(GITHUB_USER));
+
+        assertEquals(bound, decoded);
+        assertEquals("1", decoded.getOpenid());
+        assertEquals("octocat", decoded.getUsername());
+        assertFalse(decoded.getSiteAdmin());
+        assertEquals(20, decoded.getFollowers());
+        assertEquals(LocalDateTime.of(2008, 1, 14, 4, 33, 35), decoded.getCreatedAt());
+        assertEquals(ReadUtils.readJsonAsDataMap(GITHUB_USER), decoded.getOriginalDataMap());
+    }
+
+    @Test
+    void gitHubToken() throws IOException {
+        String json = "{\"access_token\":\"e72e16c7e42f292c6912e7710c838347ae178b4a\","
+                + "\"scope\":\"repo,gist\",\"token_type\":\"bearer\"}";
+        GitHubOAuth2Token decoded = decode(json, GitHubOAuth2Token::decode);
+
+        assertEquals(new GitHubOAuth2Token(ReadUtils.readJsonAsDataMap(json)), decoded);
+        assertEquals("e72e16c7e42f292c6912e7710c838347ae178b4a", decoded.getAccessToken());
+        assertEquals(ReadUtils.readJsonAsDataMap(json), decoded.getOriginalDataMap());
+    }
+
+    @Test
+    void giteeUser() throws IOException {
+        GiteeOAuth2User decoded = decode(GITEE_USER, GiteeOAuth2User::decode);
+
+        assertEquals(new GiteeOAuth2User(ReadUtils.readJsonAsDataMap(GITEE_USER)), decoded);
+        assertEquals("2", decoded.getOpenid());
+        assertEquals(ReadUtils.readJsonAsDataMap(GITEE_USER), decoded.getOriginalDataMap());
+    }
+
+    @Test
+    void giteeToken() throws IOException {
+        String json = "{\"access_token\":\"a\",\"token_type\":\"bearer\",\"expires_in\":86400,"
+                + "\"refresh_token\":\"r\",\"scope\":\"user_info\",\"created_at\":1594180800}";
+        GiteeOAuth2Token decoded = decode(json, GiteeOAuth2Token::decode);
+
+        assertEquals(new GiteeOAuth2Token(ReadUtils.readJsonAsDataMap(json)), decoded);
+        assertEquals(86400, decoded.getAccessTokenExpirationSeconds());
+        assertEquals("r", decoded.getRefreshToken());
+    }
+
+    @Test
+    void nonScalarValuesOfKnownFieldsAreSkipped() throws IOException {
+        String json = "{\"login\":{\"nested\":{\"id\":9}},\"name\":[\"x\",{\"y\":1}],\"id\":7,"
+                + "\"followers\":[1,2],\"email\":\"octocat@github.com\"}";
+        GitHubOAuth2User decoded = decode(json, GitHubOAuth2User::decode);
+
+        assertNull(decoded.getLogin());
+        assertNull(decoded.getName());
+        assertNull(decoded.getFollowers());
+        assertEquals("7", decoded.getId());
+        assertEquals("octocat@github.com", decoded.getEmail());
+    }
+
+    @Test
+    void missingAndNullFields() throws IOException {
+        GitHubOAuth2User decoded = decode("{\"id\":1,\"email\":null,\"hireable\":null}", GitHubOAuth2User::decode);
+
+        assertEquals(new GitHubOAuth2User(new DataMap().with("id", 1)), decoded);
+        assertNull(decoded.getHireable());
+        assertNull(decoded.getCreatedAt());
+        assertTrue(decoded.getOriginalDataMap().containsKey("email"));
+    }
+
+    // #################### utils #######################################################
+
+    private static <T> T decode(String json, OAuth2JsonDecoder<T> decoder) throws IOException {
+        return ReadUtils.readJson(json.getBytes(StandardCharsets.UTF_8), decoder);
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.builtin.wechatworkcorp;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.deadline.OAuth2Deadline;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryExecutor;
+import com.github.wautsns.okauth.core.assist.http.kernel.retry.OAuth2RetryPolicy;
+import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.model.WechatWorkCorpOAuth2Token;
+import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.service.tokencache.WechatWorkCorpTokenCache;
+import com.github.wautsns.okauth.core.exception.OAuth2IOException;
+import com.github.wautsns.okauth.core.exception.specific.io.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link WechatWorkCorpOAuth2Client}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class WechatWorkCorpOAuth2ClientTest {
+
+    private final List<OAuth2HttpRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    void deadlineOfTokenFetchDoesNotOutliveTheCall() throws Exception {
+        WechatWorkCorpOAuth2Client client = new WechatWorkCorpOAuth2Client(
+                new WechatWorkCorpOAuth2AppInfo().setCorpId("corp").setCorpSecret("secret"),
+                initHttpClient(), new NoTokenCache());
+
+        OAuth2Deadline first = OAuth2Deadline.after(Duration.ofMillis(50));
+        assertEquals("token-1", first.call(client::getToken).getAccessToken());
+        while (!first.isExpired()) { Thread.sleep(10); }
+
+        // The token is fetched again(the cache keeps nothing) after the deadline of the first call has passed.
+        OAuth2Deadline second = OAuth2Deadline.after(Duration.ofSeconds(10));
+        assertEquals("token-2", second.call(client::getToken).getAccessToken());
+        assertEquals("token-3", client.getToken().getAccessToken());
+        assertEquals(3, requests.size());
+        for (OAuth2HttpRequest request : requests) { assertNull(request.getDeadline()); }
+    }
+
+    @Test
+    void errorOfTokenFetchIsPropagatedToWaiters() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch failing = new CountDownLatch(1);
+        WechatWorkCorpOAuth2Client client = new WechatWorkCorpOAuth2Client(
+                new WechatWorkCorpOAuth2AppInfo().setCorpId("corp").setCorpSecret("secret"),
+                new OAuth2HttpClient() {
+                    @Override
+                    public OAuth2HttpResponse execute(OAuth2HttpRequest request) {
+                        fetching.countDown();
+                        try {
+                            failing.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        throw new AssertionError("fetch failed");
+                    }
+
+                    @Override
+                    public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+                        throw new AssertionError("Requests should be executed synchronously.");
+                    }
+                }, new NoTokenCache());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<WechatWorkCorpOAuth2Token> fetcher = executor.submit(client::getToken);
+            fetching.await();
+            Future<WechatWorkCorpOAuth2Token> waiter = executor.submit(
+                    () -> OAuth2Deadline.after(Duration.ofSeconds(5)).call(client::getToken));
+            Thread.sleep(100);
+            failing.countDown();
+
+            ExecutionException e = assertThrows(ExecutionException.class, fetcher::get);
+            assertEquals("fetch failed", e.getCause().getMessage());
+            e = assertThrows(ExecutionException.class, () -> waiter.get(3, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AssertionError, e.getCause().toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // #################### utils #######################################################
+
+    /** Initialize http client that executes requests with retry executor, and fails once the deadline is reached. */
+    private OAuth2HttpClient initHttpClient() {
+        return new OAuth2HttpClient() {
+            @Override
+            public OAuth2HttpResponse execute(OAuth2HttpRequest request) throws OAuth2IOException {
+                return OAuth2RetryExecutor.execute(OAuth2RetryPolicy.NEVER, request, attempt -> {
+                    OAuth2Deadline deadline = OAuth2Deadline.of(attempt);
+                    if (deadline != null && deadline.isExpired()) { throw new DeadlineExceededException(); }
+                    requests.add(attempt);
+                    return new JsonResponse(
+                            "{\"errcode\":0,\"errmsg\":\"ok\",\"access_token\":\"token-" + requests.size()
+                                    + "\",\"expires_in\":7200}");
+                });
+            }
+
+            @Override
+            public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+                throw new AssertionError("Requests should be executed synchronously.");
+            }
+        };
+    }
+
+    /** Token cache that keeps nothing. */
+    private static class NoTokenCache implements WechatWorkCorpTokenCache {
+
+        @Override
+        public DataMap get() {
+            return null;
+        }
+
+        @Override
+        public void save(DataMap originalDataMap, int accessTokenExpirationSeconds) {}
+
+        @Override
+        public void delete() {}
+
+    }
+
+    /** Json response with status 200. */
+    private static class JsonResponse implements OAuth2HttpResponse {
+
+        private final byte[] body;
+
+        JsonResponse(String body) {
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getStatus() {
+            return 200;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public List<String> getHeaders(String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {}
+
+    }
+
+}
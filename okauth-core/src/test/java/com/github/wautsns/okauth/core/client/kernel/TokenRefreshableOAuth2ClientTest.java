@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.core.client.kernel;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpRequest;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.OAuth2HttpResponse;
+import com.github.wautsns.okauth.core.assist.http.kernel.model.basic.DataMap;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.FutureUtils;
+import com.github.wautsns.okauth.core.client.builtin.baidu.BaiduOAuth2AppInfo;
+import com.github.wautsns.okauth.core.client.builtin.baidu.BaiduOAuth2Client;
+import com.github.wautsns.okauth.core.client.builtin.baidu.model.BaiduOAuth2Token;
+import com.github.wautsns.okauth.core.client.builtin.baidu.model.BaiduOAuth2User;
+import com.github.wautsns.okauth.core.client.kernel.model.OAuth2Token;
+import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
+import com.github.wautsns.okauth.core.exception.OAuth2Exception;
+import com.github.wautsns.okauth.core.exception.specific.token.ExpiredAccessTokenException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the asynchronous refresh chain of {@link TokenRefreshableOAuth2Client}.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+class TokenRefreshableOAuth2ClientTest {
+
+    private final ExecutorService io = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "io"));
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<String> callbacks = new CopyOnWriteArrayList<>();
+    private volatile RuntimeException beforeRefreshingError;
+
+    @AfterEach
+    void shutdown() {
+        io.shutdownNow();
+    }
+
+    @Test
+    void exchangeForUserAsyncWithoutRefreshing() throws OAuth2Exception {
+        BaiduOAuth2Client client = initClient(request -> "{\"openid\":\"openid-A\",\"uname\":\"A\"}", null);
+
+        BaiduOAuth2User user = FutureUtils.join(client.exchangeForUserAsync(initToken("A", "refresh-A")));
+
+        assertEquals("openid-A", user.getOpenid());
+        assertEquals(Collections.singletonList("user:A"), requests);
+        assertTrue(callbacks.isEmpty());
+    }
+
+    @Test
+    void exchangeForUserAsyncRefreshesExpiredAccessTokenAndRetries() throws OAuth2Exception {
+        BaiduOAuth2Client client = initClient(
+                accessToken -> "A".equals(accessToken)
+                        ? "{\"error_code\":\"111\",\"error_msg\":\"expired\"}"
+                        : "{\"openid\":\"openid-" + accessToken + "\"}",
+                refreshToken -> "{\"access_token\":\"B\",\"refresh_token\":\"refresh-B\"}");
+
+        BaiduOAuth2User user = FutureUtils.join(client.exchangeForUserAsync(initToken("A", "refresh-A")));
+
+        assertEquals("openid-B", user.getOpenid());
+        assertEquals(Arrays.asList("user:A", "refresh:refresh-A", "user:B"), requests);
+        assertEquals(Arrays.asList("before:A", "after:A->B"), callbacks);
+    }
+
+    @Test
+    void exchangeForUserAsyncDoesNotRefreshOnOtherErrors() {
+        BaiduOAuth2Client client = initClient(
+                accessToken -> "{\"error_code\":\"100\",\"error_msg\":\"invalid parameter\"}", null);
+
+        OAuth2ErrorException e = assertThrows(OAuth2ErrorException.class,
+                () -> FutureUtils.join(client.exchangeForUserAsync(initToken("A", "refresh-A"))));
+
+        assertEquals("100", e.getErrorCode());
+        assertEquals(Collections.singletonList("user:A"), requests);
+        assertTrue(callbacks.isEmpty());
+    }
+
+    @Test
+    void exchangeForUserAsyncFailsIfRefreshingFailed() {
+        BaiduOAuth2Client client = initClient(
+                accessToken -> "{\"error_code\":\"111\",\"error_msg\":\"expired\"}",
+                refreshToken -> "{\"error\":\"expired_token\",\"error_description\":\"refresh token expired\"}");
+
+        OAuth2ErrorException e = assertThrows(OAuth2ErrorException.class,
+                () -> FutureUtils.join(client.exchangeForUserAsync(initToken("A", "refresh-A"))));
+
+        assertEquals("expired_token", e.getErrorCode());
+        assertEquals(Arrays.asList("user:A", "refresh:refresh-A"), requests);
+        assertEquals(Collections.singletonList("before:A"), callbacks);
+    }
+
+    @Test
+    void exchangeForUserAsyncFailsIfRefreshedAccessTokenIsStillExpired() {
+        BaiduOAuth2Client client = initClient(
+                accessToken -> "{\"error_code\":\"111\",\"error_msg\":\"expired\"}",
+                refreshToken -> "{\"access_token\":\"B\",\"refresh_token\":\"refresh-B\"}");
+
+        assertThrows(ExpiredAccessTokenException.class,
+                () -> FutureUtils.join(client.exchangeForUserAsync(initToken("A", "refresh-A"))));
+        assertEquals(Arrays.asList("user:A", "refresh:refresh-A", "user:B"), requests);
+    }
+
+    @Test
+    void refreshTokenAsyncFailsTheFutureIfBeforeRefreshingFails() {
+        BaiduOAuth2Client client = initClient(null, refreshToken -> "{\"access_token\":\"B\"}");
+        beforeRefreshingError = new IllegalStateException("token is locked");
+
+        CompletableFuture<BaiduOAuth2Token> future = client.refreshTokenAsync(initToken("A", "refresh-A"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> FutureUtils.join(future));
+        assertSame(beforeRefreshingError, e);
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    void exchangeForUserAsyncFailsIfBeforeRefreshingFails() {
+        BaiduOAuth2Client client = initClient(
+                accessToken -> "{\"error_code\":\"111\",\"error_msg\":\"expired\"}",
+                refreshToken -> "{\"access_token\":\"B\"}");
+        beforeRefreshingError = new IllegalStateException("token is locked");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> FutureUtils.join(client.exchangeForUserAsync(initToken("A", "refresh-A"))));
+
+        assertSame(beforeRefreshingError, e);
+        assertEquals(Collections.singletonList("user:A"), requests);
+    }
+
+    // #################### utils #######################################################
+
+    private BaiduOAuth2Client initClient(
+            Function<String, String> userResponses, Function<String, String> refreshResponses) {
+        OAuth2HttpClient httpClient = new OAuth2HttpClient() {
+            @Override
+            public OAuth2HttpResponse execute(OAuth2HttpRequest request) {
+                throw new AssertionError("Requests should be executed asynchronously.");
+            }
+
+            @Override
+            public CompletableFuture<OAuth2HttpResponse> executeAsync(OAuth2HttpRequest request) {
+                return CompletableFuture.supplyAsync(() -> respond(request), io);
+            }
+
+            private OAuth2HttpResponse respond(OAuth2HttpRequest request) {
+                if ("user".equals(request.getName())) {
+                    String accessToken = getQueryValue(request, "access_token");
+                    requests.add("user:" + accessToken);
+                    return new JsonResponse(userResponses.apply(accessToken));
+                } else if ("refresh".equals(request.getName())) {
+                    String refreshToken = getQueryValue(request, "refresh_token");
+                    requests.add("refresh:" + refreshToken);
+                    return new JsonResponse(refreshResponses.apply(refreshToken));
+                }
+                throw new AssertionError("Unexpected request " + request.getName());
+            }
+        };
+        TokenRefreshableOAuth2Client.TokenRefreshCallback callback =
+                new TokenRefreshableOAuth2Client.TokenRefreshCallback() {
+                    @Override
+                    public void beforeRefreshing(String openPlatform, OAuth2Token oldToken) {
+                        if (beforeRefreshingError != null) { throw beforeRefreshingError; }
+                        callbacks.add("before:" + oldToken.getAccessToken());
+                    }
+
+                    @Override
+                    public void afterRefreshing(String openPlatform, OAuth2Token oldToken, OAuth2Token newToken) {
+                        callbacks.add("after:" + oldToken.getAccessToken() + "->" + newToken.getAccessToken());
+                    }
+                };
+        return new BaiduOAuth2Client(new BaiduOAuth2AppInfo(), httpClient, callback);
+    }
+
+    private static BaiduOAuth2Token initToken(String accessToken, String refreshToken) {
+        return new BaiduOAuth2Token(new DataMap()
+                .with("access_token", accessToken)
+                .with("refresh_token", refreshToken));
+    }
+
+    private static String getQueryValue(OAuth2HttpRequest request, String name) {
+        String[] value = new String[1];
+        request.getUrl().forEachQueryItem((n, v) -> {
+            if (name.equals(n)) { value[0] = v; }
+        });
+        return value[0];
+    }
+
+    /** Json response with status 200. */
+    private static class JsonResponse implements OAuth2HttpResponse {
+
+        private final byte[] body;
+
+        JsonResponse(String body) {
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getStatus() {
+            return 200;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public List<String> getHeaders(String name) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {}
+
+    }
+
+}
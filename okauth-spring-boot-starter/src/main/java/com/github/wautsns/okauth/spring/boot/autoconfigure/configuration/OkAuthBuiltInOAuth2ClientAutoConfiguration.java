@@ -16,6 +16,12 @@
 package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
 
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.OAuth2HttpEventListener;
+import com.github.wautsns.okauth.core.assist.http.kernel.interceptor.OAuth2HttpInterceptor;
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.InMemoryOAuth2RateLimitStore;
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.OAuth2RateLimitStore;
+import com.github.wautsns.okauth.core.client.builtin.BuiltInOpenPlatformNames;
 import com.github.wautsns.okauth.core.client.builtin.baidu.BaiduOAuth2AppInfo;
 import com.github.wautsns.okauth.core.client.builtin.baidu.BaiduOAuth2Client;
 import com.github.wautsns.okauth.core.client.builtin.dingtalk.DingTalkOAuth2AppInfo;
@@ -41,6 +47,7 @@ import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.conditi
 import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthAppsInfoProperties;
 import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthProperties;
 import com.github.wautsns.okauth.spring.boot.autoconfigure.util.OkAuthAutoConfigureUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -49,6 +56,9 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * OkAuth built-in oauth2 client auto-configuration.
  *
@@ -61,6 +71,34 @@ import org.springframework.context.annotation.Configuration;
 @AutoConfigureAfter(OkAuthCommonComponentAutoConfiguration.class)
 public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
 
+    /** Rate limit store shared by rate limiters of all open platforms. */
+    private final OAuth2RateLimitStore rateLimitStore;
+    /** Oauth2 http interceptor beans, key is bean name. */
+    private final Map<String, OAuth2HttpInterceptor> interceptors;
+    /** Oauth2 http event listener, or {@code null} if phase timings are not recorded. */
+    private final OAuth2HttpEventListener eventListener;
+    /** Dns resolver of http clients without dns resolver specified, or {@code null} if not specified. */
+    private final OAuth2DnsResolver dnsResolver;
+
+    /**
+     * Construct an {@code OkAuthBuiltInOAuth2ClientAutoConfiguration}.
+     *
+     * @param rateLimitStore rate limit store, an in-memory one will be used if there is no such bean
+     * @param interceptors oauth2 http interceptor beans, key is bean name
+     * @param eventListener oauth2 http event listener
+     * @param dnsResolver dns resolver of http clients without dns resolver specified
+     */
+    public OkAuthBuiltInOAuth2ClientAutoConfiguration(
+            ObjectProvider<OAuth2RateLimitStore> rateLimitStore,
+            ObjectProvider<Map<String, OAuth2HttpInterceptor>> interceptors,
+            ObjectProvider<OAuth2HttpEventListener> eventListener,
+            ObjectProvider<OAuth2DnsResolver> dnsResolver) {
+        this.rateLimitStore = rateLimitStore.getIfAvailable(InMemoryOAuth2RateLimitStore::new);
+        this.interceptors = interceptors.getIfAvailable(Collections::emptyMap);
+        this.eventListener = eventListener.getIfAvailable();
+        this.dnsResolver = dnsResolver.getIfAvailable();
+    }
+
     // #################### Baidu #######################################################
 
     @Bean
@@ -71,8 +109,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
             TokenRefreshableOAuth2Client.TokenRefreshCallback tokenRefreshCallback) {
         OkAuthAppsInfoProperties.OkAuthBaiduAppInfo baidu = okauthProps.getAppsInfo().getBaidu();
         BaiduOAuth2AppInfo appInfo = baidu.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, baidu);
-        return new BaiduOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.BAIDU, appInfo.getApiKey(), okauthProps, baidu,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        BaiduOAuth2Client client = new BaiduOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, baidu));
+        return client;
     }
 
     // #################### DingTalk ####################################################
@@ -83,8 +125,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
     public DingTalkOAuth2Client dingTalkOAuth2Client(OkAuthProperties okauthProps) {
         OkAuthAppsInfoProperties.OkAuthDingTalkAppInfo dingTalk = okauthProps.getAppsInfo().getDingTalk();
         DingTalkOAuth2AppInfo appInfo = dingTalk.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, dingTalk);
-        return new DingTalkOAuth2Client(appInfo, httpClient);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.DING_TALK, appInfo.getAppId(), okauthProps, dingTalk,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        DingTalkOAuth2Client client = new DingTalkOAuth2Client(appInfo, httpClient);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, dingTalk));
+        return client;
     }
 
     // #################### ElemeShopIsv ################################################
@@ -97,8 +143,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
             TokenRefreshableOAuth2Client.TokenRefreshCallback tokenRefreshCallback) {
         OkAuthAppsInfoProperties.OkAuthElemeShopIsvAppInfo elemeShopIsv = okauthProps.getAppsInfo().getElemeShopIsv();
         ElemeShopIsvOAuth2AppInfo appInfo = elemeShopIsv.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, elemeShopIsv);
-        return new ElemeShopIsvOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.ELEME_SHOP_ISV, appInfo.getKey(), okauthProps, elemeShopIsv,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        ElemeShopIsvOAuth2Client client = new ElemeShopIsvOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, elemeShopIsv));
+        return client;
     }
 
     // #################### Gitee #######################################################
@@ -111,8 +161,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
             TokenRefreshableOAuth2Client.TokenRefreshCallback tokenRefreshCallback) {
         OkAuthAppsInfoProperties.OkAuthGiteeAppInfo gitee = okauthProps.getAppsInfo().getGitee();
         GiteeOAuth2AppInfo appInfo = gitee.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, gitee);
-        return new GiteeOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.GITEE, appInfo.getClientId(), okauthProps, gitee,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        GiteeOAuth2Client client = new GiteeOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, gitee));
+        return client;
     }
 
     // #################### GitHub ######################################################
@@ -123,8 +177,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
     public GitHubOAuth2Client gitHubOAuth2Client(OkAuthProperties okauthProps) {
         OkAuthAppsInfoProperties.OkAuthGitHubAppInfo github = okauthProps.getAppsInfo().getGithub();
         GitHubOAuth2AppInfo appInfo = github.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, github);
-        return new GitHubOAuth2Client(appInfo, httpClient);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.GITHUB, appInfo.getClientId(), okauthProps, github,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        GitHubOAuth2Client client = new GitHubOAuth2Client(appInfo, httpClient);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, github));
+        return client;
     }
 
     // #################### OSChina #####################################################
@@ -137,8 +195,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
             TokenRefreshableOAuth2Client.TokenRefreshCallback tokenRefreshCallback) {
         OkAuthAppsInfoProperties.OkAuthOSChinaAppInfo oschina = okauthProps.getAppsInfo().getOschina();
         OSChinaOAuth2AppInfo appInfo = oschina.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, oschina);
-        return new OSChinaOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.OSCHINA, appInfo.getClientId(), okauthProps, oschina,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        OSChinaOAuth2Client client = new OSChinaOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, oschina));
+        return client;
     }
 
     // #################### TikTok ######################################################
@@ -151,8 +213,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
             TokenRefreshableOAuth2Client.TokenRefreshCallback tokenRefreshCallback) {
         OkAuthAppsInfoProperties.OkAuthTikTokAppInfo tikTok = okauthProps.getAppsInfo().getTikTok();
         TikTokOAuth2AppInfo appInfo = tikTok.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, tikTok);
-        return new TikTokOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.TIK_TOK, appInfo.getClientKey(), okauthProps, tikTok,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        TikTokOAuth2Client client = new TikTokOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, tikTok));
+        return client;
     }
 
     // #################### WechatOfficialAccount #######################################
@@ -166,8 +232,14 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
         OkAuthAppsInfoProperties.OkAuthWechatOfficialAccountAppInfo wechatOfficialAccount
                 = okauthProps.getAppsInfo().getWechatOfficialAccount();
         WechatOfficialAccountOAuth2AppInfo appInfo = wechatOfficialAccount.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, wechatOfficialAccount);
-        return new WechatOfficialAccountOAuth2Client(appInfo, httpClient, tokenRefreshCallback);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.WECHAT_OFFICIAL_ACCOUNT, appInfo.getUniqueIdentifier(), okauthProps,
+                wechatOfficialAccount, rateLimitStore, interceptors, eventListener, dnsResolver);
+        WechatOfficialAccountOAuth2Client client = new WechatOfficialAccountOAuth2Client(
+                appInfo, httpClient, tokenRefreshCallback);
+        client.setDeadlineProperties(
+                OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, wechatOfficialAccount));
+        return client;
     }
 
     // #################### WechatWorkCorp ##############################################
@@ -181,8 +253,12 @@ public class OkAuthBuiltInOAuth2ClientAutoConfiguration {
         OkAuthAppsInfoProperties.OkAuthWechatWorkCorpAppInfo wechatWorkCorp
                 = okauthProps.getAppsInfo().getWechatWorkCorp();
         WechatWorkCorpOAuth2AppInfo appInfo = wechatWorkCorp.getAppInfo();
-        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(okauthProps, wechatWorkCorp);
-        return new WechatWorkCorpOAuth2Client(appInfo, httpClient, tokenCache);
+        OAuth2HttpClient httpClient = OkAuthAutoConfigureUtils.initOAuth2HttpClient(
+                BuiltInOpenPlatformNames.WECHAT_WORK_CORP, appInfo.getCorpId(), okauthProps, wechatWorkCorp,
+                rateLimitStore, interceptors, eventListener, dnsResolver);
+        WechatWorkCorpOAuth2Client client = new WechatWorkCorpOAuth2Client(appInfo, httpClient, tokenCache);
+        client.setDeadlineProperties(OkAuthAutoConfigureUtils.initDeadlineProperties(okauthProps, wechatWorkCorp));
+        return client;
     }
 
     @Bean
@@ -15,9 +15,16 @@
  */
 package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
 
+import com.github.wautsns.okauth.core.assist.http.builtin.dns.CachingOAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.OAuth2HttpEventListener;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.SamplingOAuth2HttpEventListener;
 import com.github.wautsns.okauth.core.client.kernel.TokenRefreshableOAuth2Client;
 import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.condition.ConditionalOnOkAuthEnabled;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -29,6 +36,7 @@ import org.springframework.context.annotation.Configuration;
  */
 @Configuration
 @ConditionalOnOkAuthEnabled
+@EnableConfigurationProperties(OkAuthProperties.class)
 public class OkAuthCommonComponentAutoConfiguration {
 
     @Bean
@@ -37,4 +45,18 @@ public class OkAuthCommonComponentAutoConfiguration {
         return TokenRefreshableOAuth2Client.TokenRefreshCallback.IGNORE;
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty("okauth.phase-timing.enabled")
+    public OAuth2HttpEventListener oauth2HttpEventListener(OkAuthProperties okauthProps) {
+        return new SamplingOAuth2HttpEventListener(okauthProps.getPhaseTiming().getSampleRate());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(OAuth2DnsResolver.class)
+    @ConditionalOnProperty("okauth.dns-cache.enabled")
+    public CachingOAuth2DnsResolver cachingOAuth2DnsResolver(OkAuthProperties okauthProps) {
+        return new CachingOAuth2DnsResolver(okauthProps.getDnsCache().getProperties());
+    }
+
 }
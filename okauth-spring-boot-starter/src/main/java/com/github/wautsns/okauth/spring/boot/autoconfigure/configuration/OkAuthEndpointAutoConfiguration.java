@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
+
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.condition.ConditionalOnOkAuthEnabled;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.endpoint.OkAuthEndpoint;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * OkAuth endpoint auto configuration.
+ *
+ * <p>The endpoint is available if spring boot actuator is present and the endpoint({@code okauth}) is enabled and
+ * exposed.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Configuration
+@ConditionalOnOkAuthEnabled
+@ConditionalOnClass(Endpoint.class)
+@ConditionalOnAvailableEndpoint(endpoint = OkAuthEndpoint.class)
+@AutoConfigureAfter(OkAuthBuiltInOAuth2ClientAutoConfiguration.class)
+public class OkAuthEndpointAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OkAuthEndpoint okauthEndpoint(ObjectProvider<OAuth2Client<?, ?>> oauth2Clients) {
+        return new OkAuthEndpoint(oauth2Clients::orderedStream);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
+
+import com.github.wautsns.okauth.core.client.OAuth2ClientManager;
+import com.github.wautsns.okauth.core.client.kernel.executor.ExecutorOAuth2ClientManager;
+import com.github.wautsns.okauth.core.client.kernel.executor.OAuth2Executors;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.condition.ConditionalOnOkAuthEnabled;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthExecutorProperties;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthProperties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * OkAuth executor auto configuration.
+ *
+ * <p>Blocking exchanges run in virtual threads on Java 21+, so tens of thousands of in-flight exchanges do not require
+ * sizing platform thread pools. On earlier JVMs, they run in a bounded pool of platform threads, and exchanges beyond
+ * {@code max-threads} and {@code queue-capacity} are rejected.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Configuration
+@ConditionalOnOkAuthEnabled
+@ConditionalOnProperty("okauth.executor.enabled")
+public class OkAuthExecutorAutoConfiguration {
+
+    private static final Log log = LogFactory.getLog(OkAuthExecutorAutoConfiguration.class);
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(name = "okauthExecutor")
+    public ExecutorService okauthExecutor(OkAuthProperties okauthProps) {
+        OkAuthExecutorProperties executorProps = okauthProps.getExecutor();
+        if (Boolean.TRUE.equals(executorProps.getVirtualThreads())) {
+            if (OAuth2Executors.isVirtualThreadSupported()) {
+                return OAuth2Executors.newVirtualThreadPerTaskExecutor(executorProps.getThreadNamePrefix());
+            }
+            log.warn("Virtual threads are not supported by the current JVM, a bounded pool of platform threads will be "
+                    + "used instead.");
+        }
+        return OAuth2Executors.newBoundedThreadPool(
+                executorProps.getThreadNamePrefix(), executorProps.getMaxThreads(), executorProps.getQueueCapacity());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ExecutorOAuth2ClientManager executorOAuth2ClientManager(
+            OAuth2ClientManager oauth2ClientManager, @Qualifier("okauthExecutor") ExecutorService okauthExecutor) {
+        return new ExecutorOAuth2ClientManager(oauth2ClientManager, okauthExecutor);
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
+
+import com.github.wautsns.okauth.core.assist.http.builtin.dns.CachingOAuth2DnsResolver;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.condition.ConditionalOnOkAuthEnabled;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.metrics.OkAuthMeterBinder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * OkAuth metrics auto configuration.
+ *
+ * <p>Meters of all oauth2 clients and caching dns resolvers are registered to meter registries by
+ * {@link OkAuthMeterBinder}, if micrometer is present.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Configuration
+@ConditionalOnOkAuthEnabled
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(value = "okauth.metrics.enabled", matchIfMissing = true)
+@AutoConfigureAfter(OkAuthBuiltInOAuth2ClientAutoConfiguration.class)
+public class OkAuthMetricsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OkAuthMeterBinder okauthMeterBinder(
+            ObjectProvider<OAuth2Client<?, ?>> oauth2Clients,
+            ObjectProvider<Map<String, CachingOAuth2DnsResolver>> dnsResolvers) {
+        return new OkAuthMeterBinder(
+                oauth2Clients::orderedStream, () -> dnsResolvers.getIfAvailable(Collections::emptyMap));
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
+
+import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpAsyncClient4OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.OAuth2HttpClientUtils;
+import com.github.wautsns.okauth.core.client.OAuth2ClientManager;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.reactive.ReactiveOAuth2ClientManager;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.condition.ConditionalOnOkAuthEnabled;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthHttpClientProperties;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthProperties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+/**
+ * OkAuth reactive auto configuration.
+ *
+ * <p>Reactive oauth2 clients are non-blocking only if their transports are non-blocking, so in reactive web
+ * applications(such as WebFlux), {@code HttpAsyncClient4OAuth2HttpClient} is the default implementation of http
+ * clients if httpasyncclient is present, and oauth2 clients with blocking transports are reported at startup.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Configuration
+@ConditionalOnOkAuthEnabled
+@ConditionalOnClass(Mono.class)
+public class OkAuthReactiveAutoConfiguration {
+
+    private static final Log log = LogFactory.getLog(OkAuthReactiveAutoConfiguration.class);
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveOAuth2ClientManager reactiveOAuth2ClientManager(OAuth2ClientManager oauth2ClientManager) {
+        return new ReactiveOAuth2ClientManager(oauth2ClientManager);
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class OkAuthWebFluxConfiguration {
+
+        @Bean
+        public SmartInitializingSingleton okauthBlockingTransportReporter(
+                ObjectProvider<OAuth2Client<?, ?>> oauth2Clients) {
+            return () -> oauth2Clients.orderedStream()
+                    .filter(oauth2Client -> !OAuth2HttpClientUtils.isNonBlocking(oauth2Client.getHttpClient()))
+                    .forEach(oauth2Client -> log.warn(
+                            "The http client of " + oauth2Client.getOpenPlatform() + " is blocking, reactive oauth2 "
+                                    + "client will occupy a thread of boundedElastic scheduler for each call. "
+                                    + "Consider a non-blocking implementation such as "
+                                    + "HttpAsyncClient4OAuth2HttpClient."));
+        }
+
+        @Configuration
+        @ConditionalOnClass(name = "org.apache.http.impl.nio.client.CloseableHttpAsyncClient")
+        static class OkAuthNonBlockingHttpClientConfiguration {
+
+            /** Use {@code HttpAsyncClient4OAuth2HttpClient} if implementation of http clients is not specified. */
+            @Bean
+            public static BeanPostProcessor okauthNonBlockingHttpClientDefaulter() {
+                return new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        if (bean instanceof OkAuthProperties) {
+                            OkAuthHttpClientProperties defaultHttpClient =
+                                    ((OkAuthProperties) bean).getDefaultHttpClient();
+                            if (defaultHttpClient.getImplementation() == null) {
+                                defaultHttpClient.setImplementation(HttpAsyncClient4OAuth2HttpClient.class);
+                            }
+                        }
+                        return bean;
+                    }
+                };
+            }
+
+        }
+
+    }
+
+}
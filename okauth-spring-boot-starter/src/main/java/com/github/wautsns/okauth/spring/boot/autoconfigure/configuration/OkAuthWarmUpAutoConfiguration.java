@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.configuration;
+
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.configuration.condition.ConditionalOnOkAuthEnabled;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthProperties;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthWarmUpProperties;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * OkAuth warm-up auto configuration.
+ *
+ * <p>Connections of all oauth2 clients are warmed up in parallel after all singletons are instantiated, that is
+ * before the web server starts to accept requests.
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+@Configuration
+@ConditionalOnOkAuthEnabled
+@ConditionalOnProperty("okauth.warm-up.enabled")
+@AutoConfigureAfter(OkAuthBuiltInOAuth2ClientAutoConfiguration.class)
+public class OkAuthWarmUpAutoConfiguration {
+
+    private static final Log log = LogFactory.getLog(OkAuthWarmUpAutoConfiguration.class);
+
+    @Bean
+    public SmartInitializingSingleton okauthWarmUpInitializer(
+            OkAuthProperties okauthProps, ObjectProvider<OAuth2Client<?, ?>> oauth2Clients) {
+        return () -> {
+            OkAuthWarmUpProperties warmUpProps = okauthProps.getWarmUp();
+            CompletableFuture<?>[] futures = oauth2Clients.orderedStream()
+                    .map(oauth2Client -> oauth2Client.warmUp(warmUpProps.getConnectionsPerHost())
+                            .whenComplete((result, e) -> {
+                                if (e != null) {
+                                    log.warn("Failed to warm up " + oauth2Client.getOpenPlatform() + ".", e);
+                                }
+                            }))
+                    .toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(futures).get(warmUpProps.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                // Failures have been logged above.
+            } catch (TimeoutException e) {
+                log.warn("Warm-up did not complete within " + warmUpProps.getTimeout() + ".");
+            }
+        };
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.endpoint;
+
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.PooledOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.circuitbreaker.CircuitBreakerOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit.ConcurrencyLimitOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.OAuth2HttpClientUtils;
+import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.WechatWorkCorpOAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * OkAuth endpoint({@code /actuator/okauth}), which dumps live state of oauth2 clients.
+ *
+ * <p>For each open platform: the decorated http clients, the connection pool, concurrency limiters, circuit breakers
+ * and the token cache(if any).
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Endpoint(id = "okauth")
+public class OkAuthEndpoint {
+
+    /** Supplier of oauth2 clients. */
+    private final Supplier<Stream<OAuth2Client<?, ?>>> oauth2Clients;
+
+    /**
+     * Construct an {@code OkAuthEndpoint}.
+     *
+     * @param oauth2Clients supplier of oauth2 clients
+     */
+    public OkAuthEndpoint(Supplier<Stream<OAuth2Client<?, ?>>> oauth2Clients) {
+        this.oauth2Clients = oauth2Clients;
+    }
+
+    /**
+     * Dump live state of oauth2 clients.
+     *
+     * @return state of oauth2 clients, key is open platform
+     */
+    @ReadOperation
+    public Map<String, Object> okauth() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        oauth2Clients.get().forEach(oauth2Client -> state.put(oauth2Client.getOpenPlatform(), dump(oauth2Client)));
+        return state;
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Dump live state of the oauth2 client.
+     *
+     * @param oauth2Client oauth2 client
+     * @return state of the oauth2 client
+     */
+    private static Map<String, Object> dump(OAuth2Client<?, ?> oauth2Client) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        List<OAuth2HttpClient> httpClients = OAuth2HttpClientUtils.unwrap(oauth2Client.getHttpClient());
+        state.put("httpClients", httpClients.stream()
+                .map(httpClient -> httpClient.getClass().getSimpleName())
+                .collect(Collectors.toList()));
+        for (OAuth2HttpClient httpClient : httpClients) {
+            if (httpClient instanceof PooledOAuth2HttpClient) {
+                state.put("connectionPool", ((PooledOAuth2HttpClient) httpClient).snapshotPool());
+            } else if (httpClient instanceof ConcurrencyLimitOAuth2HttpClient) {
+                Map<String, Object> limiters = new LinkedHashMap<>();
+                ((ConcurrencyLimitOAuth2HttpClient) httpClient).getConcurrencyLimiters().forEach((origin, limiter) -> {
+                    Map<String, Object> limiterState = new LinkedHashMap<>();
+                    limiterState.put("limit", limiter.getLimit());
+                    limiterState.put("inFlight", limiter.getInFlight());
+                    limiters.put(origin, limiterState);
+                });
+                state.put("concurrencyLimiters", limiters);
+            } else if (httpClient instanceof CircuitBreakerOAuth2HttpClient) {
+                Map<String, Object> circuitBreakers = new LinkedHashMap<>();
+                ((CircuitBreakerOAuth2HttpClient) httpClient).getCircuitBreakers()
+                        .forEach((origin, circuitBreaker) -> circuitBreakers.put(origin, circuitBreaker.getState()));
+                state.put("circuitBreakers", circuitBreakers);
+            }
+        }
+        if (oauth2Client instanceof WechatWorkCorpOAuth2Client) {
+            WechatWorkCorpOAuth2Client wechatWorkCorp = (WechatWorkCorpOAuth2Client) oauth2Client;
+            Map<String, Object> tokenCache = new LinkedHashMap<>();
+            tokenCache.put("type", wechatWorkCorp.getTokenCache().getClass().getSimpleName());
+            tokenCache.put("cached", wechatWorkCorp.getTokenCache().get() != null);
+            tokenCache.put("hits", wechatWorkCorp.getTokenCacheHits());
+            tokenCache.put("misses", wechatWorkCorp.getTokenCacheMisses());
+            state.put("tokenCache", tokenCache);
+        }
+        return state;
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.metrics;
+
+import com.github.wautsns.okauth.core.client.kernel.api.OAuth2Api;
+import com.github.wautsns.okauth.core.client.kernel.metrics.OAuth2ClientMetrics;
+import com.github.wautsns.okauth.core.exception.OAuth2ErrorException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer oauth2 client metrics.
+ *
+ * <ul>
+ * <li>{@code okauth.api.calls}: timer tagged by platform, api, outcome({@code success} or {@code error}) and
+ * exception</li>
+ * <li>{@code okauth.api.errors}: counter of {@code OAuth2ErrorException} tagged by platform, api and error code</li>
+ * </ul>
+ *
+ * <p>Meters are registered once for each combination of tags and cached, so that recording a call does not build and
+ * look up meters again.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class MicrometerOAuth2ClientMetrics implements OAuth2ClientMetrics {
+
+    /** Meter registries. */
+    private final Collection<MeterRegistry> registries;
+    /** Cached timers of api calls. */
+    private final Map<CallKey, Timer> callTimers = new ConcurrentHashMap<>();
+    /** Cached counters of errors. */
+    private final Map<ErrorKey, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a {@code MicrometerOAuth2ClientMetrics}.
+     *
+     * @param registries meter registries, which may be modified later
+     */
+    public MicrometerOAuth2ClientMetrics(Collection<MeterRegistry> registries) {
+        this.registries = registries;
+    }
+
+    @Override
+    public void recordApiCall(String openPlatform, OAuth2Api api, long durationNanos, Throwable error) {
+        String outcome = (error == null) ? "success" : "error";
+        String exception = (error == null) ? "none" : error.getClass().getSimpleName();
+        String errorCode = (error instanceof OAuth2ErrorException)
+                ? String.valueOf(((OAuth2ErrorException) error).getErrorCode())
+                : null;
+        for (MeterRegistry registry : registries) {
+            callTimers.computeIfAbsent(
+                    new CallKey(registry, openPlatform, api.getApiName(), outcome, exception), this::registerTimer)
+                    .record(durationNanos, TimeUnit.NANOSECONDS);
+            if (errorCode != null) {
+                errorCounters.computeIfAbsent(
+                        new ErrorKey(registry, openPlatform, api.getApiName(), errorCode), this::registerCounter)
+                        .increment();
+            }
+        }
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Register timer of api calls.
+     *
+     * @param key call key
+     * @return timer of api calls
+     */
+    private Timer registerTimer(CallKey key) {
+        return Timer.builder("okauth.api.calls")
+                .description("Calls of oauth2 client APIs")
+                .tags("platform", key.openPlatform, "api", key.api, "outcome", key.outcome,
+                        "exception", key.exception)
+                .register(key.registry);
+    }
+
+    /**
+     * Register counter of errors.
+     *
+     * @param key error key
+     * @return counter of errors
+     */
+    private Counter registerCounter(ErrorKey key) {
+        return Counter.builder("okauth.api.errors")
+                .description("Errors responded by open platforms")
+                .tags("platform", key.openPlatform, "api", key.api, "error_code", key.errorCode)
+                .register(key.registry);
+    }
+
+    /** Key of api calls. */
+    @Value
+    private static class CallKey {
+
+        /** Meter registry. */
+        MeterRegistry registry;
+        /** Open platform. */
+        String openPlatform;
+        /** Api name. */
+        String api;
+        /** Outcome. */
+        String outcome;
+        /** Simple class name of the exception, or {@code "none"}. */
+        String exception;
+
+    }
+
+    /** Key of errors. */
+    @Value
+    private static class ErrorKey {
+
+        /** Meter registry. */
+        MeterRegistry registry;
+        /** Open platform. */
+        String openPlatform;
+        /** Api name. */
+        String api;
+        /** Error code. */
+        String errorCode;
+
+    }
+
+}
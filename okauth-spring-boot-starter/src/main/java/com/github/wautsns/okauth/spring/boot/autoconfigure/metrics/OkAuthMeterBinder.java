@@ -0,0 +1,220 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.metrics;
+
+import com.github.wautsns.okauth.core.assist.http.builtin.dns.CachingOAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.PooledOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.metrics.OAuth2HttpPoolSnapshot;
+import com.github.wautsns.okauth.core.assist.http.kernel.util.OAuth2HttpClientUtils;
+import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.WechatWorkCorpOAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.OAuth2Client;
+import com.github.wautsns.okauth.core.client.kernel.metrics.OAuth2ClientMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * OkAuth meter binder, which registers micrometer meters of oauth2 clients.
+ *
+ * <ul>
+ * <li>API calls and errors: see {@link MicrometerOAuth2ClientMetrics}, oauth2 clients with metrics specified are
+ * ignored</li>
+ * <li>{@code okauth.http.pool.connections}: gauge of connections of the connection pool tagged by pool and state
+ * ({@code leased}, {@code pending}, {@code available} or {@code max})</li>
+ * <li>{@code okauth.token.cache.requests}: counter of token cache requests tagged by platform and result({@code hit}
+ * or {@code miss})</li>
+ * <li>{@code okauth.token.cache.hit.ratio}: gauge of token cache hit ratio tagged by platform</li>
+ * <li>{@code okauth.dns.cache.lookups}: counter of dns cache lookups tagged by resolver(bean name) and result
+ * ({@code hit}, {@code stale} or {@code miss})</li>
+ * <li>{@code okauth.dns.cache.refreshes}: counter of background refreshes tagged by resolver and result({@code total}
+ * or {@code failure})</li>
+ * <li>{@code okauth.dns.cache.hosts}: gauge of cached hosts tagged by resolver</li>
+ * </ul>
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+public class OkAuthMeterBinder implements MeterBinder {
+
+    /** Supplier of oauth2 clients. */
+    private final Supplier<Stream<OAuth2Client<?, ?>>> oauth2Clients;
+    /** Supplier of caching dns resolvers, key is bean name. */
+    private final Supplier<Map<String, CachingOAuth2DnsResolver>> dnsResolvers;
+    /** Bound meter registries. */
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+    /** Oauth2 client metrics recording to the bound meter registries. */
+    private final MicrometerOAuth2ClientMetrics clientMetrics = new MicrometerOAuth2ClientMetrics(registries);
+
+    /**
+     * Construct an {@code OkAuthMeterBinder}.
+     *
+     * @param oauth2Clients supplier of oauth2 clients
+     */
+    public OkAuthMeterBinder(Supplier<Stream<OAuth2Client<?, ?>>> oauth2Clients) {
+        this(oauth2Clients, Collections::emptyMap);
+    }
+
+    /**
+     * Construct an {@code OkAuthMeterBinder}.
+     *
+     * @param oauth2Clients supplier of oauth2 clients
+     * @param dnsResolvers supplier of caching dns resolvers, key is bean name
+     */
+    public OkAuthMeterBinder(
+            Supplier<Stream<OAuth2Client<?, ?>>> oauth2Clients,
+            Supplier<Map<String, CachingOAuth2DnsResolver>> dnsResolvers) {
+        this.oauth2Clients = oauth2Clients;
+        this.dnsResolvers = dnsResolvers;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        oauth2Clients.get().forEach(oauth2Client -> {
+            if (oauth2Client.getMetrics() == OAuth2ClientMetrics.NONE) { oauth2Client.setMetrics(clientMetrics); }
+            bindConnectionPool(registry, oauth2Client.getHttpClient());
+            if (oauth2Client instanceof WechatWorkCorpOAuth2Client) {
+                bindTokenCache(registry, (WechatWorkCorpOAuth2Client) oauth2Client);
+            }
+        });
+        dnsResolvers.get().forEach((name, dnsResolver) -> bindDnsCache(registry, name, dnsResolver));
+    }
+
+    // #################### internal ####################################################
+
+    /**
+     * Bind gauges of the connection pool, shared connection pools are bound only once.
+     *
+     * @param registry meter registry
+     * @param httpClient oauth2 http client
+     */
+    private static void bindConnectionPool(MeterRegistry registry, OAuth2HttpClient httpClient) {
+        List<OAuth2HttpClient> httpClients = OAuth2HttpClientUtils.unwrap(httpClient);
+        OAuth2HttpClient transport = httpClients.get(httpClients.size() - 1);
+        if (!(transport instanceof PooledOAuth2HttpClient)) { return; }
+        PooledOAuth2HttpClient pooled = (PooledOAuth2HttpClient) transport;
+        bindConnectionPoolGauge(registry, pooled, "leased", OAuth2HttpPoolSnapshot.Stats::getLeased);
+        bindConnectionPoolGauge(registry, pooled, "pending", OAuth2HttpPoolSnapshot.Stats::getPending);
+        bindConnectionPoolGauge(registry, pooled, "available", OAuth2HttpPoolSnapshot.Stats::getAvailable);
+        bindConnectionPoolGauge(registry, pooled, "max", OAuth2HttpPoolSnapshot.Stats::getMax);
+    }
+
+    /**
+     * Bind gauge of connections in the state.
+     *
+     * @param registry meter registry
+     * @param pooled pooled oauth2 http client
+     * @param state state of connections
+     * @param getter getter of number of connections in the state
+     */
+    private static void bindConnectionPoolGauge(
+            MeterRegistry registry, PooledOAuth2HttpClient pooled, String state,
+            ToIntFunction<OAuth2HttpPoolSnapshot.Stats> getter) {
+        Gauge.builder("okauth.http.pool.connections", pooled, p -> getter.applyAsInt(p.snapshotPool().getTotal()))
+                .description("Connections of the connection pool")
+                .tags("pool", pooled.getPoolName(), "state", state)
+                .register(registry);
+    }
+
+    /**
+     * Bind meters of the token cache.
+     *
+     * @param registry meter registry
+     * @param client WechatWorkCorp oauth2 client
+     */
+    private static void bindTokenCache(MeterRegistry registry, WechatWorkCorpOAuth2Client client) {
+        String openPlatform = client.getOpenPlatform();
+        FunctionCounter.builder("okauth.token.cache.requests", client, WechatWorkCorpOAuth2Client::getTokenCacheHits)
+                .description("Requests of the token cache")
+                .tags("platform", openPlatform, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("okauth.token.cache.requests", client, WechatWorkCorpOAuth2Client::getTokenCacheMisses)
+                .description("Requests of the token cache")
+                .tags("platform", openPlatform, "result", "miss")
+                .register(registry);
+        Gauge.builder("okauth.token.cache.hit.ratio", client, OkAuthMeterBinder::tokenCacheHitRatio)
+                .description("Hit ratio of the token cache")
+                .tags("platform", openPlatform)
+                .register(registry);
+    }
+
+    /**
+     * Bind meters of the dns cache.
+     *
+     * @param registry meter registry
+     * @param name name of the dns resolver
+     * @param dnsResolver caching dns resolver
+     */
+    private static void bindDnsCache(MeterRegistry registry, String name, CachingOAuth2DnsResolver dnsResolver) {
+        bindDnsCacheCounter(registry, "okauth.dns.cache.lookups", name, "hit", dnsResolver,
+                r -> r.getMetrics().getHits());
+        bindDnsCacheCounter(registry, "okauth.dns.cache.lookups", name, "stale", dnsResolver,
+                r -> r.getMetrics().getStaleHits());
+        bindDnsCacheCounter(registry, "okauth.dns.cache.lookups", name, "miss", dnsResolver,
+                r -> r.getMetrics().getMisses());
+        bindDnsCacheCounter(registry, "okauth.dns.cache.refreshes", name, "total", dnsResolver,
+                r -> r.getMetrics().getRefreshes());
+        bindDnsCacheCounter(registry, "okauth.dns.cache.refreshes", name, "failure", dnsResolver,
+                r -> r.getMetrics().getRefreshFailures());
+        Gauge.builder("okauth.dns.cache.hosts", dnsResolver, r -> r.getMetrics().getCachedHosts())
+                .description("Hosts cached by the dns resolver")
+                .tags("resolver", name)
+                .register(registry);
+    }
+
+    /**
+     * Bind counter of the dns cache.
+     *
+     * @param registry meter registry
+     * @param meterName meter name
+     * @param name name of the dns resolver
+     * @param result result tag
+     * @param dnsResolver caching dns resolver
+     * @param getter getter of the count
+     */
+    private static void bindDnsCacheCounter(
+            MeterRegistry registry, String meterName, String name, String result,
+            CachingOAuth2DnsResolver dnsResolver, ToDoubleFunction<CachingOAuth2DnsResolver> getter) {
+        FunctionCounter.builder(meterName, dnsResolver, getter)
+                .description("Lookups and refreshes of the dns cache")
+                .tags("resolver", name, "result", result)
+                .register(registry);
+    }
+
+    /**
+     * Get hit ratio of the token cache.
+     *
+     * @param client WechatWorkCorp oauth2 client
+     * @return hit ratio in range [0, 1], or {@code NaN} if the token cache has not been requested
+     */
+    private static double tokenCacheHitRatio(WechatWorkCorpOAuth2Client client) {
+        long hits = client.getTokenCacheHits();
+        long total = hits + client.getTokenCacheMisses();
+        return (total == 0L) ? Double.NaN : ((double) hits / total);
+    }
+
+}
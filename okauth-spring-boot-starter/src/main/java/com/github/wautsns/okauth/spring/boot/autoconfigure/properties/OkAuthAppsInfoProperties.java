@@ -24,11 +24,14 @@ import com.github.wautsns.okauth.core.client.builtin.oschina.OSChinaOAuth2AppInf
 import com.github.wautsns.okauth.core.client.builtin.tiktok.TikTokOAuth2AppInfo;
 import com.github.wautsns.okauth.core.client.builtin.wechatofficialaccount.WechatOfficialAccountOAuth2AppInfo;
 import com.github.wautsns.okauth.core.client.builtin.wechatworkcorp.WechatWorkCorpOAuth2AppInfo;
+import com.github.wautsns.okauth.core.client.kernel.properties.OAuth2DeadlineProperties;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.List;
+
 /**
  * OAuth2 app info properties.
  *
@@ -69,6 +72,20 @@ public class OkAuthAppsInfoProperties {
         /** OAuth2 http client properties. */
         @NestedConfigurationProperty
         private OkAuthHttpClientProperties httpClient;
+        /** Circuit breaker properties. */
+        @NestedConfigurationProperty
+        private OkAuthCircuitBreakerProperties circuitBreaker;
+        /** Concurrency limit properties. */
+        @NestedConfigurationProperty
+        private OkAuthConcurrencyLimitProperties concurrencyLimit;
+        /** Rate limit properties. */
+        @NestedConfigurationProperty
+        private OkAuthRateLimitProperties rateLimit;
+        /** Deadline properties of APIs. */
+        @NestedConfigurationProperty
+        private OAuth2DeadlineProperties deadline;
+        /** Names of oauth2 http interceptor beans in order, an empty list means no interceptors. */
+        private List<String> interceptors;
 
     }
 
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.properties;
+
+import com.github.wautsns.okauth.core.assist.http.builtin.dns.CachingOAuth2DnsResolver;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+/**
+ * OkAuth dns cache properties.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OkAuthDnsCacheProperties {
+
+    /**
+     * Whether to resolve hosts by a {@link CachingOAuth2DnsResolver} shared by http clients without dns resolver
+     * specified.
+     */
+    private Boolean enabled = false;
+    /** Dns cache properties. */
+    @NestedConfigurationProperty
+    private CachingOAuth2DnsResolver.CacheProperties properties =
+            CachingOAuth2DnsResolver.CacheProperties.initDefault();
+
+}
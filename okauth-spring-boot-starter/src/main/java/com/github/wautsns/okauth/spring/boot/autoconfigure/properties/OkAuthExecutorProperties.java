@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.properties;
+
+import com.github.wautsns.okauth.core.client.kernel.executor.OAuth2Executors;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * OkAuth executor properties.
+ *
+ * @author wautsns
+ * @since Jul 08, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OkAuthExecutorProperties {
+
+    /** Whether to register the executor oauth2 client manager, which runs blocking exchanges in an executor. */
+    private Boolean enabled = false;
+    /** Whether to run each exchange in a virtual thread if supported(Java 21+), otherwise in a platform thread. */
+    private Boolean virtualThreads = true;
+    /** Prefix of thread names. */
+    private String threadNamePrefix = "okauth-exchange-";
+    /** Max number of platform threads, only used if virtual threads are disabled or not supported. */
+    private Integer maxThreads = OAuth2Executors.DEFAULT_MAX_THREADS;
+    /**
+     * Capacity of the queue of exchanges waiting for platform threads, only used if virtual threads are disabled or not
+     * supported. Exchanges beyond it are rejected.
+     */
+    private Integer queueCapacity = OAuth2Executors.DEFAULT_QUEUE_CAPACITY;
+
+}
@@ -31,7 +31,10 @@ import org.springframework.boot.context.properties.NestedConfigurationProperty;
 @Accessors(chain = true)
 public class OkAuthHttpClientProperties {
 
-    /** Implementation of OAuth2HttpClient. */
+    /**
+     * Implementation of OAuth2HttpClient. If null, {@code HttpClient4OAuth2HttpClient} will be used, except in reactive
+     * web applications with httpasyncclient present, where {@code HttpAsyncClient4OAuth2HttpClient} will be used.
+     */
     private Class<? extends OAuth2HttpClient> implementation;
     /** Http client properties. */
     @NestedConfigurationProperty
@@ -15,13 +15,18 @@
  */
 package com.github.wautsns.okauth.spring.boot.autoconfigure.properties;
 
-import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2CircuitBreakerProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2ConcurrencyLimitProperties;
 import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2RateLimitProperties;
+import com.github.wautsns.okauth.core.client.kernel.properties.OAuth2DeadlineProperties;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.List;
+
 /**
  * OAuth clients properties.
  *
@@ -38,8 +43,42 @@ public class OkAuthProperties {
     /** Default http client properties. */
     @NestedConfigurationProperty
     private final OkAuthHttpClientProperties defaultHttpClient = new OkAuthHttpClientProperties()
-            .setImplementation(HttpClient4OAuth2HttpClient.class)
             .setProperties(OAuth2HttpClientProperties.initDefault());
+    /** Default circuit breaker properties. */
+    @NestedConfigurationProperty
+    private final OkAuthCircuitBreakerProperties defaultCircuitBreaker = new OkAuthCircuitBreakerProperties()
+            .setEnabled(false)
+            .setProperties(OAuth2CircuitBreakerProperties.initDefault());
+    /** Default concurrency limit properties. */
+    @NestedConfigurationProperty
+    private final OkAuthConcurrencyLimitProperties defaultConcurrencyLimit = new OkAuthConcurrencyLimitProperties()
+            .setEnabled(false)
+            .setProperties(OAuth2ConcurrencyLimitProperties.initDefault());
+    /** Default rate limit properties. */
+    @NestedConfigurationProperty
+    private final OkAuthRateLimitProperties defaultRateLimit = new OkAuthRateLimitProperties()
+            .setEnabled(false)
+            .setProperties(OAuth2RateLimitProperties.initDefault());
+    /** Default deadline properties of APIs. */
+    @NestedConfigurationProperty
+    private final OAuth2DeadlineProperties defaultDeadline = OAuth2DeadlineProperties.initDefault();
+    /** Default names of oauth2 http interceptor beans in order. */
+    private List<String> defaultInterceptors;
+    /** Dns cache properties. */
+    @NestedConfigurationProperty
+    private final OkAuthDnsCacheProperties dnsCache = new OkAuthDnsCacheProperties();
+    /** Warm-up properties. */
+    @NestedConfigurationProperty
+    private final OkAuthWarmUpProperties warmUp = new OkAuthWarmUpProperties();
+    /** Metrics properties. */
+    @NestedConfigurationProperty
+    private final OkAuthMetricsProperties metrics = new OkAuthMetricsProperties();
+    /** Phase timing properties. */
+    @NestedConfigurationProperty
+    private final OkAuthPhaseTimingProperties phaseTiming = new OkAuthPhaseTimingProperties();
+    /** Executor properties. */
+    @NestedConfigurationProperty
+    private final OkAuthExecutorProperties executor = new OkAuthExecutorProperties();
     /** Apps info properties. */
     @NestedConfigurationProperty
     private OkAuthAppsInfoProperties appsInfo;
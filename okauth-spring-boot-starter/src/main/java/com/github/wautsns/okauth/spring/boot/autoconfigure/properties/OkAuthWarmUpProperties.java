@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.wautsns.okauth.spring.boot.autoconfigure.properties;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.Duration;
+
+/**
+ * OkAuth warm-up properties.
+ *
+ * @author wautsns
+ * @since Jul 07, 2020
+ */
+@Data
+@Accessors(chain = true)
+public class OkAuthWarmUpProperties {
+
+    /** Whether to warm up connections of all oauth2 clients at startup. */
+    private Boolean enabled = false;
+    /** Number of connections to establish per host. */
+    private Integer connectionsPerHost = 1;
+    /** Max time to wait for warm-up, the application will start anyway after timeout. */
+    private Duration timeout = Duration.ofSeconds(10);
+
+}
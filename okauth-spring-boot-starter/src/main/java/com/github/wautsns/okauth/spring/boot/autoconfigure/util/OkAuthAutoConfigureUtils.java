@@ -15,16 +15,38 @@
  */
 package com.github.wautsns.okauth.spring.boot.autoconfigure.util;
 
+import com.github.wautsns.okauth.core.assist.http.builtin.httpclient4.HttpClient4OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.builtin.jdkhttpclient.JdkHttpClientOAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.OAuth2HttpClientRegistry;
+import com.github.wautsns.okauth.core.assist.http.kernel.circuitbreaker.CircuitBreakerOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.concurrencylimit.ConcurrencyLimitOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.dns.OAuth2DnsResolver;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.EventOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.event.OAuth2HttpEventListener;
+import com.github.wautsns.okauth.core.assist.http.kernel.interceptor.InterceptingOAuth2HttpClient;
+import com.github.wautsns.okauth.core.assist.http.kernel.interceptor.OAuth2HttpInterceptor;
+import com.github.wautsns.okauth.core.assist.http.kernel.jfr.FlightRecorderOAuth2HttpClient;
 import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2HttpClientProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.properties.OAuth2RateLimitProperties;
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.OAuth2RateLimitStore;
+import com.github.wautsns.okauth.core.assist.http.kernel.ratelimit.RateLimitOAuth2HttpClient;
+import com.github.wautsns.okauth.core.client.kernel.properties.OAuth2DeadlineProperties;
 import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthAppsInfoProperties;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthCircuitBreakerProperties;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthConcurrencyLimitProperties;
 import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthHttpClientProperties;
 import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthProperties;
+import com.github.wautsns.okauth.spring.boot.autoconfigure.properties.OkAuthRateLimitProperties;
 import lombok.experimental.UtilityClass;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * OkAuth auto-configure utils.
@@ -38,32 +60,227 @@ public class OkAuthAutoConfigureUtils {
     /**
      * Initialize oauth2 http client.
      *
+     * <p>Http clients with the same implementation and properties are shared. If implementation is not specified,
+     * {@link HttpClient4OAuth2HttpClient} will be used.
+     *
      * @param okauthProps okauth properties
      * @param okauthAppInfoProps okauth app info properties
      * @return oauth2 http client
+     * @see OAuth2HttpClientRegistry
      */
     public static OAuth2HttpClient initOAuth2HttpClient(
             OkAuthProperties okauthProps, OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps) {
+        return initOAuth2HttpClient(okauthProps, okauthAppInfoProps, null);
+    }
+
+    /**
+     * Initialize oauth2 http client.
+     *
+     * <p>Same as {@link #initOAuth2HttpClient(OkAuthProperties, OkAuthAppsInfoProperties.OkAuthAppInfo)}, except that
+     * the dns resolver will be used if it is not specified in properties and the implementation supports it. Since
+     * {@link JdkHttpClientOAuth2HttpClient} requires Java 11, it is rejected on earlier JVMs at startup.
+     *
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @param dnsResolver dns resolver, which is used if not specified in properties, may be {@code null}
+     * @return oauth2 http client
+     * @throws IllegalStateException if the implementation is not supported by the current JVM
+     */
+    public static OAuth2HttpClient initOAuth2HttpClient(
+            OkAuthProperties okauthProps, OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps,
+            OAuth2DnsResolver dnsResolver) {
         OkAuthHttpClientProperties okauthHttpClientProps = fillNullProperties(
                 okauthAppInfoProps.getHttpClient(), okauthProps.getDefaultHttpClient());
-        try {
-            Constructor<? extends OAuth2HttpClient> constructor = okauthHttpClientProps
-                    .getImplementation()
-                    .getConstructor(OAuth2HttpClientProperties.class);
-            constructor.setAccessible(true);
-            return constructor.newInstance(okauthHttpClientProps.getProperties());
-        } catch (NoSuchMethodException e) {
-            throw new UnsupportedOperationException(String.format(
-                    "%s need a constructor with argument of type: %s",
-                    okauthHttpClientProps.getImplementation(), OAuth2HttpClientProperties.class));
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
+        Class<? extends OAuth2HttpClient> implementation = okauthHttpClientProps.getImplementation();
+        if (implementation == null) { implementation = HttpClient4OAuth2HttpClient.class; }
+        boolean jdkHttpClient = JdkHttpClientOAuth2HttpClient.class.isAssignableFrom(implementation);
+        if (jdkHttpClient && !isJava11OrAbove()) {
+            throw new IllegalStateException(String.format(
+                    "JdkHttpClientOAuth2HttpClient requires Java 11 or above, but the current JVM is [%s].",
+                    System.getProperty("java.version")));
+        }
+        OAuth2HttpClientProperties httpClientProps = okauthHttpClientProps.getProperties();
+        if (dnsResolver != null && httpClientProps.getDnsResolver() == null && !jdkHttpClient) {
+            httpClientProps = httpClientProps.copy().setDnsResolver(dnsResolver);
+        }
+        return OAuth2HttpClientRegistry.acquire(implementation, httpClientProps);
+    }
+
+    /**
+     * Initialize oauth2 http client of the open platform.
+     *
+     * <p>Http clients with the same implementation and properties are shared. If concurrency limit or circuit breaker
+     * is enabled, the shared http client will be decorated with concurrency limiters or circuit breakers of the open
+     * platform. Circuit breakers are outside concurrency limiters, so requests shed by concurrency limiters will not
+     * open circuit breakers.
+     *
+     * @param openPlatform open platform
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @return oauth2 http client
+     * @see ConcurrencyLimitOAuth2HttpClient
+     * @see CircuitBreakerOAuth2HttpClient
+     */
+    public static OAuth2HttpClient initOAuth2HttpClient(
+            String openPlatform, OkAuthProperties okauthProps,
+            OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps) {
+        return initOAuth2HttpClient(openPlatform, null, okauthProps, okauthAppInfoProps, null);
+    }
+
+    /**
+     * Initialize oauth2 http client of the open platform.
+     *
+     * <p>Same as {@link #initOAuth2HttpClient(String, OkAuthProperties, OkAuthAppsInfoProperties.OkAuthAppInfo)},
+     * except that if rate limit is enabled, the http client will be further decorated with rate limiters of the open
+     * platform, which are outermost so that waiting for permits occupies neither concurrency nor circuit breakers.
+     * Token buckets of rate limiters are named by the app key, so that apps of the same open platform sharing the
+     * store have their own quotas.
+     *
+     * @param openPlatform open platform
+     * @param appKey app key(e.g. client id, corp id), which identifies the app, may be {@code null}
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @param rateLimitStore rate limit store, which is used if not specified in properties, may be {@code null}
+     * @return oauth2 http client
+     * @see RateLimitOAuth2HttpClient
+     */
+    public static OAuth2HttpClient initOAuth2HttpClient(
+            String openPlatform, String appKey, OkAuthProperties okauthProps,
+            OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps, OAuth2RateLimitStore rateLimitStore) {
+        return initOAuth2HttpClient(
+                openPlatform, appKey, okauthProps, okauthAppInfoProps, rateLimitStore, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Initialize oauth2 http client of the open platform.
+     *
+     * <p>Same as {@link #initOAuth2HttpClient(String, String, OkAuthProperties, OkAuthAppsInfoProperties.OkAuthAppInfo,
+     * OAuth2RateLimitStore)}, except that the shared http client will be decorated with interceptors of the open
+     * platform first. Interceptors are innermost so that they see the exchanges actually sent, and faults injected by
+     * them are visible to circuit breakers and concurrency limiters. If event listener is specified, the shared http
+     * client will be decorated to record phase timings even before interceptors, so that only the transport is timed.
+     * On Java 11+, the shared http client is decorated to emit flight recorder events before anything else.
+     *
+     * @param openPlatform open platform
+     * @param appKey app key(e.g. client id, corp id), which identifies the app, may be {@code null}
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @param rateLimitStore rate limit store, which is used if not specified in properties, may be {@code null}
+     * @param interceptors oauth2 http interceptor beans, key is bean name
+     * @param eventListener oauth2 http event listener, may be {@code null}
+     * @return oauth2 http client
+     * @see InterceptingOAuth2HttpClient
+     * @see EventOAuth2HttpClient
+     * @see FlightRecorderOAuth2HttpClient
+     */
+    public static OAuth2HttpClient initOAuth2HttpClient(
+            String openPlatform, String appKey, OkAuthProperties okauthProps,
+            OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps, OAuth2RateLimitStore rateLimitStore,
+            Map<String, OAuth2HttpInterceptor> interceptors, OAuth2HttpEventListener eventListener) {
+        return initOAuth2HttpClient(
+                openPlatform, appKey, okauthProps, okauthAppInfoProps,
+                rateLimitStore, interceptors, eventListener, null);
+    }
+
+    /**
+     * Initialize oauth2 http client of the open platform.
+     *
+     * <p>Same as {@link #initOAuth2HttpClient(String, String, OkAuthProperties, OkAuthAppsInfoProperties.OkAuthAppInfo,
+     * OAuth2RateLimitStore, Map, OAuth2HttpEventListener)}, except that the shared http client will resolve hosts by
+     * the dns resolver if dns resolver is not specified in properties.
+     *
+     * @param openPlatform open platform
+     * @param appKey app key(e.g. client id, corp id), which identifies the app, may be {@code null}
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @param rateLimitStore rate limit store, which is used if not specified in properties, may be {@code null}
+     * @param interceptors oauth2 http interceptor beans, key is bean name
+     * @param eventListener oauth2 http event listener, may be {@code null}
+     * @param dnsResolver dns resolver, which is used if not specified in properties, may be {@code null}
+     * @return oauth2 http client
+     */
+    public static OAuth2HttpClient initOAuth2HttpClient(
+            String openPlatform, String appKey, OkAuthProperties okauthProps,
+            OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps, OAuth2RateLimitStore rateLimitStore,
+            Map<String, OAuth2HttpInterceptor> interceptors, OAuth2HttpEventListener eventListener,
+            OAuth2DnsResolver dnsResolver) {
+        OAuth2HttpClient httpClient = FlightRecorderOAuth2HttpClient.decorate(
+                openPlatform, initOAuth2HttpClient(okauthProps, okauthAppInfoProps, dnsResolver));
+        if (eventListener != null) { httpClient = new EventOAuth2HttpClient(openPlatform, httpClient, eventListener); }
+        httpClient = InterceptingOAuth2HttpClient.decorate(
+                openPlatform, httpClient, initInterceptors(okauthProps, okauthAppInfoProps, interceptors));
+        OkAuthConcurrencyLimitProperties okauthConcurrencyLimitProps = fillNullProperties(
+                okauthAppInfoProps.getConcurrencyLimit(), okauthProps.getDefaultConcurrencyLimit());
+        if (Boolean.TRUE.equals(okauthConcurrencyLimitProps.getEnabled())) {
+            httpClient = new ConcurrencyLimitOAuth2HttpClient(
+                    openPlatform, httpClient, okauthConcurrencyLimitProps.getProperties());
+        }
+        OkAuthCircuitBreakerProperties okauthCircuitBreakerProps = fillNullProperties(
+                okauthAppInfoProps.getCircuitBreaker(), okauthProps.getDefaultCircuitBreaker());
+        if (Boolean.TRUE.equals(okauthCircuitBreakerProps.getEnabled())) {
+            httpClient = new CircuitBreakerOAuth2HttpClient(
+                    openPlatform, httpClient, okauthCircuitBreakerProps.getProperties());
         }
+        OkAuthRateLimitProperties okauthRateLimitProps = fillNullProperties(
+                okauthAppInfoProps.getRateLimit(), okauthProps.getDefaultRateLimit());
+        if (!Boolean.TRUE.equals(okauthRateLimitProps.getEnabled())) { return httpClient; }
+        OAuth2RateLimitProperties rateLimitProps = okauthRateLimitProps.getProperties().copy();
+        if (rateLimitProps.getStore() == null) { rateLimitProps.setStore(rateLimitStore); }
+        return new RateLimitOAuth2HttpClient(openPlatform, appKey, httpClient, rateLimitProps);
+    }
+
+    /**
+     * Initialize deadline properties of APIs of the open platform.
+     *
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @return deadline properties
+     */
+    public static OAuth2DeadlineProperties initDeadlineProperties(
+            OkAuthProperties okauthProps, OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps) {
+        return fillNullProperties(okauthAppInfoProps.getDeadline(), okauthProps.getDefaultDeadline());
+    }
+
+    /**
+     * Initialize oauth2 http interceptors of the open platform.
+     *
+     * @param okauthProps okauth properties
+     * @param okauthAppInfoProps okauth app info properties
+     * @param interceptors oauth2 http interceptor beans, key is bean name
+     * @return oauth2 http interceptors in order
+     */
+    public static List<OAuth2HttpInterceptor> initInterceptors(
+            OkAuthProperties okauthProps, OkAuthAppsInfoProperties.OkAuthAppInfo okauthAppInfoProps,
+            Map<String, OAuth2HttpInterceptor> interceptors) {
+        List<String> names = okauthAppInfoProps.getInterceptors();
+        if (names == null) { names = okauthProps.getDefaultInterceptors(); }
+        if (names == null || names.isEmpty()) { return Collections.emptyList(); }
+        return names.stream()
+                .map(name -> {
+                    OAuth2HttpInterceptor interceptor = interceptors.get(name);
+                    if (interceptor != null) { return interceptor; }
+                    throw new IllegalArgumentException(String.format(
+                            "There is no oauth2 http interceptor bean named [%s].", name));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Whether the current JVM is Java 11 or above.
+     *
+     * @return {@code true} if the current JVM is Java 11 or above, otherwise {@code false}
+     */
+    private static boolean isJava11OrAbove() {
+        String version = System.getProperty("java.specification.version");
+        return !version.startsWith("1.") && Integer.parseInt(version) >= 11;
     }
 
     /**
      * Fill null properties.
      *
+     * <p>Fields annotated with {@link NestedConfigurationProperty} are filled recursively, other fields are filled only
+     * if they are {@code null}.
+     *
      * @param target target value
      * @param source source value
      * @param <T> type of value
@@ -71,17 +288,19 @@ public class OkAuthAutoConfigureUtils {
      */
     private static <T> T fillNullProperties(T target, T source) {
         if (target == null) { return source; }
+        if (source == null) { return target; }
         Arrays.stream(target.getClass().getDeclaredFields())
                 .filter(field -> !Modifier.isStatic(field.getModifiers()))
                 .forEach(field -> {
                     try {
                         field.setAccessible(true);
-                        Class<?> type = field.getType();
+                        Object targetValue = field.get(target);
+                        Object sourceValue = field.get(source);
                         Object value;
-                        if (type.isPrimitive() || Modifier.isFinal(type.getModifiers())) {
-                            value = field.get(source);
+                        if (field.isAnnotationPresent(NestedConfigurationProperty.class)) {
+                            value = fillNullProperties(targetValue, sourceValue);
                         } else {
-                            value = fillNullProperties(field.get(target), field.get(source));
+                            value = (targetValue == null) ? sourceValue : targetValue;
                         }
                         field.set(target, value);
                     } catch (IllegalAccessException e) {